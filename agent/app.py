@@ -14,7 +14,7 @@ ENV_FILE = os.path.join(BASE_DIR, '.env')
 load_dotenv(ENV_FILE)
 
 from llm_client import HelloAgentsLLM
-from mcp_tools import get_mcp_tools, execute_tool
+from mcp_tools import get_mcp_tools, execute_tools
 
 app = Flask(__name__)
 # 配置 CORS，允许前端跨域请求
@@ -179,8 +179,8 @@ def chat_stream():
             logger.warning(f"[{request_id}] 消息为空，返回错误")
             return jsonify({'error': '消息不能为空'}), 400
         
-        # 获取 MCP 工具定义
-        tools = get_mcp_tools()
+        # 获取 MCP 工具定义（由后端 /api/mcp 提供）
+        tools = get_mcp_tools(user_token)
         logger.info(f"[{request_id}] 已加载 {len(tools)} 个 MCP 工具")
         
         def generate():
@@ -197,6 +197,7 @@ def chat_stream():
 2. 查看、创建、更新、删除笔记
 
 当用户请求查看或操作待办事项和笔记时，你应该主动使用相应的工具。
+需要了解用户的整体情况时，先调用 get_summary 获取精简摘要，只有确实需要完整数据时才获取完整列表。
 操作完成后，用自然语言向用户说明操作结果。"""
                     }
                     # 检查是否已有系统消息
@@ -307,7 +308,8 @@ def chat_stream():
                         }
                         current_messages.append(assistant_message)
                         
-                        # 执行所有工具调用
+                        # 解析所有工具调用的参数
+                        calls = []
                         for idx, tool_call in enumerate(message.tool_calls, 1):
                             # 注意：这里 tool_call 是字典，不是对象，因为我们手动构造的
                             tool_name = tool_call['function']['name']
@@ -320,14 +322,16 @@ def chat_stream():
                                 logger.error(f"[{request_id}] 工具调用参数解析失败 {idx}/{len(message.tool_calls)}: {tool_name}")
                                 logger.error(f"[{request_id}]   错误: {str(e)}")
                                 logger.error(f"[{request_id}]   原始参数: {tool_call['function']['arguments']}")
-                            
-                            # 执行工具
-                            tool_start_time = datetime.now()
-                            tool_result = execute_tool(user_token, tool_name, arguments)
-                            tool_elapsed = (datetime.now() - tool_start_time).total_seconds()
-                            
-                            logger.info(f"[{request_id}] 工具执行完成，耗时: {tool_elapsed:.2f}秒")
-                            logger.info(f"[{request_id}]   成功: {tool_result.get('success', False)}")
+                            calls.append((tool_name, arguments))
+                        
+                        # 所有工具调用合并为一次后端请求执行
+                        tool_start_time = datetime.now()
+                        tool_results = execute_tools(user_token, calls)
+                        tool_elapsed = (datetime.now() - tool_start_time).total_seconds()
+                        logger.info(f"[{request_id}] 工具执行完成，耗时: {tool_elapsed:.2f}秒")
+                        
+                        for tool_call, (tool_name, _), tool_result in zip(message.tool_calls, calls, tool_results):
+                            logger.info(f"[{request_id}]   {tool_name} 成功: {tool_result.get('success', False)}")
                             if tool_result.get('success', False):
                                 # 记录成功的工具结果（截断长内容）
                                 result_str = json.dumps(tool_result, ensure_ascii=False)
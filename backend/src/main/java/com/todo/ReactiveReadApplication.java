@@ -0,0 +1,51 @@
+package com.todo;
+
+import com.todo.config.ReactiveReadConfig;
+import com.todo.controller.ReactiveReadHandler;
+import com.todo.repository.ReactiveTodoRepository;
+import com.todo.service.ReactiveReadService;
+import com.todo.util.JwtUtil;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.graphql.GraphQlAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+
+/**
+ * 响应式只读节点：GET /api/todos、/api/notes及按ID查询，R2DBC + WebFlux函数式路由（Netty），
+ * 少量事件循环线程即可服务大量慢客户端；写入和其他接口仍由TodoApplication（Servlet + JPA）提供，
+ * 两者连接同一个数据库，由前面的网关把这几个GET请求转发到本节点
+ * 启动：mvn spring-boot:run -Dspring-boot.run.main-class=com.todo.ReactiveReadApplication（端口todo.reactive.port）
+ */
+@SpringBootConfiguration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableAutoConfiguration(exclude = {
+        DataSourceAutoConfiguration.class,
+        DataSourceTransactionManagerAutoConfiguration.class,
+        JdbcTemplateAutoConfiguration.class,
+        HibernateJpaAutoConfiguration.class,
+        JpaRepositoriesAutoConfiguration.class,
+        GraphQlAutoConfiguration.class
+})
+// repository包中的JPA仓库不由R2DBC处理
+@EnableR2dbcRepositories(basePackageClasses = ReactiveTodoRepository.class,
+        includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = R2dbcRepository.class))
+@Import({ReactiveReadConfig.class, ReactiveReadHandler.class, ReactiveReadService.class, JwtUtil.class})
+public class ReactiveReadApplication {
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveReadApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .run(args);
+    }
+}
@@ -0,0 +1,81 @@
+package com.todo.config;
+
+import com.todo.service.CacheInvalidationService;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * broadcast模式下监听User/Todo/Note的增删改，事务提交后广播缓存失效
+ * 所有写入路径（包括每日任务重置、定时清理）都会经过这里，不需要在各个写方法里单独处理
+ */
+@Component
+@ConditionalOnProperty(name = "todo.cache.mode", havingValue = "broadcast")
+public class CacheInvalidationListener implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final transient EntityManagerFactory entityManagerFactory;
+    private final transient CacheInvalidationService cacheInvalidationService;
+
+    @Autowired
+    public CacheInvalidationListener(EntityManagerFactory entityManagerFactory,
+                                     CacheInvalidationService cacheInvalidationService) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.cacheInvalidationService = cacheInvalidationService;
+    }
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        // 新插入的行不在其他节点的实体缓存中，但会使其查询缓存过期
+        cacheInvalidationService.broadcast(event.getEntity().getClass(), event.getId());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        cacheInvalidationService.broadcast(event.getEntity().getClass(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        cacheInvalidationService.broadcast(event.getEntity().getClass(), event.getId());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return cacheInvalidationService.isTracked(persister.getMappedClass());
+    }
+}
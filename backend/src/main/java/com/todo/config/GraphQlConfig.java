@@ -0,0 +1,133 @@
+package com.todo.config;
+
+import graphql.GraphQLContext;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.UnknownOperationException;
+import graphql.execution.instrumentation.Instrumentation;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationValidationParameters;
+import graphql.language.NodeUtil;
+import graphql.language.OperationDefinition;
+import graphql.schema.Coercing;
+import graphql.schema.CoercingSerializeException;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLScalarType;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeUtil;
+import graphql.validation.ValidationError;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.graphql.execution.DataFetcherExceptionResolverAdapter;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.graphql.execution.RuntimeWiringConfigurer;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * GraphQL配置：DateTime标量、查询深度/复杂度限制，以及参数错误的返回格式
+ */
+@Configuration
+public class GraphQlConfig {
+
+    // 对象列表字段的复杂度倍数：按每个列表平均展开这么多个元素估算
+    private static final int LIST_FIELD_WEIGHT = 10;
+
+    @Value("${todo.graphql.max-depth:5}")
+    private int maxDepth;
+
+    @Value("${todo.graphql.max-complexity:500}")
+    private int maxComplexity;
+
+    @Bean
+    public RuntimeWiringConfigurer dateTimeScalarConfigurer() {
+        GraphQLScalarType dateTime = GraphQLScalarType.newScalar()
+                .name("DateTime")
+                .coercing(new Coercing<LocalDateTime, String>() {
+                    @Override
+                    public String serialize(Object value, GraphQLContext context, Locale locale) {
+                        if (value instanceof LocalDateTime dateTimeValue) {
+                            return DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(dateTimeValue);
+                        }
+                        throw new CoercingSerializeException("不是日期时间: " + value);
+                    }
+                })
+                .build();
+        return builder -> builder.scalar(dateTime);
+    }
+
+    /**
+     * schema中只有查询：mutation/subscription在校验阶段直接拒绝
+     * （深度/复杂度检查遇到schema中不存在的根类型会抛出断言异常，因此排在它们前面）
+     */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public Instrumentation queryOnlyInstrumentation() {
+        return new SimplePerformantInstrumentation() {
+            @Override
+            public InstrumentationContext<List<ValidationError>> beginValidation(InstrumentationValidationParameters parameters,
+                                                                                 InstrumentationState state) {
+                OperationDefinition operation;
+                try {
+                    operation = NodeUtil.getOperation(parameters.getDocument(), parameters.getOperation()).operationDefinition;
+                } catch (UnknownOperationException e) {
+                    throw new AbortExecutionException(e.getMessage());
+                }
+                if (operation.getOperation() != OperationDefinition.Operation.QUERY) {
+                    throw new AbortExecutionException("只支持查询（query）操作");
+                }
+                return super.beginValidation(parameters, state);
+            }
+        };
+    }
+
+    @Bean
+    public Instrumentation maxQueryDepthInstrumentation() {
+        return new MaxQueryDepthInstrumentation(maxDepth);
+    }
+
+    /**
+     * 标量字段计1，对象列表字段（todos、notes、steps）按(1 + 子字段复杂度) * 10计，
+     * 嵌套的列表会成倍放大，在执行前拒绝可能展开过多数据的查询
+     */
+    @Bean
+    public Instrumentation maxQueryComplexityInstrumentation() {
+        FieldComplexityCalculator calculator = (environment, childComplexity) -> {
+            GraphQLType type = GraphQLTypeUtil.unwrapNonNull(environment.getFieldDefinition().getType());
+            if (GraphQLTypeUtil.isList(type) && GraphQLTypeUtil.unwrapAll(type) instanceof GraphQLObjectType) {
+                return (1 + childComplexity) * LIST_FIELD_WEIGHT;
+            }
+            return 1 + childComplexity;
+        };
+        return new MaxQueryComplexityInstrumentation(maxComplexity, calculator);
+    }
+
+    @Bean
+    public DataFetcherExceptionResolverAdapter graphQlExceptionResolver() {
+        return new DataFetcherExceptionResolverAdapter() {
+            @Override
+            protected GraphQLError resolveToSingleError(Throwable ex, DataFetchingEnvironment env) {
+                if (ex instanceof IllegalArgumentException) {
+                    return GraphqlErrorBuilder.newError(env)
+                            .errorType(ErrorType.BAD_REQUEST)
+                            .message(ex.getMessage())
+                            .build();
+                }
+                return null;
+            }
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package com.todo.config;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.util.ClassUtils;
+
+/**
+ * GraalVM原生镜像的反射/资源提示（mvn -Pnative 构建时由Spring AOT读取，JVM运行时不起作用）
+ * Spring AOT已经处理了Bean、控制器参数/返回值和JPA实体的映射，这里只补充它看不到的反射用法
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    // jjwt-api通过类名实例化jjwt-impl中的实现类
+    static final String[] JJWT_IMPL_CLASSES = {
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+            "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+            "io.jsonwebtoken.impl.security.KeysBridge",
+            "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+            "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (String className : JJWT_IMPL_CLASSES) {
+            hints.reflection().registerType(TypeReference.of(className),
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.io.*");
+
+        // Hibernate二级缓存：JCache按类名加载Caffeine实现，配置来自application.conf
+        hints.reflection().registerType(TypeReference.of("com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider"),
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.resources().registerPattern("application.conf");
+        hints.resources().registerPattern("reference.conf");
+
+        // Knife4j页面（doc.html）及其静态资源
+        hints.resources().registerPattern("META-INF/resources/doc.html");
+        hints.resources().registerPattern("META-INF/resources/img/**");
+        hints.resources().registerPattern("META-INF/resources/webjars/**");
+
+        // 实体和DTO：MCP工具把它们序列化为JSON（不经过控制器返回值，AOT推断不到），
+        // JsonSchemaBuilder还会读取DTO的字段和注解生成inputSchema
+        BindingReflectionHintsRegistrar bindingHints = new BindingReflectionHintsRegistrar();
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter((reader, factory) -> !reader.getClassMetadata().isAnnotation());
+        for (String basePackage : new String[] {"com.todo.model", "com.todo.dto"}) {
+            for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+                Class<?> type = ClassUtils.resolveClassName(candidate.getBeanClassName(), classLoader);
+                bindingHints.registerReflectionHints(hints.reflection(), type);
+                hints.reflection().registerType(type, MemberCategory.DECLARED_FIELDS);
+            }
+        }
+    }
+}
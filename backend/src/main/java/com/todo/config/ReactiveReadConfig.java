@@ -0,0 +1,113 @@
+package com.todo.config;
+
+import com.todo.controller.ReactiveReadHandler;
+import com.todo.security.JwtReactiveAuthenticationManager;
+import com.todo.util.JwtUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.ServerAuthenticationEntryPoint;
+import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import org.springframework.security.web.server.authentication.ServerAuthenticationEntryPointFailureHandler;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 响应式只读节点（ReactiveReadApplication）的路由、认证和端口
+ */
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveReadConfig {
+
+    @Value("${todo.reactive.port:3002}")
+    private int port;
+
+    public ReactiveReadConfig(@Value("${todo.sharding.enabled:false}") boolean shardingEnabled) {
+        if (shardingEnabled) {
+            // 只读节点只连接spring.r2dbc.url一个库，不按用户路由分片
+            throw new IllegalStateException("响应式只读节点不支持分片部署（todo.sharding.enabled=true）");
+        }
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> reactiveReadRoutes(ReactiveReadHandler handler) {
+        return RouterFunctions.route()
+                .GET("/api/todos", handler::getTodos)
+                .GET("/api/todos/{id:\\d+}", handler::getTodoById)
+                .GET("/api/notes", handler::getNotes)
+                .GET("/api/notes/{id:\\d+}", handler::getNoteById)
+                .build();
+    }
+
+    @Bean
+    public SecurityWebFilterChain reactiveSecurityFilterChain(ServerHttpSecurity http, JwtUtil jwtUtil) {
+        ServerAuthenticationEntryPoint entryPoint = (exchange, e) -> {
+            exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+            exchange.getResponse().getHeaders().setContentType(MediaType.parseMediaType("application/json;charset=UTF-8"));
+            DataBuffer body = exchange.getResponse().bufferFactory()
+                    .wrap("{\"error\":\"未授权，请先登录\"}".getBytes(StandardCharsets.UTF_8));
+            return exchange.getResponse().writeWith(Mono.just(body));
+        };
+        JwtReactiveAuthenticationManager jwtAuthentication = new JwtReactiveAuthenticationManager(jwtUtil);
+        AuthenticationWebFilter jwtFilter = new AuthenticationWebFilter(jwtAuthentication);
+        jwtFilter.setServerAuthenticationConverter(jwtAuthentication);
+        jwtFilter.setAuthenticationFailureHandler(new ServerAuthenticationEntryPointFailureHandler(entryPoint));
+
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .cors(cors -> cors.configurationSource(corsConfigurationSource()))
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .authorizeExchange(exchanges -> exchanges
+                        .pathMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                        .pathMatchers("/actuator/health").permitAll()
+                        .anyExchange().authenticated())
+                .exceptionHandling(ex -> ex.authenticationEntryPoint(entryPoint))
+                .addFilterAt(jwtFilter, SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+
+    // 与WebConfig中主服务的CORS配置一致
+    private UrlBasedCorsConfigurationSource corsConfigurationSource() {
+        CorsConfiguration cors = new CorsConfiguration();
+        cors.setAllowedOrigins(List.of("*"));
+        cors.setAllowedMethods(List.of("GET", "OPTIONS"));
+        cors.setAllowedHeaders(List.of("*"));
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/api/**", cors);
+        return source;
+    }
+
+    // classpath中同时有Tomcat（主服务使用），这里明确使用Netty：连接由少量事件循环线程处理
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    // 与主服务共用配置文件，端口不用server.port而是单独配置（在默认的server.*定制之后执行）
+    @Bean
+    public WebServerFactoryCustomizer<NettyReactiveWebServerFactory> reactivePortCustomizer() {
+        return factory -> factory.setPort(port);
+    }
+}
@@ -0,0 +1,72 @@
+package com.todo.config;
+
+import com.todo.util.SecurityUtil;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 读写分离路由数据源
+ * 只读事务（@Transactional(readOnly = true)）走从库，其余走主库；
+ * 用户提交写事务后的一段时间内（read-your-writes窗口）该用户的只读事务仍走主库，避免读到复制延迟前的旧数据
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    private static final int CLEANUP_THRESHOLD = 10000;
+
+    private final long readYourWritesWindowMillis;
+
+    // 用户名 -> 最近一次写事务提交时间
+    private final Map<String, Long> lastWriteAt = new ConcurrentHashMap<>();
+
+    public ReplicaRoutingDataSource(long readYourWritesWindowMillis) {
+        this.readYourWritesWindowMillis = readYourWritesWindowMillis;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String username = SecurityUtil.getCurrentUsername();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            recordWriteOnCommit(username);
+            return PRIMARY;
+        }
+        return recentlyWrote(username) ? PRIMARY : REPLICA;
+    }
+
+    private void recordWriteOnCommit(String username) {
+        if (username == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lastWriteAt.put(username, System.currentTimeMillis());
+                if (lastWriteAt.size() > CLEANUP_THRESHOLD) {
+                    long cutoff = System.currentTimeMillis() - readYourWritesWindowMillis;
+                    lastWriteAt.values().removeIf(time -> time < cutoff);
+                }
+            }
+        });
+    }
+
+    private boolean recentlyWrote(String username) {
+        if (username == null) {
+            return false;
+        }
+        Long writtenAt = lastWriteAt.get(username);
+        if (writtenAt == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() - writtenAt > readYourWritesWindowMillis) {
+            lastWriteAt.remove(username, writtenAt);
+            return false;
+        }
+        return true;
+    }
+}
@@ -1,6 +1,8 @@
 package com.todo.config;
 
+import com.todo.security.IdempotencyFilter;
 import com.todo.security.JwtAuthenticationFilter;
+import com.todo.security.RateLimitFilter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,6 +16,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.http.HttpMethod;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 
 @Configuration
@@ -23,6 +26,12 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    @Autowired
+    private IdempotencyFilter idempotencyFilter;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -42,6 +51,9 @@ public class SecurityConfig {
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/swagger-ui/**", "/swagger-ui.html", "/v3/api-docs/**", "/doc.html", "/webjars/**").permitAll() // 允许访问Swagger和Knife4j文档
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll() // 允许CORS预检请求
+                .requestMatchers("/api/internal/cache/**", "/api/internal/shards/**").permitAll() // 内部接口，由共享令牌校验
+                .requestMatchers("/actuator/health").permitAll()
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll() // 异步响应（如GraphQL）的再次分派，原请求已经过认证
                 .anyRequest().authenticated()
             )
             .exceptionHandling(ex -> ex
@@ -56,7 +68,9 @@ public class SecurityConfig {
                     response.getWriter().write("{\"error\":\"访问被拒绝\"}");
                 })
             )
-            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class)
+            .addFilterAfter(idempotencyFilter, RateLimitFilter.class);
         
         return http.build();
     }
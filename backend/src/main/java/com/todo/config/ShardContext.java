@@ -0,0 +1,53 @@
+package com.todo.config;
+
+import java.util.function.Supplier;
+
+/**
+ * 当前线程绑定的数据分片
+ * 未设置时使用目录分片（分片0，即spring.datasource），用户、刷新令牌和分片目录都保存在目录分片
+ */
+public final class ShardContext {
+
+    public static final int DIRECTORY_SHARD = 0;
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    public static void set(Integer shardId) {
+        if (shardId == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shardId);
+        }
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * 在指定分片上执行，结束后恢复原来的分片
+     */
+    public static <T> T callOn(Integer shardId, Supplier<T> action) {
+        Integer previous = CURRENT.get();
+        set(shardId);
+        try {
+            return action.get();
+        } finally {
+            set(previous);
+        }
+    }
+
+    public static void runOn(Integer shardId, Runnable action) {
+        callOn(shardId, () -> {
+            action.run();
+            return null;
+        });
+    }
+}
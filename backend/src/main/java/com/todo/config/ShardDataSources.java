@@ -0,0 +1,49 @@
+package com.todo.config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 各分片的物理数据源（不经过路由，供分片复制和迁移直接使用）
+ */
+public class ShardDataSources {
+
+    private final Map<Integer, DataSource> dataSources;
+    private final Map<Integer, JdbcTemplate> jdbcTemplates = new TreeMap<>();
+    private final ShardingProperties properties;
+
+    public ShardDataSources(Map<Integer, DataSource> dataSources, ShardingProperties properties) {
+        this.dataSources = Collections.unmodifiableMap(new TreeMap<>(dataSources));
+        this.properties = properties;
+        dataSources.forEach((shardId, dataSource) -> jdbcTemplates.put(shardId, new JdbcTemplate(dataSource)));
+    }
+
+    public Set<Integer> shardIds() {
+        return dataSources.keySet();
+    }
+
+    public int size() {
+        return dataSources.size();
+    }
+
+    public JdbcTemplate jdbc(int shardId) {
+        JdbcTemplate jdbcTemplate = jdbcTemplates.get(shardId);
+        if (jdbcTemplate == null) {
+            throw new IllegalArgumentException("分片不存在: " + shardId);
+        }
+        return jdbcTemplate;
+    }
+
+    public Map<Integer, DataSource> asMap() {
+        return dataSources;
+    }
+
+    public ShardingProperties getProperties() {
+        return properties;
+    }
+}
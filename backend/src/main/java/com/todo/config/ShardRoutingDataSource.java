@@ -0,0 +1,15 @@
+package com.todo.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * 按用户分片路由的数据源，路由键来自ShardContext
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer shardId = ShardContext.current();
+        return shardId != null ? shardId : ShardContext.DIRECTORY_SHARD;
+    }
+}
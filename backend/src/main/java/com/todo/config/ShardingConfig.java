@@ -0,0 +1,116 @@
+package com.todo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.DelayedDropRegistryNotAvailableImpl;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按user_id分片的持久化配置，只有todo.sharding.enabled=true时启用
+ * 分片0（spring.datasource）是目录分片，保存用户、刷新令牌和用户->分片映射；所有分片都保存todos/notes，
+ * 以及所属用户在该分片上的一份users副本（满足外键）。
+ * 注意：各分片的自增ID必须全局不重复（例如MySQL的auto_increment_increment/auto_increment_offset），
+ * 迁移时会保留原ID，二级缓存也按ID缓存实体。
+ */
+@Configuration
+@ConditionalOnProperty(name = "todo.sharding.enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    // Hibernate启动时捕获的映射元数据，用于在其他分片上同步表结构
+    private static volatile Metadata metadata;
+
+    @Bean
+    public ShardDataSources shardDataSources(DataSourceProperties properties, ShardingProperties shardingProperties) {
+        Map<Integer, DataSource> dataSources = new HashMap<>();
+        HikariDataSource directory = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        directory.setPoolName("shard-0");
+        dataSources.put(ShardContext.DIRECTORY_SHARD, directory);
+
+        List<ShardingProperties.Shard> shards = shardingProperties.getShards();
+        for (int i = 0; i < shards.size(); i++) {
+            ShardingProperties.Shard shard = shards.get(i);
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(shard.getUrl())
+                    .username(shard.getUsername() != null ? shard.getUsername() : properties.getUsername())
+                    .password(shard.getPassword() != null ? shard.getPassword() : properties.getPassword())
+                    .build();
+            dataSource.setPoolName("shard-" + (i + 1));
+            dataSources.put(i + 1, dataSource);
+        }
+        return new ShardDataSources(dataSources, shardingProperties);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardDataSources shardDataSources) {
+        ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource();
+        routingDataSource.setTargetDataSources(new HashMap<>(shardDataSources.asMap()));
+        routingDataSource.setDefaultTargetDataSource(shardDataSources.asMap().get(ShardContext.DIRECTORY_SHARD));
+        routingDataSource.afterPropertiesSet();
+        return routingDataSource;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer shardMetadataCapture() {
+        Integrator integrator = new Integrator() {
+            @Override
+            public void integrate(Metadata bootMetadata, BootstrapContext bootstrapContext,
+                                  SessionFactoryImplementor sessionFactory) {
+                metadata = bootMetadata;
+            }
+
+            @Override
+            public void disintegrate(SessionFactoryImplementor sessionFactory,
+                                     SessionFactoryServiceRegistry serviceRegistry) {
+            }
+        };
+        return properties -> properties.put("hibernate.integrator_provider", (IntegratorProvider) () -> List.of(integrator));
+    }
+
+    /**
+     * Hibernate只会对目录分片执行ddl-auto，这里按同样的设置同步其余分片的表结构
+     */
+    @Bean
+    public SmartInitializingSingleton shardSchemaSynchronizer(
+            @Qualifier("entityManagerFactory") EntityManagerFactory entityManagerFactory,
+            ShardDataSources shardDataSources) {
+        return () -> {
+            SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+            Map<String, Object> settings = sessionFactory.getProperties();
+            for (Integer shardId : shardDataSources.shardIds()) {
+                if (shardId == ShardContext.DIRECTORY_SHARD || metadata == null) {
+                    continue;
+                }
+                ShardContext.runOn(shardId, () -> SchemaManagementToolCoordinator.process(
+                        metadata, sessionFactory.getServiceRegistry(), settings,
+                        DelayedDropRegistryNotAvailableImpl.INSTANCE));
+            }
+        };
+    }
+}
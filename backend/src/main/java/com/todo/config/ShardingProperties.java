@@ -0,0 +1,99 @@
+package com.todo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分片配置
+ * 分片0固定为spring.datasource（目录分片），shards列表依次为分片1、2……
+ */
+@ConfigurationProperties(prefix = "todo.sharding")
+public class ShardingProperties {
+
+    private boolean enabled = false;
+
+    // 目录分片之外的数据分片
+    private List<Shard> shards = new ArrayList<>();
+
+    // 用户->分片映射在本地的缓存时间，迁移时会等待该时间让所有节点看到新的映射
+    private Duration directoryCacheTtl = Duration.ofSeconds(5);
+
+    // 分片管理接口的访问令牌
+    private String adminToken = "";
+
+    // 迁移时每批复制的行数
+    private int migrationBatchSize = 500;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    public void setShards(List<Shard> shards) {
+        this.shards = shards;
+    }
+
+    public Duration getDirectoryCacheTtl() {
+        return directoryCacheTtl;
+    }
+
+    public void setDirectoryCacheTtl(Duration directoryCacheTtl) {
+        this.directoryCacheTtl = directoryCacheTtl;
+    }
+
+    public String getAdminToken() {
+        return adminToken;
+    }
+
+    public void setAdminToken(String adminToken) {
+        this.adminToken = adminToken;
+    }
+
+    public int getMigrationBatchSize() {
+        return migrationBatchSize;
+    }
+
+    public void setMigrationBatchSize(int migrationBatchSize) {
+        this.migrationBatchSize = migrationBatchSize;
+    }
+
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+    }
+}
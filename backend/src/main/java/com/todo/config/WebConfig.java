@@ -1,10 +1,16 @@
 package com.todo.config;
 
+import com.todo.util.WireFormats;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.lang.NonNull;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
@@ -15,5 +21,16 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS")
                 .allowedHeaders("*");
     }
-}
 
+    /**
+     * 二进制响应格式：Accept为application/cbor或application/x-jackson-smile时按对应格式编码（直接写入响应输出流），
+     * 其他情况仍返回JSON。Spring在类路径上有CBOR/Smile时会注册默认的转换器，这里换成WireFormats中配置的版本
+     */
+    @Override
+    public void extendMessageConverters(@NonNull List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(WireFormats.cborMapper()));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(WireFormats.smileMapper()));
+    }
+}
@@ -0,0 +1,61 @@
+package com.todo.controller;
+
+import com.todo.dto.ActivityPageResponse;
+import com.todo.service.ActivityService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/activity")
+@CrossOrigin(origins = "*")
+@Tag(name = "操作记录", description = "待办事项和笔记的增删改记录及撤销")
+@SecurityRequirement(name = "Bearer Authentication")
+public class ActivityController {
+
+    private final ActivityService activityService;
+
+    @Autowired
+    public ActivityController(ActivityService activityService) {
+        this.activityService = activityService;
+    }
+
+    @Operation(summary = "获取操作记录", description = "按时间倒序分页返回当前用户的待办事项和笔记的增删改记录")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "获取成功",
+                    content = @Content(schema = @Schema(implementation = ActivityPageResponse.class))),
+            @ApiResponse(responseCode = "400", description = "分页游标格式错误")
+    })
+    @GetMapping
+    public ResponseEntity<ActivityPageResponse> getActivity(
+            @Parameter(description = "分页游标（上一页返回的nextCursor），为空时返回第一页", example = "42")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页条数（不超过200）", example = "50")
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(activityService.getActivity(cursor, limit));
+    }
+
+    @Operation(summary = "撤销操作", description = "撤销一条操作记录：删除新建的条目、恢复修改前的内容或重新创建被删除的条目（分配新ID）。"
+            + "撤销本身也会产生操作记录，可以再撤销")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "撤销成功，返回恢复后的待办事项或笔记"),
+            @ApiResponse(responseCode = "204", description = "撤销成功（撤销的是创建操作，条目已删除）"),
+            @ApiResponse(responseCode = "400", description = "该操作已撤销"),
+            @ApiResponse(responseCode = "404", description = "操作记录或对应的条目不存在")
+    })
+    @PostMapping("/{id}/undo")
+    public ResponseEntity<Object> undo(
+            @Parameter(description = "操作记录ID", required = true, example = "1")
+            @PathVariable Long id) {
+        Object restored = activityService.undo(id);
+        return restored != null ? ResponseEntity.ok(restored) : ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,42 @@
+package com.todo.controller;
+
+import com.todo.service.DigestService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/agent")
+@CrossOrigin(origins = "*")
+@Tag(name = "智能体接口", description = "为LLM智能体提供的精简数据接口")
+@SecurityRequirement(name = "Bearer Authentication")
+public class AgentController {
+
+    private final DigestService digestService;
+
+    @Autowired
+    public AgentController(DigestService digestService) {
+        this.digestService = digestService;
+    }
+
+    @Operation(summary = "获取摘要", description = "返回按重要性排序、有大小上限的摘要：已逾期、今天到期、高优先级的待办事项和最近编辑的笔记（截断的片段），"
+            + "以及未完成任务和笔记的总数；超出字节预算的条目被舍弃并计入omitted")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "获取成功")
+    })
+    @GetMapping(value = "/summary", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getSummary(
+            @Parameter(description = "响应大小上限（字节，UTF-8），取值范围256~16384", example = "2048")
+            @RequestParam(defaultValue = "" + DigestService.DEFAULT_MAX_BYTES) int maxBytes) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(digestService.getDigest(maxBytes));
+    }
+}
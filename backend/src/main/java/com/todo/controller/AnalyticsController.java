@@ -0,0 +1,51 @@
+package com.todo.controller;
+
+import com.todo.dto.AnalyticsBucket;
+import com.todo.service.AnalyticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = "*")
+@Tag(name = "效率统计", description = "按日、周、月、年汇总的完成、新建、逾期数量和完成的预计时长")
+@SecurityRequirement(name = "Bearer Authentication")
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+
+    @Autowired
+    public AnalyticsController(AnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+    }
+
+    @Operation(summary = "获取效率统计", description = "返回日期范围内每个周期的统计（最多366个周期），数据来自预聚合表；逾期数由每晚的补算写入")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "获取成功",
+                    content = @Content(schema = @Schema(implementation = AnalyticsBucket.class))),
+            @ApiResponse(responseCode = "400", description = "日期范围或粒度错误")
+    })
+    @GetMapping
+    public ResponseEntity<List<AnalyticsBucket>> getAnalytics(
+            @Parameter(description = "开始日期", required = true, example = "2024-01-01")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "结束日期（含）", required = true, example = "2024-12-31")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "粒度：day、week、month、year", example = "week")
+            @RequestParam(required = false) String granularity) {
+        return ResponseEntity.ok(analyticsService.getAnalytics(from, to, granularity));
+    }
+}
@@ -2,6 +2,7 @@ package com.todo.controller;
 
 import com.todo.dto.AuthResponse;
 import com.todo.dto.LoginRequest;
+import com.todo.dto.RefreshTokenRequest;
 import com.todo.dto.RegisterRequest;
 import com.todo.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -63,6 +64,33 @@ public class AuthController {
         }
     }
 
+    @Operation(summary = "刷新访问令牌", description = "使用刷新令牌换取新的访问令牌，同时轮换刷新令牌")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "刷新成功",
+                    content = @Content(schema = @Schema(implementation = AuthResponse.class))),
+            @ApiResponse(responseCode = "401", description = "刷新令牌无效、已过期或已被撤销")
+    })
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        try {
+            AuthResponse response = authService.refresh(request.getRefreshToken());
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    @Operation(summary = "用户注销", description = "撤销刷新令牌，之后该令牌不能再换取访问令牌")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "注销成功")
+    })
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@Valid @RequestBody RefreshTokenRequest request) {
+        authService.logout(request.getRefreshToken());
+        return ResponseEntity.noContent().build();
+    }
+
     // 内部错误响应类
     private static class ErrorResponse {
         private final String message;
@@ -0,0 +1,46 @@
+package com.todo.controller;
+
+import com.todo.service.CacheInvalidationService;
+import io.swagger.v3.oas.annotations.Hidden;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * 节点间缓存失效接口，仅在broadcast模式下启用，通过共享令牌校验
+ */
+@RestController
+@RequestMapping("/api/internal/cache")
+@Hidden
+@ConditionalOnProperty(name = "todo.cache.mode", havingValue = "broadcast")
+public class CacheController {
+
+    private final CacheInvalidationService cacheInvalidationService;
+
+    @Autowired
+    public CacheController(CacheInvalidationService cacheInvalidationService) {
+        this.cacheInvalidationService = cacheInvalidationService;
+    }
+
+    @PostMapping("/evict")
+    public ResponseEntity<Void> evict(
+            @RequestHeader(value = CacheInvalidationService.TOKEN_HEADER, required = false) String token,
+            @RequestBody Map<String, Object> request) {
+        if (!cacheInvalidationService.isValidToken(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (request.get("cache") instanceof String name) {
+            Object userId = request.get("userId");
+            cacheInvalidationService.evictUserLocal(name, userId instanceof Number ? ((Number) userId).longValue() : null);
+            return ResponseEntity.noContent().build();
+        }
+        Object id = request.get("id");
+        cacheInvalidationService.evictLocal((String) request.get("entity"),
+                id instanceof Number ? ((Number) id).longValue() : null);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,90 @@
+package com.todo.controller;
+
+import com.todo.service.DataTransferService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = "*")
+@Tag(name = "数据导入导出", description = "以NDJSON格式导出/导入当前用户的待办事项和笔记")
+@SecurityRequirement(name = "Bearer Authentication")
+public class DataTransferController {
+
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String GZIP = "application/gzip";
+
+    private final DataTransferService dataTransferService;
+
+    @Autowired
+    public DataTransferController(DataTransferService dataTransferService) {
+        this.dataTransferService = dataTransferService;
+    }
+
+    @Operation(summary = "导出数据", description = "流式导出当前用户的全部待办事项和笔记，每行一条JSON记录")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "导出成功")
+    })
+    @GetMapping("/export")
+    public void exportData(
+            @Parameter(description = "是否gzip压缩", example = "false")
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"todo-export.ndjson" + (gzip ? ".gz" : "") + "\"");
+        if (gzip) {
+            // 作为gzip文件下载而不是Content-Encoding：客户端不会透明解压，保存的.gz文件可以原样用gzip=true导入
+            response.setContentType(GZIP);
+            try (GZIPOutputStream out = new GZIPOutputStream(response.getOutputStream())) {
+                dataTransferService.exportCurrentUser(out);
+            }
+        } else {
+            response.setContentType(NDJSON);
+            response.setCharacterEncoding("UTF-8");
+            OutputStream out = response.getOutputStream();
+            dataTransferService.exportCurrentUser(out);
+            out.flush();
+        }
+    }
+
+    @Operation(summary = "导入数据", description = "导入NDJSON数据；已存在的记录（按ID或importKey匹配）会被更新，重复导入不会产生重复数据")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "导入成功，返回插入/更新/跳过的条数"),
+            @ApiResponse(responseCode = "400", description = "数据格式错误")
+    })
+    @PostMapping(value = "/import", consumes = {NDJSON, "application/json", GZIP, "text/plain"})
+    public ResponseEntity<?> importData(
+            @Parameter(description = "请求体是否为gzip压缩（也可使用Content-Type: application/gzip或Content-Encoding: gzip）", example = "false")
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletRequest request) {
+        boolean compressed = gzip || "gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING))
+                || (request.getContentType() != null && request.getContentType().startsWith(GZIP));
+        try (InputStream in = compressed
+                ? new GZIPInputStream(request.getInputStream())
+                : request.getInputStream()) {
+            Map<String, Integer> result = dataTransferService.importCurrentUser(in);
+            return ResponseEntity.ok(result);
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "数据格式错误: " + e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.todo.controller;
+
+import com.todo.dto.DailyStreak;
+import com.todo.dto.TodoStats;
+import com.todo.model.Note;
+import com.todo.model.Todo;
+import com.todo.model.TodoStep;
+import com.todo.service.DailyHistoryService;
+import com.todo.service.NoteService;
+import com.todo.service.TodoService;
+import com.todo.service.TodoStepService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.stereotype.Controller;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GraphQL查询（schema见resources/graphql/schema.graphqls）
+ * 列表查询本身不加载子任务、标签和连续完成记录；选择了steps/tags/streak字段时，同一层的所有待办事项/笔记合并为一次批量加载
+ */
+@Controller
+public class GraphQlController {
+
+    private final TodoService todoService;
+    private final TodoStepService todoStepService;
+    private final NoteService noteService;
+    private final DailyHistoryService dailyHistoryService;
+
+    @Autowired
+    public GraphQlController(TodoService todoService, TodoStepService todoStepService, NoteService noteService,
+                             DailyHistoryService dailyHistoryService) {
+        this.todoService = todoService;
+        this.todoStepService = todoStepService;
+        this.noteService = noteService;
+        this.dailyHistoryService = dailyHistoryService;
+    }
+
+    @QueryMapping
+    public List<Todo> todos(@Argument String filter, @Argument String tags, @Argument String priority) {
+        return todoService.findTodos(filter, tags, priority);
+    }
+
+    @QueryMapping
+    public Todo todo(@Argument Long id) {
+        return todoService.findTodoById(id).orElse(null);
+    }
+
+    @QueryMapping
+    public List<Note> notes(@Argument String tags) {
+        return noteService.findNotes(tags);
+    }
+
+    @QueryMapping
+    public Note note(@Argument Long id) {
+        return noteService.findNoteById(id).orElse(null);
+    }
+
+    @QueryMapping
+    public TodoStats todoStats() {
+        return todoService.getStats();
+    }
+
+    @QueryMapping
+    public long noteCount() {
+        return noteService.countNotes();
+    }
+
+    @BatchMapping(typeName = "Todo", field = "steps")
+    public Map<Todo, List<TodoStep>> steps(List<Todo> todos) {
+        Map<Long, List<TodoStep>> byTodo = todoStepService.getStepsOf(todos);
+        Map<Todo, List<TodoStep>> result = new LinkedHashMap<>();
+        for (Todo todo : todos) {
+            result.put(todo, byTodo.getOrDefault(todo.getId(), List.of()));
+        }
+        return result;
+    }
+
+    @BatchMapping(typeName = "Todo", field = "tags")
+    public Map<Todo, List<String>> todoTags(List<Todo> todos) {
+        Map<Long, List<String>> byTodo = todoService.getTagsOf(todos.stream().map(Todo::getId).toList());
+        Map<Todo, List<String>> result = new LinkedHashMap<>();
+        for (Todo todo : todos) {
+            result.put(todo, byTodo.getOrDefault(todo.getId(), List.of()));
+        }
+        return result;
+    }
+
+    @BatchMapping(typeName = "Todo", field = "streak")
+    public Map<Todo, DailyStreak> streaks(List<Todo> todos) {
+        dailyHistoryService.attachStreaks(todos);
+        Map<Todo, DailyStreak> result = new LinkedHashMap<>();
+        for (Todo todo : todos) {
+            result.put(todo, todo.getStreak());
+        }
+        return result;
+    }
+
+    @BatchMapping(typeName = "Note", field = "tags")
+    public Map<Note, List<String>> noteTags(List<Note> notes) {
+        Map<Long, List<String>> byNote = noteService.getTagsOf(notes.stream().map(Note::getId).toList());
+        Map<Note, List<String>> result = new LinkedHashMap<>();
+        for (Note note : notes) {
+            result.put(note, byNote.getOrDefault(note.getId(), List.of()));
+        }
+        return result;
+    }
+}
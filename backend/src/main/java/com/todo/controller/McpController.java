@@ -0,0 +1,130 @@
+package com.todo.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.todo.security.RateLimitFilter;
+import com.todo.service.McpService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/mcp")
+@CrossOrigin(origins = "*")
+@Tag(name = "MCP工具接口", description = "MCP（Model Context Protocol）兼容的JSON-RPC工具接口，供LLM智能体直接调用")
+@SecurityRequirement(name = "Bearer Authentication")
+public class McpController {
+
+    private final McpService mcpService;
+    private final RateLimitFilter rateLimitFilter;
+    private final ObjectMapper objectMapper;
+
+    @Value("${todo.mcp.max-batch-size:20}")
+    private int maxBatchSize;
+
+    @Autowired
+    public McpController(McpService mcpService, RateLimitFilter rateLimitFilter, ObjectMapper objectMapper) {
+        this.mcpService = mcpService;
+        this.rateLimitFilter = rateLimitFilter;
+        this.objectMapper = objectMapper;
+    }
+
+    @Operation(summary = "MCP JSON-RPC请求", description = "支持initialize、ping、tools/list、tools/call；请求体可以是JSON-RPC批量数组，"
+            + "一次往返执行多个工具调用，各调用独立提交，互不影响。Accept只接受text/event-stream时以SSE逐条返回结果，否则返回JSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "JSON-RPC响应（批量请求返回数组）"),
+            @ApiResponse(responseCode = "202", description = "请求中只有通知，没有需要返回的响应"),
+            @ApiResponse(responseCode = "429", description = "请求中的工具调用数超出读或写的配额")
+    })
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<JsonNode> handle(@RequestBody String body,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                           HttpServletRequest request,
+                                           HttpServletResponse response) throws IOException {
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(body);
+        } catch (JsonProcessingException e) {
+            return ResponseEntity.ok(mcpService.error(null, McpService.PARSE_ERROR, "JSON解析失败"));
+        }
+        if (root == null || (root.isArray() && root.isEmpty())) {
+            return ResponseEntity.ok(mcpService.error(null, McpService.INVALID_REQUEST, "请求为空"));
+        }
+        if (root.isArray() && root.size() > maxBatchSize) {
+            return ResponseEntity.ok(mcpService.error(null, McpService.INVALID_REQUEST, "批量请求最多" + maxBatchSize + "条"));
+        }
+        List<JsonNode> messages = new ArrayList<>();
+        if (root.isArray()) {
+            root.forEach(messages::add);
+        } else {
+            messages.add(root);
+        }
+        // 批量请求中的每个工具调用分别计入读或写的配额（只读工具计入读配额），超出时整批返回429
+        int reads = 0;
+        int writes = 0;
+        for (JsonNode message : messages) {
+            if ("tools/call".equals(message.path("method").asText())) {
+                if (mcpService.isReadOnlyTool(message.path("params").path("name").asText())) {
+                    reads++;
+                } else {
+                    writes++;
+                }
+            }
+        }
+        if (!rateLimitFilter.acquireOperations(request, response, reads, writes)) {
+            return null;
+        }
+
+        if (wantsEventStream(accept)) {
+            // 每完成一个调用就推送一条message事件，客户端不必等整批结束
+            response.setContentType(MediaType.TEXT_EVENT_STREAM_VALUE + ";charset=UTF-8");
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            PrintWriter writer = response.getWriter();
+            for (JsonNode message : messages) {
+                ObjectNode reply = mcpService.handle(message);
+                if (reply != null) {
+                    writer.write("event: message\ndata: " + objectMapper.writeValueAsString(reply) + "\n\n");
+                    writer.flush();
+                }
+            }
+            return null;
+        }
+
+        ArrayNode replies = objectMapper.createArrayNode();
+        for (JsonNode message : messages) {
+            ObjectNode reply = mcpService.handle(message);
+            if (reply != null) {
+                // 工具返回的isError是确定的结果，和成功的调用一起作为幂等响应保存，重试时整批回放而不是重新执行
+                replies.add(reply);
+            }
+        }
+        if (replies.isEmpty()) {
+            return ResponseEntity.accepted().build();
+        }
+        return ResponseEntity.ok(root.isArray() ? replies : replies.get(0));
+    }
+
+    private boolean wantsEventStream(String accept) {
+        return accept != null
+                && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE)
+                && !accept.contains(MediaType.APPLICATION_JSON_VALUE);
+    }
+}
@@ -1,5 +1,6 @@
 package com.todo.controller;
 
+import com.todo.dto.NoteDraftResponse;
 import com.todo.dto.NoteRequest;
 import com.todo.exception.NoteNotFoundException;
 import com.todo.model.Note;
@@ -35,14 +36,17 @@ public class NoteController {
         this.noteService = noteService;
     }
 
-    @Operation(summary = "获取所有笔记", description = "获取当前用户的所有笔记")
+    @Operation(summary = "获取所有笔记", description = "获取当前用户的所有笔记，支持按标签表达式筛选")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "获取成功",
-                    content = @Content(schema = @Schema(implementation = Note.class)))
+                    content = @Content(schema = @Schema(implementation = Note.class))),
+            @ApiResponse(responseCode = "400", description = "标签表达式格式错误")
     })
     @GetMapping
-    public ResponseEntity<List<Note>> getAllNotes() {
-        return ResponseEntity.ok(noteService.getAllNotes());
+    public ResponseEntity<List<Note>> getAllNotes(
+            @Parameter(description = "标签表达式：标签名用 AND/OR/NOT（& | !）和括号组合，空格分隔视为AND", example = "work OR meeting")
+            @RequestParam(required = false) String tags) {
+        return ResponseEntity.ok(noteService.getAllNotes(tags));
     }
 
     @Operation(summary = "根据ID获取笔记", description = "根据笔记ID获取详细信息")
@@ -126,6 +130,38 @@ public class NoteController {
         return ResponseEntity.ok(savedNote);
     }
 
+    @Operation(summary = "自动保存笔记", description = "编辑器自动保存使用：只写入服务端内存草稿并立即返回版本号，几秒内合并批量写入数据库；"
+            + "请求体为 {\"title\": ..., \"content\": ...}，未提供的字段不修改；读取笔记时会看到最新的草稿")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "已接受",
+                    content = @Content(schema = @Schema(implementation = NoteDraftResponse.class))),
+            @ApiResponse(responseCode = "400", description = "标题为空或过长，或字段不是字符串"),
+            @ApiResponse(responseCode = "404", description = "笔记不存在")
+    })
+    @PutMapping("/{id}/draft")
+    public ResponseEntity<NoteDraftResponse> autosaveNote(
+            @Parameter(description = "笔记ID", required = true, example = "1")
+            @PathVariable Long id,
+            @RequestBody Map<String, Object> updates) {
+        NoteDraftResponse draft = noteService.autosaveNote(id,
+                stringField(updates, "title"), stringField(updates, "content"));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(draft);
+    }
+
+
+    @Operation(summary = "提交自动保存的草稿", description = "立即把该笔记的自动保存草稿写入数据库（离开编辑器时调用），没有草稿时直接返回笔记")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "提交成功",
+                    content = @Content(schema = @Schema(implementation = Note.class))),
+            @ApiResponse(responseCode = "404", description = "笔记不存在")
+    })
+    @PostMapping("/{id}/commit")
+    public ResponseEntity<Note> commitNote(
+            @Parameter(description = "笔记ID", required = true, example = "1")
+            @PathVariable Long id) {
+        return ResponseEntity.ok(noteService.commitNote(id));
+    }
+
     @Operation(summary = "删除笔记", description = "根据ID删除笔记")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "删除成功"),
@@ -138,4 +174,12 @@ public class NoteController {
         noteService.deleteNote(id);
         return ResponseEntity.noContent().build();
     }
+
+    private String stringField(Map<String, Object> updates, String name) {
+        Object value = updates.get(name);
+        if (value != null && !(value instanceof String)) {
+            throw new IllegalArgumentException("字段 " + name + " 必须是字符串");
+        }
+        return (String) value;
+    }
 }
@@ -0,0 +1,100 @@
+package com.todo.controller;
+
+import com.todo.dto.NoteView;
+import com.todo.dto.TodoView;
+import com.todo.service.ReactiveReadService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 响应式只读节点的处理函数（路由见ReactiveReadConfig）
+ * 请求头Accept为application/x-ndjson时列表按行输出（每行一个JSON对象），否则返回与主服务相同的JSON数组
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveReadHandler {
+
+    private final ReactiveReadService readService;
+
+    @Autowired
+    public ReactiveReadHandler(ReactiveReadService readService) {
+        this.readService = readService;
+    }
+
+    public Mono<ServerResponse> getTodos(ServerRequest request) {
+        String tags = request.queryParam("tags").orElse(null);
+        if (tags != null && !tags.isBlank()) {
+            // 标签位图索引只在主服务内存中
+            return badRequest("只读节点不支持按标签筛选，请求主服务");
+        }
+        return currentUserId(request)
+                .flatMap(userId -> list(request, readService.getTodos(userId,
+                        request.queryParam("filter").orElse(null), request.queryParam("priority").orElse(null)), TodoView.class))
+                .onErrorResume(IllegalArgumentException.class, e -> badRequest(e.getMessage()));
+    }
+
+    public Mono<ServerResponse> getTodoById(ServerRequest request) {
+        Long id = pathId(request);
+        if (id == null) {
+            return badRequest("ID格式错误: " + request.pathVariable("id"));
+        }
+        return currentUserId(request)
+                .flatMap(userId -> readService.getTodo(userId, id))
+                .flatMap(todo -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(todo))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    public Mono<ServerResponse> getNotes(ServerRequest request) {
+        String tags = request.queryParam("tags").orElse(null);
+        if (tags != null && !tags.isBlank()) {
+            return badRequest("只读节点不支持按标签筛选，请求主服务");
+        }
+        return currentUserId(request).flatMap(userId -> list(request, readService.getNotes(userId), NoteView.class));
+    }
+
+    public Mono<ServerResponse> getNoteById(ServerRequest request) {
+        Long id = pathId(request);
+        if (id == null) {
+            return badRequest("ID格式错误: " + request.pathVariable("id"));
+        }
+        return currentUserId(request)
+                .flatMap(userId -> readService.getNote(userId, id))
+                .flatMap(note -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(note))
+                .switchIfEmpty(ServerResponse.status(404).contentType(MediaType.TEXT_PLAIN).bodyValue("笔记未找到: " + id));
+    }
+
+    private <T> Mono<ServerResponse> list(ServerRequest request, Flux<T> items, Class<T> type) {
+        boolean ndjson = request.headers().accept().stream()
+                .anyMatch(mediaType -> mediaType.equalsTypeAndSubtype(MediaType.APPLICATION_NDJSON));
+        return ServerResponse.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(items, type);
+    }
+
+    // 主服务对非数字的ID返回400，这里保持一致（不让NumberFormatException变成500）
+    private Long pathId(ServerRequest request) {
+        try {
+            return Long.valueOf(request.pathVariable("id"));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private Mono<ServerResponse> badRequest(String message) {
+        return ServerResponse.badRequest().contentType(MediaType.TEXT_PLAIN).bodyValue(message);
+    }
+
+    // 认证由ReactiveReadConfig中的JWT过滤器完成，principal为令牌中的userId
+    private Mono<Long> currentUserId(ServerRequest request) {
+        return request.principal()
+                .cast(Authentication.class)
+                .map(authentication -> (Long) authentication.getPrincipal());
+    }
+}
@@ -0,0 +1,43 @@
+package com.todo.controller;
+
+import com.todo.model.User;
+import com.todo.repository.UserRepository;
+import com.todo.service.SseReminderChannel;
+import com.todo.util.SecurityUtil;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/reminders")
+@CrossOrigin(origins = "*")
+@Tag(name = "截止时间提醒", description = "订阅待办事项的即将到期/已逾期提醒")
+@SecurityRequirement(name = "Bearer Authentication")
+public class ReminderController {
+
+    private final SseReminderChannel sseReminderChannel;
+    private final UserRepository userRepository;
+
+    @Autowired
+    public ReminderController(SseReminderChannel sseReminderChannel, UserRepository userRepository) {
+        this.sseReminderChannel = sseReminderChannel;
+        this.userRepository = userRepository;
+    }
+
+    @Operation(summary = "订阅提醒", description = "以Server-Sent Events推送当前用户的提醒，事件名为reminder")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "订阅成功")
+    })
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        User currentUser = userRepository.findByUsername(SecurityUtil.getCurrentUsername())
+                .orElseThrow(() -> new RuntimeException("用户不存在"));
+        return sseReminderChannel.subscribe(currentUser.getId());
+    }
+}
@@ -0,0 +1,70 @@
+package com.todo.controller;
+
+import com.todo.config.ShardDataSources;
+import com.todo.service.ShardMigrationService;
+import io.swagger.v3.oas.annotations.Hidden;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * 分片管理接口（迁移、再平衡、统计），通过todo.sharding.admin-token校验
+ */
+@RestController
+@RequestMapping("/api/internal/shards")
+@Hidden
+@ConditionalOnProperty(name = "todo.sharding.enabled", havingValue = "true")
+public class ShardAdminController {
+
+    private static final String TOKEN_HEADER = "X-Admin-Token";
+
+    private final ShardMigrationService shardMigrationService;
+    private final String adminToken;
+
+    @Autowired
+    public ShardAdminController(ShardMigrationService shardMigrationService, ShardDataSources shardDataSources) {
+        this.shardMigrationService = shardMigrationService;
+        this.adminToken = shardDataSources.getProperties().getAdminToken();
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<?> stats(@RequestHeader(value = TOKEN_HEADER, required = false) String token) {
+        if (!isAuthorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(shardMigrationService.stats());
+    }
+
+    @PostMapping("/migrate")
+    public ResponseEntity<?> migrate(
+            @RequestHeader(value = TOKEN_HEADER, required = false) String token,
+            @RequestParam Long userId,
+            @RequestParam int targetShard) {
+        if (!isAuthorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        try {
+            return ResponseEntity.ok(shardMigrationService.migrateUser(userId, targetShard));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/rebalance")
+    public ResponseEntity<?> rebalance(
+            @RequestHeader(value = TOKEN_HEADER, required = false) String token,
+            @RequestParam(defaultValue = "10") int maxMoves) {
+        if (!isAuthorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.accepted().body(shardMigrationService.rebalance(maxMoves));
+    }
+
+    private boolean isAuthorized(String token) {
+        return !adminToken.isEmpty() && adminToken.equals(token);
+    }
+}
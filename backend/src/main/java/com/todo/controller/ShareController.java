@@ -0,0 +1,138 @@
+package com.todo.controller;
+
+import com.todo.dto.ShareRequest;
+import com.todo.dto.ShareResponse;
+import com.todo.dto.TodoRequest;
+import com.todo.model.Todo;
+import com.todo.service.ListShareService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/shares")
+@CrossOrigin(origins = "*")
+@Tag(name = "共享列表", description = "把一个标签下的待办事项共享给其他用户（VIEWER只读、EDITOR可编辑）")
+@SecurityRequirement(name = "Bearer Authentication")
+public class ShareController {
+
+    private final ListShareService listShareService;
+
+    @Autowired
+    public ShareController(ListShareService listShareService) {
+        this.listShareService = listShareService;
+    }
+
+    @Operation(summary = "获取共享列表", description = "当前用户共享出去的和共享给当前用户的列表")
+    @ApiResponse(responseCode = "200", description = "获取成功",
+            content = @Content(schema = @Schema(implementation = ShareResponse.class)))
+    @GetMapping
+    public ResponseEntity<List<ShareResponse>> getShares() {
+        return ResponseEntity.ok(listShareService.getShares());
+    }
+
+    @Operation(summary = "共享列表", description = "把当前用户的一个标签共享给另一个用户；已共享给该用户时修改角色")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "共享成功",
+                    content = @Content(schema = @Schema(implementation = ShareResponse.class))),
+            @ApiResponse(responseCode = "400", description = "标签或用户不存在、角色错误")
+    })
+    @PostMapping
+    public ResponseEntity<ShareResponse> share(@Valid @RequestBody ShareRequest request) {
+        return ResponseEntity.ok(listShareService.share(request.getList(), request.getUsername(), request.getRole()));
+    }
+
+    @Operation(summary = "取消共享", description = "所有者移除成员，或成员退出共享列表")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "取消成功"),
+            @ApiResponse(responseCode = "404", description = "共享不存在")
+    })
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> unshare(
+            @Parameter(description = "共享ID", required = true, example = "1")
+            @PathVariable Long id) {
+        listShareService.unshare(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "获取共享列表中的待办事项", description = "成员查看共享给自己的列表，支持按状态和优先级筛选")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "获取成功",
+                    content = @Content(schema = @Schema(implementation = Todo.class))),
+            @ApiResponse(responseCode = "404", description = "共享不存在")
+    })
+    @GetMapping("/{id}/todos")
+    public ResponseEntity<List<Todo>> getTodos(
+            @Parameter(description = "共享ID", required = true, example = "1")
+            @PathVariable Long id,
+            @Parameter(description = "筛选条件：all(全部)、active(未完成)、completed(已完成)", example = "all")
+            @RequestParam(required = false) String filter,
+            @Parameter(description = "优先级：LOW、MEDIUM、HIGH", example = "HIGH")
+            @RequestParam(required = false) String priority) {
+        return ResponseEntity.ok(listShareService.getTodos(id, filter, priority));
+    }
+
+    @Operation(summary = "在共享列表中创建待办事项", description = "EDITOR成员创建的待办事项属于列表所有者，并带上列表的标签")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "创建成功",
+                    content = @Content(schema = @Schema(implementation = Todo.class))),
+            @ApiResponse(responseCode = "403", description = "只读成员不能修改"),
+            @ApiResponse(responseCode = "404", description = "共享不存在"),
+            @ApiResponse(responseCode = "503", description = "列表所有者的数据迁移中，稍后重试")
+    })
+    @PostMapping("/{id}/todos")
+    public ResponseEntity<Todo> createTodo(
+            @Parameter(description = "共享ID", required = true, example = "1")
+            @PathVariable Long id,
+            @Valid @RequestBody TodoRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(listShareService.createTodo(id, request));
+    }
+
+    @Operation(summary = "部分更新共享列表中的待办事项", description = "EDITOR成员只更新指定字段")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "更新成功",
+                    content = @Content(schema = @Schema(implementation = Todo.class))),
+            @ApiResponse(responseCode = "403", description = "只读成员不能修改"),
+            @ApiResponse(responseCode = "404", description = "共享不存在或待办事项不在列表中"),
+            @ApiResponse(responseCode = "503", description = "列表所有者的数据迁移中，稍后重试")
+    })
+    @PatchMapping("/{id}/todos/{todoId}")
+    public ResponseEntity<Todo> patchTodo(
+            @Parameter(description = "共享ID", required = true, example = "1")
+            @PathVariable Long id,
+            @Parameter(description = "待办事项ID", required = true, example = "1")
+            @PathVariable Long todoId,
+            @RequestBody Map<String, Object> updates) {
+        return ResponseEntity.ok(listShareService.patchTodo(id, todoId, updates));
+    }
+
+    @Operation(summary = "删除共享列表中的待办事项", description = "EDITOR成员删除列表中的待办事项")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "删除成功"),
+            @ApiResponse(responseCode = "403", description = "只读成员不能修改"),
+            @ApiResponse(responseCode = "404", description = "共享不存在或待办事项不在列表中"),
+            @ApiResponse(responseCode = "503", description = "列表所有者的数据迁移中，稍后重试")
+    })
+    @DeleteMapping("/{id}/todos/{todoId}")
+    public ResponseEntity<Void> deleteTodo(
+            @Parameter(description = "共享ID", required = true, example = "1")
+            @PathVariable Long id,
+            @Parameter(description = "待办事项ID", required = true, example = "1")
+            @PathVariable Long todoId) {
+        listShareService.deleteTodo(id, todoId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,112 @@
+package com.todo.controller;
+
+import com.todo.dto.ItemTagsRequest;
+import com.todo.dto.TagRequest;
+import com.todo.dto.TagResponse;
+import com.todo.service.TagService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = "*")
+@Tag(name = "标签管理", description = "标签的增删改，以及为待办事项和笔记设置标签；列表接口的tags参数支持 AND/OR/NOT 标签表达式筛选")
+@SecurityRequirement(name = "Bearer Authentication")
+public class TagController {
+
+    private final TagService tagService;
+
+    @Autowired
+    public TagController(TagService tagService) {
+        this.tagService = tagService;
+    }
+
+    @Operation(summary = "获取所有标签", description = "获取当前用户的全部标签及关联的待办事项、笔记数量")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "获取成功",
+                    content = @Content(schema = @Schema(implementation = TagResponse.class)))
+    })
+    @GetMapping("/tags")
+    public ResponseEntity<List<TagResponse>> getTags() {
+        return ResponseEntity.ok(tagService.getTags());
+    }
+
+    @Operation(summary = "创建标签", description = "创建标签，标签名统一转为小写")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "创建成功"),
+            @ApiResponse(responseCode = "400", description = "标签名不合法或已存在")
+    })
+    @PostMapping("/tags")
+    public ResponseEntity<com.todo.model.Tag> createTag(@Valid @RequestBody TagRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(tagService.createTag(request.getName()));
+    }
+
+    @Operation(summary = "重命名标签", description = "修改标签名，已关联的待办事项和笔记不受影响")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "修改成功"),
+            @ApiResponse(responseCode = "400", description = "标签名不合法或已存在"),
+            @ApiResponse(responseCode = "404", description = "标签不存在")
+    })
+    @PutMapping("/tags/{id}")
+    public ResponseEntity<com.todo.model.Tag> renameTag(
+            @Parameter(description = "标签ID", required = true, example = "1")
+            @PathVariable Long id,
+            @Valid @RequestBody TagRequest request) {
+        return ResponseEntity.ok(tagService.renameTag(id, request.getName()));
+    }
+
+    @Operation(summary = "删除标签", description = "删除标签并移除它与所有待办事项、笔记的关联")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "删除成功"),
+            @ApiResponse(responseCode = "404", description = "标签不存在")
+    })
+    @DeleteMapping("/tags/{id}")
+    public ResponseEntity<Void> deleteTag(
+            @Parameter(description = "标签ID", required = true, example = "1")
+            @PathVariable Long id) {
+        tagService.deleteTag(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "设置待办事项的标签", description = "用给定的标签整体替换待办事项的标签，不存在的标签自动创建")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "设置成功，返回排序后的标签名"),
+            @ApiResponse(responseCode = "400", description = "标签名不合法"),
+            @ApiResponse(responseCode = "404", description = "待办事项不存在")
+    })
+    @PutMapping("/todos/{id}/tags")
+    public ResponseEntity<Map<String, List<String>>> setTodoTags(
+            @Parameter(description = "待办事项ID", required = true, example = "1")
+            @PathVariable Long id,
+            @Valid @RequestBody ItemTagsRequest request) {
+        return ResponseEntity.ok(Map.of("tags", tagService.setTodoTags(id, request.getTags())));
+    }
+
+    @Operation(summary = "设置笔记的标签", description = "用给定的标签整体替换笔记的标签，不存在的标签自动创建")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "设置成功，返回排序后的标签名"),
+            @ApiResponse(responseCode = "400", description = "标签名不合法"),
+            @ApiResponse(responseCode = "404", description = "笔记不存在")
+    })
+    @PutMapping("/notes/{id}/tags")
+    public ResponseEntity<Map<String, List<String>>> setNoteTags(
+            @Parameter(description = "笔记ID", required = true, example = "1")
+            @PathVariable Long id,
+            @Valid @RequestBody ItemTagsRequest request) {
+        return ResponseEntity.ok(Map.of("tags", tagService.setNoteTags(id, request.getTags())));
+    }
+}
@@ -1,9 +1,14 @@
 package com.todo.controller;
 
+import com.todo.dto.ArchivePageResponse;
+import com.todo.dto.OccurrenceResponse;
 import com.todo.dto.TodoRequest;
-import com.todo.exception.TodoNotFoundException;
+import com.todo.dto.WorkloadDay;
 import com.todo.model.Todo;
+import com.todo.service.ArchiveService;
+import com.todo.service.OccurrenceService;
 import com.todo.service.TodoService;
+import com.todo.service.WorkloadService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,12 +19,12 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeParseException;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -31,68 +36,100 @@ import java.util.Map;
 public class TodoController {
     
     private final TodoService todoService;
+    private final OccurrenceService occurrenceService;
+    private final ArchiveService archiveService;
+    private final WorkloadService workloadService;
 
     @Autowired
-    public TodoController(TodoService todoService) {
+    public TodoController(TodoService todoService, OccurrenceService occurrenceService,
+                          ArchiveService archiveService, WorkloadService workloadService) {
         this.todoService = todoService;
+        this.occurrenceService = occurrenceService;
+        this.archiveService = archiveService;
+        this.workloadService = workloadService;
     }
 
-    private Integer extractInteger(Map<String, Object> updates, String key, Integer defaultValue) {
-        if (!updates.containsKey(key)) {
-            return defaultValue;
-        }
-        Object value = updates.get(key);
-        if (value == null) {
-            return null;
-        }
-        if (value instanceof Integer) {
-            return (Integer) value;
-        }
-        if (value instanceof Number) {
-            return ((Number) value).intValue();
-        }
-        try {
-            return Integer.valueOf(value.toString());
-        } catch (NumberFormatException e) {
-            return defaultValue;
-        }
+    @Operation(summary = "获取所有待办事项", description = "获取当前用户的所有待办事项，支持按状态、优先级和标签表达式筛选")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "获取成功",
+                    content = @Content(schema = @Schema(implementation = Todo.class))),
+            @ApiResponse(responseCode = "400", description = "标签表达式格式错误")
+    })
+    @GetMapping
+    public ResponseEntity<List<Todo>> getAllTodos(
+            @Parameter(description = "筛选条件：all(全部)、active(未完成)、completed(已完成)", example = "all")
+            @RequestParam(required = false) String filter,
+            @Parameter(description = "标签表达式：标签名、is:completed、is:active、priority:HIGH，用 AND/OR/NOT（& | !）和括号组合，空格分隔视为AND",
+                    example = "work AND (urgent OR home) AND NOT archived")
+            @RequestParam(required = false) String tags,
+            @Parameter(description = "优先级：LOW、MEDIUM、HIGH", example = "HIGH")
+            @RequestParam(required = false) String priority) {
+        return ResponseEntity.ok(todoService.getAllTodos(filter, tags, priority));
     }
 
-    private LocalDateTime extractLocalDateTime(Map<String, Object> updates, String key, LocalDateTime defaultValue) {
-        if (!updates.containsKey(key)) {
-            return defaultValue;
-        }
-        Object value = updates.get(key);
-        if (value == null) {
-            return null;
-        }
-        if (value instanceof LocalDateTime) {
-            return (LocalDateTime) value;
-        }
-        if (value instanceof String) {
-            String str = ((String) value).trim();
-            if (str.isEmpty()) {
-                return null;
-            }
-            try {
-                return LocalDateTime.parse(str);
-            } catch (DateTimeParseException e) {
-                return defaultValue;
-            }
-        }
-        return defaultValue;
+    @Operation(summary = "获取已归档的待办事项", description = "完成超过7天的待办事项会被归档，按完成时间倒序分页返回；用返回的nextCursor获取下一页")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "获取成功",
+                    content = @Content(schema = @Schema(implementation = ArchivePageResponse.class))),
+            @ApiResponse(responseCode = "400", description = "分页游标格式错误")
+    })
+    @GetMapping("/archive")
+    public ResponseEntity<ArchivePageResponse> getArchive(
+            @Parameter(description = "分页游标（上一页返回的nextCursor），为空时返回第一页", example = "2024-01-01T17:30:00,42")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页条数（不超过200）", example = "50")
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(archiveService.getArchive(cursor, limit));
     }
 
-    @Operation(summary = "获取所有待办事项", description = "获取当前用户的所有待办事项，支持按状态筛选（all/active/completed）")
+    @Operation(summary = "获取工作量预测", description = "按天汇总截止于当天的未完成任务和每日任务的预计时长，与每日容量对比（最长366天）；结果在待办事项变化前被缓存")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "获取成功",
-                    content = @Content(schema = @Schema(implementation = Todo.class)))
+                    content = @Content(schema = @Schema(implementation = WorkloadDay.class))),
+            @ApiResponse(responseCode = "400", description = "日期范围错误")
     })
-    @GetMapping
-    public ResponseEntity<List<Todo>> getAllTodos(
-            @Parameter(description = "筛选条件：all(全部)、active(未完成)、completed(已完成)", example = "all")
-            @RequestParam(required = false) String filter) {
-        return ResponseEntity.ok(todoService.getAllTodos(filter));
+    @GetMapping("/workload")
+    public ResponseEntity<List<WorkloadDay>> getWorkload(
+            @Parameter(description = "开始日期", required = true, example = "2024-01-01")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "结束日期（含）", required = true, example = "2024-01-14")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(workloadService.getWorkload(from, to));
+    }
+
+    @Operation(summary = "获取日期范围内的发生", description = "按重复规则展开指定日期范围（最长366天）内的每一次发生，普通任务按截止时间列出；用于日历和列表视图")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "获取成功",
+                    content = @Content(schema = @Schema(implementation = OccurrenceResponse.class))),
+            @ApiResponse(responseCode = "400", description = "日期范围错误")
+    })
+    @GetMapping("/occurrences")
+    public ResponseEntity<List<OccurrenceResponse>> getOccurrences(
+            @Parameter(description = "开始日期", required = true, example = "2024-01-01")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "结束日期（含）", required = true, example = "2024-01-31")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "最多返回条数（不超过2000）", example = "500")
+            @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(occurrenceService.getOccurrences(from, to, limit));
+    }
+
+    @Operation(summary = "标记某次发生的完成状态", description = "重复任务按次记录完成状态，请求体为 {\"completed\": true}")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "更新成功",
+                    content = @Content(schema = @Schema(implementation = OccurrenceResponse.class))),
+            @ApiResponse(responseCode = "400", description = "不是重复任务或该日期不是发生日期"),
+            @ApiResponse(responseCode = "404", description = "待办事项不存在")
+    })
+    @PutMapping("/{id}/occurrences/{date}")
+    public ResponseEntity<OccurrenceResponse> setOccurrenceCompleted(
+            @Parameter(description = "待办事项ID", required = true, example = "1")
+            @PathVariable Long id,
+            @Parameter(description = "发生日期", required = true, example = "2024-01-01")
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestBody Map<String, Object> body) {
+        boolean completed = Boolean.TRUE.equals(body.get("completed"));
+        return ResponseEntity.ok(occurrenceService.setOccurrenceCompleted(id, date, completed));
     }
 
     @Operation(summary = "根据ID获取待办事项", description = "根据待办事项ID获取详细信息")
@@ -118,36 +155,7 @@ public class TodoController {
     })
     @PostMapping
     public ResponseEntity<Todo> createTodo(@Valid @RequestBody TodoRequest request) {
-        Todo todo = new Todo();
-        todo.setText(request.getText());
-        todo.setPriority(request.getPriority() != null ? request.getPriority() : "MEDIUM");
-        todo.setCompleted(false);
-        todo.setTotalSteps(request.getTotalSteps());
-        todo.setCompletedSteps(0);
-        todo.setEstimatedDuration(request.getEstimatedDuration());
-        // 只有在提供了estimatedDuration时才设置durationUnit
-        if (request.getEstimatedDuration() != null) {
-            todo.setDurationUnit(request.getDurationUnit() != null ? request.getDurationUnit() : "MINUTES");
-        } else {
-            todo.setDurationUnit(null);
-        }
-        todo.setDaily(request.getIsDaily() != null ? request.getIsDaily() : false);
-        if (todo.isDaily()) {
-            todo.setLastResetDate(java.time.LocalDateTime.now());
-            todo.setDueDate(null);
-            todo.setDeadline(null);
-        } else {
-            // 优先使用deadline，如果没有则使用dueDate（向后兼容）
-            if (request.getDeadline() != null) {
-                todo.setDeadline(request.getDeadline());
-                todo.setDueDate(request.getDeadline()); // 同时设置dueDate以保持兼容
-            } else if (request.getDueDate() != null) {
-                todo.setDueDate(request.getDueDate());
-                todo.setDeadline(request.getDueDate()); // 将dueDate复制到deadline
-            }
-        }
-        
-        Todo createdTodo = todoService.createTodo(todo);
+        Todo createdTodo = todoService.createTodo(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(createdTodo);
     }
 
@@ -162,47 +170,8 @@ public class TodoController {
             @Parameter(description = "待办事项ID", required = true, example = "1")
             @PathVariable Long id,
             @RequestBody Map<String, Object> updates) {
-        Todo existingTodo = todoService.getTodoById(id)
-                .orElseThrow(() -> new TodoNotFoundException(id));
-
-        Todo updatedTodo = new Todo();
-        updatedTodo.setText((String) updates.getOrDefault("text", existingTodo.getText()));
-        updatedTodo.setCompleted((Boolean) updates.getOrDefault("completed", existingTodo.isCompleted()));
-        updatedTodo.setPriority((String) updates.getOrDefault("priority", existingTodo.getPriority()));
-        updatedTodo.setTotalSteps(extractInteger(updates, "totalSteps", existingTodo.getTotalSteps()));
-        updatedTodo.setCompletedSteps(extractInteger(updates, "completedSteps", existingTodo.getCompletedSteps()));
-        updatedTodo.setEstimatedDuration(extractInteger(updates, "estimatedDuration", existingTodo.getEstimatedDuration()));
-        
-        if (updates.containsKey("durationUnit")) {
-            updatedTodo.setDurationUnit((String) updates.get("durationUnit"));
-        } else {
-            updatedTodo.setDurationUnit(existingTodo.getDurationUnit());
-        }
-        
-        boolean updatedIsDaily = updates.containsKey("isDaily")
-                ? Boolean.TRUE.equals(updates.get("isDaily"))
-                : existingTodo.isDaily();
-        updatedTodo.setDaily(updatedIsDaily);
-        if (updatedIsDaily) {
-            updatedTodo.setDueDate(null);
-            updatedTodo.setDeadline(null);
-        } else {
-            // 优先使用deadline，如果没有则使用dueDate（向后兼容）
-            LocalDateTime deadline = extractLocalDateTime(updates, "deadline", existingTodo.getDeadline());
-            LocalDateTime dueDate = extractLocalDateTime(updates, "dueDate", existingTodo.getDueDate());
-            if (deadline != null) {
-                updatedTodo.setDeadline(deadline);
-                updatedTodo.setDueDate(deadline); // 同时设置dueDate以保持兼容
-            } else if (dueDate != null) {
-                updatedTodo.setDueDate(dueDate);
-                updatedTodo.setDeadline(dueDate); // 将dueDate复制到deadline
-            } else {
-                updatedTodo.setDueDate(existingTodo.getDueDate());
-                updatedTodo.setDeadline(existingTodo.getDeadline());
-            }
-        }
-
-        return ResponseEntity.ok(todoService.updateTodo(id, updatedTodo));
+        // 未提供的字段保持原值，与部分更新的合并规则相同
+        return ResponseEntity.ok(todoService.patchTodo(id, updates));
     }
 
     @Operation(summary = "部分更新待办事项", description = "只更新待办事项的指定字段")
@@ -216,73 +185,7 @@ public class TodoController {
             @Parameter(description = "待办事项ID", required = true, example = "1")
             @PathVariable Long id,
             @RequestBody Map<String, Object> updates) {
-        Todo existingTodo = todoService.getTodoById(id)
-                .orElseThrow(() -> new TodoNotFoundException(id));
-
-        Todo updatedTodo = new Todo();
-        if (updates.containsKey("text")) {
-            updatedTodo.setText((String) updates.get("text"));
-        } else {
-            updatedTodo.setText(existingTodo.getText());
-        }
-        
-        updatedTodo.setCompleted(
-            updates.containsKey("completed") 
-                ? (Boolean) updates.get("completed") 
-                : existingTodo.isCompleted()
-        );
-        
-        updatedTodo.setPriority(
-            updates.containsKey("priority") 
-                ? (String) updates.get("priority") 
-                : existingTodo.getPriority()
-        );
-        
-        updatedTodo.setTotalSteps(extractInteger(updates, "totalSteps", existingTodo.getTotalSteps()));
-        updatedTodo.setCompletedSteps(extractInteger(updates, "completedSteps", existingTodo.getCompletedSteps()));
-        updatedTodo.setEstimatedDuration(extractInteger(updates, "estimatedDuration", existingTodo.getEstimatedDuration()));
-        
-        if (updates.containsKey("durationUnit")) {
-            updatedTodo.setDurationUnit((String) updates.get("durationUnit"));
-        } else {
-            updatedTodo.setDurationUnit(existingTodo.getDurationUnit());
-        }
-        
-        boolean updatedIsDaily = updates.containsKey("isDaily")
-                ? Boolean.TRUE.equals(updates.get("isDaily"))
-                : existingTodo.isDaily();
-        updatedTodo.setDaily(updatedIsDaily);
-        if (updatedIsDaily) {
-            updatedTodo.setDueDate(null);
-            updatedTodo.setDeadline(null);
-        } else {
-            // 优先使用deadline，如果没有则使用dueDate（向后兼容）
-            LocalDateTime deadline = null;
-            LocalDateTime dueDate = null;
-            if (updates.containsKey("deadline")) {
-                deadline = extractLocalDateTime(updates, "deadline", null);
-            } else {
-                deadline = existingTodo.getDeadline();
-            }
-            if (updates.containsKey("dueDate")) {
-                dueDate = extractLocalDateTime(updates, "dueDate", null);
-            } else {
-                dueDate = existingTodo.getDueDate();
-            }
-            
-            if (deadline != null) {
-                updatedTodo.setDeadline(deadline);
-                updatedTodo.setDueDate(deadline); // 同时设置dueDate以保持兼容
-            } else if (dueDate != null) {
-                updatedTodo.setDueDate(dueDate);
-                updatedTodo.setDeadline(dueDate); // 将dueDate复制到deadline
-            } else {
-                updatedTodo.setDueDate(existingTodo.getDueDate());
-                updatedTodo.setDeadline(existingTodo.getDeadline());
-            }
-        }
-
-        return ResponseEntity.ok(todoService.updateTodo(id, updatedTodo));
+        return ResponseEntity.ok(todoService.patchTodo(id, updates));
     }
 
     @Operation(summary = "删除待办事项", description = "根据ID删除待办事项")
@@ -0,0 +1,107 @@
+package com.todo.controller;
+
+import com.todo.dto.StepRequest;
+import com.todo.model.TodoStep;
+import com.todo.service.TodoStepService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/todos/{todoId}/steps")
+@CrossOrigin(origins = "*")
+@Tag(name = "子任务管理", description = "待办事项的子任务增删改查，父任务进度自动汇总")
+@SecurityRequirement(name = "Bearer Authentication")
+public class TodoStepController {
+
+    private final TodoStepService todoStepService;
+
+    @Autowired
+    public TodoStepController(TodoStepService todoStepService) {
+        this.todoStepService = todoStepService;
+    }
+
+    @Operation(summary = "获取子任务", description = "获取待办事项的全部子任务")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "获取成功",
+                    content = @Content(schema = @Schema(implementation = TodoStep.class))),
+            @ApiResponse(responseCode = "404", description = "待办事项不存在")
+    })
+    @GetMapping
+    public ResponseEntity<List<TodoStep>> getSteps(
+            @Parameter(description = "待办事项ID", required = true, example = "1")
+            @PathVariable Long todoId) {
+        return ResponseEntity.ok(todoStepService.getSteps(todoId));
+    }
+
+    @Operation(summary = "添加子任务", description = "添加子任务，父任务的总步骤数和剩余时长随之更新")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "创建成功",
+                    content = @Content(schema = @Schema(implementation = TodoStep.class))),
+            @ApiResponse(responseCode = "400", description = "请求参数错误"),
+            @ApiResponse(responseCode = "404", description = "待办事项不存在")
+    })
+    @PostMapping
+    public ResponseEntity<TodoStep> addStep(
+            @Parameter(description = "待办事项ID", required = true, example = "1")
+            @PathVariable Long todoId,
+            @Valid @RequestBody StepRequest request) {
+        TodoStep step = todoStepService.addStep(todoId, request.getText(), request.getEstimatedMinutes());
+        return ResponseEntity.status(HttpStatus.CREATED).body(step);
+    }
+
+    @Operation(summary = "部分更新子任务", description = "更新子任务的内容、完成状态、预计时长或位置")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "更新成功",
+                    content = @Content(schema = @Schema(implementation = TodoStep.class))),
+            @ApiResponse(responseCode = "409", description = "子任务已被并发修改")
+    })
+    @PatchMapping("/{stepId}")
+    public ResponseEntity<TodoStep> updateStep(
+            @Parameter(description = "待办事项ID", required = true, example = "1")
+            @PathVariable Long todoId,
+            @Parameter(description = "子任务ID", required = true, example = "1")
+            @PathVariable Long stepId,
+            @RequestBody Map<String, Object> updates) {
+        String text = (String) updates.get("text");
+        if (text != null && (text.isBlank() || text.length() > 500)) {
+            throw new IllegalArgumentException("子任务内容不能为空且不能超过500个字符");
+        }
+        TodoStep step = todoStepService.updateStep(todoId, stepId, text,
+                toInteger(updates.get("estimatedMinutes")),
+                toInteger(updates.get("position")),
+                (Boolean) updates.get("completed"));
+        return ResponseEntity.ok(step);
+    }
+
+    @Operation(summary = "删除子任务", description = "删除子任务，父任务进度随之更新")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "删除成功")
+    })
+    @DeleteMapping("/{stepId}")
+    public ResponseEntity<Void> deleteStep(
+            @Parameter(description = "待办事项ID", required = true, example = "1")
+            @PathVariable Long todoId,
+            @Parameter(description = "子任务ID", required = true, example = "1")
+            @PathVariable Long stepId) {
+        todoStepService.deleteStep(todoId, stepId);
+        return ResponseEntity.noContent().build();
+    }
+
+    private Integer toInteger(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : null;
+    }
+}
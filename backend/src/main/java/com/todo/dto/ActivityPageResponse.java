@@ -0,0 +1,28 @@
+package com.todo.dto;
+
+import com.todo.model.ActivityEntry;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "操作记录的一页")
+public class ActivityPageResponse {
+    @Schema(description = "本页数据，最新的操作在前")
+    private List<ActivityEntry> items;
+
+    @Schema(description = "下一页游标，传给cursor参数获取下一页；为空表示没有更多数据", example = "42")
+    private String nextCursor;
+
+    public ActivityPageResponse(List<ActivityEntry> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ActivityEntry> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
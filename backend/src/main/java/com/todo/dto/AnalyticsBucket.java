@@ -0,0 +1,61 @@
+package com.todo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@Schema(description = "效率统计中的一个周期")
+public class AnalyticsBucket {
+    @Schema(description = "周期第一天（按周为周一，按月为1日，按年为1月1日）", example = "2024-01-01")
+    private LocalDate start;
+
+    @Schema(description = "完成的任务数（含每日任务的每次完成）", example = "12")
+    private long completed;
+
+    @Schema(description = "新建的任务数", example = "15")
+    private long created;
+
+    @Schema(description = "截止时间在该周期内且未按时完成的任务数", example = "2")
+    private long overdue;
+
+    @Schema(description = "完成的任务的预计时长合计（分钟）", example = "540")
+    private long effortMinutes;
+
+    @Schema(description = "按优先级的完成数：LOW、MEDIUM、HIGH")
+    private Map<String, Long> completedByPriority;
+
+    public AnalyticsBucket(LocalDate start, long completed, long created, long overdue, long effortMinutes,
+                           Map<String, Long> completedByPriority) {
+        this.start = start;
+        this.completed = completed;
+        this.created = created;
+        this.overdue = overdue;
+        this.effortMinutes = effortMinutes;
+        this.completedByPriority = completedByPriority;
+    }
+
+    public LocalDate getStart() {
+        return start;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public long getOverdue() {
+        return overdue;
+    }
+
+    public long getEffortMinutes() {
+        return effortMinutes;
+    }
+
+    public Map<String, Long> getCompletedByPriority() {
+        return completedByPriority;
+    }
+}
@@ -0,0 +1,28 @@
+package com.todo.dto;
+
+import com.todo.model.ArchivedTodo;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "归档待办事项的一页")
+public class ArchivePageResponse {
+    @Schema(description = "本页数据，按完成时间倒序")
+    private List<ArchivedTodo> items;
+
+    @Schema(description = "下一页游标，传给cursor参数获取下一页；为空表示没有更多数据", example = "2024-01-01T17:30:00,42")
+    private String nextCursor;
+
+    public ArchivePageResponse(List<ArchivedTodo> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ArchivedTodo> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -12,6 +12,12 @@ public class AuthResponse {
     
     @Schema(description = "用户ID", example = "1")
     private Long userId;
+    
+    @Schema(description = "刷新令牌，用于在访问令牌过期后换取新的访问令牌", example = "eyJhbGciOiJIUzI1NiJ9...")
+    private String refreshToken;
+    
+    @Schema(description = "访问令牌有效期（毫秒）", example = "1800000")
+    private Long expiresIn;
 
     public AuthResponse() {
     }
@@ -22,6 +28,14 @@ public class AuthResponse {
         this.userId = userId;
     }
 
+    public AuthResponse(String token, String username, Long userId, String refreshToken, Long expiresIn) {
+        this.token = token;
+        this.username = username;
+        this.userId = userId;
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
+    }
+
     public String getToken() {
         return token;
     }
@@ -45,5 +59,20 @@ public class AuthResponse {
     public void setUserId(Long userId) {
         this.userId = userId;
     }
-}
 
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    public Long getExpiresIn() {
+        return expiresIn;
+    }
+
+    public void setExpiresIn(Long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
+}
@@ -0,0 +1,49 @@
+package com.todo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "每日任务的连续完成记录")
+public class DailyStreak {
+    @Schema(description = "当前连续完成天数（今天尚未完成时从昨天往前数）", example = "5")
+    private int currentStreak;
+
+    @Schema(description = "最长连续完成天数", example = "21")
+    private int longestStreak;
+
+    @Schema(description = "完成的天数", example = "40")
+    private int completedDays;
+
+    @Schema(description = "从创建当天到今天的天数", example = "50")
+    private int trackedDays;
+
+    @Schema(description = "完成率（completedDays / trackedDays）", example = "0.8")
+    private double completionRate;
+
+    public DailyStreak(int currentStreak, int longestStreak, int completedDays, int trackedDays) {
+        this.currentStreak = currentStreak;
+        this.longestStreak = longestStreak;
+        this.completedDays = completedDays;
+        this.trackedDays = trackedDays;
+        this.completionRate = trackedDays > 0 ? Math.min(1.0, (double) completedDays / trackedDays) : 0;
+    }
+
+    public int getCurrentStreak() {
+        return currentStreak;
+    }
+
+    public int getLongestStreak() {
+        return longestStreak;
+    }
+
+    public int getCompletedDays() {
+        return completedDays;
+    }
+
+    public int getTrackedDays() {
+        return trackedDays;
+    }
+
+    public double getCompletionRate() {
+        return completionRate;
+    }
+}
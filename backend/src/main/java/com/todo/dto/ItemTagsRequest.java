@@ -0,0 +1,26 @@
+package com.todo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(description = "设置条目标签请求（整体替换，不存在的标签自动创建）")
+public class ItemTagsRequest {
+    @Schema(description = "标签名列表", required = true, example = "[\"work\", \"urgent\"]")
+    @NotNull(message = "标签列表不能为空")
+    @Size(max = 20, message = "每个条目最多20个标签")
+    private List<String> tags;
+
+    public ItemTagsRequest() {
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+}
@@ -0,0 +1,35 @@
+package com.todo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "笔记自动保存结果（已写入内存草稿，稍后批量写入数据库）")
+public class NoteDraftResponse {
+    @Schema(description = "笔记ID", example = "1")
+    private Long id;
+
+    @Schema(description = "草稿版本号，每次自动保存递增", example = "1700000000123")
+    private long version;
+
+    @Schema(description = "本次自动保存的时间，写入数据库后即为笔记的更新时间", example = "2024-01-01T12:00:00")
+    private LocalDateTime updatedAt;
+
+    public NoteDraftResponse(Long id, long version, LocalDateTime updatedAt) {
+        this.id = id;
+        this.version = version;
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
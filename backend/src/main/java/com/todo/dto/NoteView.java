@@ -0,0 +1,12 @@
+package com.todo.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.todo.model.NoteRow;
+
+import java.util.List;
+
+/**
+ * 响应式只读节点返回的笔记：与GET /api/notes的JSON结构相同
+ */
+public record NoteView(@JsonUnwrapped NoteRow note, List<String> tags) {
+}
@@ -0,0 +1,69 @@
+package com.todo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Schema(description = "待办事项在日历中的一次发生")
+public class OccurrenceResponse {
+    @Schema(description = "待办事项ID", example = "1")
+    private Long todoId;
+
+    @Schema(description = "待办事项内容", example = "周会")
+    private String text;
+
+    @Schema(description = "优先级", example = "MEDIUM")
+    private String priority;
+
+    @Schema(description = "发生日期", example = "2024-01-01")
+    private LocalDate date;
+
+    @Schema(description = "发生时间（取自截止时间的时刻，没有截止时间时为当天零点）", example = "2024-01-01T10:00:00")
+    private LocalDateTime start;
+
+    @Schema(description = "本次是否已完成", example = "false")
+    private boolean completed;
+
+    @Schema(description = "是否为重复任务", example = "true")
+    private boolean recurring;
+
+    public OccurrenceResponse(Long todoId, String text, String priority, LocalDate date, LocalDateTime start,
+                              boolean completed, boolean recurring) {
+        this.todoId = todoId;
+        this.text = text;
+        this.priority = priority;
+        this.date = date;
+        this.start = start;
+        this.completed = completed;
+        this.recurring = recurring;
+    }
+
+    public Long getTodoId() {
+        return todoId;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public String getPriority() {
+        return priority;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public boolean isRecurring() {
+        return recurring;
+    }
+}
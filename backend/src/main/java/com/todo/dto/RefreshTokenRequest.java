@@ -0,0 +1,27 @@
+package com.todo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+
+@Schema(description = "刷新令牌请求")
+public class RefreshTokenRequest {
+
+    @Schema(description = "刷新令牌", required = true, example = "eyJhbGciOiJIUzI1NiJ9...")
+    @NotBlank(message = "刷新令牌不能为空")
+    private String refreshToken;
+
+    public RefreshTokenRequest() {
+    }
+
+    public RefreshTokenRequest(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
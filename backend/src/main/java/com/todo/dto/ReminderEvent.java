@@ -0,0 +1,80 @@
+package com.todo.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "截止时间提醒事件")
+public class ReminderEvent {
+    public static final String DUE_SOON = "DUE_SOON";
+    public static final String OVERDUE = "OVERDUE";
+
+    @Schema(description = "提醒类型：DUE_SOON（即将到期）、OVERDUE（已逾期）", example = "DUE_SOON")
+    private String type;
+
+    @Schema(description = "待办事项ID", example = "1")
+    private Long todoId;
+
+    @Schema(description = "待办事项内容", example = "完成项目文档")
+    private String text;
+
+    @Schema(description = "截止时间", example = "2024-01-01T18:00:00")
+    private LocalDateTime deadline;
+
+    @Schema(description = "提醒时间", example = "2024-01-01T17:30:00")
+    private LocalDateTime firedAt;
+
+    @JsonIgnore
+    private Long userId;
+
+    @JsonIgnore
+    private String username;
+
+    @JsonIgnore
+    private String email;
+
+    public ReminderEvent(String type, Long todoId, String text, LocalDateTime deadline,
+                         Long userId, String username, String email) {
+        this.type = type;
+        this.todoId = todoId;
+        this.text = text;
+        this.deadline = deadline;
+        this.userId = userId;
+        this.username = username;
+        this.email = email;
+        this.firedAt = LocalDateTime.now();
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Long getTodoId() {
+        return todoId;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public LocalDateTime getDeadline() {
+        return deadline;
+    }
+
+    public LocalDateTime getFiredAt() {
+        return firedAt;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+}
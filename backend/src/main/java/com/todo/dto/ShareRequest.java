@@ -0,0 +1,45 @@
+package com.todo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+
+@Schema(description = "共享列表请求")
+public class ShareRequest {
+    @Schema(description = "要共享的列表，即当前用户的一个标签名", required = true, example = "household")
+    @NotBlank(message = "列表不能为空")
+    private String list;
+
+    @Schema(description = "共享给的用户名", required = true, example = "bob")
+    @NotBlank(message = "用户名不能为空")
+    private String username;
+
+    @Schema(description = "角色：VIEWER(只读)、EDITOR(可编辑)，默认VIEWER；再次共享给同一用户时修改角色", example = "EDITOR")
+    private String role;
+
+    public ShareRequest() {
+    }
+
+    public String getList() {
+        return list;
+    }
+
+    public void setList(String list) {
+        this.list = list;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+    }
+}
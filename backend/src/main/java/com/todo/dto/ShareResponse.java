@@ -0,0 +1,59 @@
+package com.todo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "共享列表")
+public class ShareResponse {
+    @Schema(description = "共享ID", example = "1")
+    private Long id;
+
+    @Schema(description = "列表（所有者的标签名），标签已被删除时为空", example = "household")
+    private String list;
+
+    @Schema(description = "所有者用户名", example = "alice")
+    private String owner;
+
+    @Schema(description = "成员用户名", example = "bob")
+    private String member;
+
+    @Schema(description = "成员角色：VIEWER、EDITOR", example = "EDITOR")
+    private String role;
+
+    @Schema(description = "共享时间", example = "2024-01-01T12:00:00")
+    private LocalDateTime createdAt;
+
+    public ShareResponse(Long id, String list, String owner, String member, String role, LocalDateTime createdAt) {
+        this.id = id;
+        this.list = list;
+        this.owner = owner;
+        this.member = member;
+        this.role = role;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getList() {
+        return list;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public String getMember() {
+        return member;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,37 @@
+package com.todo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+@Schema(description = "子任务请求")
+public class StepRequest {
+    @Schema(description = "子任务内容", required = true, example = "编写大纲", maxLength = 500)
+    @NotBlank(message = "子任务内容不能为空")
+    @Size(max = 500, message = "子任务内容不能超过500个字符")
+    private String text;
+
+    @Schema(description = "预计时长（分钟）", example = "15")
+    @Min(value = 0, message = "预计时长不能为负数")
+    private Integer estimatedMinutes;
+
+    public StepRequest() {
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public Integer getEstimatedMinutes() {
+        return estimatedMinutes;
+    }
+
+    public void setEstimatedMinutes(Integer estimatedMinutes) {
+        this.estimatedMinutes = estimatedMinutes;
+    }
+}
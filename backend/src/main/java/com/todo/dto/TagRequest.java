@@ -0,0 +1,24 @@
+package com.todo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+@Schema(description = "标签请求")
+public class TagRequest {
+    @Schema(description = "标签名（不区分大小写，不能包含空格和 ()!&|\":,）", required = true, example = "work", maxLength = 50)
+    @NotBlank(message = "标签名不能为空")
+    @Size(max = 50, message = "标签名不能超过50个字符")
+    private String name;
+
+    public TagRequest() {
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}
@@ -0,0 +1,41 @@
+package com.todo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "标签及其使用情况")
+public class TagResponse {
+    @Schema(description = "标签ID", example = "1")
+    private Long id;
+
+    @Schema(description = "标签名", example = "work")
+    private String name;
+
+    @Schema(description = "关联的待办事项数量", example = "3")
+    private long todoCount;
+
+    @Schema(description = "关联的笔记数量", example = "1")
+    private long noteCount;
+
+    public TagResponse(Long id, String name, long todoCount, long noteCount) {
+        this.id = id;
+        this.name = name;
+        this.todoCount = todoCount;
+        this.noteCount = noteCount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getTodoCount() {
+        return todoCount;
+    }
+
+    public long getNoteCount() {
+        return noteCount;
+    }
+}
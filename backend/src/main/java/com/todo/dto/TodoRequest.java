@@ -34,6 +34,10 @@ public class TodoRequest {
     @Schema(description = "截止日期（新增字段，优先使用）", example = "2024-12-31T23:59:59")
     private LocalDateTime deadline; // 截止日期（新增字段）
 
+    @Schema(description = "重复规则（RFC 5545 RRULE），如每周一、三：FREQ=WEEKLY;BYDAY=MO,WE；每月1日：FREQ=MONTHLY;BYMONTHDAY=1；每3天：FREQ=DAILY;INTERVAL=3", example = "FREQ=WEEKLY;BYDAY=MO,WE")
+    @Size(max = 255, message = "重复规则不能超过255个字符")
+    private String recurrenceRule; // 重复规则
+
     public TodoRequest() {
     }
 
@@ -105,5 +109,12 @@ public class TodoRequest {
     public void setDeadline(LocalDateTime deadline) {
         this.deadline = deadline;
     }
-}
 
+    public String getRecurrenceRule() {
+        return recurrenceRule;
+    }
+
+    public void setRecurrenceRule(String recurrenceRule) {
+        this.recurrenceRule = recurrenceRule;
+    }
+}
@@ -0,0 +1,33 @@
+package com.todo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "当前用户的待办事项数量统计")
+public class TodoStats {
+    @Schema(description = "待办事项总数", example = "10")
+    private long total;
+
+    @Schema(description = "未完成的数量", example = "6")
+    private long active;
+
+    @Schema(description = "已完成的数量", example = "4")
+    private long completed;
+
+    public TodoStats(long total, long active, long completed) {
+        this.total = total;
+        this.active = active;
+        this.completed = completed;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getActive() {
+        return active;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+}
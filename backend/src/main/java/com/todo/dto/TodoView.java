@@ -0,0 +1,15 @@
+package com.todo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.todo.model.TodoRow;
+import com.todo.model.TodoStepRow;
+
+import java.util.List;
+
+/**
+ * 响应式只读节点返回的待办事项：与GET /api/todos的JSON结构相同
+ */
+public record TodoView(@JsonUnwrapped TodoRow todo, List<TodoStepRow> steps, List<String> tags,
+                       @JsonInclude(JsonInclude.Include.NON_NULL) DailyStreak streak) {
+}
@@ -0,0 +1,65 @@
+package com.todo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+
+@Schema(description = "某一天的工作量与容量")
+public class WorkloadDay {
+    @Schema(description = "日期", example = "2024-01-01")
+    private LocalDate date;
+
+    @Schema(description = "当天截止的未完成任务和每日任务的预计时长合计（分钟）", example = "300")
+    private long committedMinutes;
+
+    @Schema(description = "其中每日任务的预计时长（分钟）", example = "60")
+    private long dailyMinutes;
+
+    @Schema(description = "每日可用时长（分钟）", example = "480")
+    private long capacityMinutes;
+
+    @Schema(description = "计入的任务数量", example = "4")
+    private long todoCount;
+
+    @Schema(description = "其中未填写预计时长的任务数量（按0计入）", example = "1")
+    private long unestimatedCount;
+
+    public WorkloadDay(LocalDate date, long committedMinutes, long dailyMinutes, long capacityMinutes,
+                       long todoCount, long unestimatedCount) {
+        this.date = date;
+        this.committedMinutes = committedMinutes;
+        this.dailyMinutes = dailyMinutes;
+        this.capacityMinutes = capacityMinutes;
+        this.todoCount = todoCount;
+        this.unestimatedCount = unestimatedCount;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public long getCommittedMinutes() {
+        return committedMinutes;
+    }
+
+    public long getDailyMinutes() {
+        return dailyMinutes;
+    }
+
+    public long getCapacityMinutes() {
+        return capacityMinutes;
+    }
+
+    public long getTodoCount() {
+        return todoCount;
+    }
+
+    public long getUnestimatedCount() {
+        return unestimatedCount;
+    }
+
+    @Schema(description = "是否超出容量", example = "false")
+    public boolean isOverCapacity() {
+        return committedMinutes > capacityMinutes;
+    }
+}
@@ -0,0 +1,7 @@
+package com.todo.exception;
+
+public class ActivityNotFoundException extends RuntimeException {
+    public ActivityNotFoundException(Long id) {
+        super("操作记录未找到: " + id);
+    }
+}
@@ -0,0 +1,13 @@
+package com.todo.exception;
+
+/**
+ * 用户数据正在迁移到其他分片，暂停写入（返回503并带上Retry-After，与JwtAuthenticationFilter一致）
+ */
+public class DataMigratingException extends RuntimeException {
+
+    public static final int RETRY_AFTER_SECONDS = 5;
+
+    public DataMigratingException(String message) {
+        super(message);
+    }
+}
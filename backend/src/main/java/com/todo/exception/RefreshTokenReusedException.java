@@ -0,0 +1,11 @@
+package com.todo.exception;
+
+/**
+ * 已撤销的刷新令牌被再次使用（视为泄露）
+ * 抛出时不回滚当前事务，撤销该用户全部刷新令牌的更新仍然提交
+ */
+public class RefreshTokenReusedException extends RuntimeException {
+    public RefreshTokenReusedException() {
+        super("刷新令牌已失效，请重新登录");
+    }
+}
@@ -0,0 +1,7 @@
+package com.todo.exception;
+
+public class ShareNotFoundException extends RuntimeException {
+    public ShareNotFoundException(Long id) {
+        super("共享列表未找到: " + id);
+    }
+}
@@ -0,0 +1,7 @@
+package com.todo.exception;
+
+public class StepNotFoundException extends RuntimeException {
+    public StepNotFoundException(Long id) {
+        super("子任务未找到: " + id);
+    }
+}
@@ -0,0 +1,7 @@
+package com.todo.exception;
+
+public class TagNotFoundException extends RuntimeException {
+    public TagNotFoundException(Long id) {
+        super("标签未找到: " + id);
+    }
+}
@@ -0,0 +1,100 @@
+package com.todo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * 操作记录（只追加）：待办事项和笔记的每次增删改一行，保存修改前的完整内容，用于撤销
+ * 写入由ActivityLogService在请求之外批量完成，撤销时只更新undone_at
+ */
+@Entity
+@Immutable
+@Table(name = "activity_log",
+        indexes = @Index(name = "idx_activity_log_user_id", columnList = "user_id, id"))
+@Schema(description = "操作记录")
+public class ActivityEntry {
+
+    public static final String CREATE = "CREATE";
+    public static final String UPDATE = "UPDATE";
+    public static final String DELETE = "DELETE";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Schema(description = "记录ID", example = "1")
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    @JsonIgnore
+    private Long userId;
+
+    @Column(name = "item_type", nullable = false, length = 8)
+    @Schema(description = "对象类型：TODO、NOTE", example = "TODO")
+    private String itemType;
+
+    @Column(name = "item_id", nullable = false)
+    @Schema(description = "待办事项或笔记ID", example = "42")
+    private Long itemId;
+
+    @Column(nullable = false, length = 8)
+    @Schema(description = "操作：CREATE、UPDATE、DELETE", example = "UPDATE")
+    private String action;
+
+    @Column(nullable = true, length = 100)
+    @Schema(description = "摘要（待办事项内容或笔记标题）", example = "完成项目文档")
+    private String summary;
+
+    @Column(name = "before_state", nullable = true, columnDefinition = "TEXT")
+    @JsonIgnore
+    private String beforeState; // 修改/删除前的JSON快照，CREATE为空
+
+    @Column(name = "created_at", nullable = false)
+    @Schema(description = "操作时间", example = "2024-01-01T09:00:00")
+    private LocalDateTime createdAt;
+
+    @Column(name = "undone_at", nullable = true)
+    @Schema(description = "撤销时间，为空表示未撤销", example = "2024-01-01T09:05:00")
+    private LocalDateTime undoneAt;
+
+    protected ActivityEntry() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getItemType() {
+        return itemType;
+    }
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public String getSummary() {
+        return summary;
+    }
+
+    public String getBeforeState() {
+        return beforeState;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUndoneAt() {
+        return undoneAt;
+    }
+}
@@ -0,0 +1,99 @@
+package com.todo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * 已归档的待办事项（只追加、不修改）
+ * 只保留查看历史需要的列，优先级压缩为一个字节；主键沿用原待办事项ID
+ */
+@Entity
+@Immutable
+@Table(name = "todo_archive",
+        indexes = @Index(name = "idx_todo_archive_user_completed", columnList = "user_id, completed_at, id"))
+@Schema(description = "已归档的待办事项")
+public class ArchivedTodo {
+
+    private static final String[] PRIORITIES = {"LOW", "MEDIUM", "HIGH"};
+
+    @Id
+    @Schema(description = "原待办事项ID", example = "1")
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    @JsonIgnore
+    private Long userId;
+
+    @Column(nullable = false, length = 500)
+    @Schema(description = "待办事项内容", example = "完成项目文档")
+    private String text;
+
+    @Column(name = "priority_code", nullable = false)
+    @JsonIgnore
+    private byte priorityCode; // 0 LOW, 1 MEDIUM, 2 HIGH
+
+    @Column(nullable = true)
+    @Schema(description = "截止时间", example = "2024-01-01T18:00:00")
+    private LocalDateTime deadline;
+
+    @Column(name = "created_at", nullable = false)
+    @Schema(description = "创建时间", example = "2024-01-01T09:00:00")
+    private LocalDateTime createdAt;
+
+    @Column(name = "completed_at", nullable = false)
+    @Schema(description = "完成时间", example = "2024-01-01T17:30:00")
+    private LocalDateTime completedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    @Schema(description = "归档时间", example = "2024-01-08T02:00:00")
+    private LocalDateTime archivedAt;
+
+    protected ArchivedTodo() {
+    }
+
+    /**
+     * 优先级编码，与归档SQL中的CASE表达式一致
+     */
+    public static String priorityCodeSql(String column) {
+        return "CASE " + column + " WHEN 'LOW' THEN 0 WHEN 'HIGH' THEN 2 ELSE 1 END";
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    @JsonProperty("priority")
+    @Schema(description = "优先级：LOW(低)、MEDIUM(中)、HIGH(高)", example = "MEDIUM")
+    public String getPriority() {
+        return priorityCode >= 0 && priorityCode < PRIORITIES.length ? PRIORITIES[priorityCode] : "MEDIUM";
+    }
+
+    public LocalDateTime getDeadline() {
+        return deadline;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
@@ -0,0 +1,65 @@
+package com.todo.model;
+
+import jakarta.persistence.*;
+
+/**
+ * 每日任务一年的完成记录：days是按一年中的第几天编号的位图（第1天为第0位，java.util.BitSet的字节序），
+ * 一年最多366位即46字节，末尾的0字节不保存，平均每个任务每月约4字节
+ */
+@Entity
+@Table(name = "daily_history",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"todo_id", "history_year"}))
+public class DailyHistory {
+
+    public static final int MAX_BYTES = 46;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "todo_id", nullable = false)
+    private Long todoId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "history_year", nullable = false)
+    private int year;
+
+    @Column(nullable = false, length = MAX_BYTES)
+    private byte[] days;
+
+    protected DailyHistory() {
+    }
+
+    public DailyHistory(Long todoId, Long userId, int year) {
+        this.todoId = todoId;
+        this.userId = userId;
+        this.year = year;
+        this.days = new byte[0];
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getTodoId() {
+        return todoId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public byte[] getDays() {
+        return days;
+    }
+
+    public void setDays(byte[] days) {
+        this.days = days;
+    }
+}
@@ -0,0 +1,17 @@
+package com.todo.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * daily_history表的只读映射（R2DBC），供响应式只读节点计算每日任务的连续完成记录
+ */
+@Table("daily_history")
+public record DailyHistoryRow(
+        @Id Long id,
+        Long todoId,
+        Long userId,
+        @Column("history_year") int year,
+        byte[] days) {
+}
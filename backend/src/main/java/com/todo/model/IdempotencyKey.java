@@ -0,0 +1,39 @@
+package com.todo.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 幂等键记录（todo.idempotency.store=jdbc 时使用）
+ * 这里只定义表结构，读写由JdbcIdempotencyStore通过JdbcTemplate完成；
+ * status为0表示请求仍在处理中，此时这一行同时充当跨节点的单飞锁
+ */
+@Entity
+@Table(name = "idempotency_keys",
+        indexes = @Index(name = "idx_idempotency_keys_created", columnList = "created_at"))
+public class IdempotencyKey {
+
+    @Id
+    @Column(length = 300)
+    private String id; // 用户ID:Idempotency-Key
+
+    @Column(nullable = false, length = 64)
+    private String fingerprint; // 请求方法、路径和请求体的SHA-256
+
+    @Column(nullable = false)
+    private int status;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Lob
+    @Column(length = 1048576)
+    private byte[] body;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    protected IdempotencyKey() {
+    }
+}
@@ -0,0 +1,7 @@
+package com.todo.model;
+
+/**
+ * 标签关联查询的一行：条目ID和标签名
+ */
+public record ItemTagRow(Long itemId, String name) {
+}
@@ -0,0 +1,82 @@
+package com.todo.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 共享列表的成员：所有者把自己的一个标签（标签下的待办事项即一个列表）共享给另一个用户
+ * 保存在目录分片（所有者和成员可能在不同的数据分片上），按成员查询走member_id索引
+ */
+@Entity
+@Table(name = "list_shares",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"owner_id", "tag_id", "member_id"}),
+        indexes = @Index(name = "idx_list_shares_member", columnList = "member_id"))
+public class ListShare {
+
+    public static final String VIEWER = "VIEWER"; // 只读
+    public static final String EDITOR = "EDITOR"; // 可以新建、修改、删除列表中的待办事项
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Column(name = "tag_id", nullable = false)
+    private Long tagId;
+
+    @Column(name = "member_id", nullable = false)
+    private Long memberId;
+
+    @Column(nullable = false, length = 8)
+    private String role;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public ListShare() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public ListShare(Long ownerId, Long tagId, Long memberId, String role) {
+        this();
+        this.ownerId = ownerId;
+        this.tagId = tagId;
+        this.memberId = memberId;
+        this.role = role;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public Long getTagId() {
+        return tagId;
+    }
+
+    public Long getMemberId() {
+        return memberId;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public boolean canEdit() {
+        return EDITOR.equals(role);
+    }
+}
@@ -1,11 +1,18 @@
 package com.todo.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Entity
-@Table(name = "notes")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "notes")
+@Table(name = "notes", uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "import_key"}))
 @Schema(description = "笔记实体")
 public class Note {
     @Id
@@ -29,6 +36,16 @@ public class Note {
     @Column(nullable = false)
     @Schema(description = "更新时间", example = "2024-01-01T12:00:00")
     private LocalDateTime updatedAt;
+    
+    @Column(name = "import_key", nullable = true, length = 64)
+    @JsonIgnore
+    @Schema(hidden = true)
+    private String importKey; // 导入来源标识，用于重复导入时幂等更新
+    
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "标签列表", example = "[\"work\"]")
+    private List<String> tags;
 
     public Note() {
         this.updatedAt = LocalDateTime.now();
@@ -86,4 +103,20 @@ public class Note {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public String getImportKey() {
+        return importKey;
+    }
+
+    public void setImportKey(String importKey) {
+        this.importKey = importKey;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
 }
@@ -0,0 +1,19 @@
+package com.todo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * notes表的只读映射（R2DBC），供响应式只读节点使用；JSON字段与Note实体一致（不含user）
+ */
+@Table("notes")
+public record NoteRow(
+        @Id Long id,
+        @JsonIgnore Long userId,
+        String title,
+        String content,
+        LocalDateTime updatedAt) {
+}
@@ -0,0 +1,55 @@
+package com.todo.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+/**
+ * 预聚合的效率统计（GET /api/analytics）
+ * 这里只定义表结构，读写由AnalyticsService通过JdbcTemplate完成。
+ * 每个用户、每个粒度（D日/W周/M月/Y年）、每个周期、每个优先级一行，同一事件同时累加到四个粒度，
+ * 查询时每个柱子只读一行（每个优先级一行），不扫描待办事项表
+ */
+@Entity
+@Table(name = "todo_stats_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_todo_stats_rollup",
+                columnNames = {"user_id", "granularity", "period_start", "priority_code"}))
+public class ProductivityRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 1)
+    private String granularity;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart; // 周期第一天：当天、周一、1日或1月1日
+
+    @Column(name = "priority_code", nullable = false)
+    private byte priorityCode; // 0 LOW, 1 MEDIUM, 2 HIGH，与ArchivedTodo一致
+
+    @Column(nullable = false)
+    private long completed;
+
+    @Column(nullable = false)
+    private long created;
+
+    @Column(nullable = false)
+    private long overdue; // 截止时间在该周期内且未按时完成的非每日任务，由每晚的补算写入
+
+    @Column(name = "effort_minutes", nullable = false)
+    private long effortMinutes; // 完成的任务的预计时长合计
+
+    @Column(name = "daily_completed", nullable = false)
+    private long dailyCompleted; // completed中每日任务的部分（每晚补算只重算非每日任务，比较时扣除）
+
+    @Column(name = "daily_effort_minutes", nullable = false)
+    private long dailyEffortMinutes; // effortMinutes中每日任务的部分
+
+    protected ProductivityRollup() {
+    }
+}
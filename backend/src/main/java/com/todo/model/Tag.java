@@ -0,0 +1,59 @@
+package com.todo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "tags", uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "name"}))
+@Schema(description = "标签")
+public class Tag {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Schema(description = "标签ID", example = "1")
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    @JsonIgnore
+    private Long userId;
+
+    @Column(nullable = false, length = 50)
+    @Schema(description = "标签名（小写）", example = "work")
+    private String name;
+
+    @Column(nullable = false, updatable = false)
+    @Schema(description = "创建时间", example = "2024-01-01T12:00:00")
+    private LocalDateTime createdAt;
+
+    public Tag() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public Tag(Long userId, String name) {
+        this();
+        this.userId = userId;
+        this.name = name;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,66 @@
+package com.todo.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+@Entity
+@Table(name = "tag_assignments",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"tag_id", "item_type", "item_id"}),
+        indexes = {
+                @Index(name = "idx_tag_assignments_user", columnList = "user_id"),
+                @Index(name = "idx_tag_assignments_item", columnList = "item_type, item_id")
+        })
+public class TagAssignment {
+
+    public static final String TODO = "TODO";
+    public static final String NOTE = "NOTE";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "tag_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Tag tag;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId; // 冗余保存，便于按用户重建索引和分片迁移
+
+    @Column(name = "item_type", nullable = false, length = 10)
+    private String itemType; // TODO 或 NOTE
+
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    public TagAssignment() {
+    }
+
+    public TagAssignment(Tag tag, Long userId, String itemType, Long itemId) {
+        this.tag = tag;
+        this.userId = userId;
+        this.itemType = itemType;
+        this.itemId = itemId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Tag getTag() {
+        return tag;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getItemType() {
+        return itemType;
+    }
+
+    public Long getItemId() {
+        return itemId;
+    }
+}
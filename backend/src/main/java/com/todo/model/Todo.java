@@ -1,12 +1,28 @@
 package com.todo.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.todo.dto.DailyStreak;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 @Entity
-@Table(name = "todos")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "todos")
+@DynamicUpdate // 只写入变化的列，避免覆盖由子任务增量维护的进度计数
+@Table(name = "todos",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "import_key"}),
+        indexes = {
+                @Index(name = "idx_todos_deadline", columnList = "deadline"),
+                @Index(name = "idx_todos_user_deadline", columnList = "user_id, deadline")
+        })
 @Schema(description = "待办事项实体")
 public class Todo {
     @Id
@@ -32,12 +48,20 @@ public class Todo {
     @Column(nullable = true)
     private Integer completedSteps; // 已完成步骤数，默认为0
     
+    @Column(name = "remaining_minutes", nullable = true)
+    @Schema(description = "未完成子任务的预计剩余时长（分钟），不为空时进度由子任务维护", example = "45")
+    private Integer remainingMinutes; // 有子任务时由子任务增量维护，为空表示进度由用户手动设置
+    
     @Column(nullable = true)
     private Integer estimatedDuration; // 预计时长数值，用户设置
     
     @Column(nullable = true, length = 20)
     private String durationUnit; // 时长单位：MINUTES, HOURS, DAYS
     
+    @Column(name = "estimated_minutes", nullable = true)
+    @Schema(description = "预计时长折算成的分钟数（1天按8小时工作量计算），由estimatedDuration和durationUnit自动计算", example = "90")
+    private Integer estimatedMinutes; // 统一单位后的预计时长，用于工作量统计
+    
     @Column(nullable = true)
     private LocalDateTime dueDate; // 非每日任务截止时间（可选，向后兼容）
     
@@ -48,11 +72,15 @@ public class Todo {
     @JsonProperty("isDaily")
     private boolean isDaily; // 是否为每日任务
     
+    @Column(name = "recurrence_rule", nullable = true, length = 255)
+    @Schema(description = "重复规则（RFC 5545 RRULE），第一次发生取截止时间，没有截止时间时取创建日期", example = "FREQ=WEEKLY;BYDAY=MO,WE")
+    private String recurrenceRule; // 重复规则，isDaily相当于FREQ=DAILY
+    
     @Column(nullable = true)
     private LocalDateTime lastResetDate; // 上次重置日期（用于每日任务）
     
     @Column(nullable = true)
-    private LocalDateTime completedAt; // 完成时间（用于自动删除旧任务）
+    private LocalDateTime completedAt; // 完成时间（用于自动归档旧任务）
     
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -63,6 +91,30 @@ public class Todo {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
+    
+    @Column(name = "import_key", nullable = true, length = 64)
+    @JsonIgnore
+    private String importKey; // 导入来源标识，用于重复导入时幂等更新
+    
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "子任务列表")
+    private List<TodoStep> steps;
+    
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "标签列表", example = "[\"work\", \"urgent\"]")
+    private List<String> tags;
+
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "每日任务的连续完成天数和完成率")
+    private DailyStreak streak;
+
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(hidden = true)
+    private Map<Integer, byte[]> dailyHistory; // 删除前的完成历史（年份 -> 位图），只出现在撤销删除用的快照中
 
     public Todo() {
         this.createdAt = LocalDateTime.now();
@@ -185,6 +237,7 @@ public class Todo {
 
     public void setEstimatedDuration(Integer estimatedDuration) {
         this.estimatedDuration = estimatedDuration;
+        this.estimatedMinutes = toMinutes(estimatedDuration, durationUnit);
         this.updatedAt = LocalDateTime.now();
     }
 
@@ -194,9 +247,34 @@ public class Todo {
 
     public void setDurationUnit(String durationUnit) {
         this.durationUnit = durationUnit;
+        this.estimatedMinutes = toMinutes(estimatedDuration, durationUnit);
         this.updatedAt = LocalDateTime.now();
     }
 
+    public Integer getEstimatedMinutes() {
+        return estimatedMinutes;
+    }
+
+    /**
+     * 把预计时长换算成分钟：HOURS按60分钟、DAYS按一个工作日（8小时）计算，其他单位或为空时按分钟
+     */
+    public static Integer toMinutes(Integer duration, String unit) {
+        if (duration == null) {
+            return null;
+        }
+        String normalized = unit != null ? unit.trim().toUpperCase() : "MINUTES";
+        switch (normalized) {
+            case "HOURS":
+            case "HOUR":
+                return duration * 60;
+            case "DAYS":
+            case "DAY":
+                return duration * 480;
+            default:
+                return duration;
+        }
+    }
+
     public LocalDateTime getDueDate() {
         return dueDate;
     }
@@ -241,5 +319,97 @@ public class Todo {
         this.completedAt = completedAt;
         this.updatedAt = LocalDateTime.now();
     }
-}
 
+    public String getImportKey() {
+        return importKey;
+    }
+
+    public void setImportKey(String importKey) {
+        this.importKey = importKey;
+    }
+
+    public String getRecurrenceRule() {
+        return recurrenceRule;
+    }
+
+    public void setRecurrenceRule(String recurrenceRule) {
+        this.recurrenceRule = recurrenceRule;
+    }
+
+    public Integer getRemainingMinutes() {
+        return remainingMinutes;
+    }
+
+    public void setRemainingMinutes(Integer remainingMinutes) {
+        this.remainingMinutes = remainingMinutes;
+    }
+
+    /**
+     * 复制全部持久化字段（不经过会修改updatedAt的setter），不含子任务和标签；
+     * 副本不受持久化上下文管理，用于内存中的待办事项列表
+     */
+    public Todo copy() {
+        Todo copy = new Todo();
+        copy.id = id;
+        copy.text = text;
+        copy.completed = completed;
+        copy.priority = priority;
+        copy.totalSteps = totalSteps;
+        copy.completedSteps = completedSteps;
+        copy.remainingMinutes = remainingMinutes;
+        copy.estimatedDuration = estimatedDuration;
+        copy.durationUnit = durationUnit;
+        copy.estimatedMinutes = estimatedMinutes;
+        copy.dueDate = dueDate;
+        copy.deadline = deadline;
+        copy.isDaily = isDaily;
+        copy.recurrenceRule = recurrenceRule;
+        copy.lastResetDate = lastResetDate;
+        copy.completedAt = completedAt;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        copy.user = user;
+        copy.importKey = importKey;
+        return copy;
+    }
+
+    /**
+     * 是否有子任务（此时totalSteps/completedSteps由子任务维护）
+     */
+    @JsonIgnore
+    public boolean hasSteps() {
+        return remainingMinutes != null;
+    }
+
+    public List<TodoStep> getSteps() {
+        return steps;
+    }
+
+    public void setSteps(List<TodoStep> steps) {
+        this.steps = steps;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+
+    public DailyStreak getStreak() {
+        return streak;
+    }
+
+    public void setStreak(DailyStreak streak) {
+        this.streak = streak;
+    }
+
+    public Map<Integer, byte[]> getDailyHistory() {
+        return dailyHistory;
+    }
+
+    public void setDailyHistory(Map<Integer, byte[]> dailyHistory) {
+        this.dailyHistory = dailyHistory;
+    }
+}
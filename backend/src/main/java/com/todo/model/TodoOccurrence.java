@@ -0,0 +1,78 @@
+package com.todo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 重复任务某一次发生的完成状态（只保存有状态的发生，其余由重复规则展开得到）
+ */
+@Entity
+@Table(name = "todo_occurrences",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"todo_id", "occurrence_date"}),
+        indexes = @Index(name = "idx_todo_occurrences_user_date", columnList = "user_id, occurrence_date"))
+public class TodoOccurrence {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "todo_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JsonIgnore
+    private Todo todo;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId; // 冗余保存，按用户和日期范围查询时无需关联todos
+
+    @Column(name = "occurrence_date", nullable = false)
+    private LocalDate occurrenceDate;
+
+    @Column(nullable = false)
+    private boolean completed;
+
+    @Column(nullable = true)
+    private LocalDateTime completedAt;
+
+    public TodoOccurrence() {
+    }
+
+    public TodoOccurrence(Todo todo, Long userId, LocalDate occurrenceDate) {
+        this.todo = todo;
+        this.userId = userId;
+        this.occurrenceDate = occurrenceDate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Todo getTodo() {
+        return todo;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDate getOccurrenceDate() {
+        return occurrenceDate;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+        this.completedAt = completed ? LocalDateTime.now() : null;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+}
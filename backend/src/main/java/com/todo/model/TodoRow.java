@@ -0,0 +1,46 @@
+package com.todo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * todos表的只读映射（R2DBC），供响应式只读节点使用；JSON字段与Todo实体一致（不含user）
+ */
+@Table("todos")
+public record TodoRow(
+        @Id Long id,
+        @JsonIgnore Long userId,
+        String text,
+        boolean completed,
+        String priority,
+        Integer totalSteps,
+        Integer completedSteps,
+        Integer remainingMinutes,
+        Integer estimatedDuration,
+        String durationUnit,
+        Integer estimatedMinutes,
+        LocalDateTime dueDate,
+        LocalDateTime deadline,
+        @JsonProperty("isDaily") boolean isDaily,
+        String recurrenceRule,
+        LocalDateTime lastResetDate,
+        LocalDateTime completedAt,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+
+    /**
+     * 兼容旧数据：durationUnit为空时按分钟返回（与TodoService.getAllTodos一致）
+     */
+    public TodoRow withDefaultDurationUnit() {
+        if (durationUnit != null) {
+            return this;
+        }
+        return new TodoRow(id, userId, text, completed, priority, totalSteps, completedSteps, remainingMinutes,
+                estimatedDuration, "MINUTES", estimatedMinutes, dueDate, deadline, isDaily, recurrenceRule,
+                lastResetDate, completedAt, createdAt, updatedAt);
+    }
+}
@@ -0,0 +1,135 @@
+package com.todo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+
+@Entity
+@DynamicUpdate
+@Table(name = "todo_steps", indexes = @Index(name = "idx_todo_steps_todo", columnList = "todo_id, position"))
+@Schema(description = "子任务")
+public class TodoStep {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Schema(description = "子任务ID", example = "1")
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "todo_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JsonIgnore
+    private Todo todo;
+
+    @Column(name = "user_id", nullable = false)
+    @JsonIgnore
+    private Long userId; // 冗余保存，便于按用户分片迁移
+
+    @Column(nullable = false, length = 500)
+    @Schema(description = "子任务内容", example = "编写大纲")
+    private String text;
+
+    @Column(nullable = false)
+    @Schema(description = "是否已完成", example = "false")
+    private boolean completed;
+
+    @Column(nullable = false)
+    @Schema(description = "排序位置", example = "0")
+    private int position;
+
+    @Column(nullable = true)
+    @Schema(description = "预计时长（分钟）", example = "15")
+    private Integer estimatedMinutes;
+
+    @Column(nullable = true)
+    @Schema(description = "完成时间", example = "2024-01-01T12:00:00")
+    private LocalDateTime completedAt;
+
+    @Version
+    @JsonIgnore
+    private long version; // 乐观锁：并发切换同一子任务时只有一次生效，避免父任务计数重复
+
+    @Column(nullable = false, updatable = false)
+    @Schema(description = "创建时间", example = "2024-01-01T12:00:00")
+    private LocalDateTime createdAt;
+
+    public TodoStep() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public TodoStep(Todo todo, Long userId, String text, Integer estimatedMinutes, int position) {
+        this();
+        this.todo = todo;
+        this.userId = userId;
+        this.text = text;
+        this.estimatedMinutes = estimatedMinutes;
+        this.position = position;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @JsonProperty("todoId")
+    @Schema(description = "所属待办事项ID", example = "1")
+    public Long getTodoId() {
+        return todo != null ? todo.getId() : null;
+    }
+
+    public Todo getTodo() {
+        return todo;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public void setPosition(int position) {
+        this.position = position;
+    }
+
+    public Integer getEstimatedMinutes() {
+        return estimatedMinutes;
+    }
+
+    public void setEstimatedMinutes(Integer estimatedMinutes) {
+        this.estimatedMinutes = estimatedMinutes;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
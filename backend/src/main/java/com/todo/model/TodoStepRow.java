@@ -0,0 +1,23 @@
+package com.todo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * todo_steps表的只读映射（R2DBC），JSON字段与TodoStep实体一致
+ */
+@Table("todo_steps")
+public record TodoStepRow(
+        @Id Long id,
+        Long todoId,
+        @JsonIgnore Long userId,
+        String text,
+        boolean completed,
+        int position,
+        Integer estimatedMinutes,
+        LocalDateTime completedAt,
+        LocalDateTime createdAt) {
+}
@@ -0,0 +1,73 @@
+package com.todo.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "user_shards", indexes = @Index(name = "idx_user_shards_shard", columnList = "shardId"))
+public class UserShard {
+
+    public static final String ACTIVE = "ACTIVE";
+    public static final String MIGRATING = "MIGRATING"; // 迁移中：读取走原分片，写入暂时拒绝
+
+    @Id
+    private Long userId;
+
+    @Column(nullable = false)
+    private int shardId;
+
+    @Column(nullable = false, length = 16)
+    private String state;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    public UserShard() {
+        this.state = ACTIVE;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public UserShard(Long userId, int shardId) {
+        this();
+        this.userId = userId;
+        this.shardId = shardId;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public int getShardId() {
+        return shardId;
+    }
+
+    public void setShardId(int shardId) {
+        this.shardId = shardId;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,24 @@
+package com.todo.repository;
+
+import com.todo.model.ActivityEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ActivityEntryRepository extends JpaRepository<ActivityEntry, Long> {
+
+    // 第一页：最新的操作在前（走 user_id, id 索引）
+    @Query("SELECT a FROM ActivityEntry a WHERE a.userId = :userId ORDER BY a.id DESC")
+    List<ActivityEntry> findFirstPage(Long userId, Pageable pageable);
+
+    // 后续页：键集分页，从上一页最后一条之后继续
+    @Query("SELECT a FROM ActivityEntry a WHERE a.userId = :userId AND a.id < :id ORDER BY a.id DESC")
+    List<ActivityEntry> findPageAfter(Long userId, Long id, Pageable pageable);
+
+    Optional<ActivityEntry> findByIdAndUserId(Long id, Long userId);
+}
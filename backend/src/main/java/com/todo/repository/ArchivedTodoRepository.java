@@ -0,0 +1,24 @@
+package com.todo.repository;
+
+import com.todo.model.ArchivedTodo;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ArchivedTodoRepository extends JpaRepository<ArchivedTodo, Long> {
+
+    // 第一页：按完成时间倒序（走 user_id, completed_at, id 索引）
+    @Query("SELECT a FROM ArchivedTodo a WHERE a.userId = :userId ORDER BY a.completedAt DESC, a.id DESC")
+    List<ArchivedTodo> findFirstPage(Long userId, Pageable pageable);
+
+    // 后续页：从上一页最后一条之后继续（键集分页，翻页再深也不需要OFFSET扫描）
+    @Query("SELECT a FROM ArchivedTodo a WHERE a.userId = :userId " +
+           "AND (a.completedAt < :completedAt OR (a.completedAt = :completedAt AND a.id < :id)) " +
+           "ORDER BY a.completedAt DESC, a.id DESC")
+    List<ArchivedTodo> findPageAfter(Long userId, LocalDateTime completedAt, Long id, Pageable pageable);
+}
@@ -0,0 +1,36 @@
+package com.todo.repository;
+
+import com.todo.model.DailyHistory;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DailyHistoryRepository extends JpaRepository<DailyHistory, Long> {
+    /**
+     * 加行锁读取，同一任务同一年的并发修改依次进行
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<DailyHistory> findByTodoIdAndYear(Long todoId, int year);
+
+    List<DailyHistory> findByTodoIdIn(Collection<Long> todoIds);
+
+    /**
+     * 不存在时插入一行（已存在时什么也不改），并发插入不会违反(todo_id, history_year)唯一约束
+     */
+    @Modifying
+    @Query(value = "INSERT INTO daily_history (todo_id, user_id, history_year, days) "
+            + "VALUES (:todoId, :userId, :year, :days) ON DUPLICATE KEY UPDATE todo_id = todo_id", nativeQuery = true)
+    int insertIfAbsent(Long todoId, Long userId, int year, byte[] days);
+
+    @Modifying
+    @Query("DELETE FROM DailyHistory h WHERE h.todoId = :todoId")
+    int deleteByTodoId(Long todoId);
+}
@@ -0,0 +1,17 @@
+package com.todo.repository;
+
+import com.todo.model.ListShare;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ListShareRepository extends JpaRepository<ListShare, Long> {
+    List<ListShare> findByMemberId(Long memberId);
+
+    List<ListShare> findByOwnerId(Long ownerId);
+
+    Optional<ListShare> findByOwnerIdAndTagIdAndMemberId(Long ownerId, Long tagId, Long memberId);
+}
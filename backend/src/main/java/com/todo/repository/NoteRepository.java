@@ -2,15 +2,44 @@ package com.todo.repository;
 
 import com.todo.model.Note;
 import com.todo.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface NoteRepository extends JpaRepository<Note, Long> {
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "notes-by-user")
+    })
     List<Note> findByUserOrderByUpdatedAtDesc(User user);
     Optional<Note> findByIdAndUser(Long id, User user);
     boolean existsByIdAndUser(Long id, User user);
+    long countByUser(User user);
+    
+    // 按ID顺序流式读取指定用户的全部笔记（游标分批拉取、不进入二级缓存，用于导出）
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = SpecHints.HINT_SPEC_CACHE_RETRIEVE_MODE, value = "BYPASS"),
+            @QueryHint(name = SpecHints.HINT_SPEC_CACHE_STORE_MODE, value = "BYPASS")
+    })
+    @Query("SELECT n FROM Note n WHERE n.user = :user ORDER BY n.id")
+    Stream<Note> streamByUser(User user);
+    
+    @Query("SELECT n.id FROM Note n WHERE n.user.id = :userId")
+    List<Long> findIdsByUserId(Long userId);
+    
+    // 流式读取全部笔记的用户ID和ID（启动时重建标签位图索引）
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT n.user.id, n.id FROM Note n")
+    Stream<Object[]> streamAllIds();
 }
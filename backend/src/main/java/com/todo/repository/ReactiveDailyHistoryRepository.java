@@ -0,0 +1,15 @@
+package com.todo.repository;
+
+import com.todo.model.DailyHistoryRow;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+
+/**
+ * 响应式只读节点的每日任务完成历史查询（R2DBC）
+ */
+public interface ReactiveDailyHistoryRepository extends R2dbcRepository<DailyHistoryRow, Long> {
+
+    Flux<DailyHistoryRow> findByUserId(Long userId);
+
+    Flux<DailyHistoryRow> findByTodoIdAndUserId(Long todoId, Long userId);
+}
@@ -0,0 +1,26 @@
+package com.todo.repository;
+
+import com.todo.model.ItemTagRow;
+import com.todo.model.NoteRow;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 响应式只读节点的笔记查询（R2DBC），写入仍走NoteRepository
+ */
+public interface ReactiveNoteRepository extends R2dbcRepository<NoteRow, Long> {
+
+    Flux<NoteRow> findByUserIdOrderByUpdatedAtDesc(Long userId);
+
+    Mono<NoteRow> findByIdAndUserId(Long id, Long userId);
+
+    @Query("SELECT a.item_id, t.name FROM tag_assignments a JOIN tags t ON t.id = a.tag_id "
+            + "WHERE a.user_id = :userId AND a.item_type = 'NOTE' ORDER BY t.name")
+    Flux<ItemTagRow> findTags(Long userId);
+
+    @Query("SELECT a.item_id, t.name FROM tag_assignments a JOIN tags t ON t.id = a.tag_id "
+            + "WHERE a.user_id = :userId AND a.item_type = 'NOTE' AND a.item_id = :noteId ORDER BY t.name")
+    Flux<ItemTagRow> findTagsOf(Long userId, Long noteId);
+}
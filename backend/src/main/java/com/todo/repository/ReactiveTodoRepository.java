@@ -0,0 +1,33 @@
+package com.todo.repository;
+
+import com.todo.model.ItemTagRow;
+import com.todo.model.TodoRow;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 响应式只读节点的待办事项查询（R2DBC），写入仍走TodoRepository
+ */
+public interface ReactiveTodoRepository extends R2dbcRepository<TodoRow, Long> {
+
+    // status为ALL、COMPLETED或ACTIVE，priority为空串表示不限；
+    // 排序与TodoListCacheService.LIST_ORDER一致：每日任务沉底，其余按截止时间升序（没有截止时间的排最后），再按创建时间、ID
+    @Query("SELECT * FROM todos WHERE user_id = :userId "
+            + "AND (:status = 'ALL' OR (:status = 'COMPLETED' AND completed = TRUE) OR (:status = 'ACTIVE' AND completed = FALSE)) "
+            + "AND (:priority = '' OR priority = :priority) "
+            + "ORDER BY is_daily, CASE WHEN is_daily = TRUE OR deadline IS NULL THEN 1 ELSE 0 END, "
+            + "CASE WHEN is_daily = FALSE THEN deadline END, created_at, id")
+    Flux<TodoRow> findForList(Long userId, String status, String priority);
+
+    Mono<TodoRow> findByIdAndUserId(Long id, Long userId);
+
+    @Query("SELECT a.item_id, t.name FROM tag_assignments a JOIN tags t ON t.id = a.tag_id "
+            + "WHERE a.user_id = :userId AND a.item_type = 'TODO' ORDER BY t.name")
+    Flux<ItemTagRow> findTags(Long userId);
+
+    @Query("SELECT a.item_id, t.name FROM tag_assignments a JOIN tags t ON t.id = a.tag_id "
+            + "WHERE a.user_id = :userId AND a.item_type = 'TODO' AND a.item_id = :todoId ORDER BY t.name")
+    Flux<ItemTagRow> findTagsOf(Long userId, Long todoId);
+}
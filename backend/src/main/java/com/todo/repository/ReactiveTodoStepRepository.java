@@ -0,0 +1,15 @@
+package com.todo.repository;
+
+import com.todo.model.TodoStepRow;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+
+/**
+ * 响应式只读节点的子任务查询（R2DBC）
+ */
+public interface ReactiveTodoStepRepository extends R2dbcRepository<TodoStepRow, Long> {
+
+    Flux<TodoStepRow> findByUserIdOrderByTodoIdAscPositionAsc(Long userId);
+
+    Flux<TodoStepRow> findByTodoIdAndUserIdOrderByPositionAsc(Long todoId, Long userId);
+}
@@ -0,0 +1,32 @@
+package com.todo.repository;
+
+import com.todo.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    // 根据jti查询刷新令牌（唯一索引）
+    Optional<RefreshToken> findByJti(String jti);
+
+    // 撤销尚未撤销的刷新令牌，返回0表示已被撤销（并发刷新时只有一个请求能轮换成功）
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revoked = true WHERE r.jti = :jti AND r.revoked = false")
+    int revokeIfActive(String jti);
+
+    // 撤销指定用户的所有刷新令牌（检测到令牌重用时调用）
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revoked = true WHERE r.user.id = :userId AND r.revoked = false")
+    int revokeAllByUserId(Long userId);
+
+    // 删除已过期的刷新令牌
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.expiresAt < :now")
+    int deleteExpiredBefore(LocalDateTime now);
+}
@@ -0,0 +1,42 @@
+package com.todo.repository;
+
+import com.todo.model.TagAssignment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface TagAssignmentRepository extends JpaRepository<TagAssignment, Long> {
+
+    // 指定用户的全部标签关联：标签ID、标签名、条目类型、条目ID（用于构建位图索引）
+    @Query("SELECT a.tag.id, a.tag.name, a.itemType, a.itemId FROM TagAssignment a WHERE a.userId = :userId")
+    List<Object[]> findMembershipByUserId(Long userId);
+
+    @Query("SELECT a FROM TagAssignment a WHERE a.itemType = :itemType AND a.itemId = :itemId")
+    List<TagAssignment> findByItem(String itemType, Long itemId);
+
+    // 条目是否带有指定标签（走tag_id, item_type, item_id唯一索引）
+    @Query("SELECT COUNT(a) > 0 FROM TagAssignment a WHERE a.tag.id = :tagId AND a.itemType = :itemType AND a.itemId = :itemId")
+    boolean existsByTagAndItem(Long tagId, String itemType, Long itemId);
+
+    @Modifying
+    @Query("DELETE FROM TagAssignment a WHERE a.itemType = :itemType AND a.itemId = :itemId")
+    int deleteByItem(String itemType, Long itemId);
+
+    @Modifying
+    @Query("DELETE FROM TagAssignment a WHERE a.itemType = :itemType AND a.itemId IN :itemIds")
+    int deleteByItems(String itemType, Collection<Long> itemIds);
+
+    // 启动时按用户顺序流式读取全部标签关联，重建位图索引
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT a.userId, a.tag.id, a.tag.name, a.itemType, a.itemId FROM TagAssignment a ORDER BY a.userId")
+    Stream<Object[]> streamAllMemberships();
+}
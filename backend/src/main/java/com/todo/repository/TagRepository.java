@@ -0,0 +1,26 @@
+package com.todo.repository;
+
+import com.todo.model.Tag;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+public interface TagRepository extends JpaRepository<Tag, Long> {
+    List<Tag> findByUserIdOrderByName(Long userId);
+
+    List<Tag> findByUserIdAndNameIn(Long userId, Collection<String> names);
+
+    Optional<Tag> findByIdAndUserId(Long id, Long userId);
+
+    boolean existsByUserIdAndName(Long userId, String name);
+
+    // 流式读取全部标签：用户ID、标签ID、标签名（启动时重建标签位图索引，包括尚未使用的标签）
+    @Query("SELECT t.userId, t.id, t.name FROM Tag t")
+    Stream<Object[]> streamAllNames();
+}
@@ -0,0 +1,21 @@
+package com.todo.repository;
+
+import com.todo.model.TodoOccurrence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TodoOccurrenceRepository extends JpaRepository<TodoOccurrence, Long> {
+
+    // 查询指定用户在日期范围内已记录完成状态的发生（只取todoId、日期、完成状态）
+    @Query("SELECT o.todo.id, o.occurrenceDate, o.completed FROM TodoOccurrence o " +
+           "WHERE o.userId = :userId AND o.occurrenceDate BETWEEN :from AND :to")
+    List<Object[]> findStatesBetween(Long userId, LocalDate from, LocalDate to);
+
+    Optional<TodoOccurrence> findByTodoIdAndOccurrenceDate(Long todoId, LocalDate occurrenceDate);
+}
@@ -2,26 +2,49 @@ package com.todo.repository;
 
 import com.todo.model.Todo;
 import com.todo.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TodoRepository extends JpaRepository<Todo, Long> {
     
     // 查询指定用户的所有待办事项
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "todos-by-user")
+    })
     List<Todo> findByUser(User user);
     
     // 查询指定用户未完成的待办事项
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "todos-by-user")
+    })
     List<Todo> findByUserAndCompletedFalse(User user);
     
     // 查询指定用户已完成的待办事项
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "todos-by-user")
+    })
     List<Todo> findByUserAndCompletedTrue(User user);
     
+    // 统计指定用户的待办事项数量
+    long countByUser(User user);
+    
+    long countByUserAndCompletedTrue(User user);
+    
     // 查询指定用户根据优先级查询
     List<Todo> findByUserAndPriority(User user, String priority);
     
@@ -35,7 +58,54 @@ public interface TodoRepository extends JpaRepository<Todo, Long> {
     // 检查指定用户的待办事项是否存在
     boolean existsByIdAndUser(Long id, User user);
     
-    // 查询所有完成时间早于指定日期的已完成任务
-    @Query("SELECT t FROM Todo t WHERE t.completed = true AND t.completedAt IS NOT NULL AND t.completedAt < :cutoffDate")
-    List<Todo> findCompletedBefore(LocalDateTime cutoffDate);
+    // 重置前一天及更早完成的每日任务
+    @Modifying
+    @Query("UPDATE Todo t SET t.completed = false, t.completedAt = NULL, " +
+           "t.completedSteps = CASE WHEN t.completedSteps IS NULL THEN NULL ELSE 0 END, " +
+           "t.lastResetDate = :now, t.updatedAt = :now " +
+           "WHERE t.isDaily = true AND t.lastResetDate < :startOfToday")
+    int resetDailyTodos(LocalDateTime startOfToday, LocalDateTime now);
+    
+    // 为尚未设置重置日期的每日任务初始化重置日期
+    @Modifying
+    @Query("UPDATE Todo t SET t.lastResetDate = :now WHERE t.isDaily = true AND t.lastResetDate IS NULL")
+    int initDailyResetDate(LocalDateTime now);
+    
+    // 向后兼容：将旧数据的dueDate回填到deadline
+    @Modifying
+    @Query("UPDATE Todo t SET t.deadline = t.dueDate WHERE t.deadline IS NULL AND t.dueDate IS NOT NULL")
+    int backfillDeadlineFromDueDate();
+    
+    // 向后兼容：按durationUnit把旧数据的预计时长换算成分钟（与Todo.toMinutes一致）
+    @Modifying
+    @Query("UPDATE Todo t SET t.estimatedMinutes = CASE " +
+           "WHEN UPPER(t.durationUnit) IN ('HOURS', 'HOUR') THEN t.estimatedDuration * 60 " +
+           "WHEN UPPER(t.durationUnit) IN ('DAYS', 'DAY') THEN t.estimatedDuration * 480 " +
+           "ELSE t.estimatedDuration END " +
+           "WHERE t.estimatedMinutes IS NULL AND t.estimatedDuration IS NOT NULL")
+    int backfillEstimatedMinutes();
+    
+    // 按ID顺序流式读取指定用户的全部待办事项（游标分批拉取、不进入二级缓存，用于导出）
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = SpecHints.HINT_SPEC_CACHE_RETRIEVE_MODE, value = "BYPASS"),
+            @QueryHint(name = SpecHints.HINT_SPEC_CACHE_STORE_MODE, value = "BYPASS")
+    })
+    @Query("SELECT t FROM Todo t WHERE t.user = :user ORDER BY t.id")
+    Stream<Todo> streamByUser(User user);
+    
+    // 查询截止时间在指定区间内的未完成任务（走deadline索引，只取提醒所需的字段：id、用户ID、截止时间）
+    @Query("SELECT t.id, t.user.id, t.deadline FROM Todo t " +
+           "WHERE t.deadline > :from AND t.deadline <= :to AND t.completed = false AND t.isDaily = false")
+    List<Object[]> findDeadlinesBetween(LocalDateTime from, LocalDateTime to);
+    
+    // 指定用户全部待办事项的筛选字段：ID、完成状态、优先级（用于构建标签位图索引）
+    @Query("SELECT t.id, t.completed, t.priority FROM Todo t WHERE t.user.id = :userId")
+    List<Object[]> findFacetsByUserId(Long userId);
+    
+    // 流式读取全部待办事项的筛选字段：用户ID、ID、完成状态、优先级（启动时重建标签位图索引）
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT t.user.id, t.id, t.completed, t.priority FROM Todo t")
+    Stream<Object[]> streamAllFacets();
 }
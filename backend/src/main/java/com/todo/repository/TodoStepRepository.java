@@ -0,0 +1,29 @@
+package com.todo.repository;
+
+import com.todo.model.TodoStep;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TodoStepRepository extends JpaRepository<TodoStep, Long> {
+
+    // 一次查询取出一批待办事项的全部子任务（避免逐个查询的N+1）
+    @Query("SELECT s FROM TodoStep s WHERE s.todo.id IN :todoIds ORDER BY s.todo.id, s.position, s.id")
+    List<TodoStep> findByTodoIds(Collection<Long> todoIds);
+
+    @Query("SELECT s FROM TodoStep s WHERE s.todo.id = :todoId ORDER BY s.position, s.id")
+    List<TodoStep> findByTodoId(Long todoId);
+
+    @Query("SELECT s FROM TodoStep s WHERE s.id = :id AND s.todo.id = :todoId AND s.userId = :userId")
+    Optional<TodoStep> findOwned(Long id, Long todoId, Long userId);
+
+    @Modifying
+    @Query("DELETE FROM TodoStep s WHERE s.todo.id = :todoId")
+    int deleteByTodoId(Long todoId);
+}
@@ -0,0 +1,18 @@
+package com.todo.repository;
+
+import com.todo.model.UserShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserShardRepository extends JpaRepository<UserShard, Long> {
+
+    // 统计每个分片的用户数：[shardId, count]
+    @Query("SELECT s.shardId, COUNT(s) FROM UserShard s GROUP BY s.shardId")
+    List<Object[]> countUsersByShard();
+
+    List<UserShard> findByShardId(int shardId);
+}
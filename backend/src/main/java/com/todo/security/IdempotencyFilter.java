@@ -0,0 +1,218 @@
+package com.todo.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+
+/**
+ * Idempotency-Key 支持：带该请求头的POST请求，同一用户同一个键只执行一次，
+ * 之后的重试直接返回第一次的响应（带 Idempotent-Replayed: true）。
+ * 第一次请求还在处理时，并发的重试等待它完成而不是再执行一次；
+ * 同一个键用于不同的请求（方法、路径或请求体不同）返回422。
+ * 只保存2xx响应，失败的请求释放键，允许用同一个键重试；2xx响应中报告的业务失败（如MCP工具调用返回isError）
+ * 是确定的结果，照常保存和回放。只接受 text/event-stream 的流式请求无法回放，不做幂等处理，也不缓冲响应
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    private IdempotencyStore store;
+
+    @Value("${todo.idempotency.enabled:true}")
+    private boolean enabled;
+
+    @Value("${todo.idempotency.lock-timeout:30s}")
+    private Duration lockTimeout;
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(HEADER);
+        if (!enabled || key == null || !"POST".equals(request.getMethod())
+                || !(request.getAttribute(RateLimitFilter.USER_ID_ATTRIBUTE) instanceof Long userId)
+                || isEventStream(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        key = key.trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST, "Idempotency-Key不能为空且不能超过" + MAX_KEY_LENGTH + "个字符");
+            return;
+        }
+
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String fingerprint = fingerprint(cachedRequest);
+        String id = userId + ":" + key;
+
+        IdempotencyRecord existing = store.acquire(id, fingerprint);
+        long deadline = System.currentTimeMillis() + lockTimeout.toMillis();
+        try {
+            while (existing != null && existing.isPending()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (!existing.fingerprint().equals(fingerprint) || remaining <= 0) {
+                    break;
+                }
+                existing = store.awaitCompletion(id, remaining);
+                if (existing == null) {
+                    // 第一个请求失败并释放了键，由当前请求重新执行
+                    existing = store.acquire(id, fingerprint);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (existing != null) {
+            if (!existing.fingerprint().equals(fingerprint)) {
+                writeError(response, 422, "Idempotency-Key已用于其他请求");
+            } else if (existing.isPending()) {
+                response.setHeader("Retry-After", "1");
+                writeError(response, HttpServletResponse.SC_CONFLICT, "相同Idempotency-Key的请求仍在处理中，请稍后重试");
+            } else {
+                replay(existing, response);
+            }
+            return;
+        }
+
+        ContentCachingResponseWrapper cachedResponse = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            chain.doFilter(cachedRequest, cachedResponse);
+            int status = cachedResponse.getStatus();
+            if (status >= 200 && status < 300) {
+                store.complete(id, new IdempotencyRecord(fingerprint, status,
+                        cachedResponse.getContentType(), cachedResponse.getContentAsByteArray()));
+                completed = true;
+            }
+        } finally {
+            if (!completed) {
+                store.release(id);
+            }
+            cachedResponse.copyBodyToResponse();
+        }
+    }
+
+    private boolean isEventStream(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept != null
+                && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE)
+                && !accept.contains(MediaType.APPLICATION_JSON_VALUE);
+    }
+
+    private void replay(IdempotencyRecord record, HttpServletResponse response) throws IOException {
+        response.setStatus(record.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (record.contentType() != null) {
+            response.setContentType(record.contentType());
+        }
+        if (record.body() != null) {
+            response.setContentLength(record.body().length);
+            response.getOutputStream().write(record.body());
+        }
+    }
+
+    private void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json;charset=UTF-8");
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+
+    private String fingerprint(CachedBodyRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + " " + request.getRequestURI() + "?"
+                    + (request.getQueryString() != null ? request.getQueryString() : "") + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            digest.update(request.body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 定期清理过期的幂等键
+     */
+    @Scheduled(fixedDelayString = "${todo.idempotency.evict-interval:600000}")
+    public void evictExpired() {
+        store.evictExpired();
+    }
+
+    /**
+     * 预先读出请求体（计算指纹需要），之后交给控制器重新读取
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.todo.security;
+
+/**
+ * 幂等键对应的请求记录：处理中（status为0）或已完成的响应
+ */
+public record IdempotencyRecord(String fingerprint, int status, String contentType, byte[] body) {
+
+    public static IdempotencyRecord pending(String fingerprint) {
+        return new IdempotencyRecord(fingerprint, 0, null, null);
+    }
+
+    public boolean isPending() {
+        return status == 0;
+    }
+}
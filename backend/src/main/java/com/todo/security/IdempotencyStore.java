@@ -0,0 +1,42 @@
+package com.todo.security;
+
+/**
+ * 幂等键存储：(用户, Idempotency-Key) → 第一次请求的响应
+ * 默认使用本机内存实现（LocalIdempotencyStore，有容量上限，按TTL过期）；
+ * 需要在重启后或多节点之间保留时，通过 todo.idempotency.store=jdbc 切换为数据库实现
+ */
+public interface IdempotencyStore {
+
+    /**
+     * 尝试占用幂等键（单飞锁）
+     *
+     * @param id          用户ID:Idempotency-Key
+     * @param fingerprint 请求指纹，用于识别同一个键被用于不同请求
+     * @return null 表示占用成功，调用方处理请求后必须调用complete或release；
+     *         否则返回已有的记录（可能仍在处理中）
+     */
+    IdempotencyRecord acquire(String id, String fingerprint);
+
+    /**
+     * 等待处理中的请求完成
+     *
+     * @return 完成后的记录；占用方放弃（release）或记录已过期时返回null，调用方可以重新占用；
+     *         超时仍未完成时返回处理中的记录
+     */
+    IdempotencyRecord awaitCompletion(String id, long timeoutMillis) throws InterruptedException;
+
+    /**
+     * 保存响应并唤醒等待者
+     */
+    void complete(String id, IdempotencyRecord record);
+
+    /**
+     * 放弃占用（请求失败时），允许客户端用同一个键重试
+     */
+    void release(String id);
+
+    /**
+     * 清理过期的记录
+     */
+    void evictExpired();
+}
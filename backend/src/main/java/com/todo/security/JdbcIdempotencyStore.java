@@ -0,0 +1,109 @@
+package com.todo.security;
+
+import com.todo.service.ShardRouter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 数据库中的幂等键存储（idempotency_keys表），重启后和多节点之间都有效
+ * 占用键就是插入一行status为0的记录，主键冲突说明已被占用；
+ * 处理中的行超过lock-timeout仍未完成，视为占用方已崩溃，可以被重新占用
+ */
+@Component
+@ConditionalOnProperty(name = "todo.idempotency.store", havingValue = "jdbc")
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+    private static final long POLL_INTERVAL_MILLIS = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final Duration ttl;
+    private final Duration lockTimeout;
+
+    @Autowired
+    public JdbcIdempotencyStore(JdbcTemplate jdbcTemplate, ShardRouter shardRouter,
+                                @Value("${todo.idempotency.ttl:24h}") Duration ttl,
+                                @Value("${todo.idempotency.lock-timeout:30s}") Duration lockTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.ttl = ttl;
+        this.lockTimeout = lockTimeout;
+    }
+
+    @Override
+    public IdempotencyRecord acquire(String id, String fingerprint) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                jdbcTemplate.update("INSERT INTO idempotency_keys (id, fingerprint, status, created_at) VALUES (?, ?, 0, ?)",
+                        id, fingerprint, Timestamp.valueOf(LocalDateTime.now()));
+                return null;
+            } catch (DuplicateKeyException e) {
+                // 已过期的记录和超时未完成的占用都可以删除后重新占用
+                LocalDateTime now = LocalDateTime.now();
+                int removed = jdbcTemplate.update("DELETE FROM idempotency_keys WHERE id = ? AND (created_at < ? OR (status = 0 AND created_at < ?))",
+                        id, Timestamp.valueOf(now.minus(ttl)), Timestamp.valueOf(now.minus(lockTimeout)));
+                if (removed == 0) {
+                    IdempotencyRecord existing = find(id);
+                    if (existing != null) {
+                        return existing;
+                    }
+                }
+            }
+        }
+        // 两次都与其他请求冲突，按处理中对待，由调用方等待
+        return IdempotencyRecord.pending(fingerprint);
+    }
+
+    @Override
+    public IdempotencyRecord awaitCompletion(String id, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (true) {
+            IdempotencyRecord record = find(id);
+            if (record == null || !record.isPending() || System.currentTimeMillis() >= deadline) {
+                return record;
+            }
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        }
+    }
+
+    @Override
+    public void complete(String id, IdempotencyRecord record) {
+        jdbcTemplate.update("UPDATE idempotency_keys SET status = ?, content_type = ?, body = ? WHERE id = ?",
+                record.status(), record.contentType(), record.body(), id);
+    }
+
+    @Override
+    public void release(String id) {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE id = ? AND status = 0", id);
+    }
+
+    @Override
+    public void evictExpired() {
+        // 请求路径上由JwtAuthenticationFilter选好用户所在分片，定时清理需要逐个分片执行
+        Timestamp expiredBefore = Timestamp.valueOf(LocalDateTime.now().minus(ttl));
+        shardRouter.forEachShard(shardId -> {
+            int removed = jdbcTemplate.update("DELETE FROM idempotency_keys WHERE created_at < ?", expiredBefore);
+            if (removed > 0) {
+                System.out.println("清理过期幂等键: 分片 " + shardId + "，" + removed + " 条");
+            }
+        });
+    }
+
+    private IdempotencyRecord find(String id) {
+        List<IdempotencyRecord> records = jdbcTemplate.query(
+                "SELECT fingerprint, status, content_type, body FROM idempotency_keys WHERE id = ?",
+                (rs, rowNum) -> new IdempotencyRecord(rs.getString("fingerprint"), rs.getInt("status"),
+                        rs.getString("content_type"), rs.getBytes("body")),
+                id);
+        return records.isEmpty() ? null : records.get(0);
+    }
+}
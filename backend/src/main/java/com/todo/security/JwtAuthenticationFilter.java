@@ -1,5 +1,7 @@
 package com.todo.security;
 
+import com.todo.config.ShardContext;
+import com.todo.service.ShardRouter;
 import com.todo.util.JwtUtil;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -26,6 +28,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private ShardRouter shardRouter;
+
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain chain)
             throws ServletException, IOException {
@@ -59,7 +64,42 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 // 后续的SecurityFilterChain会处理未认证的请求
             }
         }
-        chain.doFilter(request, response);
+
+        Long userId = null;
+        if (jwt != null && SecurityContextHolder.getContext().getAuthentication() != null) {
+            userId = jwtUtil.extractUserId(jwt);
+            // 供后续的限流过滤器按用户取令牌
+            request.setAttribute(RateLimitFilter.USER_ID_ATTRIBUTE, userId);
+        }
+
+        // 按用户所在分片路由本次请求的数据访问
+        Integer shardId = null;
+        if (shardRouter.isEnabled() && userId != null) {
+            if (shardRouter.isMigrating(userId) && !isReadOnlyRequest(request)) {
+                // 用户数据迁移中，暂停写入
+                response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                response.setHeader("Retry-After", "5");
+                response.setContentType("application/json;charset=UTF-8");
+                response.getWriter().write("{\"error\":\"数据迁移中，请稍后重试\"}");
+                return;
+            }
+            shardId = shardRouter.shardOf(userId);
+        }
+        ShardContext.set(shardId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ShardContext.clear();
+        }
+    }
+
+    /**
+     * GraphQL接口只提供查询，迁移期间也允许访问
+     */
+    private boolean isReadOnlyRequest(HttpServletRequest request) {
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method)
+                || ("POST".equals(method) && "/api/graphql".equals(request.getServletPath()));
     }
 }
 
@@ -0,0 +1,53 @@
+package com.todo.security;
+
+import com.todo.util.JwtUtil;
+import io.jsonwebtoken.JwtException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.server.authentication.ServerAuthenticationConverter;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * 响应式只读节点的JWT认证：只校验签名、有效期和令牌类型，principal为令牌中的userId
+ * 与JwtAuthenticationFilter不同，不再逐个请求查询用户表，避免在事件循环线程上做阻塞查询
+ */
+public class JwtReactiveAuthenticationManager implements ReactiveAuthenticationManager, ServerAuthenticationConverter {
+
+    private final JwtUtil jwtUtil;
+
+    public JwtReactiveAuthenticationManager(JwtUtil jwtUtil) {
+        this.jwtUtil = jwtUtil;
+    }
+
+    @Override
+    public Mono<Authentication> convert(ServerWebExchange exchange) {
+        String authorizationHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
+            return Mono.empty();
+        }
+        return Mono.just(UsernamePasswordAuthenticationToken.unauthenticated(null, authorizationHeader.substring(7)));
+    }
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        return Mono.fromCallable(() -> {
+            String jwt = (String) authentication.getCredentials();
+            try {
+                String username = jwtUtil.extractUsername(jwt);
+                if (!jwtUtil.validateToken(jwt, username)) {
+                    throw new BadCredentialsException("Token无效");
+                }
+                Long userId = jwtUtil.extractUserId(jwt);
+                return UsernamePasswordAuthenticationToken.authenticated(userId, jwt, List.of());
+            } catch (JwtException | IllegalArgumentException e) {
+                throw new BadCredentialsException("Token无效", e);
+            }
+        });
+    }
+}
@@ -0,0 +1,89 @@
+package com.todo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 本机内存中的幂等键存储
+ * 每个键对应一个CompletableFuture：第一个请求占用键并在完成时写入响应，
+ * 同一个键的并发重试直接等待这个Future，不会重复执行；条目数有上限，写入后超过TTL过期
+ */
+@Component
+@ConditionalOnProperty(name = "todo.idempotency.store", havingValue = "local", matchIfMissing = true)
+public class LocalIdempotencyStore implements IdempotencyStore {
+
+    private static final class Entry {
+        final String fingerprint;
+        final CompletableFuture<IdempotencyRecord> result = new CompletableFuture<>();
+
+        Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private final Cache<String, Entry> entries;
+
+    public LocalIdempotencyStore(@Value("${todo.idempotency.ttl:24h}") Duration ttl,
+                                 @Value("${todo.idempotency.max-entries:10000}") long maxEntries) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @Override
+    public IdempotencyRecord acquire(String id, String fingerprint) {
+        Entry existing = entries.asMap().putIfAbsent(id, new Entry(fingerprint));
+        if (existing == null) {
+            return null;
+        }
+        IdempotencyRecord record = existing.result.getNow(null);
+        return record != null ? record : IdempotencyRecord.pending(existing.fingerprint);
+    }
+
+    @Override
+    public IdempotencyRecord awaitCompletion(String id, long timeoutMillis) throws InterruptedException {
+        Entry entry = entries.getIfPresent(id);
+        if (entry == null) {
+            return null;
+        }
+        try {
+            return entry.result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return IdempotencyRecord.pending(entry.fingerprint);
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void complete(String id, IdempotencyRecord record) {
+        Entry entry = entries.getIfPresent(id);
+        if (entry != null) {
+            entry.result.complete(record);
+        }
+    }
+
+    @Override
+    public void release(String id) {
+        Entry entry = entries.asMap().remove(id);
+        if (entry != null) {
+            // 等待者拿到null后重新占用
+            entry.result.complete(null);
+        }
+    }
+
+    @Override
+    public void evictExpired() {
+        entries.cleanUp();
+    }
+}
@@ -0,0 +1,47 @@
+package com.todo.security;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本机内存中的限流存储
+ * 每个桶只保存一个"理论到达时间"（TAT），取令牌就是一次CAS，无锁；
+ * TAT早于当前时间说明桶已回满，与不存在等价，可以直接删除
+ */
+@Component
+@ConditionalOnProperty(name = "todo.ratelimit.store", havingValue = "local", matchIfMissing = true)
+public class LocalRateLimitStore implements RateLimitStore {
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    @Override
+    public long tryAcquire(String key, long emissionIntervalNanos, long burstNanos) {
+        AtomicLong tat = buckets.get(key);
+        if (tat == null) {
+            tat = buckets.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE));
+        }
+        while (true) {
+            long now = System.nanoTime();
+            long current = tat.get();
+            long base = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+            long next = base + emissionIntervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    @Override
+    public void evictIdle() {
+        // 与tryAcquire并发时可能丢掉刚消耗的一个令牌，只会让限流略微宽松
+        long now = System.nanoTime();
+        buckets.values().removeIf(tat -> tat.get() - now <= 0);
+    }
+}
@@ -0,0 +1,132 @@
+package com.todo.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按用户限流（令牌桶）
+ * 读、写请求分别使用各自的桶，键为JWT中的userId；登录接口按客户端IP单独限流。
+ * MCP请求本身按读请求计费，其中的工具调用再按只读/写入分别计费（见acquireOperations）。
+ * 超出配额返回429并带上Retry-After
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    /** JwtAuthenticationFilter认证成功后写入的userId请求属性 */
+    public static final String USER_ID_ATTRIBUTE = RateLimitFilter.class.getName() + ".userId";
+
+    @Autowired
+    private RateLimitStore store;
+
+    @Value("${todo.ratelimit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${todo.ratelimit.read.capacity:60}")
+    private int readCapacity;
+
+    @Value("${todo.ratelimit.read.per-second:20}")
+    private double readPerSecond;
+
+    @Value("${todo.ratelimit.write.capacity:30}")
+    private int writeCapacity;
+
+    @Value("${todo.ratelimit.write.per-second:5}")
+    private double writePerSecond;
+
+    @Value("${todo.ratelimit.login.capacity:5}")
+    private int loginCapacity;
+
+    @Value("${todo.ratelimit.login.per-second:0.1}")
+    private double loginPerSecond;
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain chain)
+            throws ServletException, IOException {
+        if (!enabled) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long wait = 0;
+        if ("POST".equals(request.getMethod()) && "/api/auth/login".equals(request.getServletPath())) {
+            wait = acquire("login:" + request.getRemoteAddr(), loginCapacity, loginPerSecond);
+        } else if (request.getAttribute(USER_ID_ATTRIBUTE) instanceof Long userId) {
+            wait = isReadOnlyRequest(request)
+                    ? acquire("r:" + userId, readCapacity, readPerSecond)
+                    : acquire("w:" + userId, writeCapacity, writePerSecond);
+        }
+
+        if (wait > 0) {
+            reject(response, wait);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * 一个请求中包含多个操作时（如MCP批量请求中的多个工具调用），按操作数补扣配额：
+     * 过滤器已为请求本身扣过一个读令牌，这里再扣除reads - 1个读令牌和writes个写令牌。
+     * 超出配额时写入429响应并返回false（先检查写配额，被拒绝时不消耗读配额）
+     */
+    public boolean acquireOperations(HttpServletRequest request, HttpServletResponse response, int reads, int writes)
+            throws IOException {
+        if (!enabled || !(request.getAttribute(USER_ID_ATTRIBUTE) instanceof Long userId)) {
+            return true;
+        }
+        long wait = writes > 0 ? acquire("w:" + userId, writeCapacity, writePerSecond, writes) : 0;
+        if (wait == 0 && reads > 1) {
+            wait = acquire("r:" + userId, readCapacity, readPerSecond, reads - 1);
+        }
+        if (wait > 0) {
+            reject(response, wait);
+            return false;
+        }
+        return true;
+    }
+
+    private void reject(HttpServletResponse response, long wait) throws IOException {
+        response.setStatus(429);
+        response.setHeader("Retry-After", String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999))));
+        response.setContentType("application/json;charset=UTF-8");
+        response.getWriter().write("{\"error\":\"请求过于频繁，请稍后重试\"}");
+    }
+
+    private long acquire(String key, int capacity, double perSecond) {
+        return acquire(key, capacity, perSecond, 1);
+    }
+
+    // GCRA中一次取n个令牌等价于把理论到达时间推后n个发射间隔
+    private long acquire(String key, int capacity, double perSecond, int tokens) {
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / perSecond);
+        return store.tryAcquire(key, interval * tokens, interval * capacity);
+    }
+
+    /**
+     * GraphQL接口只提供查询，POST请求也按读请求限流；MCP请求的写入工具调用由控制器另外计入写配额
+     */
+    private boolean isReadOnlyRequest(HttpServletRequest request) {
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method)
+                || ("POST".equals(method) && ("/api/graphql".equals(request.getServletPath())
+                        || "/api/mcp".equals(request.getServletPath())));
+    }
+
+    /**
+     * 定期清理已回满的桶，活跃用户数量之外不占内存
+     */
+    @Scheduled(fixedDelayString = "${todo.ratelimit.evict-interval:60000}")
+    public void evictIdleBuckets() {
+        store.evictIdle();
+    }
+}
@@ -0,0 +1,24 @@
+package com.todo.security;
+
+/**
+ * 限流令牌桶的存储
+ * 默认使用本机内存实现（LocalRateLimitStore）；多节点部署需要共享配额时，
+ * 可提供基于共享存储（如Redis）的实现并通过 todo.ratelimit.store 切换
+ */
+public interface RateLimitStore {
+
+    /**
+     * 尝试从指定的桶中取一个令牌（GCRA算法）
+     *
+     * @param key                 桶的键
+     * @param emissionIntervalNanos 每生成一个令牌需要的纳秒数（1 / 速率）
+     * @param burstNanos          桶容量对应的纳秒数（容量 * emissionIntervalNanos）
+     * @return 0 表示放行；否则为需要等待的纳秒数
+     */
+    long tryAcquire(String key, long emissionIntervalNanos, long burstNanos);
+
+    /**
+     * 清理已经回满（即长时间未使用）的桶
+     */
+    void evictIdle();
+}
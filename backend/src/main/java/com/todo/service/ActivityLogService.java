@@ -0,0 +1,266 @@
+package com.todo.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todo.config.ShardContext;
+import com.todo.model.ActivityEntry;
+import com.todo.model.Note;
+import com.todo.model.TagAssignment;
+import com.todo.model.Todo;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 操作记录的写缓冲
+ * 待办事项和笔记的增删改在事务提交后只把一行记录（含修改前的JSON快照）放入内存队列，
+ * 定时按分片用JDBC批处理追加到activity_log表，请求本身不多一次数据库写入；应用关闭前写入全部记录。
+ * 记录按用户排队，写入时才查询用户当前所在的分片；迁移中的用户暂不写入，由迁移在复制前写入原分片或切换后写入新分片。
+ * 每天按条数（每个用户最多max-entries-per-user条）和保留时间压缩，最旧的记录先删除
+ */
+@Service
+public class ActivityLogService {
+
+    private static final String INSERT_SQL = "INSERT INTO activity_log "
+            + "(user_id, item_type, item_id, action, summary, before_state, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String MARK_UNDONE_SQL = "UPDATE activity_log SET undone_at = ? "
+            + "WHERE id = ? AND user_id = ? AND undone_at IS NULL";
+    private static final String OVERSIZED_USERS_SQL = "SELECT user_id FROM activity_log GROUP BY user_id HAVING COUNT(*) > ?";
+    private static final String CUTOFF_ID_SQL = "SELECT id FROM activity_log WHERE user_id = ? ORDER BY id DESC LIMIT 1 OFFSET ?";
+    private static final String DELETE_UP_TO_SQL = "DELETE FROM activity_log WHERE user_id = ? AND id <= ?";
+    private static final String DELETE_EXPIRED_SQL = "DELETE FROM activity_log WHERE created_at < ?";
+
+    private static final int SUMMARY_LENGTH = 100;
+    private static final Duration FLUSH_WAIT = Duration.ofSeconds(2);
+
+    // 快照不包含所有者：序列化时不访问延迟加载的user（请求外调用时会话已关闭）
+    @JsonIgnoreProperties("user")
+    private abstract static class WithoutOwner {
+    }
+
+    private record Pending(Object[] row) {
+
+        Long userId() {
+            return (Long) row[0];
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final ObjectMapper objectMapper;
+
+    private final ConcurrentLinkedQueue<Pending> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    // 正在写入的定时批次：已从队列取出但还未写入数据库，写完后计数归零
+    private volatile CountDownLatch inFlight;
+
+    @Value("${todo.activity.max-pending:50000}")
+    private int maxPending;
+
+    @Value("${todo.activity.max-entries-per-user:1000}")
+    private int maxEntriesPerUser;
+
+    @Value("${todo.activity.retention:90d}")
+    private Duration retention;
+
+    @Autowired
+    public ActivityLogService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                              ShardRouter shardRouter, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.objectMapper = objectMapper.copy()
+                .addMixIn(Todo.class, WithoutOwner.class)
+                .addMixIn(Note.class, WithoutOwner.class);
+    }
+
+    /**
+     * 记录待办事项的操作；before为修改/删除前的副本（可带子任务和标签），CREATE时为空
+     */
+    public void recordTodo(String action, Todo todo, Todo before) {
+        record(todo.getUser().getId(), TagAssignment.TODO, todo.getId(), action, todo.getText(), before);
+    }
+
+    /**
+     * 记录笔记的操作；before为修改/删除前的副本（可带标签），CREATE时为空
+     */
+    public void recordNote(String action, Note note, Note before) {
+        record(note.getUser().getId(), TagAssignment.NOTE, note.getId(), action, note.getTitle(), before);
+    }
+
+    /**
+     * 快照在调用线程上序列化（调用方随后还会修改实体），入队在当前事务提交后进行，回滚的操作不会被记录
+     */
+    private void record(Long userId, String itemType, Long itemId, String action, String summary, Object before) {
+        String beforeState = null;
+        if (before != null) {
+            beforeState = objectMapper.valueToTree(before).toString();
+        }
+        if (summary != null && summary.length() > SUMMARY_LENGTH) {
+            summary = summary.substring(0, SUMMARY_LENGTH);
+        }
+        Pending entry = new Pending(new Object[]{
+                userId, itemType, itemId, action, summary, beforeState, LocalDateTime.now()});
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(entry);
+                }
+            });
+        } else {
+            enqueue(entry);
+        }
+    }
+
+    private void enqueue(Pending entry) {
+        // 写入跟不上（如数据库长时间不可用）时丢弃新记录，不阻塞请求，也不无限占用内存
+        if (pendingCount.incrementAndGet() > maxPending) {
+            pendingCount.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+        pending.add(entry);
+    }
+
+    @Scheduled(fixedDelayString = "${todo.activity.flush-interval:1000}")
+    public synchronized void flushAll() {
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) {
+            System.err.println("操作记录队列已满，丢弃了 " + lost + " 条记录");
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        // 先公布批次再取记录：flushUser取不到的记录一定已在这个批次中
+        CountDownLatch batch = new CountDownLatch(1);
+        inFlight = batch;
+        try {
+            List<Pending> entries = new ArrayList<>();
+            Pending entry;
+            while ((entry = pending.poll()) != null) {
+                pendingCount.decrementAndGet();
+                entries.add(entry);
+            }
+            write(entries, false);
+        } finally {
+            inFlight = null;
+            batch.countDown();
+        }
+    }
+
+    /**
+     * 只写入指定用户在队列中的记录（查询和撤销前调用），不在请求线程上写入其他用户的记录，也不与其他请求争用flushAll的锁；
+     * 该用户更早的记录可能正在定时批次中写入，先等这一批写完（最多FLUSH_WAIT），保持记录ID的先后顺序
+     */
+    public void flushUser(Long userId) {
+        write(drain(userId), false);
+    }
+
+    /**
+     * 迁移开始时调用（用户已标记为迁移中）：把本节点队列中该用户的记录在复制之前写入原分片
+     */
+    public void flushMigrating(Long userId) {
+        write(drain(userId), true);
+    }
+
+    private List<Pending> drain(Long userId) {
+        List<Pending> entries = new ArrayList<>();
+        for (Pending entry : pending) {
+            // remove返回false表示已被定时批次取走
+            if (userId.equals(entry.userId()) && pending.remove(entry)) {
+                pendingCount.decrementAndGet();
+                entries.add(entry);
+            }
+        }
+        CountDownLatch batch = inFlight;
+        if (batch != null) {
+            try {
+                batch.await(FLUSH_WAIT.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * 按用户当前所在的分片批量写入；迁移中的用户（migrating为false时）和写入失败的记录放回队列，由下一次定时写入重试
+     */
+    private void write(List<Pending> entries, boolean migrating) {
+        Map<Integer, List<Pending>> byShard = new HashMap<>();
+        for (Pending entry : entries) {
+            if (!migrating && shardRouter.isMigrating(entry.userId())) {
+                enqueue(entry);
+                continue;
+            }
+            byShard.computeIfAbsent(shardRouter.shardOf(entry.userId()), s -> new ArrayList<>()).add(entry);
+        }
+        for (Map.Entry<Integer, List<Pending>> shard : byShard.entrySet()) {
+            List<Object[]> rows = shard.getValue().stream().map(Pending::row).toList();
+            try {
+                ShardContext.runOn(shard.getKey(), () -> transactionTemplate.executeWithoutResult(
+                        status -> jdbcTemplate.batchUpdate(INSERT_SQL, rows)));
+            } catch (RuntimeException e) {
+                System.err.println("操作记录写入失败，下次重试: " + e.getMessage());
+                shard.getValue().forEach(this::enqueue);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushAll();
+        if (!pending.isEmpty()) {
+            System.err.println("关闭前仍有 " + pendingCount.get() + " 条操作记录未能写入数据库");
+        }
+    }
+
+    /**
+     * 把记录标记为已撤销（需在调用方的事务中执行），已撤销过时返回false
+     */
+    public boolean markUndone(Long id, Long userId) {
+        return jdbcTemplate.update(MARK_UNDONE_SQL, LocalDateTime.now(), id, userId) > 0;
+    }
+
+    /**
+     * 压缩：删除超过保留时间的记录，以及每个用户超出条数上限的最旧记录
+     */
+    @Scheduled(cron = "0 30 2 * * ?")
+    public void compact() {
+        flushAll();
+        shardRouter.forEachShard(shardId -> transactionTemplate.executeWithoutResult(status -> {
+            int deleted = jdbcTemplate.update(DELETE_EXPIRED_SQL, LocalDateTime.now().minus(retention));
+            for (Long userId : jdbcTemplate.queryForList(OVERSIZED_USERS_SQL, Long.class, maxEntriesPerUser)) {
+                // 第max-entries-per-user+1新的记录及更早的记录全部删除
+                List<Long> cutoff = jdbcTemplate.queryForList(CUTOFF_ID_SQL, Long.class, userId, maxEntriesPerUser);
+                if (!cutoff.isEmpty()) {
+                    deleted += jdbcTemplate.update(DELETE_UP_TO_SQL, userId, cutoff.get(0));
+                }
+            }
+            if (deleted > 0) {
+                System.out.println("分片 " + shardId + " 压缩操作记录: 删除 " + deleted + " 条");
+            }
+        }));
+    }
+}
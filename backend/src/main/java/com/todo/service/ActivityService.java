@@ -0,0 +1,147 @@
+package com.todo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todo.dto.ActivityPageResponse;
+import com.todo.exception.ActivityNotFoundException;
+import com.todo.model.ActivityEntry;
+import com.todo.model.Note;
+import com.todo.model.TagAssignment;
+import com.todo.model.Todo;
+import com.todo.model.User;
+import com.todo.repository.ActivityEntryRepository;
+import com.todo.repository.UserRepository;
+import com.todo.util.SecurityUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 操作记录的查询和撤销
+ * 撤销通过TodoService/NoteService执行反向操作（删除新建的条目、恢复修改前的字段、按快照重新创建被删除的条目），
+ * 反向操作本身也会被记录，因此撤销同样可以再撤销
+ */
+@Service
+public class ActivityService {
+
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final ActivityEntryRepository activityEntryRepository;
+    private final ActivityLogService activityLogService;
+    private final TodoService todoService;
+    private final NoteService noteService;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public ActivityService(ActivityEntryRepository activityEntryRepository, ActivityLogService activityLogService,
+                           TodoService todoService, NoteService noteService, UserRepository userRepository,
+                           TransactionTemplate transactionTemplate, ObjectMapper objectMapper) {
+        this.activityEntryRepository = activityEntryRepository;
+        this.activityLogService = activityLogService;
+        this.todoService = todoService;
+        this.noteService = noteService;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    private User getCurrentUser() {
+        String username = SecurityUtil.getCurrentUsername();
+        if (username == null) {
+            throw new RuntimeException("未找到当前用户");
+        }
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("用户不存在"));
+    }
+
+    /**
+     * 分页查询当前用户的操作记录，cursor为上一页返回的nextCursor（记录ID）
+     * 查询前先写入当前用户在队列中的记录，刚完成的操作也能查到
+     */
+    public ActivityPageResponse getActivity(String cursor, int limit) {
+        User currentUser = getCurrentUser();
+        activityLogService.flushUser(currentUser.getId());
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // 多取一条用于判断是否还有下一页
+        PageRequest page = PageRequest.of(0, size + 1);
+        List<ActivityEntry> items;
+        if (cursor == null || cursor.isBlank()) {
+            items = activityEntryRepository.findFirstPage(currentUser.getId(), page);
+        } else {
+            try {
+                items = activityEntryRepository.findPageAfter(currentUser.getId(), Long.valueOf(cursor.trim()), page);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("分页游标格式错误: " + cursor);
+            }
+        }
+        String nextCursor = null;
+        if (items.size() > size) {
+            items = new ArrayList<>(items.subList(0, size));
+            nextCursor = String.valueOf(items.get(size - 1).getId());
+        }
+        return new ActivityPageResponse(items, nextCursor);
+    }
+
+    /**
+     * 撤销一条操作记录：标记已撤销和反向操作在同一个事务中，失败时都不生效
+     *
+     * @return 恢复后的待办事项或笔记；撤销的是创建操作（条目被删除）时返回null
+     */
+    public Object undo(Long id) {
+        User currentUser = getCurrentUser();
+        activityLogService.flushUser(currentUser.getId());
+        ActivityEntry entry = activityEntryRepository.findByIdAndUserId(id, currentUser.getId())
+                .orElseThrow(() -> new ActivityNotFoundException(id));
+        return transactionTemplate.execute(status -> {
+            if (!activityLogService.markUndone(entry.getId(), currentUser.getId())) {
+                throw new IllegalArgumentException("该操作已撤销: " + id);
+            }
+            return TagAssignment.TODO.equals(entry.getItemType()) ? undoTodo(entry) : undoNote(entry);
+        });
+    }
+
+    private Todo undoTodo(ActivityEntry entry) {
+        switch (entry.getAction()) {
+            case ActivityEntry.CREATE:
+                todoService.deleteTodo(entry.getItemId());
+                return null;
+            case ActivityEntry.UPDATE:
+                return todoService.restoreTodo(entry.getItemId(), readBefore(entry, Todo.class));
+            case ActivityEntry.DELETE:
+                return todoService.restoreDeletedTodo(readBefore(entry, Todo.class));
+            default:
+                throw new IllegalArgumentException("不支持撤销的操作: " + entry.getAction());
+        }
+    }
+
+    private Note undoNote(ActivityEntry entry) {
+        switch (entry.getAction()) {
+            case ActivityEntry.CREATE:
+                noteService.deleteNote(entry.getItemId());
+                return null;
+            case ActivityEntry.UPDATE:
+                return noteService.updateNote(entry.getItemId(), readBefore(entry, Note.class));
+            case ActivityEntry.DELETE:
+                return noteService.restoreDeletedNote(readBefore(entry, Note.class));
+            default:
+                throw new IllegalArgumentException("不支持撤销的操作: " + entry.getAction());
+        }
+    }
+
+    private <T> T readBefore(ActivityEntry entry, Class<T> type) {
+        if (entry.getBeforeState() == null) {
+            throw new IllegalArgumentException("操作记录缺少修改前的内容: " + entry.getId());
+        }
+        try {
+            return objectMapper.readValue(entry.getBeforeState(), type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("操作记录内容无法解析: " + entry.getId());
+        }
+    }
+}
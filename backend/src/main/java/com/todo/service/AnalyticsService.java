@@ -0,0 +1,466 @@
+package com.todo.service;
+
+import com.todo.config.ShardContext;
+import com.todo.dto.AnalyticsBucket;
+import com.todo.model.ArchivedTodo;
+import com.todo.model.Todo;
+import com.todo.model.User;
+import com.todo.repository.UserRepository;
+import com.todo.util.SecurityUtil;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * 效率统计的预聚合
+ * 新建和完成（取消完成）在事务提交后把计数增量合并到内存中，定时按分片批量累加到todo_stats_rollup表，
+ * 同一事件同时累加日、周、月、年四个粒度，查询任意范围时每个周期只读预聚合的一行（每个优先级一行）。
+ * 每晚补算最近几天：逾期数只在这里写入；新建数和非每日任务的完成数按待办事项表重算，只补齐缺少的部分
+ * （导入等不经过实时路径的写入），已删除的任务不会使历史计数减少。
+ * 完成数和预计时长中每日任务的部分另记一列，补算时只与非每日任务的部分比较。
+ * 查询不等待定时写入：读出预聚合行后再合并本节点内存中该用户尚未写入的增量
+ */
+@Service
+public class AnalyticsService {
+
+    private static final String UPSERT_SQL = "INSERT INTO todo_stats_rollup "
+            + "(user_id, granularity, period_start, priority_code, completed, created, overdue, effort_minutes, "
+            + "daily_completed, daily_effort_minutes) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE "
+            + "completed = completed + VALUES(completed), created = created + VALUES(created), "
+            + "overdue = overdue + VALUES(overdue), effort_minutes = effort_minutes + VALUES(effort_minutes), "
+            + "daily_completed = daily_completed + VALUES(daily_completed), "
+            + "daily_effort_minutes = daily_effort_minutes + VALUES(daily_effort_minutes)";
+    private static final String QUERY_SQL = "SELECT period_start, priority_code, completed, created, overdue, effort_minutes "
+            + "FROM todo_stats_rollup WHERE user_id = ? AND granularity = ? AND period_start >= ? AND period_start <= ?";
+    // 补算只比较非每日任务的完成数和预计时长
+    private static final String DAY_ROWS_SQL = "SELECT user_id, period_start, priority_code, completed - daily_completed, "
+            + "created, overdue, effort_minutes - daily_effort_minutes "
+            + "FROM todo_stats_rollup WHERE granularity = 'D' AND period_start >= ? AND period_start < ?";
+
+    private static final String PRIORITY_CODE = ArchivedTodo.priorityCodeSql("priority");
+    private static final String CREATED_SQL = "SELECT user_id, CAST(created_at AS DATE), " + PRIORITY_CODE + ", COUNT(*), 0 "
+            + "FROM todos WHERE created_at >= ? AND created_at < ? "
+            + "GROUP BY user_id, CAST(created_at AS DATE), " + PRIORITY_CODE;
+    // 每日任务的完成状态每天零点被重置，历史完成只能来自实时路径，这里只重算非每日任务
+    private static final String COMPLETED_SQL = "SELECT user_id, CAST(completed_at AS DATE), " + PRIORITY_CODE + ", "
+            + "COUNT(*), SUM(COALESCE(estimated_minutes, 0)) "
+            + "FROM todos WHERE is_daily = false AND completed = true AND completed_at >= ? AND completed_at < ? "
+            + "GROUP BY user_id, CAST(completed_at AS DATE), " + PRIORITY_CODE;
+    private static final String OVERDUE_SQL = "SELECT user_id, CAST(deadline AS DATE), " + PRIORITY_CODE + ", COUNT(*), 0 "
+            + "FROM todos WHERE is_daily = false AND deadline >= ? AND deadline < ? "
+            + "AND (completed_at IS NULL OR completed_at > deadline) "
+            + "GROUP BY user_id, CAST(deadline AS DATE), " + PRIORITY_CODE;
+
+    private static final String[] PRIORITIES = {"LOW", "MEDIUM", "HIGH"};
+    private static final int MAX_BUCKETS = 366;
+
+    // 计数下标
+    private static final int COMPLETED = 0;
+    private static final int CREATED = 1;
+    private static final int OVERDUE = 2;
+    private static final int EFFORT = 3;
+    // 每日任务的完成数和预计时长（已包含在COMPLETED和EFFORT中）
+    private static final int DAILY_COMPLETED = 4;
+    private static final int DAILY_EFFORT = 5;
+    private static final int FIELDS = 6;
+
+    private enum Granularity {
+        DAY("D"), WEEK("W"), MONTH("M"), YEAR("Y");
+
+        private final String code;
+
+        Granularity(String code) {
+            this.code = code;
+        }
+
+        LocalDate startOf(LocalDate date) {
+            return switch (this) {
+                case DAY -> date;
+                case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH -> date.withDayOfMonth(1);
+                case YEAR -> date.withDayOfYear(1);
+            };
+        }
+
+        LocalDate next(LocalDate start) {
+            return switch (this) {
+                case DAY -> start.plusDays(1);
+                case WEEK -> start.plusWeeks(1);
+                case MONTH -> start.plusMonths(1);
+                case YEAR -> start.plusYears(1);
+            };
+        }
+
+        static Granularity parse(String value) {
+            if (value == null || value.isBlank()) {
+                return DAY;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("粒度只能是day、week、month或year: " + value);
+            }
+        }
+    }
+
+    private record Key(Long userId, Granularity granularity, LocalDate periodStart, int priorityCode) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransaction;
+    private final ShardRouter shardRouter;
+    private final UserRepository userRepository;
+
+    // 尚未写入数据库的增量：{completed, created, overdue, effortMinutes, dailyCompleted, dailyEffortMinutes}
+    private final ConcurrentHashMap<Key, long[]> pending = new ConcurrentHashMap<>();
+    // 查询持有读锁读出预聚合行并合并内存增量；定时写入持有写锁，增量从内存取出到写入数据库之间不会被查询漏掉或重复计入
+    private final ReadWriteLock flushLock = new ReentrantReadWriteLock();
+
+    @Value("${todo.analytics.catch-up-days:3}")
+    private int catchUpDays;
+
+    @Value("${todo.analytics.catch-up-enabled:true}")
+    private boolean catchUpEnabled;
+
+    @Autowired
+    public AnalyticsService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                            ShardRouter shardRouter, UserRepository userRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        // 增量要写入各自的分片，不能加入调用方已绑定连接的事务
+        this.newTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.shardRouter = shardRouter;
+        this.userRepository = userRepository;
+    }
+
+    private User getCurrentUser() {
+        String username = SecurityUtil.getCurrentUsername();
+        if (username == null) {
+            throw new RuntimeException("未找到当前用户");
+        }
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("用户不存在"));
+    }
+
+    /**
+     * 按预聚合数据返回[from, to]内每个周期的统计，from和to所在的周期都包含在内，没有数据的周期补零
+     */
+    public List<AnalyticsBucket> getAnalytics(LocalDate from, LocalDate to, String granularity) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("开始日期不能晚于结束日期");
+        }
+        Granularity g = Granularity.parse(granularity);
+        LocalDate first = g.startOf(from);
+        LocalDate last = g.startOf(to);
+        Map<LocalDate, long[]> totals = new LinkedHashMap<>();
+        Map<LocalDate, long[]> byPriority = new HashMap<>();
+        for (LocalDate start = first; !start.isAfter(last); start = g.next(start)) {
+            if (totals.size() >= MAX_BUCKETS) {
+                throw new IllegalArgumentException("查询范围不能超过" + MAX_BUCKETS + "个周期");
+            }
+            totals.put(start, new long[4]);
+            byPriority.put(start, new long[PRIORITIES.length]);
+        }
+
+        Long userId = getCurrentUser().getId();
+        flushLock.readLock().lock();
+        try {
+            jdbcTemplate.query(QUERY_SQL, rs -> {
+                accumulate(totals, byPriority, rs.getDate(1).toLocalDate(), rs.getInt(2),
+                        new long[]{rs.getLong(3), rs.getLong(4), rs.getLong(5), rs.getLong(6)});
+            }, userId, g.code, first, last);
+            // 本节点尚未写入的增量直接计入，刚完成的任务立即出现在统计中
+            pending.forEach((key, delta) -> {
+                if (key.userId().equals(userId) && key.granularity() == g) {
+                    accumulate(totals, byPriority, key.periodStart(), key.priorityCode(), delta);
+                }
+            });
+        } finally {
+            flushLock.readLock().unlock();
+        }
+
+        List<AnalyticsBucket> buckets = new ArrayList<>(totals.size());
+        for (Map.Entry<LocalDate, long[]> entry : totals.entrySet()) {
+            long[] bucket = entry.getValue();
+            long[] priorities = byPriority.get(entry.getKey());
+            Map<String, Long> completedByPriority = new LinkedHashMap<>();
+            for (int i = 0; i < PRIORITIES.length; i++) {
+                completedByPriority.put(PRIORITIES[i], priorities[i]);
+            }
+            buckets.add(new AnalyticsBucket(entry.getKey(), bucket[COMPLETED], bucket[CREATED], bucket[OVERDUE],
+                    bucket[EFFORT], completedByPriority));
+        }
+        return buckets;
+    }
+
+    private static void accumulate(Map<LocalDate, long[]> totals, Map<LocalDate, long[]> byPriority,
+                                   LocalDate start, int priority, long[] counts) {
+        long[] bucket = totals.get(start);
+        if (bucket == null) {
+            return;
+        }
+        bucket[COMPLETED] += counts[COMPLETED];
+        bucket[CREATED] += counts[CREATED];
+        bucket[OVERDUE] += counts[OVERDUE];
+        bucket[EFFORT] += counts[EFFORT];
+        if (priority >= 0 && priority < PRIORITIES.length) {
+            byPriority.get(start)[priority] += counts[COMPLETED];
+        }
+    }
+
+    /**
+     * 新建待办事项后调用
+     */
+    public void onTodoCreated(Todo todo) {
+        long[] delta = new long[FIELDS];
+        delta[CREATED] = 1;
+        Key key = new Key(todo.getUser().getId(), Granularity.DAY,
+                todo.getCreatedAt().toLocalDate(), priorityCode(todo.getPriority()));
+        addAfterCommit(Map.of(key, delta));
+    }
+
+    /**
+     * 修改待办事项后调用：完成状态、完成日期、优先级或预计时长变化时，
+     * 撤回修改前计入的完成并计入修改后的完成（取消完成只撤回）
+     */
+    public void onTodoUpdated(Todo before, Todo after) {
+        boolean wasCounted = before.isCompleted() && before.getCompletedAt() != null;
+        boolean isCounted = after.isCompleted() && after.getCompletedAt() != null;
+        if (wasCounted == isCounted && (!isCounted || sameCompletion(before, after))) {
+            return;
+        }
+        Long userId = after.getUser().getId();
+        Map<Key, long[]> deltas = new HashMap<>();
+        if (wasCounted) {
+            deltas.merge(completionKey(userId, before), completion(before, -1), AnalyticsService::sum);
+        }
+        if (isCounted) {
+            deltas.merge(completionKey(userId, after), completion(after, 1), AnalyticsService::sum);
+        }
+        addAfterCommit(deltas);
+    }
+
+    private static boolean sameCompletion(Todo before, Todo after) {
+        return before.getCompletedAt().toLocalDate().equals(after.getCompletedAt().toLocalDate())
+                && priorityCode(before.getPriority()) == priorityCode(after.getPriority())
+                && Objects.equals(before.getEstimatedMinutes(), after.getEstimatedMinutes());
+    }
+
+    private static Key completionKey(Long userId, Todo todo) {
+        return new Key(userId, Granularity.DAY, todo.getCompletedAt().toLocalDate(),
+                priorityCode(todo.getPriority()));
+    }
+
+    private static long[] completion(Todo todo, int sign) {
+        long[] delta = new long[FIELDS];
+        delta[COMPLETED] = sign;
+        delta[EFFORT] = sign * (long) (todo.getEstimatedMinutes() != null ? todo.getEstimatedMinutes() : 0);
+        if (todo.isDaily()) {
+            delta[DAILY_COMPLETED] = delta[COMPLETED];
+            delta[DAILY_EFFORT] = delta[EFFORT];
+        }
+        return delta;
+    }
+
+    private static int priorityCode(String priority) {
+        if ("LOW".equals(priority)) {
+            return 0;
+        }
+        return "HIGH".equals(priority) ? 2 : 1;
+    }
+
+    private static long[] sum(long[] a, long[] b) {
+        long[] result = new long[a.length];
+        for (int i = 0; i < a.length; i++) {
+            result[i] = a[i] + b[i];
+        }
+        return result;
+    }
+
+    /**
+     * 增量只在当前事务提交后合并，回滚的修改不会被计入
+     */
+    private void addAfterCommit(Map<Key, long[]> deltas) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deltas.forEach(AnalyticsService.this::add);
+                }
+            });
+        } else {
+            deltas.forEach(this::add);
+        }
+    }
+
+    /**
+     * 日粒度的增量同时合并到所在的周、月、年
+     */
+    private void add(Key day, long[] delta) {
+        for (Granularity g : Granularity.values()) {
+            Key key = new Key(day.userId(), g, g.startOf(day.periodStart()), day.priorityCode());
+            pending.merge(key, delta, AnalyticsService::sum);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${todo.analytics.flush-interval:5000}")
+    public synchronized void flushAll() {
+        flush(userId -> true, false);
+    }
+
+    /**
+     * 迁移开始时调用（用户已标记为迁移中）：把本节点该用户的增量在复制之前写入原分片
+     */
+    public synchronized void flushMigrating(Long userId) {
+        flush(userId::equals, true);
+    }
+
+    /**
+     * 按用户当前所在的分片写入；迁移中的用户（migrating为false时）的增量留在内存中，切换到新分片后再写入
+     */
+    private void flush(Predicate<Long> users, boolean migrating) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        flushLock.writeLock().lock();
+        try {
+            Map<Integer, Map<Key, long[]>> byShard = new HashMap<>();
+            for (Key key : pending.keySet()) {
+                if (!users.test(key.userId()) || (!migrating && shardRouter.isMigrating(key.userId()))) {
+                    continue;
+                }
+                long[] delta = pending.remove(key);
+                if (delta != null && !isZero(delta)) {
+                    byShard.computeIfAbsent(shardRouter.shardOf(key.userId()), s -> new HashMap<>()).put(key, delta);
+                }
+            }
+            for (Map.Entry<Integer, Map<Key, long[]>> shard : byShard.entrySet()) {
+                List<Object[]> rows = new ArrayList<>();
+                shard.getValue().forEach((key, delta) -> rows.add(new Object[]{key.userId(), key.granularity().code,
+                        key.periodStart(), key.priorityCode(), delta[COMPLETED], delta[CREATED], delta[OVERDUE],
+                        delta[EFFORT], delta[DAILY_COMPLETED], delta[DAILY_EFFORT]}));
+                try {
+                    ShardContext.runOn(shard.getKey(), () -> newTransaction.executeWithoutResult(
+                            status -> jdbcTemplate.batchUpdate(UPSERT_SQL, rows)));
+                } catch (RuntimeException e) {
+                    System.err.println("效率统计写入失败，下次重试: " + e.getMessage());
+                    shard.getValue().forEach((key, delta) -> pending.merge(key, delta, AnalyticsService::sum));
+                }
+            }
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    private static boolean isZero(long[] delta) {
+        for (long value : delta) {
+            if (value != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushAll();
+        if (!pending.isEmpty()) {
+            System.err.println("关闭前仍有 " + pending.size() + " 条效率统计增量未能写入数据库");
+        }
+    }
+
+    /**
+     * 每晚补算最近catch-up-days天（不含今天）：在零点的每日任务重置之后执行，
+     * 按待办事项表重算这些天的逾期、新建和非每日任务的完成，高于已有日统计的部分作为增量补上。
+     * 补算按差额累加，多节点部署时只能在一个节点上开启（todo.analytics.catch-up-enabled），否则差额会被重复补上
+     */
+    @Scheduled(cron = "0 15 0 * * ?")
+    public void catchUp() {
+        if (!catchUpEnabled) {
+            return;
+        }
+        flushAll();
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(Math.max(catchUpDays, 1));
+        shardRouter.forEachShard(shardId -> {
+            Map<Key, long[]> deltas = transactionTemplate.execute(status -> {
+                // (用户, 日期, 优先级) -> 计数
+                Map<Key, long[]> existing = new HashMap<>();
+                jdbcTemplate.query(DAY_ROWS_SQL, rs -> {
+                    Key key = new Key(rs.getLong(1), Granularity.DAY, rs.getDate(2).toLocalDate(), rs.getInt(3));
+                    long[] counts = new long[FIELDS];
+                    counts[COMPLETED] = rs.getLong(4);
+                    counts[CREATED] = rs.getLong(5);
+                    counts[OVERDUE] = rs.getLong(6);
+                    counts[EFFORT] = rs.getLong(7);
+                    existing.put(key, counts);
+                }, from, to);
+                Map<Key, long[]> actual = new HashMap<>();
+                recount(actual, CREATED_SQL, CREATED, -1, from, to);
+                recount(actual, COMPLETED_SQL, COMPLETED, EFFORT, from, to);
+                recount(actual, OVERDUE_SQL, OVERDUE, -1, from, to);
+
+                Map<Key, long[]> missing = new HashMap<>();
+                for (Map.Entry<Key, long[]> entry : actual.entrySet()) {
+                    long[] current = existing.getOrDefault(entry.getKey(), new long[FIELDS]);
+                    long[] delta = new long[FIELDS];
+                    for (int i = 0; i < delta.length; i++) {
+                        delta[i] = Math.max(0, entry.getValue()[i] - current[i]);
+                    }
+                    if (!isZero(delta)) {
+                        missing.put(entry.getKey(), delta);
+                    }
+                }
+                return missing;
+            });
+            int patched = 0;
+            for (Map.Entry<Key, long[]> entry : deltas.entrySet()) {
+                // 迁移中或迁移后尚未清理的副本不补算，以用户所在的分片为准（查目录要在分片事务之外）
+                if (shardRouter.shardOf(entry.getKey().userId()) == shardId) {
+                    add(entry.getKey(), entry.getValue());
+                    patched++;
+                }
+            }
+            if (patched > 0) {
+                System.out.println("分片 " + shardId + " 补算效率统计: " + patched + " 组");
+            }
+        });
+        flushAll();
+    }
+
+    private void recount(Map<Key, long[]> actual, String sql, int countIndex, int sumIndex,
+                         LocalDate from, LocalDate to) {
+        jdbcTemplate.query(sql, rs -> {
+            Key key = new Key(rs.getLong(1), Granularity.DAY, rs.getDate(2).toLocalDate(), rs.getInt(3));
+            long[] counts = actual.computeIfAbsent(key, k -> new long[FIELDS]);
+            counts[countIndex] = rs.getLong(4);
+            if (sumIndex >= 0) {
+                counts[sumIndex] = rs.getLong(5);
+            }
+        }, from.atStartOfDay(), to.atStartOfDay());
+    }
+}
@@ -0,0 +1,168 @@
+package com.todo.service;
+
+import com.todo.dto.ArchivePageResponse;
+import com.todo.model.ArchivedTodo;
+import com.todo.model.TagAssignment;
+import com.todo.model.Todo;
+import com.todo.model.User;
+import com.todo.repository.ArchivedTodoRepository;
+import com.todo.repository.UserRepository;
+import com.todo.util.SecurityUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 已完成待办事项归档
+ * 完成超过指定天数的待办事项按批次整体搬到只追加的 todo_archive 表（窄行：只保留查看历史需要的列），
+ * 热表 todos 只保留活跃数据；归档数据通过键集分页查询
+ */
+@Service
+public class ArchiveService {
+
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private static final String SELECT_BATCH_SQL = "SELECT id, user_id FROM todos "
+            + "WHERE completed = true AND completed_at IS NOT NULL AND completed_at < ? ORDER BY id LIMIT ?";
+    private static final String ARCHIVE_SQL = "INSERT INTO todo_archive "
+            + "(id, user_id, text, priority_code, deadline, created_at, completed_at, archived_at) "
+            + "SELECT id, user_id, text, " + ArchivedTodo.priorityCodeSql("priority") + ", "
+            + "COALESCE(deadline, due_date), created_at, completed_at, :archivedAt FROM todos WHERE id IN (:ids)";
+    private static final String DELETE_SQL = "DELETE FROM todos WHERE id IN (:ids)";
+
+    private final ArchivedTodoRepository archivedTodoRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final TagService tagService;
+    private final CacheInvalidationService cacheInvalidationService;
+    private final TodoListCacheService todoListCacheService;
+
+    @Value("${todo.archive.after-days:7}")
+    private int afterDays;
+
+    @Value("${todo.archive.batch-size:1000}")
+    private int batchSize;
+
+    @Autowired
+    public ArchiveService(ArchivedTodoRepository archivedTodoRepository, UserRepository userRepository,
+                          JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                          ShardRouter shardRouter, TagService tagService,
+                          CacheInvalidationService cacheInvalidationService,
+                          TodoListCacheService todoListCacheService) {
+        this.archivedTodoRepository = archivedTodoRepository;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.tagService = tagService;
+        this.cacheInvalidationService = cacheInvalidationService;
+        this.todoListCacheService = todoListCacheService;
+    }
+
+    private User getCurrentUser() {
+        String username = SecurityUtil.getCurrentUsername();
+        if (username == null) {
+            throw new RuntimeException("未找到当前用户");
+        }
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("用户不存在"));
+    }
+
+    /**
+     * 归档完成超过指定天数的待办事项（替代原来的直接删除）
+     * 每天凌晨2点执行；每批一个事务，复制到归档表和从热表删除同时提交，中途失败可以重复执行
+     */
+    @Scheduled(cron = "0 0 2 * * ?")
+    public void archiveOldCompletedTodos() {
+        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(afterDays);
+        AtomicInteger totalArchived = new AtomicInteger();
+        shardRouter.forEachShard(shardId -> {
+            int archived = 0;
+            int moved;
+            do {
+                moved = transactionTemplate.execute(status -> archiveBatch(cutoffDate));
+                archived += moved;
+            } while (moved == batchSize);
+            if (archived > 0) {
+                totalArchived.addAndGet(archived);
+                System.out.println("分片 " + shardId + " 归档了 " + archived + " 个超过" + afterDays + "天的已完成任务");
+            }
+        });
+        // 绕过Hibernate直接删除了热表中的行，需要失效缓存
+        if (totalArchived.get() > 0) {
+            cacheInvalidationService.invalidateAll(Todo.class);
+            todoListCacheService.invalidateAll();
+        }
+    }
+
+    private int archiveBatch(LocalDateTime cutoffDate) {
+        Map<Long, List<Long>> idsByUser = new HashMap<>();
+        List<Long> ids = new ArrayList<>();
+        jdbcTemplate.query(SELECT_BATCH_SQL, rs -> {
+            long id = rs.getLong(1);
+            ids.add(id);
+            idsByUser.computeIfAbsent(rs.getLong(2), k -> new ArrayList<>()).add(id);
+        }, cutoffDate, batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        // 子任务和重复任务的完成记录由外键级联删除，标签关联没有外键，单独清理
+        idsByUser.forEach((userId, userTodoIds) -> tagService.deleteItemTags(userId, TagAssignment.TODO, userTodoIds));
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("archivedAt", LocalDateTime.now());
+        namedJdbcTemplate.update(ARCHIVE_SQL, params);
+        namedJdbcTemplate.update(DELETE_SQL, params);
+        return ids.size();
+    }
+
+    /**
+     * 分页查询当前用户的归档，cursor为上一页返回的nextCursor（完成时间,ID）
+     */
+    @Transactional(readOnly = true)
+    public ArchivePageResponse getArchive(String cursor, int limit) {
+        User currentUser = getCurrentUser();
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // 多取一条用于判断是否还有下一页
+        PageRequest page = PageRequest.of(0, size + 1);
+        List<ArchivedTodo> items;
+        if (cursor == null || cursor.isBlank()) {
+            items = archivedTodoRepository.findFirstPage(currentUser.getId(), page);
+        } else {
+            int comma = cursor.lastIndexOf(',');
+            try {
+                LocalDateTime completedAt = LocalDateTime.parse(cursor.substring(0, Math.max(comma, 0)));
+                Long id = Long.valueOf(cursor.substring(comma + 1));
+                items = archivedTodoRepository.findPageAfter(currentUser.getId(), completedAt, id, page);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("分页游标格式错误: " + cursor);
+            }
+        }
+        String nextCursor = null;
+        if (items.size() > size) {
+            items = new ArrayList<>(items.subList(0, size));
+            ArchivedTodo last = items.get(size - 1);
+            nextCursor = last.getCompletedAt() + "," + last.getId();
+        }
+        return new ArchivePageResponse(items, nextCursor);
+    }
+}
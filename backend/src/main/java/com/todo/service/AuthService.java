@@ -3,26 +3,40 @@ package com.todo.service;
 import com.todo.dto.AuthResponse;
 import com.todo.dto.LoginRequest;
 import com.todo.dto.RegisterRequest;
+import com.todo.exception.RefreshTokenReusedException;
+import com.todo.model.RefreshToken;
 import com.todo.model.User;
+import com.todo.repository.RefreshTokenRepository;
 import com.todo.repository.UserRepository;
 import com.todo.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
 @Service
 public class AuthService {
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final ShardRouter shardRouter;
 
     @Autowired
-    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtUtil jwtUtil) {
+    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtUtil jwtUtil,
+                       RefreshTokenRepository refreshTokenRepository, ShardRouter shardRouter) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.shardRouter = shardRouter;
     }
 
     @Transactional
@@ -45,12 +59,14 @@ public class AuthService {
         
         User savedUser = userRepository.save(user);
         
-        // 生成JWT Token
-        String token = jwtUtil.generateToken(savedUser.getUsername(), savedUser.getId());
+        // 分配数据分片（未启用分片时不做任何事）
+        shardRouter.assignShard(savedUser);
         
-        return new AuthResponse(token, savedUser.getUsername(), savedUser.getId());
+        // 生成访问令牌和刷新令牌
+        return issueTokens(savedUser, savedUser.getUsername());
     }
 
+    @Transactional
     public AuthResponse login(LoginRequest request) {
         // 查找用户
         User user = userRepository.findByUsername(request.getUsername())
@@ -61,10 +77,81 @@ public class AuthService {
             throw new RuntimeException("用户名或密码错误");
         }
         
-        // 生成JWT Token
-        String token = jwtUtil.generateToken(user.getUsername(), user.getId());
+        // 生成访问令牌和刷新令牌
+        return issueTokens(user, user.getUsername());
+    }
+
+    /**
+     * 使用刷新令牌换取新的访问令牌
+     * 只校验HMAC签名并按jti查询刷新令牌存储，不做BCrypt校验和用户查询
+     * 每次刷新都会轮换刷新令牌，旧令牌立即失效；若已撤销的令牌被再次使用，视为泄露并撤销该用户的所有刷新令牌。
+     * 撤销旧令牌是带条件的UPDATE：同一令牌的并发刷新只有一个能轮换成功，其余按重用处理
+     * （拒绝时抛出的RefreshTokenReusedException不回滚事务，撤销随事务提交）
+     */
+    @Transactional(noRollbackFor = RefreshTokenReusedException.class)
+    public AuthResponse refresh(String refreshToken) {
+        Claims claims;
+        try {
+            claims = jwtUtil.parseRefreshToken(refreshToken);
+        } catch (Exception e) {
+            throw new RuntimeException("刷新令牌无效或已过期");
+        }
+        
+        RefreshToken stored = refreshTokenRepository.findByJti(claims.getId())
+                .orElseThrow(() -> new RuntimeException("刷新令牌无效或已过期"));
         
-        return new AuthResponse(token, user.getUsername(), user.getId());
+        Long userId = claims.get("userId", Long.class);
+        if (stored.isRevoked()) {
+            refreshTokenRepository.revokeAllByUserId(userId);
+            throw new RefreshTokenReusedException();
+        }
+        if (stored.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new RuntimeException("刷新令牌无效或已过期");
+        }
+        
+        // 轮换：撤销旧令牌并签发新令牌；没有撤销到说明被并发的刷新抢先，同样视为重用
+        if (refreshTokenRepository.revokeIfActive(stored.getJti()) == 0) {
+            refreshTokenRepository.revokeAllByUserId(userId);
+            throw new RefreshTokenReusedException();
+        }
+        return issueTokens(stored.getUser(), claims.getSubject());
+    }
+
+    /**
+     * 注销：撤销指定的刷新令牌
+     */
+    @Transactional
+    public void logout(String refreshToken) {
+        try {
+            Claims claims = jwtUtil.parseRefreshToken(refreshToken);
+            refreshTokenRepository.findByJti(claims.getId())
+                    .ifPresent(token -> token.setRevoked(true));
+        } catch (Exception e) {
+            // 令牌无效时无需撤销
+        }
+    }
+
+    private AuthResponse issueTokens(User user, String username) {
+        String tokenId = UUID.randomUUID().toString();
+        LocalDateTime expiresAt = LocalDateTime.now().plus(Duration.ofMillis(jwtUtil.getRefreshExpiration()));
+        refreshTokenRepository.save(new RefreshToken(tokenId, user, expiresAt));
+        
+        String token = jwtUtil.generateToken(username, user.getId());
+        String refreshToken = jwtUtil.generateRefreshToken(username, user.getId(), tokenId);
+        return new AuthResponse(token, username, user.getId(), refreshToken, jwtUtil.getExpiration());
+    }
+
+    /**
+     * 清理已过期的刷新令牌
+     * 每天凌晨3点执行
+     */
+    @Scheduled(cron = "0 0 3 * * ?")
+    @Transactional
+    public void cleanupExpiredRefreshTokens() {
+        int deleted = refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+        if (deleted > 0) {
+            System.out.println("清理了 " + deleted + " 个已过期的刷新令牌");
+        }
     }
 }
 
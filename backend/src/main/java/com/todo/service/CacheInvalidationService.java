@@ -0,0 +1,208 @@
+package com.todo.service;
+
+import com.todo.model.Note;
+import com.todo.model.Todo;
+import com.todo.model.User;
+import com.typesafe.config.ConfigFactory;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 二级缓存跨节点失效
+ * local模式下各节点只依赖缓存过期时间；broadcast模式下写入提交后通知其他节点失效对应的实体和查询缓存。
+ * 按用户在内存中维护的派生缓存（标签索引、列表缓存）注册后也通过同一通道失效，按用户ID通知；
+ * local模式下这些缓存的保留时间不超过二级缓存的过期时间（application.conf），节点间在同样的时间内收敛
+ */
+@Service
+public class CacheInvalidationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationService.class);
+
+    public static final String TOKEN_HEADER = "X-Cache-Token";
+
+    // 实体类型 -> 实体类
+    private static final Map<String, Class<?>> ENTITY_TYPES = Map.of(
+            "Todo", Todo.class,
+            "Note", Note.class,
+            "User", User.class
+    );
+
+    // 实体类型 -> 依赖该实体的查询缓存region
+    private static final Map<String, String> QUERY_REGIONS = Map.of(
+            "Todo", "todos-by-user",
+            "Note", "notes-by-user",
+            "User", "users-by-username"
+    );
+
+    private final Cache cache;
+    // 按用户维护的本地缓存：名称 -> 丢弃回调（参数为用户ID，null表示全部用户）
+    private final Map<String, Consumer<Long>> userCaches = new ConcurrentHashMap<>();
+    private final List<String> peers;
+    private final String broadcastToken;
+    // local模式下二级缓存的写入后过期时间，broadcast模式为null
+    private final Duration localTtl;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+    @Autowired
+    public CacheInvalidationService(EntityManagerFactory entityManagerFactory,
+                                    @Value("${todo.cache.peers:}") List<String> peers,
+                                    @Value("${todo.cache.broadcast-token:}") String broadcastToken,
+                                    @Value("${todo.cache.mode:local}") String mode) {
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        this.peers = peers;
+        this.broadcastToken = broadcastToken;
+        // 与Caffeine JCache读取同一份配置（含TODO_CACHE_TTL覆盖）
+        this.localTtl = "broadcast".equals(mode) ? null : ConfigFactory.load()
+                .getDuration("caffeine.jcache.default.policy.eager-expiration.after-write");
+    }
+
+    public boolean isTracked(Class<?> entityClass) {
+        return ENTITY_TYPES.containsValue(entityClass);
+    }
+
+    /**
+     * 通知其他节点失效指定实体（异步发送，不阻塞当前请求）
+     */
+    public void broadcast(Class<?> entityClass, Object id) {
+        post("{\"entity\":\"" + entityClass.getSimpleName() + "\",\"id\":" + id + "}");
+    }
+
+    /**
+     * 注册按用户维护的本地缓存：其他节点广播该缓存中某个用户的数据已变化时调用invalidate（null表示全部用户）
+     */
+    public void registerUserCache(String name, Consumer<Long> invalidate) {
+        userCaches.put(name, invalidate);
+    }
+
+    /**
+     * 按用户维护的本地缓存的实际保留时间：local模式下收不到其他节点的失效通知，
+     * 配置的ttl（0表示不过期）不能超过二级缓存的过期时间；broadcast模式下按配置
+     */
+    public Duration userCacheTtl(Duration ttl) {
+        if (localTtl == null || (!ttl.isZero() && ttl.compareTo(localTtl) <= 0)) {
+            return ttl;
+        }
+        return localTtl;
+    }
+
+    /**
+     * 本节点已更新或丢弃了某用户的缓存（写入提交后调用），通知其他节点丢弃；userId为null表示全部用户
+     */
+    public void broadcastUser(String name, Long userId) {
+        post("{\"cache\":\"" + name + "\",\"userId\":" + userId + "}");
+    }
+
+    /**
+     * 丢弃本节点某个用户缓存中指定用户的数据（由其他节点的广播触发）
+     */
+    public void evictUserLocal(String name, Long userId) {
+        Consumer<Long> invalidate = userCaches.get(name);
+        if (invalidate == null) {
+            throw new IllegalArgumentException("未知的缓存: " + name);
+        }
+        invalidate.accept(userId);
+    }
+
+    private void post(String body) {
+        for (String peer : peers) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(peer + "/api/internal/cache/evict"))
+                    .timeout(Duration.ofSeconds(2))
+                    .header("Content-Type", "application/json")
+                    .header(TOKEN_HEADER, broadcastToken)
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .exceptionally(e -> {
+                        logger.warn("缓存失效广播失败: {} ({})", peer, e.getMessage());
+                        return null;
+                    });
+        }
+    }
+
+    /**
+     * 绕过Hibernate的批量写入（JDBC导入等）之后调用：失效本节点整个实体region及相关查询缓存，并通知其他节点
+     */
+    public void invalidateAll(Class<?> entityClass) {
+        evictLocal(entityClass.getSimpleName(), null);
+        broadcast(entityClass, null);
+    }
+
+    /**
+     * 用JDBC直接更新了某一行（不改变查询结果集）时调用：当前事务提交后失效该实体缓存，并通知其他节点
+     */
+    public void evictAfterCommit(Class<?> entityClass, Long id) {
+        afterCommit(() -> {
+            cache.evictEntityData(entityClass, id);
+            broadcast(entityClass, id);
+        });
+    }
+
+    /**
+     * 用JDBC直接插入或更新了一批行（导入等）之后调用：当前事务提交后只失效这些实体和相关查询缓存，并逐个通知其他节点，
+     * 不影响其他用户的缓存
+     */
+    public void evictRowsAfterCommit(Class<?> entityClass, Collection<Long> ids) {
+        List<Long> evicted = List.copyOf(ids);
+        afterCommit(() -> {
+            for (Long id : evicted) {
+                cache.evictEntityData(entityClass, id);
+                broadcast(entityClass, id);
+            }
+            cache.evictQueryRegion(QUERY_REGIONS.get(entityClass.getSimpleName()));
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 失效本节点的实体缓存和相关查询缓存（由其他节点的广播触发）
+     */
+    public void evictLocal(String entity, Long id) {
+        Class<?> entityClass = ENTITY_TYPES.get(entity);
+        if (entityClass == null) {
+            throw new IllegalArgumentException("未知的实体类型: " + entity);
+        }
+        if (id != null) {
+            cache.evictEntityData(entityClass, id);
+        } else {
+            cache.evictEntityData(entityClass);
+        }
+        cache.evictQueryRegion(QUERY_REGIONS.get(entity));
+    }
+
+    public boolean isValidToken(String token) {
+        return !broadcastToken.isEmpty() && broadcastToken.equals(token);
+    }
+}
@@ -0,0 +1,154 @@
+package com.todo.service;
+
+import com.todo.dto.DailyStreak;
+import com.todo.model.DailyHistory;
+import com.todo.model.Todo;
+import com.todo.repository.DailyHistoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 每日任务的完成历史
+ * 每日任务的完成状态每天零点被重置，完成和取消完成时把当天在该任务当年的位图中置位或清除，
+ * 连续天数和完成率在读取时由位图计算：各年的位图按连续区间拼成一条时间线，
+ * 之后的查找（nextSetBit/nextClearBit/previousClearBit）和计数（cardinality）都按64位字进行
+ */
+@Service
+public class DailyHistoryService {
+
+    private final DailyHistoryRepository dailyHistoryRepository;
+
+    @Autowired
+    public DailyHistoryService(DailyHistoryRepository dailyHistoryRepository) {
+        this.dailyHistoryRepository = dailyHistoryRepository;
+    }
+
+    /**
+     * 记录每日任务某一天的完成状态（完成置位，取消完成清除）
+     * 完成时先确保当年的行存在，再加行锁读改写：并发的完成请求不会因唯一约束失败，也不会互相覆盖
+     */
+    @Transactional
+    public void record(Todo todo, LocalDate date, boolean completed) {
+        if (completed) {
+            dailyHistoryRepository.insertIfAbsent(todo.getId(), todo.getUser().getId(), date.getYear(), new byte[0]);
+        }
+        DailyHistory history = dailyHistoryRepository.findByTodoIdAndYear(todo.getId(), date.getYear())
+                .orElse(null);
+        if (history == null) {
+            return;
+        }
+        BitSet days = BitSet.valueOf(history.getDays());
+        if (days.get(date.getDayOfYear() - 1) == completed) {
+            return;
+        }
+        days.set(date.getDayOfYear() - 1, completed);
+        history.setDays(days.toByteArray()); // 末尾的0字节不保存
+        dailyHistoryRepository.save(history);
+    }
+
+    /**
+     * 读取任务各年的位图（年份 -> 位图），删除前写入快照（需在调用方的事务中执行）
+     */
+    public Map<Integer, byte[]> historyOf(Long todoId) {
+        Map<Integer, byte[]> years = new HashMap<>();
+        for (DailyHistory history : dailyHistoryRepository.findByTodoIdIn(List.of(todoId))) {
+            years.put(history.getYear(), history.getDays());
+        }
+        return years;
+    }
+
+    /**
+     * 撤销删除时把快照中的位图写回到重建后的任务（新ID）下（需在调用方的事务中执行）
+     */
+    public void restoreHistory(Todo todo, Map<Integer, byte[]> years) {
+        for (Map.Entry<Integer, byte[]> year : years.entrySet()) {
+            DailyHistory history = new DailyHistory(todo.getId(), todo.getUser().getId(), year.getKey());
+            history.setDays(year.getValue());
+            dailyHistoryRepository.save(history);
+        }
+    }
+
+    /**
+     * 删除待办事项时调用（需在调用方的事务中执行）
+     */
+    public void deleteHistory(Long todoId) {
+        dailyHistoryRepository.deleteByTodoId(todoId);
+    }
+
+    /**
+     * 为列表中的每日任务附加连续完成记录（一次IN查询加载这些任务各年的位图）
+     */
+    @Transactional(readOnly = true)
+    public void attachStreaks(Collection<Todo> todos) {
+        List<Long> ids = new ArrayList<>();
+        for (Todo todo : todos) {
+            if (todo.isDaily()) {
+                ids.add(todo.getId());
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        Map<Long, Map<Integer, byte[]>> byTodo = new HashMap<>();
+        for (DailyHistory history : dailyHistoryRepository.findByTodoIdIn(ids)) {
+            byTodo.computeIfAbsent(history.getTodoId(), id -> new HashMap<>()).put(history.getYear(), history.getDays());
+        }
+        LocalDate today = LocalDate.now();
+        for (Todo todo : todos) {
+            if (todo.isDaily()) {
+                todo.setStreak(streakOf(todo.getCreatedAt().toLocalDate(),
+                        byTodo.getOrDefault(todo.getId(), Map.of()), today));
+            }
+        }
+    }
+
+    /**
+     * 由各年的位图（年份 -> DailyHistory.days）计算连续完成记录，响应式只读节点也使用
+     */
+    static DailyStreak streakOf(LocalDate createdOn, Map<Integer, byte[]> years, LocalDate today) {
+        // 时间线从最早一年的1月1日开始，第i位表示origin之后第i天
+        int firstYear = createdOn.getYear();
+        for (int year : years.keySet()) {
+            firstYear = Math.min(firstYear, year);
+        }
+        LocalDate origin = LocalDate.of(firstYear, 1, 1);
+        BitSet timeline = new BitSet();
+        for (Map.Entry<Integer, byte[]> year : years.entrySet()) {
+            BitSet days = BitSet.valueOf(year.getValue());
+            int offset = (int) ChronoUnit.DAYS.between(origin, LocalDate.of(year.getKey(), 1, 1));
+            // 按连续区间整段置位
+            for (int start = days.nextSetBit(0); start >= 0; ) {
+                int end = days.nextClearBit(start);
+                timeline.set(offset + start, offset + end);
+                start = days.nextSetBit(end);
+            }
+        }
+        int todayIndex = (int) ChronoUnit.DAYS.between(origin, today);
+        int createdIndex = (int) ChronoUnit.DAYS.between(origin, createdOn);
+        timeline.clear(todayIndex + 1, Math.max(todayIndex + 1, timeline.length()));
+
+        // 今天还没完成不打断连续记录，从昨天往前数
+        int last = timeline.get(todayIndex) ? todayIndex : todayIndex - 1;
+        int current = last >= 0 && timeline.get(last) ? last - timeline.previousClearBit(last) : 0;
+        int longest = 0;
+        for (int start = timeline.nextSetBit(0); start >= 0; ) {
+            int end = timeline.nextClearBit(start);
+            longest = Math.max(longest, end - start);
+            start = timeline.nextSetBit(end);
+        }
+        int firstSet = timeline.nextSetBit(0);
+        int trackedFrom = firstSet >= 0 ? Math.min(createdIndex, firstSet) : createdIndex;
+        int tracked = Math.max(1, todayIndex - trackedFrom + 1);
+        return new DailyStreak(current, longest, timeline.cardinality(), tracked);
+    }
+}
@@ -0,0 +1,645 @@
+package com.todo.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todo.model.ActivityEntry;
+import com.todo.model.Note;
+import com.todo.model.TagAssignment;
+import com.todo.model.Todo;
+import com.todo.model.TodoStep;
+import com.todo.model.User;
+import com.todo.repository.NoteRepository;
+import com.todo.repository.TodoRepository;
+import com.todo.repository.UserRepository;
+import com.todo.util.SecurityUtil;
+import com.todo.util.TagExpression;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 用户数据导出/导入（NDJSON，每行一条记录）
+ * 导出：游标流式读取并逐行写出，读完一条就从持久化上下文中移除，内存占用与数据量无关
+ * 导入：逐行解析，按批次（每批一个事务）用JDBC批量插入/更新；按ID或importKey匹配已有记录，重复导入是幂等的
+ * 待办事项连同子任务和标签一起导出/导入；导入的待办事项和新建/修改一样记录操作、计入统计并安排提醒
+ */
+@Service
+public class DataTransferService {
+
+    private static final int IMPORT_BATCH_SIZE = 500;
+
+    private static final String INSERT_TODO_SQL = "INSERT INTO todos (user_id, text, completed, priority, total_steps, "
+            + "completed_steps, estimated_duration, duration_unit, estimated_minutes, due_date, deadline, is_daily, "
+            + "last_reset_date, completed_at, created_at, updated_at, recurrence_rule, import_key) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_TODO_SQL = "UPDATE todos SET text = ?, completed = ?, priority = ?, total_steps = ?, "
+            + "completed_steps = ?, estimated_duration = ?, duration_unit = ?, estimated_minutes = ?, due_date = ?, "
+            + "deadline = ?, is_daily = ?, last_reset_date = ?, completed_at = ?, created_at = ?, updated_at = ?, "
+            + "recurrence_rule = ? "
+            + "WHERE id = ? AND user_id = ?";
+    private static final String INSERT_NOTE_SQL = "INSERT INTO notes (user_id, title, content, updated_at, import_key) "
+            + "VALUES (?, ?, ?, ?, ?)";
+    private static final String UPDATE_NOTE_SQL = "UPDATE notes SET title = ?, content = ?, updated_at = ? "
+            + "WHERE id = ? AND user_id = ?";
+
+    private final TodoRepository todoRepository;
+    private final NoteRepository noteRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheInvalidationService cacheInvalidationService;
+    private final TagIndexService tagIndexService;
+    private final WorkloadService workloadService;
+    private final TodoListCacheService todoListCacheService;
+    private final TodoStepService todoStepService;
+    private final TagService tagService;
+    private final ReminderService reminderService;
+    private final ActivityLogService activityLogService;
+    private final AnalyticsService analyticsService;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public DataTransferService(TodoRepository todoRepository, NoteRepository noteRepository,
+                               UserRepository userRepository, JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               CacheInvalidationService cacheInvalidationService,
+                               TagIndexService tagIndexService, WorkloadService workloadService,
+                               TodoListCacheService todoListCacheService, TodoStepService todoStepService,
+                               TagService tagService, ReminderService reminderService,
+                               ActivityLogService activityLogService, AnalyticsService analyticsService,
+                               ObjectMapper objectMapper) {
+        this.todoRepository = todoRepository;
+        this.noteRepository = noteRepository;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = transactionTemplate;
+        this.cacheInvalidationService = cacheInvalidationService;
+        this.tagIndexService = tagIndexService;
+        this.workloadService = workloadService;
+        this.todoListCacheService = todoListCacheService;
+        this.todoStepService = todoStepService;
+        this.tagService = tagService;
+        this.reminderService = reminderService;
+        this.activityLogService = activityLogService;
+        this.analyticsService = analyticsService;
+        this.objectMapper = objectMapper;
+    }
+
+    private User getCurrentUser() {
+        String username = SecurityUtil.getCurrentUsername();
+        if (username == null) {
+            throw new RuntimeException("未找到当前用户");
+        }
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("用户不存在"));
+    }
+
+    /**
+     * 将当前用户的全部待办事项和笔记以NDJSON写出
+     */
+    @Transactional(readOnly = true)
+    public void exportCurrentUser(OutputStream out) throws IOException {
+        User currentUser = getCurrentUser();
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.setRootValueSeparator(new com.fasterxml.jackson.core.io.SerializedString("\n"));
+
+        // 按批写出，每批一次IN查询取子任务，标签从标签索引中取
+        List<Todo> todoChunk = new ArrayList<>(IMPORT_BATCH_SIZE);
+        try (Stream<Todo> todos = todoRepository.streamByUser(currentUser)) {
+            todos.forEach(todo -> {
+                todoChunk.add(todo);
+                if (todoChunk.size() == IMPORT_BATCH_SIZE) {
+                    writeTodos(generator, currentUser.getId(), todoChunk);
+                }
+            });
+        }
+        writeTodos(generator, currentUser.getId(), todoChunk);
+        List<Note> noteChunk = new ArrayList<>(IMPORT_BATCH_SIZE);
+        try (Stream<Note> notes = noteRepository.streamByUser(currentUser)) {
+            notes.forEach(note -> {
+                noteChunk.add(note);
+                if (noteChunk.size() == IMPORT_BATCH_SIZE) {
+                    writeNotes(generator, currentUser.getId(), noteChunk);
+                }
+            });
+        }
+        writeNotes(generator, currentUser.getId(), noteChunk);
+        generator.writeRaw('\n');
+        generator.flush();
+    }
+
+    /**
+     * 导入NDJSON数据到当前用户，返回各类型插入/更新/跳过的条数
+     */
+    public Map<String, Integer> importCurrentUser(InputStream in) throws IOException {
+        User currentUser = getCurrentUser();
+        Long userId = currentUser.getId();
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (String key : List.of("todosInserted", "todosUpdated", "notesInserted", "notesUpdated", "skipped")) {
+            result.put(key, 0);
+        }
+
+        List<JsonNode> todoBatch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        List<JsonNode> noteBatch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        try (MappingIterator<JsonNode> lines = objectMapper.readerFor(JsonNode.class).readValues(in)) {
+            while (lines.hasNext()) {
+                JsonNode line = lines.next();
+                String type = line.path("type").asText();
+                if ("todo".equals(type) && isValidTodo(line)) {
+                    todoBatch.add(line);
+                    if (todoBatch.size() == IMPORT_BATCH_SIZE) {
+                        flushTodos(currentUser, todoBatch, result);
+                    }
+                } else if ("note".equals(type) && isValidNote(line)) {
+                    noteBatch.add(line);
+                    if (noteBatch.size() == IMPORT_BATCH_SIZE) {
+                        flushNotes(userId, noteBatch, result);
+                    }
+                } else {
+                    result.merge("skipped", 1, Integer::sum);
+                }
+            }
+        }
+        flushTodos(currentUser, todoBatch, result);
+        flushNotes(userId, noteBatch, result);
+
+        // JDBC批量写入绕过了Hibernate：写入的实体在各批次提交后已逐个失效，这里失效该用户的派生缓存
+        tagIndexService.invalidate(userId);
+        workloadService.invalidate(userId);
+        todoListCacheService.invalidate(userId);
+        return result;
+    }
+
+    private void writeTodos(JsonGenerator generator, Long userId, List<Todo> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Map<Long, List<TodoStep>> steps = todoStepService.getStepsOf(chunk);
+        Map<Long, List<String>> tags = tagIndexService.tagsOf(userId, TagAssignment.TODO,
+                chunk.stream().map(Todo::getId).toList());
+        for (Todo todo : chunk) {
+            writeTodo(generator, todo, steps.getOrDefault(todo.getId(), List.of()),
+                    tags.getOrDefault(todo.getId(), List.of()));
+            entityManager.detach(todo);
+        }
+        steps.values().forEach(list -> list.forEach(entityManager::detach));
+        chunk.clear();
+    }
+
+    private void writeNotes(JsonGenerator generator, Long userId, List<Note> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Map<Long, List<String>> tags = tagIndexService.tagsOf(userId, TagAssignment.NOTE,
+                chunk.stream().map(Note::getId).toList());
+        for (Note note : chunk) {
+            writeNote(generator, note, tags.getOrDefault(note.getId(), List.of()));
+            entityManager.detach(note);
+        }
+        chunk.clear();
+    }
+
+    private void writeTodo(JsonGenerator generator, Todo todo, List<TodoStep> steps, List<String> tags) {
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("type", "todo");
+            generator.writeNumberField("id", todo.getId());
+            writeString(generator, "importKey", todo.getImportKey());
+            generator.writeStringField("text", todo.getText());
+            generator.writeBooleanField("completed", todo.isCompleted());
+            generator.writeStringField("priority", todo.getPriority());
+            writeNumber(generator, "totalSteps", todo.getTotalSteps());
+            writeNumber(generator, "completedSteps", todo.getCompletedSteps());
+            writeNumber(generator, "estimatedDuration", todo.getEstimatedDuration());
+            writeString(generator, "durationUnit", todo.getDurationUnit());
+            writeDateTime(generator, "dueDate", todo.getDueDate());
+            writeDateTime(generator, "deadline", todo.getDeadline());
+            generator.writeBooleanField("isDaily", todo.isDaily());
+            writeString(generator, "recurrenceRule", todo.getRecurrenceRule());
+            writeDateTime(generator, "lastResetDate", todo.getLastResetDate());
+            writeDateTime(generator, "completedAt", todo.getCompletedAt());
+            writeDateTime(generator, "createdAt", todo.getCreatedAt());
+            writeDateTime(generator, "updatedAt", todo.getUpdatedAt());
+            if (!steps.isEmpty()) {
+                generator.writeArrayFieldStart("steps");
+                for (TodoStep step : steps) {
+                    generator.writeStartObject();
+                    generator.writeStringField("text", step.getText());
+                    generator.writeBooleanField("completed", step.isCompleted());
+                    generator.writeNumberField("position", step.getPosition());
+                    writeNumber(generator, "estimatedMinutes", step.getEstimatedMinutes());
+                    writeDateTime(generator, "completedAt", step.getCompletedAt());
+                    generator.writeEndObject();
+                }
+                generator.writeEndArray();
+            }
+            writeTags(generator, tags);
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new RuntimeException("导出失败: " + e.getMessage(), e);
+        }
+    }
+
+    private void writeNote(JsonGenerator generator, Note note, List<String> tags) {
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("type", "note");
+            generator.writeNumberField("id", note.getId());
+            writeString(generator, "importKey", note.getImportKey());
+            generator.writeStringField("title", note.getTitle());
+            generator.writeStringField("content", note.getContent());
+            writeDateTime(generator, "updatedAt", note.getUpdatedAt());
+            writeTags(generator, tags);
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new RuntimeException("导出失败: " + e.getMessage(), e);
+        }
+    }
+
+    private void writeTags(JsonGenerator generator, List<String> tags) throws IOException {
+        if (!tags.isEmpty()) {
+            generator.writeArrayFieldStart("tags");
+            for (String tag : tags) {
+                generator.writeString(tag);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private void writeString(JsonGenerator generator, String field, String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(field, value);
+        }
+    }
+
+    private void writeNumber(JsonGenerator generator, String field, Integer value) throws IOException {
+        if (value != null) {
+            generator.writeNumberField(field, value);
+        }
+    }
+
+    private void writeDateTime(JsonGenerator generator, String field, LocalDateTime value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(field, value.toString());
+        }
+    }
+
+    private boolean isValidTodo(JsonNode line) {
+        String text = line.path("text").asText("");
+        if (text.isBlank() || text.length() > 500) {
+            return false;
+        }
+        for (JsonNode step : line.path("steps")) {
+            if (step.path("text").asText("").isBlank()) {
+                return false;
+            }
+        }
+        try {
+            OccurrenceService.normalizeRule(line.path("recurrenceRule").asText(null));
+            tagNames(line);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private boolean isValidNote(JsonNode line) {
+        String title = line.path("title").asText("");
+        if (title.isBlank() || title.length() > 255) {
+            return false;
+        }
+        try {
+            tagNames(line);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // 记录中的标签名（没有tags字段时为null，表示不修改已有记录的标签），名称不合法时抛出IllegalArgumentException
+    private List<String> tagNames(JsonNode line) {
+        if (!line.has("tags")) {
+            return null;
+        }
+        List<String> names = new ArrayList<>();
+        for (JsonNode tag : line.get("tags")) {
+            names.add(TagExpression.normalizeTagName(tag.asText()));
+        }
+        return names;
+    }
+
+    private List<TodoStep> steps(JsonNode line) {
+        List<TodoStep> steps = new ArrayList<>();
+        for (JsonNode node : line.get("steps")) {
+            TodoStep step = new TodoStep();
+            step.setText(node.get("text").asText());
+            step.setCompleted(node.path("completed").asBoolean(false));
+            step.setPosition(node.path("position").asInt(steps.size()));
+            step.setEstimatedMinutes(integer(node, "estimatedMinutes"));
+            Timestamp completedAt = timestamp(node, "completedAt", null);
+            step.setCompletedAt(completedAt != null ? completedAt.toLocalDateTime() : null);
+            steps.add(step);
+        }
+        return steps;
+    }
+
+    // 导入标识：优先使用记录自带的importKey，否则使用来源ID
+    private String importKey(JsonNode line) {
+        String key = line.path("importKey").asText(null);
+        return key != null ? key : line.path("id").asText(null);
+    }
+
+    /**
+     * 查找一批记录对应的已有行：先按ID（同一账号的备份恢复），再按importKey（跨账号/重复导入）
+     * 返回 批次下标 -> 已有行ID
+     */
+    private Map<Integer, Long> findExisting(String table, Long userId, List<JsonNode> batch) {
+        List<Long> ids = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        for (JsonNode line : batch) {
+            if (line.hasNonNull("id")) {
+                ids.add(line.get("id").asLong());
+            }
+            String key = importKey(line);
+            if (key != null) {
+                keys.add(key);
+            }
+        }
+        Map<Long, Long> byId = new HashMap<>();
+        Map<String, Long> byKey = new HashMap<>();
+        MapSqlParameterSource params = new MapSqlParameterSource("userId", userId);
+        if (!ids.isEmpty()) {
+            namedJdbcTemplate.query("SELECT id FROM " + table + " WHERE user_id = :userId AND id IN (:ids)",
+                    params.addValue("ids", ids), rs -> {
+                        byId.put(rs.getLong(1), rs.getLong(1));
+                    });
+        }
+        if (!keys.isEmpty()) {
+            namedJdbcTemplate.query("SELECT id, import_key FROM " + table
+                            + " WHERE user_id = :userId AND import_key IN (:keys)",
+                    params.addValue("keys", keys), rs -> {
+                        byKey.put(rs.getString(2), rs.getLong(1));
+                    });
+        }
+
+        Map<Integer, Long> existing = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            JsonNode line = batch.get(i);
+            Long id = line.hasNonNull("id") ? byId.get(line.get("id").asLong()) : null;
+            if (id == null) {
+                id = byKey.get(importKey(line));
+            }
+            if (id != null) {
+                existing.put(i, id);
+            }
+        }
+        return existing;
+    }
+
+    private void flushTodos(User owner, List<JsonNode> batch, Map<String, Integer> result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Long userId = owner.getId();
+        List<Todo> saved = transactionTemplate.execute(status -> {
+            Map<Integer, Long> existing = findExisting("todos", userId, batch);
+            // 修改前的副本，用于操作记录和统计
+            Map<Long, Todo> before = new HashMap<>();
+            for (Todo todo : todoRepository.findAllById(existing.values())) {
+                before.put(todo.getId(), todo.copy());
+                entityManager.detach(todo);
+            }
+            Rows rows = new Rows();
+            LocalDateTime now = LocalDateTime.now();
+            for (int i = 0; i < batch.size(); i++) {
+                JsonNode line = batch.get(i);
+                Object[] values = {
+                        line.get("text").asText(),
+                        line.path("completed").asBoolean(false),
+                        line.path("priority").asText("MEDIUM"),
+                        integer(line, "totalSteps"),
+                        line.hasNonNull("completedSteps") ? line.get("completedSteps").asInt() : 0,
+                        integer(line, "estimatedDuration"),
+                        line.path("durationUnit").asText(null),
+                        Todo.toMinutes(integer(line, "estimatedDuration"), line.path("durationUnit").asText(null)),
+                        timestamp(line, "dueDate", null),
+                        timestamp(line, "deadline", null),
+                        line.path("isDaily").asBoolean(false),
+                        timestamp(line, "lastResetDate", null),
+                        timestamp(line, "completedAt", null),
+                        timestamp(line, "createdAt", now),
+                        timestamp(line, "updatedAt", now),
+                        OccurrenceService.normalizeRule(line.path("recurrenceRule").asText(null))
+                };
+                rows.add(line, values, existing.get(i), userId, importKey(line));
+            }
+            List<Long> insertedIds = insertReturningIds(INSERT_TODO_SQL, rows.inserts);
+            jdbcTemplate.batchUpdate(UPDATE_TODO_SQL, rows.updates);
+            result.merge("todosInserted", rows.inserts.size(), Integer::sum);
+            result.merge("todosUpdated", rows.updates.size() + rows.duplicates, Integer::sum);
+
+            // JDBC写入绕过了Hibernate，重新加载写入后的实体，再恢复子任务和标签、记录操作并计入统计
+            Map<Long, JsonNode> lines = new LinkedHashMap<>(rows.updatedLines);
+            for (int i = 0; i < insertedIds.size(); i++) {
+                lines.put(insertedIds.get(i), rows.insertedLines.get(i));
+            }
+            lines.keySet().forEach(id -> entityManager.getEntityManagerFactory().getCache().evict(Todo.class, id));
+            cacheInvalidationService.evictRowsAfterCommit(Todo.class, lines.keySet());
+            List<Todo> todos = todoRepository.findAllById(lines.keySet());
+            for (Todo todo : todos) {
+                JsonNode line = lines.get(todo.getId());
+                if (line.has("steps")) {
+                    todoStepService.replaceSteps(todo, steps(line));
+                }
+                List<String> tags = tagNames(line);
+                if (tags != null) {
+                    tagService.replaceTags(userId, TagAssignment.TODO, todo.getId(), tags);
+                }
+                Todo previous = before.get(todo.getId());
+                if (previous != null) {
+                    activityLogService.recordTodo(ActivityEntry.UPDATE, todo, previous);
+                    analyticsService.onTodoUpdated(previous, todo);
+                } else {
+                    activityLogService.recordTodo(ActivityEntry.CREATE, todo, null);
+                    analyticsService.onTodoCreated(todo);
+                    if (todo.isCompleted()) {
+                        // 导入时已完成的记录同时计入完成
+                        Todo open = todo.copy();
+                        open.setCompleted(false);
+                        analyticsService.onTodoUpdated(open, todo);
+                    }
+                }
+            }
+            return todos;
+        });
+        saved.forEach(reminderService::reschedule);
+        batch.clear();
+    }
+
+    private void flushNotes(Long userId, List<JsonNode> batch, Map<String, Integer> result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Integer, Long> existing = findExisting("notes", userId, batch);
+            // 修改前的副本，用于操作记录
+            Map<Long, Note> before = new HashMap<>();
+            for (Note note : noteRepository.findAllById(existing.values())) {
+                before.put(note.getId(), NoteService.snapshotOf(note));
+                entityManager.detach(note);
+            }
+            Rows rows = new Rows();
+            LocalDateTime now = LocalDateTime.now();
+            for (int i = 0; i < batch.size(); i++) {
+                JsonNode line = batch.get(i);
+                Object[] values = {
+                        line.get("title").asText(),
+                        line.path("content").asText(""),
+                        timestamp(line, "updatedAt", now)
+                };
+                rows.add(line, values, existing.get(i), userId, importKey(line));
+            }
+            List<Long> insertedIds = insertReturningIds(INSERT_NOTE_SQL, rows.inserts);
+            jdbcTemplate.batchUpdate(UPDATE_NOTE_SQL, rows.updates);
+            result.merge("notesInserted", rows.inserts.size(), Integer::sum);
+            result.merge("notesUpdated", rows.updates.size() + rows.duplicates, Integer::sum);
+
+            // 与待办事项相同：重新加载写入后的实体，再恢复标签并记录操作
+            Map<Long, JsonNode> lines = new LinkedHashMap<>(rows.updatedLines);
+            for (int i = 0; i < insertedIds.size(); i++) {
+                lines.put(insertedIds.get(i), rows.insertedLines.get(i));
+            }
+            lines.keySet().forEach(id -> entityManager.getEntityManagerFactory().getCache().evict(Note.class, id));
+            cacheInvalidationService.evictRowsAfterCommit(Note.class, lines.keySet());
+            for (Note note : noteRepository.findAllById(lines.keySet())) {
+                List<String> tags = tagNames(lines.get(note.getId()));
+                if (tags != null) {
+                    tagService.replaceTags(userId, TagAssignment.NOTE, note.getId(), tags);
+                }
+                Note previous = before.get(note.getId());
+                activityLogService.recordNote(previous != null ? ActivityEntry.UPDATE : ActivityEntry.CREATE,
+                        note, previous);
+            }
+        });
+        batch.clear();
+    }
+
+    /**
+     * 一批记录拆分成插入和更新；同一批中importKey重复的新记录只插入一次（后出现的覆盖前面的），
+     * 与跨批次重复导入的结果一致，也不会触发(user_id, import_key)唯一约束
+     */
+    private static final class Rows {
+        private final List<Object[]> inserts = new ArrayList<>();
+        private final List<JsonNode> insertedLines = new ArrayList<>();
+        private final Map<String, Integer> insertedKeys = new HashMap<>();
+        private final List<Object[]> updates = new ArrayList<>();
+        private final Map<Long, JsonNode> updatedLines = new LinkedHashMap<>();
+        private int duplicates;
+
+        void add(JsonNode line, Object[] values, Long existingId, Long userId, String importKey) {
+            if (existingId != null) {
+                updates.add(append(values, existingId, userId));
+                updatedLines.put(existingId, line);
+                return;
+            }
+            Object[] row = prepend(userId, append(values, importKey));
+            Integer previous = importKey != null ? insertedKeys.get(importKey) : null;
+            if (previous != null) {
+                inserts.set(previous, row);
+                insertedLines.set(previous, line);
+                duplicates++;
+                return;
+            }
+            if (importKey != null) {
+                insertedKeys.put(importKey, inserts.size());
+            }
+            inserts.add(row);
+            insertedLines.add(line);
+        }
+    }
+
+    // 批量插入并按顺序返回生成的ID
+    private List<Long> insertReturningIds(String sql, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(sql, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        new ArgumentPreparedStatementSetter(rows.get(i)).setValues(ps);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                }, keyHolder);
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            ids.add(((Number) keys.values().iterator().next()).longValue());
+        }
+        return ids;
+    }
+
+    private Integer integer(JsonNode line, String field) {
+        return line.hasNonNull(field) ? line.get(field).asInt() : null;
+    }
+
+    private Timestamp timestamp(JsonNode line, String field, LocalDateTime defaultValue) {
+        LocalDateTime value = defaultValue;
+        if (line.hasNonNull(field)) {
+            try {
+                value = LocalDateTime.parse(line.get(field).asText());
+            } catch (Exception e) {
+                // 格式错误时使用默认值
+            }
+        }
+        return value != null ? Timestamp.valueOf(value) : null;
+    }
+
+    private static Object[] append(Object[] values, Object... extra) {
+        Object[] result = new Object[values.length + extra.length];
+        System.arraycopy(values, 0, result, 0, values.length);
+        System.arraycopy(extra, 0, result, values.length, extra.length);
+        return result;
+    }
+
+    private static Object[] prepend(Object first, Object[] values) {
+        Object[] result = new Object[values.length + 1];
+        result[0] = first;
+        System.arraycopy(values, 0, result, 1, values.length);
+        return result;
+    }
+}
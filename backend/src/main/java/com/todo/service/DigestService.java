@@ -0,0 +1,205 @@
+package com.todo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todo.model.User;
+import com.todo.repository.UserRepository;
+import com.todo.util.SecurityUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 面向智能体的摘要
+ * 一条UNION ALL查询取出各分区排名靠前的条目（已逾期、今天到期、高优先级、最近编辑的笔记）和总数，
+ * 按排名依次放入结果，超出字节预算的条目被舍弃，保证每次返回的大小有上限、与用户数据量无关
+ */
+@Service
+public class DigestService {
+
+    public static final int DEFAULT_MAX_BYTES = 2048;
+    public static final int MIN_MAX_BYTES = 256;
+    public static final int MAX_MAX_BYTES = 16384;
+
+    private static final int SECTION_LIMIT = 20;
+    private static final int NOTE_LIMIT = 10;
+    private static final int TEXT_CHARS = 120;
+    private static final int SNIPPET_CHARS = 160;
+    // 第一轮每个分区先放入的条数，保证预算紧张时各分区都有代表
+    private static final int FIRST_ROUND = 3;
+
+    private static final String[] SECTIONS = {"overdue", "dueToday", "topPriority", "recentNotes"};
+
+    // 各分区：分区名、ID、标题、优先级、时间、笔记摘要片段、数值（待办为预计分钟数，笔记为正文长度，总数行为数量）
+    private static final String TODO_COLUMNS = "t.id, t.text, t.priority, t.deadline, "
+            + "NULL, t.estimated_minutes FROM todos t ";
+    private static final String PRIORITY_RANK = "CASE t.priority WHEN 'HIGH' THEN 0 WHEN 'MEDIUM' THEN 1 ELSE 2 END";
+    private static final String DIGEST_SQL =
+            "(SELECT 'overdue' AS section, " + TODO_COLUMNS
+            + "WHERE t.user_id = ? AND t.completed = false AND t.is_daily = false AND t.deadline < ? "
+            + "ORDER BY " + PRIORITY_RANK + ", t.deadline LIMIT " + SECTION_LIMIT + ") "
+            + "UNION ALL (SELECT 'dueToday', " + TODO_COLUMNS
+            + "WHERE t.user_id = ? AND t.completed = false AND t.is_daily = false AND t.deadline >= ? AND t.deadline < ? "
+            + "ORDER BY t.deadline, " + PRIORITY_RANK + " LIMIT " + SECTION_LIMIT + ") "
+            + "UNION ALL (SELECT 'topPriority', " + TODO_COLUMNS
+            + "WHERE t.user_id = ? AND t.completed = false AND (t.is_daily = true OR t.deadline IS NULL OR t.deadline >= ?) "
+            + "ORDER BY " + PRIORITY_RANK + ", t.deadline IS NULL, t.deadline, t.id LIMIT " + SECTION_LIMIT + ") "
+            + "UNION ALL (SELECT 'recentNotes', n.id, n.title, NULL, n.updated_at, "
+            + "SUBSTRING(n.content, 1, " + (SNIPPET_CHARS + 1) + "), CHAR_LENGTH(n.content) FROM notes n "
+            + "WHERE n.user_id = ? ORDER BY n.updated_at DESC LIMIT " + NOTE_LIMIT + ") "
+            + "UNION ALL (SELECT 'activeTodos', NULL, NULL, NULL, NULL, NULL, COUNT(*) FROM todos t "
+            + "WHERE t.user_id = ? AND t.completed = false) "
+            + "UNION ALL (SELECT 'notes', NULL, NULL, NULL, NULL, NULL, COUNT(*) FROM notes n WHERE n.user_id = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public DigestService(JdbcTemplate jdbcTemplate, UserRepository userRepository, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    private User getCurrentUser() {
+        String username = SecurityUtil.getCurrentUsername();
+        if (username == null) {
+            throw new RuntimeException("未找到当前用户");
+        }
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("用户不存在"));
+    }
+
+    /**
+     * 生成当前用户的摘要（UTF-8编码的JSON），大小不超过maxBytes
+     */
+    @Transactional(readOnly = true)
+    public byte[] getDigest(int maxBytes) {
+        int budget = Math.max(MIN_MAX_BYTES, Math.min(maxBytes, MAX_MAX_BYTES));
+        Long userId = getCurrentUser().getId();
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        LocalDateTime startOfTomorrow = LocalDate.now().plusDays(1).atStartOfDay();
+
+        Map<String, List<Map<String, Object>>> candidates = new LinkedHashMap<>();
+        for (String section : SECTIONS) {
+            candidates.put(section, new ArrayList<>());
+        }
+        Map<String, Object> digest = new LinkedHashMap<>();
+        digest.put("generatedAt", now.toString());
+        jdbcTemplate.query(DIGEST_SQL, rs -> {
+            String section = rs.getString(1);
+            if (!candidates.containsKey(section)) {
+                digest.put(section, rs.getLong(7));
+            } else if (section.equals("recentNotes")) {
+                candidates.get(section).add(noteItem(rs));
+            } else {
+                candidates.get(section).add(todoItem(rs));
+            }
+        }, userId, now, userId, now, startOfTomorrow, userId, startOfTomorrow, userId, userId, userId);
+
+        Map<String, List<Map<String, Object>>> included = new LinkedHashMap<>();
+        for (String section : SECTIONS) {
+            included.put(section, new ArrayList<>());
+            digest.put(section, included.get(section));
+        }
+        digest.put("omitted", 0);
+        // 空结构的大小，之后每放入一条累加该条的大小（非空数组中每条多一个逗号）
+        int used = size(digest) + 8;
+        int omitted = 0;
+        int[] positions = new int[SECTIONS.length];
+        for (int round = 0; round < 2; round++) {
+            for (int s = 0; s < SECTIONS.length; s++) {
+                List<Map<String, Object>> items = candidates.get(SECTIONS[s]);
+                int limit = round == 0 ? Math.min(FIRST_ROUND, items.size()) : items.size();
+                for (; positions[s] < limit; positions[s]++) {
+                    Map<String, Object> item = items.get(positions[s]);
+                    int itemSize = size(item) + (included.get(SECTIONS[s]).isEmpty() ? 0 : 1);
+                    if (used + itemSize > budget) {
+                        // 超出预算：本分区剩余条目全部舍弃，较小的其他分区条目仍可放入
+                        omitted += items.size() - positions[s];
+                        positions[s] = items.size();
+                        break;
+                    }
+                    included.get(SECTIONS[s]).add(item);
+                    used += itemSize;
+                }
+            }
+        }
+        digest.put("omitted", omitted);
+        try {
+            return objectMapper.writeValueAsBytes(digest);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("摘要生成失败", e);
+        }
+    }
+
+    private Map<String, Object> todoItem(ResultSet rs) throws SQLException {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("id", rs.getLong(2));
+        item.put("text", truncate(rs.getString(3), TEXT_CHARS));
+        item.put("priority", rs.getString(4));
+        Timestamp deadline = rs.getTimestamp(5);
+        if (deadline != null) {
+            item.put("deadline", minutes(deadline));
+        }
+        long minutes = rs.getLong(7);
+        if (!rs.wasNull()) {
+            item.put("minutes", minutes);
+        }
+        return item;
+    }
+
+    private Map<String, Object> noteItem(ResultSet rs) throws SQLException {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("id", rs.getLong(2));
+        item.put("title", truncate(rs.getString(3), TEXT_CHARS));
+        item.put("updatedAt", minutes(rs.getTimestamp(5)));
+        String content = rs.getString(6);
+        // 正文在SQL中已被截取时，即使合并空白后变短也要标记省略
+        boolean cut = content != null && rs.getLong(7) > content.length();
+        item.put("snippet", truncate(content, SNIPPET_CHARS, cut));
+        return item;
+    }
+
+    private String minutes(Timestamp timestamp) {
+        return timestamp.toLocalDateTime().truncatedTo(ChronoUnit.MINUTES).toString();
+    }
+
+    private String truncate(String value, int maxChars) {
+        return truncate(value, maxChars, false);
+    }
+
+    private String truncate(String value, int maxChars, boolean cut) {
+        if (value == null) {
+            return "";
+        }
+        String collapsed = value.replaceAll("\\s+", " ").trim();
+        if (collapsed.length() <= maxChars) {
+            return cut ? collapsed + "…" : collapsed;
+        }
+        int end = Character.isHighSurrogate(collapsed.charAt(maxChars - 1)) ? maxChars - 1 : maxChars;
+        return collapsed.substring(0, end) + "…";
+    }
+
+    private int size(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value).getBytes(StandardCharsets.UTF_8).length;
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("摘要生成失败", e);
+        }
+    }
+}
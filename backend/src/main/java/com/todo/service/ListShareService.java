@@ -0,0 +1,296 @@
+package com.todo.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.todo.config.ShardContext;
+import com.todo.dto.ShareResponse;
+import com.todo.dto.TodoRequest;
+import com.todo.exception.DataMigratingException;
+import com.todo.exception.ShareNotFoundException;
+import com.todo.exception.TodoNotFoundException;
+import com.todo.model.ListShare;
+import com.todo.model.Tag;
+import com.todo.model.TagAssignment;
+import com.todo.model.Todo;
+import com.todo.model.User;
+import com.todo.repository.ListShareRepository;
+import com.todo.repository.TagAssignmentRepository;
+import com.todo.repository.TagRepository;
+import com.todo.repository.UserRepository;
+import com.todo.util.SecurityUtil;
+import com.todo.util.TagExpression;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 共享列表：所有者把一个标签下的待办事项共享给其他用户，成员按角色只读或可编辑
+ * 待办事项只保存一份（仍属于所有者），成员的读写都以所有者身份在所有者的分片上执行，
+ * 列表内容来自所有者的标签位图索引和内存列表，写入不需要通知或复制给每个成员。
+ * 权限检查读取按成员缓存的ACL（共享ID -> 角色），只在共享关系变化时失效（并广播给其他节点），不在每次查询中连接共享表；
+ * 修改和删除前按tag_assignments的唯一索引确认待办事项在列表中（其他节点的标签修改可能还没同步到本节点的位图索引）
+ */
+@Service
+public class ListShareService {
+
+    static final String CACHE_NAME = "share-acl";
+
+    private final ListShareRepository listShareRepository;
+    private final UserRepository userRepository;
+    private final TagRepository tagRepository;
+    private final TagAssignmentRepository tagAssignmentRepository;
+    private final TodoService todoService;
+    private final TagService tagService;
+    private final TagIndexService tagIndexService;
+    private final ShardRouter shardRouter;
+    private final CacheInvalidationService cacheInvalidationService;
+    private final TransactionTemplate newTransaction;
+    // 成员ID -> 该成员可访问的共享（共享ID -> 共享）
+    private final Cache<Long, Map<Long, ListShare>> acl;
+
+    @Autowired
+    public ListShareService(ListShareRepository listShareRepository, UserRepository userRepository,
+                            TagRepository tagRepository, TagAssignmentRepository tagAssignmentRepository,
+                            TodoService todoService, TagService tagService,
+                            TagIndexService tagIndexService, ShardRouter shardRouter,
+                            CacheInvalidationService cacheInvalidationService,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${todo.sharing.acl-ttl:1m}") Duration aclTtl) {
+        this.listShareRepository = listShareRepository;
+        this.userRepository = userRepository;
+        this.tagRepository = tagRepository;
+        this.tagAssignmentRepository = tagAssignmentRepository;
+        this.todoService = todoService;
+        this.tagService = tagService;
+        this.tagIndexService = tagIndexService;
+        this.shardRouter = shardRouter;
+        this.cacheInvalidationService = cacheInvalidationService;
+        // 共享表在目录分片、列表内容在所有者的分片，都需要在新事务（新连接）中按目标分片访问
+        this.newTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.acl = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(cacheInvalidationService.userCacheTtl(aclTtl))
+                .build();
+        cacheInvalidationService.registerUserCache(CACHE_NAME, this::dropLocal);
+    }
+
+    private User getCurrentUser() {
+        String username = SecurityUtil.getCurrentUsername();
+        if (username == null) {
+            throw new RuntimeException("未找到当前用户");
+        }
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("用户不存在"));
+    }
+
+    /**
+     * 当前用户共享出去的和共享给当前用户的列表
+     */
+    public List<ShareResponse> getShares() {
+        User currentUser = getCurrentUser();
+        List<ListShare> shares = new ArrayList<>(onDirectory(() -> listShareRepository.findByOwnerId(currentUser.getId())));
+        shares.addAll(aclOf(currentUser.getId()).values());
+        Set<Long> userIds = new HashSet<>();
+        shares.forEach(share -> {
+            userIds.add(share.getOwnerId());
+            userIds.add(share.getMemberId());
+        });
+        Map<Long, String> usernames = onDirectory(() -> userRepository.findAllById(userIds)).stream()
+                .collect(Collectors.toMap(User::getId, User::getUsername));
+        List<ShareResponse> result = new ArrayList<>();
+        for (ListShare share : shares) {
+            String list = onShardOf(share.getOwnerId(),
+                    () -> tagIndexService.tagName(share.getOwnerId(), share.getTagId()));
+            result.add(new ShareResponse(share.getId(), list, usernames.get(share.getOwnerId()),
+                    usernames.get(share.getMemberId()), share.getRole(), share.getCreatedAt()));
+        }
+        return result;
+    }
+
+    /**
+     * 把当前用户的一个标签共享给另一个用户；已共享给该用户时修改角色
+     */
+    public ShareResponse share(String list, String username, String role) {
+        User currentUser = getCurrentUser();
+        String tagName = TagExpression.normalizeTagName(list);
+        String shareRole = role == null || role.isBlank() ? ListShare.VIEWER : role.trim().toUpperCase();
+        if (!ListShare.VIEWER.equals(shareRole) && !ListShare.EDITOR.equals(shareRole)) {
+            throw new IllegalArgumentException("角色只能是VIEWER或EDITOR: " + role);
+        }
+        Tag tag = tagRepository.findByUserIdAndNameIn(currentUser.getId(), List.of(tagName)).stream()
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("标签不存在: " + tagName));
+        User member = onDirectory(() -> userRepository.findByUsername(username))
+                .orElseThrow(() -> new IllegalArgumentException("用户不存在: " + username));
+        if (member.getId().equals(currentUser.getId())) {
+            throw new IllegalArgumentException("不能把列表共享给自己");
+        }
+        ListShare saved = onDirectory(() -> {
+            ListShare share = listShareRepository
+                    .findByOwnerIdAndTagIdAndMemberId(currentUser.getId(), tag.getId(), member.getId())
+                    .orElseGet(() -> new ListShare(currentUser.getId(), tag.getId(), member.getId(), shareRole));
+            share.setRole(shareRole);
+            return listShareRepository.save(share);
+        });
+        invalidateAcl(member.getId());
+        return new ShareResponse(saved.getId(), tag.getName(), currentUser.getUsername(), member.getUsername(),
+                saved.getRole(), saved.getCreatedAt());
+    }
+
+    /**
+     * 取消共享：所有者可以移除成员，成员也可以退出
+     */
+    public void unshare(Long id) {
+        User currentUser = getCurrentUser();
+        ListShare share = onDirectory(() -> listShareRepository.findById(id))
+                .filter(s -> s.getOwnerId().equals(currentUser.getId()) || s.getMemberId().equals(currentUser.getId()))
+                .orElseThrow(() -> new ShareNotFoundException(id));
+        onDirectory(() -> {
+            listShareRepository.deleteById(share.getId());
+            return null;
+        });
+        invalidateAcl(share.getMemberId());
+    }
+
+    /**
+     * 共享关系变化后丢弃成员的ACL，并通知其他节点（撤销的权限不能在其他节点上继续生效）
+     */
+    private void invalidateAcl(Long memberId) {
+        dropLocal(memberId);
+        cacheInvalidationService.broadcastUser(CACHE_NAME, memberId);
+    }
+
+    /**
+     * 只丢弃本节点的ACL（其他节点的广播触发），memberId为null表示全部成员
+     */
+    private void dropLocal(Long memberId) {
+        if (memberId == null) {
+            acl.invalidateAll();
+        } else {
+            acl.invalidate(memberId);
+        }
+    }
+
+    /**
+     * 共享列表中的待办事项（所有者的标签表达式查询，走位图索引），可按状态和优先级筛选
+     */
+    public List<Todo> getTodos(Long id, String filter, String priority) {
+        ListShare share = require(id, false);
+        return onOwnerShard(share, false, owner -> todoService.getAllTodos(owner, filter, listName(share), priority)
+                .stream()
+                .map(this::detach)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * 在共享列表中新建待办事项：属于所有者，并带上列表的标签
+     */
+    public Todo createTodo(Long id, TodoRequest request) {
+        ListShare share = require(id, true);
+        return onOwnerShard(share, true, owner -> {
+            Todo todo = todoService.createTodo(owner, request);
+            todo.setTags(tagService.setTodoTags(owner, todo.getId(), List.of(listName(share))));
+            return detach(todo);
+        });
+    }
+
+    public Todo patchTodo(Long id, Long todoId, Map<String, Object> updates) {
+        ListShare share = require(id, true);
+        return onOwnerShard(share, true, owner -> {
+            requireInList(share, todoId);
+            return detach(todoService.patchTodo(owner, todoId, updates));
+        });
+    }
+
+    public void deleteTodo(Long id, Long todoId) {
+        ListShare share = require(id, true);
+        onOwnerShard(share, true, owner -> {
+            requireInList(share, todoId);
+            todoService.deleteTodo(owner, todoId);
+            return null;
+        });
+    }
+
+    /**
+     * 从当前用户的ACL中取出共享并检查角色（ACL未缓存时按member_id索引加载一次）
+     */
+    private ListShare require(Long id, boolean edit) {
+        ListShare share = aclOf(getCurrentUser().getId()).get(id);
+        if (share == null) {
+            throw new ShareNotFoundException(id);
+        }
+        if (edit && !share.canEdit()) {
+            throw new AccessDeniedException("只读成员不能修改共享列表");
+        }
+        return share;
+    }
+
+    private Map<Long, ListShare> aclOf(Long memberId) {
+        return acl.get(memberId, k -> onDirectory(() -> listShareRepository.findByMemberId(memberId)).stream()
+                .collect(Collectors.toMap(ListShare::getId, Function.identity())));
+    }
+
+    private String listName(ListShare share) {
+        String name = tagIndexService.tagName(share.getOwnerId(), share.getTagId());
+        if (name == null) {
+            throw new ShareNotFoundException(share.getId()); // 所有者已删除该标签
+        }
+        return name;
+    }
+
+    /**
+     * 只能修改列表中的待办事项：在所有者分片的写事务中按索引查一行标签关联（读主库，不依赖本节点的位图索引）
+     */
+    private void requireInList(ListShare share, Long todoId) {
+        if (!tagAssignmentRepository.existsByTagAndItem(share.getTagId(), TagAssignment.TODO, todoId)) {
+            throw new TodoNotFoundException(todoId);
+        }
+    }
+
+    private <T> T onDirectory(Supplier<T> action) {
+        return ShardContext.callOn(ShardContext.DIRECTORY_SHARD, () -> newTransaction.execute(status -> action.get()));
+    }
+
+    /**
+     * 以所有者身份在所有者的分片上执行
+     */
+    private <T> T onOwnerShard(ListShare share, boolean write, Function<User, T> action) {
+        Long ownerId = share.getOwnerId();
+        if (write && shardRouter.isMigrating(ownerId)) {
+            throw new DataMigratingException("列表所有者的数据迁移中，请稍后重试");
+        }
+        return onShardOf(ownerId, () -> {
+            User owner = userRepository.findById(ownerId).orElseThrow(() -> new ShareNotFoundException(share.getId()));
+            return action.apply(owner);
+        });
+    }
+
+    private <T> T onShardOf(Long userId, Supplier<T> action) {
+        return ShardContext.callOn(shardRouter.shardOf(userId), () -> newTransaction.execute(status -> action.get()));
+    }
+
+    /**
+     * 返回给成员的副本：不包含所有者的账号信息
+     */
+    private Todo detach(Todo todo) {
+        Todo copy = todo.copy();
+        copy.setUser(null);
+        copy.setSteps(todo.getSteps());
+        copy.setTags(todo.getTags());
+        return copy;
+    }
+}
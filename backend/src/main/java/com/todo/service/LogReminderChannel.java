@@ -0,0 +1,22 @@
+package com.todo.service;
+
+import com.todo.dto.ReminderEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * 输出到日志的提醒渠道
+ */
+@Component
+public class LogReminderChannel implements ReminderChannel {
+
+    @Override
+    public String name() {
+        return "log";
+    }
+
+    @Override
+    public void send(ReminderEvent event) {
+        System.out.println("[提醒] " + event.getType() + " 用户=" + event.getUsername()
+                + " 待办=" + event.getTodoId() + " \"" + event.getText() + "\" 截止时间=" + event.getDeadline());
+    }
+}
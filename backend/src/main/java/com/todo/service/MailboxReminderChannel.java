@@ -0,0 +1,54 @@
+package com.todo.service;
+
+import com.todo.dto.ReminderEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * 邮件提醒渠道的本地替身：不连接SMTP服务器，而是把邮件以.eml文件写入本地目录，便于开发环境查看
+ */
+@Component
+public class MailboxReminderChannel implements ReminderChannel {
+
+    @Value("${todo.reminder.mailbox-dir:mailbox}")
+    private String mailboxDir;
+
+    @Value("${todo.reminder.mail-from:noreply@todo.local}")
+    private String mailFrom;
+
+    @Override
+    public String name() {
+        return "mail";
+    }
+
+    @Override
+    public void send(ReminderEvent event) {
+        if (event.getEmail() == null || event.getEmail().isBlank()) {
+            return;
+        }
+        String subject = ReminderEvent.OVERDUE.equals(event.getType())
+                ? "待办事项已逾期：" + event.getText()
+                : "待办事项即将到期：" + event.getText();
+        String message = "From: " + mailFrom + "\r\n"
+                + "To: " + event.getEmail() + "\r\n"
+                + "Subject: " + subject + "\r\n"
+                + "Content-Type: text/plain; charset=UTF-8\r\n"
+                + "\r\n"
+                + event.getUsername() + "，您好：\r\n\r\n"
+                + "待办事项「" + event.getText() + "」的截止时间为 " + event.getDeadline() + "。\r\n";
+        try {
+            Path dir = Paths.get(mailboxDir);
+            Files.createDirectories(dir);
+            Path file = dir.resolve(event.getTodoId() + "-" + event.getType() + "-" + System.currentTimeMillis() + ".eml");
+            Files.writeString(file, message, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.out.println("写入提醒邮件失败: " + e.getMessage());
+        }
+    }
+}
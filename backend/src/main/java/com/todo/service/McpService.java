@@ -0,0 +1,348 @@
+package com.todo.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.todo.dto.ItemTagsRequest;
+import com.todo.dto.NoteRequest;
+import com.todo.dto.TodoRequest;
+import com.todo.exception.NoteNotFoundException;
+import com.todo.exception.TodoNotFoundException;
+import com.todo.model.Note;
+import com.todo.model.Todo;
+import com.todo.util.JsonSchemaBuilder;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * MCP（Model Context Protocol）工具服务：处理JSON-RPC 2.0消息（initialize、tools/list、tools/call），
+ * 工具直接调用TodoService/NoteService等，参数Schema由请求DTO上的注解生成
+ */
+@Service
+public class McpService {
+
+    public static final String PROTOCOL_VERSION = "2025-03-26";
+
+    // JSON-RPC 2.0 错误码
+    public static final int PARSE_ERROR = -32700;
+    public static final int INVALID_REQUEST = -32600;
+    public static final int METHOD_NOT_FOUND = -32601;
+    public static final int INVALID_PARAMS = -32602;
+
+    private final TodoService todoService;
+    private final NoteService noteService;
+    private final TagService tagService;
+    private final DigestService digestService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    private final Map<String, Tool> tools = new LinkedHashMap<>();
+
+    private record Tool(String name, String description, Map<String, Object> inputSchema,
+                        Function<JsonNode, Object> handler, boolean readOnly) {
+    }
+
+    @Autowired
+    public McpService(TodoService todoService, NoteService noteService, TagService tagService,
+                      DigestService digestService, ObjectMapper objectMapper, Validator validator) {
+        this.todoService = todoService;
+        this.noteService = noteService;
+        this.tagService = tagService;
+        this.digestService = digestService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        registerTools();
+    }
+
+    private void registerTools() {
+        registerQuery("get_summary",
+                "获取当前用户的精简摘要：已逾期、今天到期、高优先级的待办事项，最近编辑的笔记（内容片段），以及未完成任务和笔记的总数。"
+                        + "了解用户情况时优先使用此工具，只有需要完整列表时才使用 list_todos / list_notes",
+                JsonSchemaBuilder.object()
+                        .property("maxBytes", "integer", "摘要大小上限（字节），默认" + DigestService.DEFAULT_MAX_BYTES
+                                + "，取值范围" + DigestService.MIN_MAX_BYTES + "~" + DigestService.MAX_MAX_BYTES, false)
+                        .build(),
+                args -> {
+                    int maxBytes = args.path("maxBytes").asInt(DigestService.DEFAULT_MAX_BYTES);
+                    return new String(digestService.getDigest(maxBytes), StandardCharsets.UTF_8);
+                });
+
+        // ==================== 待办事项 ====================
+        registerQuery("list_todos",
+                "获取当前用户的待办事项完整列表（数据量可能很大，优先使用 get_summary），可按状态、优先级和标签表达式筛选",
+                JsonSchemaBuilder.object()
+                        .property("filter", "状态筛选：ALL（全部）、ACTIVE（未完成）、COMPLETED（已完成），默认ALL",
+                                List.of("ALL", "ACTIVE", "COMPLETED"))
+                        .property("priority", "优先级筛选", List.of("LOW", "MEDIUM", "HIGH"))
+                        .property("tags", "string", "标签表达式：标签名用 AND/OR/NOT 和括号组合，例如 work AND NOT archived", false)
+                        .build(),
+                args -> todoService.getAllTodos(
+                        upperCase(text(args, "filter")), text(args, "tags"), upperCase(text(args, "priority"))));
+
+        registerQuery("get_todo_by_id", "根据ID获取待办事项的详细信息（含子任务和标签）",
+                idSchema("待办事项ID").build(),
+                args -> {
+                    Long id = requireId(args);
+                    return todoService.getTodoById(id).orElseThrow(() -> new TodoNotFoundException(id));
+                });
+
+        register("create_todo", "创建新的待办事项",
+                JsonSchemaBuilder.object().fields(TodoRequest.class, true).build(),
+                args -> todoService.createTodo(toDto(args, TodoRequest.class)));
+
+        register("update_todo", "更新待办事项，只需提供要修改的字段",
+                idSchema("待办事项ID")
+                        .fields(TodoRequest.class, false)
+                        .fields(Todo.class, "completed", "completedSteps")
+                        .build(),
+                args -> {
+                    Long id = requireId(args);
+                    Map<String, Object> updates = objectMapper.convertValue(args, new TypeReference<>() {});
+                    updates.remove("id");
+                    return todoService.patchTodo(id, updates);
+                });
+
+        register("delete_todo", "删除待办事项",
+                idSchema("待办事项ID").build(),
+                args -> {
+                    Long id = requireId(args);
+                    todoService.deleteTodo(id);
+                    return Map.of("deleted", id);
+                });
+
+        register("set_todo_tags", "设置待办事项的标签（整体替换，不存在的标签自动创建）",
+                idSchema("待办事项ID").fields(ItemTagsRequest.class, true).build(),
+                args -> tagService.setTodoTags(requireId(args), toDto(args, ItemTagsRequest.class).getTags()));
+
+        // ==================== 笔记 ====================
+        registerQuery("list_notes",
+                "获取当前用户的笔记完整列表（包含全文，数据量可能很大，优先使用 get_summary），可按标签表达式筛选",
+                JsonSchemaBuilder.object()
+                        .property("tags", "string", "标签表达式：标签名用 AND/OR/NOT 和括号组合，例如 work OR meeting", false)
+                        .build(),
+                args -> noteService.getAllNotes(text(args, "tags")));
+
+        registerQuery("get_note_by_id", "根据ID获取笔记的详细信息",
+                idSchema("笔记ID").build(),
+                args -> {
+                    Long id = requireId(args);
+                    return noteService.getNoteById(id).orElseThrow(() -> new NoteNotFoundException(id));
+                });
+
+        register("create_note", "创建新笔记，内容支持Markdown",
+                JsonSchemaBuilder.object().fields(NoteRequest.class, true).build(),
+                args -> {
+                    NoteRequest request = toDto(args, NoteRequest.class);
+                    Note note = new Note();
+                    note.setTitle(request.getTitle());
+                    note.setContent(request.getContent() != null ? request.getContent() : "");
+                    return noteService.createNote(note);
+                });
+
+        register("update_note", "更新笔记的标题和/或内容，只需提供要修改的字段",
+                idSchema("笔记ID").fields(NoteRequest.class, false).build(),
+                args -> {
+                    // updateNote忽略为空的字段，未提供的字段保持原值
+                    Note note = new Note();
+                    note.setTitle(text(args, "title"));
+                    note.setContent(text(args, "content"));
+                    if (note.getTitle() != null && note.getTitle().isBlank()) {
+                        throw new IllegalArgumentException("笔记标题不能为空");
+                    }
+                    return noteService.updateNote(requireId(args), note);
+                });
+
+        register("delete_note", "删除笔记",
+                idSchema("笔记ID").build(),
+                args -> {
+                    Long id = requireId(args);
+                    noteService.deleteNote(id);
+                    return Map.of("deleted", id);
+                });
+
+        register("set_note_tags", "设置笔记的标签（整体替换，不存在的标签自动创建）",
+                idSchema("笔记ID").fields(ItemTagsRequest.class, true).build(),
+                args -> tagService.setNoteTags(requireId(args), toDto(args, ItemTagsRequest.class).getTags()));
+    }
+
+    private void register(String name, String description, Map<String, Object> inputSchema,
+                          Function<JsonNode, Object> handler) {
+        tools.put(name, new Tool(name, description, inputSchema, handler, false));
+    }
+
+    /**
+     * 注册只读工具（限流时计入读请求的配额）
+     */
+    private void registerQuery(String name, String description, Map<String, Object> inputSchema,
+                               Function<JsonNode, Object> handler) {
+        tools.put(name, new Tool(name, description, inputSchema, handler, true));
+    }
+
+    /**
+     * 工具是否只读；未知的工具按写入处理
+     */
+    public boolean isReadOnlyTool(String name) {
+        Tool tool = tools.get(name);
+        return tool != null && tool.readOnly();
+    }
+
+    private JsonSchemaBuilder idSchema(String description) {
+        return JsonSchemaBuilder.object().property("id", "integer", description, true);
+    }
+
+    /**
+     * 处理一条JSON-RPC消息；通知（没有id）不需要响应，返回null
+     */
+    public ObjectNode handle(JsonNode message) {
+        if (!message.isObject() || !"2.0".equals(message.path("jsonrpc").asText())
+                || !message.path("method").isTextual()) {
+            return error(message.isObject() ? message.get("id") : null, INVALID_REQUEST, "不是有效的JSON-RPC 2.0请求");
+        }
+        JsonNode id = message.get("id");
+        String method = message.get("method").asText();
+        JsonNode params = message.path("params");
+        if (id == null) {
+            // notifications/initialized 等通知无需处理
+            return null;
+        }
+
+        switch (method) {
+            case "initialize":
+                return result(id, initializeResult());
+            case "ping":
+                return result(id, objectMapper.createObjectNode());
+            case "tools/list":
+                return result(id, listTools());
+            case "tools/call":
+                Tool tool = tools.get(params.path("name").asText());
+                if (tool == null) {
+                    return error(id, INVALID_PARAMS, "未知的工具: " + params.path("name").asText());
+                }
+                JsonNode arguments = params.path("arguments");
+                return result(id, callTool(tool, arguments.isObject() ? arguments : objectMapper.createObjectNode()));
+            default:
+                return error(id, METHOD_NOT_FOUND, "不支持的方法: " + method);
+        }
+    }
+
+    public ObjectNode error(JsonNode id, int code, String message) {
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("jsonrpc", "2.0");
+        response.set("id", id);
+        ObjectNode error = response.putObject("error");
+        error.put("code", code);
+        error.put("message", message);
+        return response;
+    }
+
+    private ObjectNode result(JsonNode id, JsonNode result) {
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("jsonrpc", "2.0");
+        response.set("id", id);
+        response.set("result", result);
+        return response;
+    }
+
+    private ObjectNode initializeResult() {
+        ObjectNode result = objectMapper.createObjectNode();
+        result.put("protocolVersion", PROTOCOL_VERSION);
+        result.putObject("capabilities").putObject("tools").put("listChanged", false);
+        ObjectNode serverInfo = result.putObject("serverInfo");
+        serverInfo.put("name", "todo-backend");
+        serverInfo.put("version", "1.0.0");
+        return result;
+    }
+
+    private ObjectNode listTools() {
+        ObjectNode result = objectMapper.createObjectNode();
+        ArrayNode list = result.putArray("tools");
+        for (Tool tool : tools.values()) {
+            ObjectNode node = list.addObject();
+            node.put("name", tool.name());
+            node.put("description", tool.description());
+            node.set("inputSchema", objectMapper.valueToTree(tool.inputSchema()));
+        }
+        return result;
+    }
+
+    /**
+     * 执行工具；业务错误作为工具结果（isError=true）返回给模型，而不是JSON-RPC错误，
+     * 批量请求中某个工具失败不影响其他工具
+     */
+    private ObjectNode callTool(Tool tool, JsonNode arguments) {
+        ObjectNode result = objectMapper.createObjectNode();
+        String text;
+        boolean isError = false;
+        try {
+            Object value = tool.handler().apply(arguments);
+            text = value instanceof String s ? s : objectMapper.writeValueAsString(stripOwner(objectMapper.valueToTree(value)));
+        } catch (Exception e) {
+            isError = true;
+            text = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            System.out.println("MCP工具调用失败: " + tool.name() + " - " + text);
+        }
+        result.putArray("content").addObject()
+                .put("type", "text")
+                .put("text", text);
+        result.put("isError", isError);
+        return result;
+    }
+
+    /**
+     * 去掉实体上的所属用户，避免把账户信息交给模型
+     */
+    private JsonNode stripOwner(JsonNode node) {
+        if (node.isObject()) {
+            ((ObjectNode) node).remove("user");
+        } else if (node.isArray()) {
+            node.forEach(this::stripOwner);
+        }
+        return node;
+    }
+
+    private <T> T toDto(JsonNode arguments, Class<T> type) {
+        T dto;
+        try {
+            dto = objectMapper.treeToValue(arguments, type);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("参数格式错误: " + e.getMessage());
+        }
+        Set<ConstraintViolation<T>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("；")));
+        }
+        return dto;
+    }
+
+    private Long requireId(JsonNode arguments) {
+        JsonNode id = arguments.get("id");
+        if (id != null && (id.canConvertToLong() || id.asText().matches("\\d{1,18}"))) {
+            return id.asLong();
+        }
+        throw new IllegalArgumentException("缺少参数: id");
+    }
+
+    private String text(JsonNode arguments, String name) {
+        JsonNode value = arguments.get(name);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private String upperCase(String value) {
+        return value != null ? value.trim().toUpperCase() : null;
+    }
+}
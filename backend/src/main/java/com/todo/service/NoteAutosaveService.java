@@ -0,0 +1,308 @@
+package com.todo.service;
+
+import com.todo.config.ShardContext;
+import com.todo.dto.NoteDraftResponse;
+import com.todo.exception.NoteNotFoundException;
+import com.todo.model.ActivityEntry;
+import com.todo.model.Note;
+import com.todo.model.User;
+import com.todo.repository.NoteRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 笔记自动保存的写缓冲（write-behind）
+ * 编辑器的自动保存只写入内存中每篇笔记的草稿槽并立即返回版本号，
+ * 定时把各草稿的最新内容按分片合并成一个事务批量写入数据库；同一篇笔记在两次刷写之间的多次自动保存只写一次。
+ * 草稿按用户保存，刷写时才按目录确定用户所在的分片；迁移中的用户的草稿留在内存中，切换到新分片后再写入。
+ * 读取笔记时叠加尚未写入的草稿（读己之写），显式保存、删除会丢弃草稿，应用关闭前刷写全部草稿。
+ * 写入是带条件的UPDATE（数据库中的更新时间不晚于草稿时间），刷写期间提交的显式保存不会被草稿覆盖。
+ * 每篇写入的笔记在同一事务中记录一条修改操作（修改前为刷写前数据库中的内容），自动保存的修改同样可以撤销
+ */
+@Service
+public class NoteAutosaveService {
+
+    private record DraftKey(Long userId, Long noteId) {
+    }
+
+    private static final class Draft {
+        String title;
+        String content;
+        LocalDateTime updatedAt;
+        long version;
+        long flushedVersion;
+    }
+
+    private record Snapshot(DraftKey key, String title, String content, LocalDateTime updatedAt, long version) {
+    }
+
+    // 只在数据库中的更新时间不晚于草稿时才写入：之后的显式保存（更新时间更晚）优先
+    private static final String FLUSH_SQL = "UPDATE notes SET title = COALESCE(?, title), content = COALESCE(?, content), "
+            + "updated_at = ? WHERE id = ? AND user_id = ? AND (updated_at IS NULL OR updated_at <= ?)";
+    // 锁定要写入的行并读取修改前的内容，记录的修改前状态和UPDATE覆盖的内容一致
+    private static final String BEFORE_SQL = "SELECT id, title, content, updated_at FROM notes WHERE id IN (:ids) FOR UPDATE";
+
+    private final NoteRepository noteRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheInvalidationService cacheInvalidationService;
+    private final ShardRouter shardRouter;
+    private final ActivityLogService activityLogService;
+
+    private final ConcurrentHashMap<DraftKey, Draft> drafts = new ConcurrentHashMap<>();
+    // 版本号全局递增，草稿刷写后重新创建也不会回退
+    private final AtomicLong versions = new AtomicLong(System.currentTimeMillis());
+
+    @Value("${todo.notes.autosave.max-pending:10000}")
+    private int maxPending;
+
+    @Autowired
+    public NoteAutosaveService(NoteRepository noteRepository, JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               CacheInvalidationService cacheInvalidationService, ShardRouter shardRouter,
+                               ActivityLogService activityLogService) {
+        this.noteRepository = noteRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = transactionTemplate;
+        this.cacheInvalidationService = cacheInvalidationService;
+        this.shardRouter = shardRouter;
+        this.activityLogService = activityLogService;
+    }
+
+    /**
+     * 保存草稿（title、content为空表示不修改该字段），不访问数据库（草稿槽第一次创建时校验笔记归属）
+     */
+    public NoteDraftResponse autosave(User user, Long id, String title, String content) {
+        if (title != null && title.isBlank()) {
+            throw new IllegalArgumentException("笔记标题不能为空");
+        }
+        if (title != null && title.length() > 255) {
+            throw new IllegalArgumentException("笔记标题不能超过255个字符");
+        }
+        DraftKey key = new DraftKey(user.getId(), id);
+        if (!drafts.containsKey(key) && !noteRepository.existsByIdAndUser(id, user)) {
+            throw new NoteNotFoundException(id);
+        }
+
+        Snapshot[] saved = new Snapshot[1];
+        drafts.compute(key, (k, draft) -> {
+            if (draft == null) {
+                draft = new Draft();
+            }
+            if (title != null) {
+                draft.title = title;
+            }
+            if (content != null) {
+                draft.content = content;
+            }
+            draft.updatedAt = LocalDateTime.now();
+            draft.version = versions.incrementAndGet();
+            saved[0] = snapshot(k, draft);
+            return draft;
+        });
+
+        if (drafts.size() > maxPending) {
+            // 草稿过多（刷写跟不上）时立即刷写，限制内存占用
+            flushAll();
+        }
+        return new NoteDraftResponse(id, saved[0].version(), saved[0].updatedAt());
+    }
+
+    /**
+     * 立即把该笔记的草稿写入数据库（编辑器显式提交、离开页面时调用）
+     */
+    public void commit(User user, Long id) {
+        DraftKey key = new DraftKey(user.getId(), id);
+        if (drafts.containsKey(key)) {
+            flush(List.of(key), false);
+        }
+    }
+
+    /**
+     * 丢弃草稿（显式保存或删除笔记时调用，以显式操作为准）
+     */
+    public void discard(Long userId, Long id) {
+        drafts.remove(new DraftKey(userId, id));
+    }
+
+    /**
+     * 把尚未写入数据库的草稿叠加到读取结果上
+     *
+     * @return 是否有笔记被草稿修改（调用方据此决定是否需要按更新时间重新排序）
+     */
+    public boolean applyDrafts(Collection<Note> notes) {
+        if (drafts.isEmpty()) {
+            return false;
+        }
+        boolean applied = false;
+        for (Note note : notes) {
+            DraftKey key = new DraftKey(note.getUser().getId(), note.getId());
+            if (!drafts.containsKey(key)) {
+                continue;
+            }
+            Snapshot snapshot = readSnapshot(key);
+            if (snapshot != null) {
+                apply(note, snapshot);
+                applied = true;
+            }
+        }
+        return applied;
+    }
+
+    @Scheduled(fixedDelayString = "${todo.notes.autosave.flush-interval:5000}")
+    public void flushAll() {
+        if (!drafts.isEmpty()) {
+            flush(new ArrayList<>(drafts.keySet()), false);
+        }
+    }
+
+    /**
+     * 迁移开始时调用（用户已标记为迁移中）：把本节点该用户的草稿在复制之前写入原分片
+     */
+    public void flushMigrating(Long userId) {
+        flush(drafts.keySet().stream().filter(key -> key.userId().equals(userId)).toList(), true);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushAll();
+        if (!drafts.isEmpty()) {
+            System.err.println("关闭前仍有 " + drafts.size() + " 篇笔记草稿未能写入数据库");
+        }
+    }
+
+    /**
+     * 刷写指定草稿：取快照 → 按用户当前所在的分片每个分片一个事务写入 → 确认写入的版本，期间又有新的自动保存的草稿保留到下一轮
+     * 迁移中的用户（migrating为false时）跳过，避免写入正在复制的原分片后丢失
+     */
+    private synchronized void flush(List<DraftKey> keys, boolean migrating) {
+        Map<Integer, List<Snapshot>> byShard = new HashMap<>();
+        for (DraftKey key : keys) {
+            if (!migrating && shardRouter.isMigrating(key.userId())) {
+                continue;
+            }
+            Snapshot snapshot = readSnapshot(key);
+            if (snapshot != null) {
+                byShard.computeIfAbsent(shardRouter.shardOf(key.userId()), s -> new ArrayList<>()).add(snapshot);
+            }
+        }
+        for (Map.Entry<Integer, List<Snapshot>> entry : byShard.entrySet()) {
+            List<Snapshot> snapshots = entry.getValue();
+            Set<DraftKey> missing = new HashSet<>();
+            try {
+                ShardContext.runOn(entry.getKey(), () -> transactionTemplate.executeWithoutResult(status -> {
+                    Map<Long, Note> before = readBefore(snapshots);
+                    int[] updated = jdbcTemplate.batchUpdate(FLUSH_SQL, snapshots.stream()
+                            .map(snapshot -> new Object[]{snapshot.title(), snapshot.content(), snapshot.updatedAt(),
+                                    snapshot.key().noteId(), snapshot.key().userId(), snapshot.updatedAt()})
+                            .toList());
+                    for (int i = 0; i < snapshots.size(); i++) {
+                        Snapshot snapshot = snapshots.get(i);
+                        if (updated[i] == 0) {
+                            // 笔记已被删除，或草稿之后又有显式保存，以显式保存为准
+                            missing.add(snapshot.key());
+                        } else {
+                            Note previous = before.get(snapshot.key().noteId());
+                            activityLogService.recordNote(ActivityEntry.UPDATE, flushed(snapshot, previous), previous);
+                        }
+                    }
+                }));
+            } catch (RuntimeException e) {
+                System.err.println("笔记草稿写入失败，下次重试: " + e.getMessage());
+                continue;
+            }
+            // 绕过了Hibernate，失效实体缓存和笔记列表的查询缓存（更新时间变化会改变列表顺序），并通知其他节点
+            for (Snapshot snapshot : snapshots) {
+                if (!missing.contains(snapshot.key())) {
+                    cacheInvalidationService.evictLocal("Note", snapshot.key().noteId());
+                    cacheInvalidationService.broadcast(Note.class, snapshot.key().noteId());
+                }
+            }
+            for (Snapshot snapshot : snapshots) {
+                drafts.computeIfPresent(snapshot.key(), (k, draft) -> {
+                    if (missing.contains(k)) {
+                        return null; // 笔记已被删除或已被显式保存覆盖
+                    }
+                    draft.flushedVersion = Math.max(draft.flushedVersion, snapshot.version());
+                    return draft.version == draft.flushedVersion ? null : draft;
+                });
+            }
+        }
+    }
+
+    /**
+     * 在草稿槽的锁内取一致的快照；已全部写入的草稿返回null
+     */
+    private Snapshot readSnapshot(DraftKey key) {
+        Snapshot[] result = new Snapshot[1];
+        drafts.computeIfPresent(key, (k, draft) -> {
+            if (draft.version != draft.flushedVersion) {
+                result[0] = snapshot(k, draft);
+            }
+            return draft;
+        });
+        return result[0];
+    }
+
+    private Map<Long, Note> readBefore(List<Snapshot> snapshots) {
+        Map<Long, Note> before = new HashMap<>();
+        namedJdbcTemplate.query(BEFORE_SQL,
+                Map.of("ids", snapshots.stream().map(snapshot -> snapshot.key().noteId()).toList()), rs -> {
+                    Note note = new Note();
+                    note.setId(rs.getLong("id"));
+                    note.setTitle(rs.getString("title"));
+                    note.setContent(rs.getString("content"));
+                    Timestamp updatedAt = rs.getTimestamp("updated_at");
+                    note.setUpdatedAt(updatedAt != null ? updatedAt.toLocalDateTime() : null);
+                    before.put(note.getId(), note);
+                });
+        return before;
+    }
+
+    /**
+     * 写入后的笔记（只用于操作记录的归属和摘要）
+     */
+    private Note flushed(Snapshot snapshot, Note previous) {
+        User owner = new User();
+        owner.setId(snapshot.key().userId());
+        Note note = new Note();
+        note.setId(snapshot.key().noteId());
+        note.setUser(owner);
+        note.setTitle(snapshot.title() != null ? snapshot.title() : previous.getTitle());
+        return note;
+    }
+
+    private Snapshot snapshot(DraftKey key, Draft draft) {
+        return new Snapshot(key, draft.title, draft.content, draft.updatedAt, draft.version);
+    }
+
+    private void apply(Note note, Snapshot snapshot) {
+        if (snapshot.title() != null) {
+            note.setTitle(snapshot.title());
+        }
+        if (snapshot.content() != null) {
+            note.setContent(snapshot.content());
+        }
+        note.setUpdatedAt(snapshot.updatedAt());
+    }
+}
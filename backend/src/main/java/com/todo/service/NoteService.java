@@ -1,27 +1,48 @@
 package com.todo.service;
 
+import com.todo.dto.NoteDraftResponse;
 import com.todo.exception.NoteNotFoundException;
+import com.todo.model.ActivityEntry;
 import com.todo.model.Note;
+import com.todo.model.TagAssignment;
 import com.todo.model.User;
 import com.todo.repository.NoteRepository;
 import com.todo.repository.UserRepository;
 import com.todo.util.SecurityUtil;
+import com.todo.util.TagExpression;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 public class NoteService {
     private final NoteRepository noteRepository;
     private final UserRepository userRepository;
+    private final TagService tagService;
+    private final TagIndexService tagIndexService;
+    private final NoteAutosaveService noteAutosaveService;
+    private final ActivityLogService activityLogService;
 
     @Autowired
-    public NoteService(NoteRepository noteRepository, UserRepository userRepository) {
+    public NoteService(NoteRepository noteRepository, UserRepository userRepository,
+                       TagService tagService, TagIndexService tagIndexService,
+                       NoteAutosaveService noteAutosaveService, ActivityLogService activityLogService) {
         this.noteRepository = noteRepository;
         this.userRepository = userRepository;
+        this.tagService = tagService;
+        this.tagIndexService = tagIndexService;
+        this.noteAutosaveService = noteAutosaveService;
+        this.activityLogService = activityLogService;
     }
 
     private User getCurrentUser() {
@@ -33,27 +54,132 @@ public class NoteService {
                 .orElseThrow(() -> new RuntimeException("用户不存在"));
     }
 
-    public List<Note> getAllNotes() {
+    /**
+     * 获取笔记列表，tags（标签表达式）不为空时在内存位图索引上求值，再按ID加载命中的笔记
+     */
+    @Transactional(readOnly = true)
+    public List<Note> getAllNotes(String tags) {
         User currentUser = getCurrentUser();
-        return noteRepository.findByUserOrderByUpdatedAtDesc(currentUser);
+        List<Note> notes = findNotes(currentUser, tags);
+        attachTags(currentUser, notes);
+        return notes;
     }
 
+    /**
+     * 与getAllNotes相同的筛选和排序（含自动保存草稿），但不加载标签
+     */
+    @Transactional(readOnly = true)
+    public List<Note> findNotes(String tags) {
+        return findNotes(getCurrentUser(), tags);
+    }
+
+    private List<Note> findNotes(User currentUser, String tags) {
+        List<Note> notes;
+        if (tags != null && !tags.isBlank()) {
+            Roaring64Bitmap matched = tagIndexService.queryNotes(currentUser.getId(), TagExpression.parse(tags));
+            List<Long> ids = new ArrayList<>((int) matched.getLongCardinality());
+            matched.forEach(ids::add);
+            notes = noteRepository.findAllById(ids).stream()
+                    .filter(n -> n.getUser().getId().equals(currentUser.getId()))
+                    .sorted(Comparator.comparing(Note::getUpdatedAt).reversed())
+                    .collect(Collectors.toList());
+        } else {
+            notes = noteRepository.findByUserOrderByUpdatedAtDesc(currentUser);
+        }
+        // 叠加尚未写入数据库的自动保存草稿，草稿的更新时间更新，需要重新排序
+        if (noteAutosaveService.applyDrafts(notes)) {
+            notes = new ArrayList<>(notes);
+            notes.sort(Comparator.comparing(Note::getUpdatedAt).reversed());
+        }
+        return notes;
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Note> getNoteById(Long id) {
         User currentUser = getCurrentUser();
-        return noteRepository.findByIdAndUser(id, currentUser);
+        Optional<Note> note = noteRepository.findByIdAndUser(id, currentUser);
+        note.ifPresent(n -> {
+            noteAutosaveService.applyDrafts(List.of(n));
+            attachTags(currentUser, List.of(n));
+        });
+        return note;
+    }
+
+    /**
+     * 按ID查询（含自动保存草稿），不加载标签
+     */
+    @Transactional(readOnly = true)
+    public Optional<Note> findNoteById(Long id) {
+        Optional<Note> note = noteRepository.findByIdAndUser(id, getCurrentUser());
+        note.ifPresent(n -> noteAutosaveService.applyDrafts(List.of(n)));
+        return note;
+    }
+
+    /**
+     * 一批笔记的标签（来自内存位图索引）：笔记ID -> 标签名列表
+     */
+    public Map<Long, List<String>> getTagsOf(Collection<Long> noteIds) {
+        return tagIndexService.tagsOf(getCurrentUser().getId(), TagAssignment.NOTE, noteIds);
+    }
+
+    @Transactional(readOnly = true)
+    public long countNotes() {
+        return noteRepository.countByUser(getCurrentUser());
+    }
+
+    /**
+     * 自动保存：只写入内存草稿并立即返回版本号，由NoteAutosaveService定时批量写入数据库
+     */
+    public NoteDraftResponse autosaveNote(Long id, String title, String content) {
+        return noteAutosaveService.autosave(getCurrentUser(), id, title, content);
+    }
+
+    /**
+     * 立即写入该笔记的自动保存草稿，返回写入后的笔记
+     */
+    public Note commitNote(Long id) {
+        noteAutosaveService.commit(getCurrentUser(), id);
+        return getNoteById(id).orElseThrow(() -> new NoteNotFoundException(id));
+    }
+
+    private void attachTags(User user, List<Note> notes) {
+        Map<Long, List<String>> tags = tagIndexService.tagsOf(user.getId(), TagAssignment.NOTE,
+                notes.stream().map(Note::getId).toList());
+        for (Note note : notes) {
+            note.setTags(tags.getOrDefault(note.getId(), List.of()));
+        }
     }
 
     public Note createNote(Note note) {
         User currentUser = getCurrentUser();
         note.setUser(currentUser);
         note.setUpdatedAt(LocalDateTime.now());
-        return noteRepository.save(note);
+        Note savedNote = noteRepository.save(note);
+        tagIndexService.onNoteSaved(currentUser.getId(), savedNote.getId());
+        activityLogService.recordNote(ActivityEntry.CREATE, savedNote, null);
+        return savedNote;
+    }
+
+    /**
+     * 撤销删除：按快照重新创建笔记（分配新ID），并恢复标签
+     */
+    @Transactional
+    public Note restoreDeletedNote(Note snapshot) {
+        Note note = new Note();
+        note.setTitle(snapshot.getTitle());
+        note.setContent(snapshot.getContent());
+        Note savedNote = createNote(note);
+        if (snapshot.getTags() != null && !snapshot.getTags().isEmpty()) {
+            tagService.setNoteTags(savedNote.getId(), snapshot.getTags());
+        }
+        return savedNote;
     }
 
     public Note updateNote(Long id, Note updatedNote) {
         User currentUser = getCurrentUser();
         Note existingNote = noteRepository.findByIdAndUser(id, currentUser)
                 .orElseThrow(() -> new NoteNotFoundException(id));
+        Note before = snapshotOf(existingNote);
         
         if (updatedNote.getTitle() != null) {
             existingNote.setTitle(updatedNote.getTitle());
@@ -62,18 +188,40 @@ public class NoteService {
             existingNote.setContent(updatedNote.getContent());
         }
         existingNote.setUpdatedAt(LocalDateTime.now());
+        // 显式保存以请求内容为准，丢弃之前的自动保存草稿
+        noteAutosaveService.discard(currentUser.getId(), id);
         
-        return noteRepository.save(existingNote);
+        Note savedNote = noteRepository.save(existingNote);
+        activityLogService.recordNote(ActivityEntry.UPDATE, savedNote, before);
+        return savedNote;
     }
 
+    @Transactional
     public void deleteNote(Long id) {
         if (id == null) {
             throw new IllegalArgumentException("笔记ID不能为空");
         }
         User currentUser = getCurrentUser();
-        if (!noteRepository.existsByIdAndUser(id, currentUser)) {
-            throw new NoteNotFoundException(id);
-        }
+        Note existingNote = noteRepository.findByIdAndUser(id, currentUser)
+                .orElseThrow(() -> new NoteNotFoundException(id));
+        Note before = snapshotOf(existingNote);
+        before.setTags(tagIndexService.tagsOf(currentUser.getId(), TagAssignment.NOTE, List.of(id))
+                .getOrDefault(id, List.of()));
+        tagService.deleteItemTags(currentUser.getId(), TagAssignment.NOTE, List.of(id));
         noteRepository.deleteById(id);
+        noteAutosaveService.discard(currentUser.getId(), id);
+        activityLogService.recordNote(ActivityEntry.DELETE, existingNote, before);
+    }
+
+    /**
+     * 写入操作记录的笔记副本（修改前的标题和内容）
+     */
+    static Note snapshotOf(Note note) {
+        Note snapshot = new Note();
+        snapshot.setId(note.getId());
+        snapshot.setTitle(note.getTitle());
+        snapshot.setContent(note.getContent());
+        snapshot.setUpdatedAt(note.getUpdatedAt());
+        return snapshot;
     }
 }
@@ -0,0 +1,163 @@
+package com.todo.service;
+
+import com.todo.dto.OccurrenceResponse;
+import com.todo.exception.TodoNotFoundException;
+import com.todo.model.Todo;
+import com.todo.model.TodoOccurrence;
+import com.todo.model.User;
+import com.todo.repository.TodoOccurrenceRepository;
+import com.todo.repository.TodoRepository;
+import com.todo.repository.UserRepository;
+import com.todo.util.RecurrenceRule;
+import com.todo.util.SecurityUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 重复任务的发生展开与按次完成
+ * 只按客户端请求的日期窗口展开，完成状态只保存被标记过的那几次
+ */
+@Service
+public class OccurrenceService {
+
+    private static final int MAX_RANGE_DAYS = 366;
+    private static final int MAX_RESULTS = 2000;
+    // todoId与epochDay合成一个long作为完成状态的键
+    private static final long DAY_KEY_RANGE = 10_000_000L;
+
+    private final TodoRepository todoRepository;
+    private final TodoOccurrenceRepository occurrenceRepository;
+    private final UserRepository userRepository;
+
+    @Autowired
+    public OccurrenceService(TodoRepository todoRepository, TodoOccurrenceRepository occurrenceRepository,
+                             UserRepository userRepository) {
+        this.todoRepository = todoRepository;
+        this.occurrenceRepository = occurrenceRepository;
+        this.userRepository = userRepository;
+    }
+
+    private User getCurrentUser() {
+        String username = SecurityUtil.getCurrentUsername();
+        if (username == null) {
+            throw new RuntimeException("未找到当前用户");
+        }
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("用户不存在"));
+    }
+
+    /**
+     * 校验并规范化重复规则，空字符串表示清除
+     */
+    public static String normalizeRule(String rule) {
+        if (rule == null || rule.isBlank()) {
+            return null;
+        }
+        return RecurrenceRule.parse(rule).toString();
+    }
+
+    /**
+     * 返回[from, to]内的全部发生：重复任务按规则展开，普通任务取截止时间落在窗口内的
+     */
+    @Transactional(readOnly = true)
+    public List<OccurrenceResponse> getOccurrences(LocalDate from, LocalDate to, int limit) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("开始日期不能晚于结束日期");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("查询范围不能超过" + MAX_RANGE_DAYS + "天");
+        }
+        int max = Math.min(Math.max(limit, 1), MAX_RESULTS);
+        User currentUser = getCurrentUser();
+
+        Map<Long, Boolean> states = new HashMap<>();
+        for (Object[] row : occurrenceRepository.findStatesBetween(currentUser.getId(), from, to)) {
+            states.put(stateKey((Long) row[0], ((LocalDate) row[1]).toEpochDay()), (Boolean) row[2]);
+        }
+
+        long today = LocalDate.now().toEpochDay();
+        List<OccurrenceResponse> result = new ArrayList<>();
+        for (Todo todo : todoRepository.findByUser(currentUser)) {
+            RecurrenceRule rule = ruleOf(todo);
+            if (rule == null) {
+                LocalDateTime deadline = todo.getDeadline();
+                if (deadline != null && !deadline.toLocalDate().isBefore(from) && !deadline.toLocalDate().isAfter(to)) {
+                    result.add(new OccurrenceResponse(todo.getId(), todo.getText(), todo.getPriority(),
+                            deadline.toLocalDate(), deadline, todo.isCompleted(), false));
+                }
+                continue;
+            }
+            LocalTime time = todo.getDeadline() != null ? todo.getDeadline().toLocalTime() : LocalTime.MIDNIGHT;
+            // 窗口超出上限时每个任务最多展开max次，合并排序后再截断
+            int[] emitted = {0};
+            rule.expand(firstOccurrence(todo), from, to, day -> {
+                Boolean state = states.get(stateKey(todo.getId(), day));
+                // 每日任务当天的完成状态沿用任务本身的completed（每天零点重置）
+                boolean completed = state != null ? state : todo.isDaily() && day == today && todo.isCompleted();
+                LocalDate date = LocalDate.ofEpochDay(day);
+                result.add(new OccurrenceResponse(todo.getId(), todo.getText(), todo.getPriority(),
+                        date, date.atTime(time), completed, true));
+                return ++emitted[0] < max;
+            });
+        }
+        result.sort(Comparator.comparing(OccurrenceResponse::getStart).thenComparing(OccurrenceResponse::getTodoId));
+        return result.size() > max ? new ArrayList<>(result.subList(0, max)) : result;
+    }
+
+    /**
+     * 标记重复任务某一次的完成状态
+     */
+    @Transactional
+    public OccurrenceResponse setOccurrenceCompleted(Long todoId, LocalDate date, boolean completed) {
+        User currentUser = getCurrentUser();
+        Todo todo = todoRepository.findByIdAndUser(todoId, currentUser)
+                .orElseThrow(() -> new TodoNotFoundException(todoId));
+        RecurrenceRule rule = ruleOf(todo);
+        if (rule == null) {
+            throw new IllegalArgumentException("该待办事项不是重复任务");
+        }
+        boolean[] matches = {false};
+        rule.expand(firstOccurrence(todo), date, date, day -> {
+            matches[0] = true;
+            return false;
+        });
+        if (!matches[0]) {
+            throw new IllegalArgumentException(date + " 不是该任务的发生日期");
+        }
+
+        TodoOccurrence occurrence = occurrenceRepository.findByTodoIdAndOccurrenceDate(todoId, date)
+                .orElseGet(() -> new TodoOccurrence(todo, currentUser.getId(), date));
+        occurrence.setCompleted(completed);
+        occurrenceRepository.save(occurrence);
+
+        LocalTime time = todo.getDeadline() != null ? todo.getDeadline().toLocalTime() : LocalTime.MIDNIGHT;
+        return new OccurrenceResponse(todo.getId(), todo.getText(), todo.getPriority(),
+                date, date.atTime(time), completed, true);
+    }
+
+    private RecurrenceRule ruleOf(Todo todo) {
+        if (todo.getRecurrenceRule() != null) {
+            return RecurrenceRule.parse(todo.getRecurrenceRule());
+        }
+        return todo.isDaily() ? RecurrenceRule.daily() : null;
+    }
+
+    private LocalDate firstOccurrence(Todo todo) {
+        return todo.getDeadline() != null ? todo.getDeadline().toLocalDate() : todo.getCreatedAt().toLocalDate();
+    }
+
+    private static long stateKey(Long todoId, long epochDay) {
+        return todoId * DAY_KEY_RANGE + epochDay;
+    }
+}
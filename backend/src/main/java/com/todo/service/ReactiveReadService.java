@@ -0,0 +1,113 @@
+package com.todo.service;
+
+import com.todo.dto.DailyStreak;
+import com.todo.dto.NoteView;
+import com.todo.dto.TodoView;
+import com.todo.model.DailyHistoryRow;
+import com.todo.model.ItemTagRow;
+import com.todo.model.TodoRow;
+import com.todo.model.TodoStepRow;
+import com.todo.repository.ReactiveDailyHistoryRepository;
+import com.todo.repository.ReactiveNoteRepository;
+import com.todo.repository.ReactiveTodoRepository;
+import com.todo.repository.ReactiveTodoStepRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 响应式只读节点的查询：待办事项/笔记逐行从R2DBC读出并直接写给客户端，不在内存中组装整个列表
+ * 子任务、标签和每日任务的完成历史按用户各查询一次，再逐行关联
+ * 读取的是数据库中的状态：尚未写入的笔记草稿（NoteAutosaveService）要等主服务定时写入后才可见
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveReadService {
+
+    private final ReactiveTodoRepository todoRepository;
+    private final ReactiveTodoStepRepository stepRepository;
+    private final ReactiveNoteRepository noteRepository;
+    private final ReactiveDailyHistoryRepository historyRepository;
+
+    @Autowired
+    public ReactiveReadService(ReactiveTodoRepository todoRepository,
+                               ReactiveTodoStepRepository stepRepository,
+                               ReactiveNoteRepository noteRepository,
+                               ReactiveDailyHistoryRepository historyRepository) {
+        this.todoRepository = todoRepository;
+        this.stepRepository = stepRepository;
+        this.noteRepository = noteRepository;
+        this.historyRepository = historyRepository;
+    }
+
+    /**
+     * 筛选条件与GET /api/todos相同：filter为COMPLETED/ACTIVE，其他值视为全部；priority为空表示不限
+     */
+    public Flux<TodoView> getTodos(Long userId, String filter, String priority) {
+        String status = "COMPLETED".equals(filter) || "ACTIVE".equals(filter) ? filter : "ALL";
+        String priorityValue = priority != null ? priority.trim() : "";
+        if (!priorityValue.isEmpty() && !priorityValue.matches("[A-Za-z]+")) {
+            throw new IllegalArgumentException("优先级格式错误: " + priority);
+        }
+        Mono<Map<Long, List<TodoStepRow>>> steps = stepRepository.findByUserIdOrderByTodoIdAscPositionAsc(userId)
+                .collect(HashMap::new, (map, step) -> map.computeIfAbsent(step.todoId(), id -> new ArrayList<>()).add(step));
+        Mono<Map<Long, List<String>>> tags = groupTags(todoRepository.findTags(userId));
+        Mono<Map<Long, Map<Integer, byte[]>>> histories = groupHistories(historyRepository.findByUserId(userId));
+        LocalDate today = LocalDate.now();
+        return Mono.zip(steps, tags, histories).flatMapMany(related -> todoRepository.findForList(userId, status, priorityValue)
+                .map(todo -> new TodoView(todo.withDefaultDurationUnit(),
+                        related.getT1().getOrDefault(todo.id(), List.of()),
+                        related.getT2().getOrDefault(todo.id(), List.of()),
+                        streakOf(todo, related.getT3(), today))));
+    }
+
+    public Mono<TodoView> getTodo(Long userId, Long id) {
+        return todoRepository.findByIdAndUserId(id, userId)
+                .flatMap(todo -> Mono.zip(
+                        stepRepository.findByTodoIdAndUserIdOrderByPositionAsc(id, userId).collectList(),
+                        todoRepository.findTagsOf(userId, id).map(ItemTagRow::name).collectList(),
+                        groupHistories(historyRepository.findByTodoIdAndUserId(id, userId)))
+                        .map(related -> new TodoView(todo, related.getT1(), related.getT2(),
+                                streakOf(todo, related.getT3(), LocalDate.now()))));
+    }
+
+    public Flux<NoteView> getNotes(Long userId) {
+        return groupTags(noteRepository.findTags(userId))
+                .flatMapMany(tags -> noteRepository.findByUserIdOrderByUpdatedAtDesc(userId)
+                        .map(note -> new NoteView(note, tags.getOrDefault(note.id(), List.of()))));
+    }
+
+    public Mono<NoteView> getNote(Long userId, Long id) {
+        return noteRepository.findByIdAndUserId(id, userId)
+                .flatMap(note -> noteRepository.findTagsOf(userId, id).map(ItemTagRow::name).collectList()
+                        .map(tags -> new NoteView(note, tags)));
+    }
+
+    /**
+     * 与主服务一致：只有每日任务带连续完成记录
+     */
+    private DailyStreak streakOf(TodoRow todo, Map<Long, Map<Integer, byte[]>> histories, LocalDate today) {
+        if (!todo.isDaily()) {
+            return null;
+        }
+        return DailyHistoryService.streakOf(todo.createdAt().toLocalDate(),
+                histories.getOrDefault(todo.id(), Map.of()), today);
+    }
+
+    private Mono<Map<Long, Map<Integer, byte[]>>> groupHistories(Flux<DailyHistoryRow> rows) {
+        return rows.collect(HashMap::new, (map, row) -> map.computeIfAbsent(row.todoId(), id -> new HashMap<>())
+                .put(row.year(), row.days()));
+    }
+
+    private Mono<Map<Long, List<String>>> groupTags(Flux<ItemTagRow> rows) {
+        return rows.collect(HashMap::new, (map, row) -> map.computeIfAbsent(row.itemId(), id -> new ArrayList<>()).add(row.name()));
+    }
+}
@@ -0,0 +1,13 @@
+package com.todo.service;
+
+import com.todo.dto.ReminderEvent;
+
+/**
+ * 提醒的发送渠道，通过 todo.reminder.channels 按名称启用
+ */
+public interface ReminderChannel {
+
+    String name();
+
+    void send(ReminderEvent event);
+}
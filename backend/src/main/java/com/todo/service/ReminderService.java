@@ -0,0 +1,239 @@
+package com.todo.service;
+
+import com.todo.config.ShardContext;
+import com.todo.dto.ReminderEvent;
+import com.todo.model.Todo;
+import com.todo.repository.TodoRepository;
+import com.todo.util.TimingWheel;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 截止时间提醒
+ * 未来一段时间（horizon）内到期的任务被加载到内存中的分层时间轮，每次只按deadline索引查询新进入窗口的区间，
+ * 不重复扫表；到点后向启用的渠道发送"即将到期"和"已逾期"提醒。
+ * 截止时间被修改时直接在时间轮中替换，O(1)。多节点部署时只应在一个节点上启用
+ */
+@Service
+public class ReminderService {
+
+    private static final int KIND_DUE_SOON = 0;
+    private static final int KIND_OVERDUE = 1;
+
+    private record Pending(long todoId, long userId, long deadlineMs, int kind) {
+    }
+
+    private final TodoRepository todoRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate readOnlyTransaction;
+    private final List<ReminderChannel> channels;
+
+    @Value("${todo.reminder.enabled:true}")
+    private boolean enabled;
+
+    @Value("${todo.reminder.due-soon-lead:30m}")
+    private Duration dueSoonLead;
+
+    @Value("${todo.reminder.horizon:1h}")
+    private Duration horizon;
+
+    @Value("${todo.reminder.refill-interval:1m}")
+    private Duration refillInterval;
+
+    @Value("${todo.reminder.tick:1s}")
+    private Duration tick;
+
+    private volatile TimingWheel<Pending> wheel;
+    // 已加载到时间轮中的截止时间上界（毫秒）
+    private volatile long loadedUntilMs;
+    private ScheduledExecutorService ticker;
+    private ExecutorService dispatcher;
+
+    @Autowired
+    public ReminderService(TodoRepository todoRepository, ShardRouter shardRouter,
+                           TransactionTemplate transactionTemplate, List<ReminderChannel> allChannels,
+                           @Value("${todo.reminder.channels:log,sse}") Set<String> enabledChannels) {
+        this.todoRepository = todoRepository;
+        this.shardRouter = shardRouter;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.channels = allChannels.stream()
+                .filter(channel -> enabledChannels.contains(channel.name()))
+                .collect(Collectors.toList());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || wheel != null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        // 第0层60格 x 4层，可覆盖 tick * 60^4 的时间范围
+        wheel = new TimingWheel<>(tick.toMillis(), 60, 4, now);
+        loadedUntilMs = now;
+        ticker = Executors.newSingleThreadScheduledExecutor(daemon("reminder-ticker"));
+        dispatcher = Executors.newSingleThreadExecutor(daemon("reminder-dispatcher"));
+        ticker.execute(this::refill);
+        ticker.scheduleAtFixedRate(this::tick, tick.toMillis(), tick.toMillis(), TimeUnit.MILLISECONDS);
+        ticker.scheduleWithFixedDelay(this::refill, refillInterval.toMillis(), refillInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            dispatcher.shutdownNow();
+        }
+    }
+
+    /**
+     * 待办事项创建或修改后调用：按新的截止时间重新安排提醒
+     */
+    public void reschedule(Todo todo) {
+        if (wheel == null || todo.getId() == null) {
+            return;
+        }
+        cancel(todo.getId());
+        if (todo.isCompleted() || todo.isDaily() || todo.getDeadline() == null) {
+            return;
+        }
+        long deadlineMs = toEpochMilli(todo.getDeadline());
+        // 超出已加载窗口的截止时间，由后续的区间查询加载
+        if (deadlineMs > loadedUntilMs) {
+            return;
+        }
+        schedule(todo.getId(), todo.getUser().getId(), deadlineMs, false);
+    }
+
+    /**
+     * 待办事项删除后调用
+     */
+    public void cancel(Long todoId) {
+        if (wheel == null) {
+            return;
+        }
+        wheel.cancel(key(todoId, KIND_DUE_SOON));
+        wheel.cancel(key(todoId, KIND_OVERDUE));
+    }
+
+    public int pendingCount() {
+        return wheel != null ? wheel.size() : 0;
+    }
+
+    private void schedule(long todoId, long userId, long deadlineMs, boolean bulk) {
+        long now = System.currentTimeMillis();
+        long dueSoonMs = deadlineMs - dueSoonLead.toMillis();
+        if (deadlineMs > now) {
+            scheduleOne(new Pending(todoId, userId, deadlineMs, KIND_DUE_SOON), Math.max(dueSoonMs, now), bulk);
+        }
+        scheduleOne(new Pending(todoId, userId, deadlineMs, KIND_OVERDUE), deadlineMs, bulk);
+    }
+
+    private void scheduleOne(Pending pending, long fireAtMs, boolean bulk) {
+        long key = key(pending.todoId(), pending.kind());
+        // 批量加载时不覆盖已由reschedule放入的新截止时间
+        if (bulk && wheel.contains(key)) {
+            return;
+        }
+        wheel.schedule(key, fireAtMs, pending);
+    }
+
+    private void refill() {
+        try {
+            long from = loadedUntilMs;
+            long to = System.currentTimeMillis() + horizon.toMillis() + dueSoonLead.toMillis();
+            if (to <= from) {
+                return;
+            }
+            // 先推进上界，查询期间被修改的任务由reschedule直接放入时间轮
+            loadedUntilMs = to;
+            LocalDateTime fromTime = toLocalDateTime(from);
+            LocalDateTime toTime = toLocalDateTime(to);
+            shardRouter.forEachShard(shardId -> readOnlyTransaction.executeWithoutResult(status -> {
+                for (Object[] row : todoRepository.findDeadlinesBetween(fromTime, toTime)) {
+                    schedule((Long) row[0], (Long) row[1], toEpochMilli((LocalDateTime) row[2]), true);
+                }
+            }));
+        } catch (Exception e) {
+            System.out.println("加载截止时间提醒失败: " + e.getMessage());
+        }
+    }
+
+    private void tick() {
+        try {
+            for (TimingWheel.Timer<Pending> timer : wheel.advance(System.currentTimeMillis())) {
+                Pending pending = timer.getPayload();
+                dispatcher.execute(() -> fire(pending));
+            }
+        } catch (Exception e) {
+            System.out.println("处理截止时间提醒失败: " + e.getMessage());
+        }
+    }
+
+    private void fire(Pending pending) {
+        try {
+            int shardId = shardRouter.shardOf(pending.userId());
+            ReminderEvent event = ShardContext.callOn(shardId, () -> readOnlyTransaction.execute(status -> {
+                // 到点时再确认任务仍未完成、截止时间未变
+                Todo todo = todoRepository.findById(pending.todoId()).orElse(null);
+                if (todo == null || todo.isCompleted() || todo.getDeadline() == null
+                        || toEpochMilli(todo.getDeadline()) != pending.deadlineMs()) {
+                    return null;
+                }
+                String type = pending.kind() == KIND_OVERDUE ? ReminderEvent.OVERDUE : ReminderEvent.DUE_SOON;
+                return new ReminderEvent(type, todo.getId(), todo.getText(), todo.getDeadline(),
+                        todo.getUser().getId(), todo.getUser().getUsername(), todo.getUser().getEmail());
+            }));
+            if (event == null) {
+                return;
+            }
+            for (ReminderChannel channel : channels) {
+                try {
+                    channel.send(event);
+                } catch (Exception e) {
+                    System.out.println("提醒渠道 " + channel.name() + " 发送失败: " + e.getMessage());
+                }
+            }
+        } catch (Exception e) {
+            System.out.println("发送截止时间提醒失败: " + e.getMessage());
+        }
+    }
+
+    private static long key(long todoId, int kind) {
+        return todoId * 2 + kind;
+    }
+
+    private static long toEpochMilli(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMilli) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneId.systemDefault());
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
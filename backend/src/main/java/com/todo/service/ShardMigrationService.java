@@ -0,0 +1,243 @@
+package com.todo.service;
+
+import com.todo.config.ShardContext;
+import com.todo.config.ShardDataSources;
+import com.todo.model.UserShard;
+import com.todo.repository.UserShardRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 在线迁移用户数据到其他分片
+ * 流程：标记迁移中（该用户写入暂时返回503，读取继续走原分片）-> 分批复制到目标分片并校验行数
+ * -> 切换目录映射 -> 等待各节点的映射缓存过期 -> 删除原分片上的数据
+ */
+@Service
+@ConditionalOnProperty(name = "todo.sharding.enabled", havingValue = "true")
+public class ShardMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardMigrationService.class);
+
+    // 按用户分片的表，按外键依赖顺序排列（复制时正序，删除时倒序）
+    static final List<String> USER_TABLES = List.of(
+            "todos", "todo_occurrences", "todo_steps", "todo_archive", "notes", "tags", "tag_assignments",
+            "activity_log", "todo_stats_rollup", "daily_history");
+
+    private final ShardDataSources shardDataSources;
+    private final ShardRouter shardRouter;
+    private final UserShardRepository userShardRepository;
+    private final NoteAutosaveService noteAutosaveService;
+    private final ActivityLogService activityLogService;
+    private final AnalyticsService analyticsService;
+    private final ExecutorService rebalanceExecutor = Executors.newSingleThreadExecutor();
+
+    @Autowired
+    public ShardMigrationService(ShardDataSources shardDataSources, ShardRouter shardRouter,
+                                 UserShardRepository userShardRepository, NoteAutosaveService noteAutosaveService,
+                                 ActivityLogService activityLogService, AnalyticsService analyticsService) {
+        this.shardDataSources = shardDataSources;
+        this.shardRouter = shardRouter;
+        this.userShardRepository = userShardRepository;
+        this.noteAutosaveService = noteAutosaveService;
+        this.activityLogService = activityLogService;
+        this.analyticsService = analyticsService;
+    }
+
+    /**
+     * 迁移单个用户，返回各表复制的行数
+     */
+    public synchronized Map<String, Integer> migrateUser(Long userId, int targetShard) {
+        if (!shardDataSources.shardIds().contains(targetShard)) {
+            throw new IllegalArgumentException("分片不存在: " + targetShard);
+        }
+        shardRouter.evict(userId);
+        int sourceShard = shardRouter.shardOf(userId);
+        Map<String, Integer> copied = new LinkedHashMap<>();
+        if (sourceShard == targetShard) {
+            return copied;
+        }
+
+        saveMapping(userId, sourceShard, UserShard.MIGRATING);
+        waitForDirectoryCaches();
+        // 本节点写缓冲中该用户的数据在复制前写入原分片；其他节点看到迁移中后暂不写入，切换后写入新分片
+        noteAutosaveService.flushMigrating(userId);
+        activityLogService.flushMigrating(userId);
+        analyticsService.flushMigrating(userId);
+        try {
+            // 用户行复制失败时直接中止（todos/notes等表依赖它的外键）
+            shardRouter.copyUserRow(userId, ShardContext.DIRECTORY_SHARD, targetShard);
+            if (countRows(targetShard, "users", "id", userId) != 1) {
+                throw new IllegalStateException("用户 " + userId + " 未能复制到分片 " + targetShard);
+            }
+            for (String table : USER_TABLES) {
+                // 清理上次失败迁移遗留的数据，保证可以重复执行
+                deleteRows(targetShard, table, userId);
+                int rows = copyRows(table, userId, sourceShard, targetShard);
+                int targetRows = countRows(targetShard, table, "user_id", userId);
+                if (rows != targetRows) {
+                    throw new IllegalStateException("表 " + table + " 复制后行数不一致: " + rows + " != " + targetRows);
+                }
+                copied.put(table, rows);
+            }
+            saveMapping(userId, targetShard, UserShard.ACTIVE);
+        } catch (RuntimeException e) {
+            saveMapping(userId, sourceShard, UserShard.ACTIVE);
+            throw e;
+        }
+
+        // 等所有节点都切到新分片后再删除原数据
+        waitForDirectoryCaches();
+        for (int i = USER_TABLES.size() - 1; i >= 0; i--) {
+            deleteRows(sourceShard, USER_TABLES.get(i), userId);
+        }
+        if (sourceShard != ShardContext.DIRECTORY_SHARD) {
+            shardDataSources.jdbc(sourceShard).update("DELETE FROM users WHERE id = ?", userId);
+        }
+        logger.info("用户 {} 已从分片 {} 迁移到分片 {}: {}", userId, sourceShard, targetShard, copied);
+        return copied;
+    }
+
+    /**
+     * 各分片的负载（todos+notes行数）和用户数
+     */
+    public Map<Integer, Map<String, Long>> stats() {
+        Map<Integer, Map<String, Long>> stats = new LinkedHashMap<>();
+        for (Integer shardId : shardDataSources.shardIds()) {
+            Map<Long, Long> loads = userLoads(shardId);
+            Map<String, Long> shardStats = new LinkedHashMap<>();
+            shardStats.put("users", (long) loads.size());
+            shardStats.put("rows", loads.values().stream().mapToLong(Long::longValue).sum());
+            stats.put(shardId, shardStats);
+        }
+        return stats;
+    }
+
+    /**
+     * 生成再平衡计划并在后台执行：每次把最重分片上大小最接近负载差一半的用户迁到最轻分片
+     * 返回计划（用户ID -> 目标分片）
+     */
+    public Map<Long, Integer> rebalance(int maxMoves) {
+        Map<Integer, Map<Long, Long>> loads = new HashMap<>();
+        Map<Integer, Long> totals = new HashMap<>();
+        for (Integer shardId : shardDataSources.shardIds()) {
+            Map<Long, Long> userLoads = userLoads(shardId);
+            loads.put(shardId, userLoads);
+            totals.put(shardId, userLoads.values().stream().mapToLong(Long::longValue).sum());
+        }
+
+        Map<Long, Integer> plan = new LinkedHashMap<>();
+        while (plan.size() < maxMoves) {
+            int heaviest = totals.entrySet().stream().max(Map.Entry.comparingByValue()).get().getKey();
+            int lightest = totals.entrySet().stream().min(Map.Entry.comparingByValue()).get().getKey();
+            long gap = totals.get(heaviest) - totals.get(lightest);
+            Long candidate = null;
+            long candidateLoad = 0;
+            for (Map.Entry<Long, Long> entry : loads.get(heaviest).entrySet()) {
+                long load = entry.getValue();
+                if (load * 2 <= gap && load > candidateLoad) {
+                    candidate = entry.getKey();
+                    candidateLoad = load;
+                }
+            }
+            if (candidate == null) {
+                break;
+            }
+            loads.get(heaviest).remove(candidate);
+            loads.get(lightest).put(candidate, candidateLoad);
+            totals.merge(heaviest, -candidateLoad, Long::sum);
+            totals.merge(lightest, candidateLoad, Long::sum);
+            plan.put(candidate, lightest);
+        }
+
+        Map<Long, Integer> moves = new LinkedHashMap<>(plan);
+        rebalanceExecutor.submit(() -> moves.forEach((userId, targetShard) -> {
+            try {
+                migrateUser(userId, targetShard);
+            } catch (Exception e) {
+                logger.error("再平衡迁移用户 {} 到分片 {} 失败", userId, targetShard, e);
+            }
+        }));
+        return plan;
+    }
+
+    // 用户ID -> 行数（仅统计实际映射在该分片上的用户）
+    private Map<Long, Long> userLoads(int shardId) {
+        Map<Long, Long> loads = new HashMap<>();
+        for (String table : USER_TABLES) {
+            shardDataSources.jdbc(shardId).query(
+                    "SELECT user_id, COUNT(*) FROM " + table + " GROUP BY user_id",
+                    rs -> {
+                        loads.merge(rs.getLong(1), rs.getLong(2), Long::sum);
+                    });
+        }
+        loads.keySet().removeIf(userId -> shardRouter.shardOf(userId) != shardId);
+        return loads;
+    }
+
+    private int copyRows(String table, Long userId, int sourceShard, int targetShard) {
+        JdbcTemplate source = shardDataSources.jdbc(sourceShard);
+        JdbcTemplate target = shardDataSources.jdbc(targetShard);
+        int batchSize = shardDataSources.getProperties().getMigrationBatchSize();
+        long lastId = 0;
+        int total = 0;
+        while (true) {
+            List<Map<String, Object>> rows = source.queryForList(
+                    "SELECT * FROM " + table + " WHERE user_id = ? AND id > ? ORDER BY id LIMIT ?",
+                    userId, lastId, batchSize);
+            if (rows.isEmpty()) {
+                return total;
+            }
+            List<String> columns = new ArrayList<>(rows.get(0).keySet());
+            String sql = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                    + String.join(", ", columns.stream().map(c -> "?").toList()) + ")";
+            List<Object[]> args = new ArrayList<>(rows.size());
+            for (Map<String, Object> row : rows) {
+                args.add(columns.stream().map(row::get).toArray());
+            }
+            target.batchUpdate(sql, args);
+            total += rows.size();
+            lastId = ((Number) rows.get(rows.size() - 1).get("id")).longValue();
+        }
+    }
+
+    private int countRows(int shardId, String table, String userColumn, Long userId) {
+        Integer count = shardDataSources.jdbc(shardId).queryForObject(
+                "SELECT COUNT(*) FROM " + table + " WHERE " + userColumn + " = ?", Integer.class, userId);
+        return count != null ? count : 0;
+    }
+
+    private void deleteRows(int shardId, String table, Long userId) {
+        shardDataSources.jdbc(shardId).update("DELETE FROM " + table + " WHERE user_id = ?", userId);
+    }
+
+    private void saveMapping(Long userId, int shardId, String state) {
+        ShardContext.runOn(ShardContext.DIRECTORY_SHARD, () -> {
+            UserShard mapping = userShardRepository.findById(userId).orElseGet(() -> new UserShard(userId, shardId));
+            mapping.setShardId(shardId);
+            mapping.setState(state);
+            userShardRepository.save(mapping);
+        });
+        shardRouter.evict(userId);
+    }
+
+    private void waitForDirectoryCaches() {
+        try {
+            Thread.sleep(shardDataSources.getProperties().getDirectoryCacheTtl().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("分片迁移被中断", e);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.todo.service;
+
+import com.todo.config.ShardContext;
+import com.todo.config.ShardDataSources;
+import com.todo.model.User;
+import com.todo.model.UserShard;
+import com.todo.repository.UserShardRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+
+/**
+ * 用户 -> 数据分片映射
+ * 未启用分片时所有用户都在目录分片上；目录中没有记录的老用户也视为在目录分片上
+ */
+@Service
+public class ShardRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardRouter.class);
+
+    private static final int CACHE_CLEANUP_THRESHOLD = 100000;
+
+    private final UserShardRepository userShardRepository;
+    private final ShardDataSources shardDataSources;
+    private final long cacheTtlMillis;
+
+    private final Map<Long, CachedShard> cache = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ShardRouter(UserShardRepository userShardRepository, ObjectProvider<ShardDataSources> shardDataSources) {
+        this.userShardRepository = userShardRepository;
+        this.shardDataSources = shardDataSources.getIfAvailable();
+        this.cacheTtlMillis = this.shardDataSources != null
+                ? this.shardDataSources.getProperties().getDirectoryCacheTtl().toMillis()
+                : 0;
+    }
+
+    public boolean isEnabled() {
+        return shardDataSources != null;
+    }
+
+    /**
+     * 查询用户所在分片（带本地缓存，必须在目录分片上下文中调用）
+     */
+    public UserShard lookup(Long userId) {
+        if (!isEnabled() || userId == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        CachedShard cached = cache.get(userId);
+        if (cached != null && now - cached.loadedAt < cacheTtlMillis) {
+            return cached.shard;
+        }
+        UserShard shard = ShardContext.callOn(ShardContext.DIRECTORY_SHARD,
+                () -> userShardRepository.findById(userId).orElse(null));
+        if (cache.size() > CACHE_CLEANUP_THRESHOLD) {
+            cache.values().removeIf(entry -> now - entry.loadedAt >= cacheTtlMillis);
+        }
+        cache.put(userId, new CachedShard(shard, now));
+        return shard;
+    }
+
+    public int shardOf(Long userId) {
+        UserShard shard = lookup(userId);
+        return shard != null ? shard.getShardId() : ShardContext.DIRECTORY_SHARD;
+    }
+
+    public boolean isMigrating(Long userId) {
+        UserShard shard = lookup(userId);
+        return shard != null && UserShard.MIGRATING.equals(shard.getState());
+    }
+
+    public void evict(Long userId) {
+        cache.remove(userId);
+    }
+
+    /**
+     * 为新注册用户分配分片（在注册事务中调用）
+     * 目录记录随注册事务一起提交；提交后再把用户行复制到数据分片，满足todos/notes的外键
+     * 复制失败时把映射改回目录分片（新用户还没有数据），避免用户被映射到缺少users行的分片上
+     */
+    public void assignShard(User user) {
+        if (!isEnabled()) {
+            return;
+        }
+        int shardId = (int) (user.getId() % shardDataSources.size());
+        userShardRepository.save(new UserShard(user.getId(), shardId));
+        if (shardId == ShardContext.DIRECTORY_SHARD) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    copyUserRow(user.getId(), ShardContext.DIRECTORY_SHARD, shardId);
+                } catch (Exception e) {
+                    logger.error("复制用户 {} 到分片 {} 失败，改为使用目录分片", user.getId(), shardId, e);
+                    // 注册事务已提交，这里直接用JDBC更新目录记录
+                    shardDataSources.jdbc(ShardContext.DIRECTORY_SHARD).update(
+                            "UPDATE user_shards SET shard_id = ?, updated_at = CURRENT_TIMESTAMP WHERE user_id = ?",
+                            ShardContext.DIRECTORY_SHARD, user.getId());
+                    evict(user.getId());
+                }
+            }
+        });
+    }
+
+    /**
+     * 把users表中的一行从源分片复制到目标分片（目标已存在时跳过）
+     */
+    public void copyUserRow(Long userId, int sourceShard, int targetShard) {
+        Integer exists = shardDataSources.jdbc(targetShard)
+                .queryForObject("SELECT COUNT(*) FROM users WHERE id = ?", Integer.class, userId);
+        if (exists != null && exists > 0) {
+            return;
+        }
+        Map<String, Object> row = shardDataSources.jdbc(sourceShard)
+                .queryForMap("SELECT * FROM users WHERE id = ?", userId);
+        String columns = String.join(", ", row.keySet());
+        String placeholders = String.join(", ", row.keySet().stream().map(c -> "?").toList());
+        shardDataSources.jdbc(targetShard).update(
+                "INSERT INTO users (" + columns + ") VALUES (" + placeholders + ")", row.values().toArray());
+    }
+
+    /**
+     * 依次在每个分片上执行（定时任务等跨用户操作使用）；未启用分片时只执行一次
+     */
+    public void forEachShard(IntConsumer action) {
+        if (!isEnabled()) {
+            action.accept(ShardContext.DIRECTORY_SHARD);
+            return;
+        }
+        for (Integer shardId : shardDataSources.shardIds()) {
+            ShardContext.runOn(shardId, () -> action.accept(shardId));
+        }
+    }
+
+    private static final class CachedShard {
+        private final UserShard shard;
+        private final long loadedAt;
+
+        private CachedShard(UserShard shard, long loadedAt) {
+            this.shard = shard;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.todo.service;
+
+import com.todo.dto.ReminderEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 通过SSE推送给在线用户的提醒渠道（/api/reminders/stream）
+ */
+@Component
+public class SseReminderChannel implements ReminderChannel {
+
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+
+    private final Map<Long, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    @Override
+    public String name() {
+        return "sse";
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        List<SseEmitter> userEmitters = emitters.computeIfAbsent(userId, id -> new CopyOnWriteArrayList<>());
+        userEmitters.add(emitter);
+        Runnable remove = () -> {
+            userEmitters.remove(emitter);
+            emitters.computeIfPresent(userId, (id, list) -> list.isEmpty() ? null : list);
+        };
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        return emitter;
+    }
+
+    @Override
+    public void send(ReminderEvent event) {
+        List<SseEmitter> userEmitters = emitters.get(event.getUserId());
+        if (userEmitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : userEmitters) {
+            try {
+                emitter.send(SseEmitter.event().name("reminder").data(event));
+            } catch (IOException | IllegalStateException e) {
+                // 连接已断开
+                emitter.complete();
+            }
+        }
+    }
+}
@@ -0,0 +1,449 @@
+package com.todo.service;
+
+import com.todo.model.Todo;
+import com.todo.model.TagAssignment;
+import com.todo.repository.NoteRepository;
+import com.todo.repository.TagAssignmentRepository;
+import com.todo.repository.TagRepository;
+import com.todo.repository.TodoRepository;
+import com.todo.util.TagExpression;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * 标签位图索引
+ * 每个用户在内存中保存压缩位图（Roaring）：每个标签一个待办/笔记ID位图，另有全部待办、已完成、各优先级位图。
+ * 标签表达式直接在位图上做与/或/差运算，不需要多表JOIN；启动时从数据库整体重建，之后随写入增量维护。
+ * 重建总是在新事务中读主库（只读事务会路由到从库，可能读到复制延迟前的旧数据）。
+ * 多节点部署时写入提交后通过缓存失效广播通知其他节点丢弃该用户的索引，另有 todo.tags.index-ttl 兜底定期重建
+ * （local模式下没有广播，重建间隔不超过二级缓存的过期时间）
+ */
+@Service
+public class TagIndexService {
+
+    static final String CACHE_NAME = "tag-index";
+
+    private static final Roaring64Bitmap EMPTY = new Roaring64Bitmap();
+
+    private static final class UserIndex {
+        final Map<Long, String> tagNames = new HashMap<>();
+        final Map<String, Long> tagIds = new HashMap<>();
+        final Map<Long, Roaring64Bitmap> todoTags = new HashMap<>();
+        final Map<Long, Roaring64Bitmap> noteTags = new HashMap<>();
+        final Roaring64Bitmap todos = new Roaring64Bitmap();
+        final Roaring64Bitmap notes = new Roaring64Bitmap();
+        final Roaring64Bitmap completed = new Roaring64Bitmap();
+        final Map<String, Roaring64Bitmap> priorities = new HashMap<>();
+        final long builtAt = System.currentTimeMillis();
+
+        void putTag(long tagId, String name) {
+            String previous = tagNames.put(tagId, name);
+            if (previous != null) {
+                tagIds.remove(previous);
+            }
+            tagIds.put(name, tagId);
+        }
+
+        void removeTag(long tagId) {
+            String name = tagNames.remove(tagId);
+            if (name != null) {
+                tagIds.remove(name);
+            }
+            todoTags.remove(tagId);
+            noteTags.remove(tagId);
+        }
+
+        void putTodo(long id, boolean isCompleted, String priority) {
+            todos.addLong(id);
+            if (isCompleted) {
+                completed.addLong(id);
+            } else {
+                completed.removeLong(id);
+            }
+            for (Roaring64Bitmap bitmap : priorities.values()) {
+                bitmap.removeLong(id);
+            }
+            if (priority != null) {
+                priorities.computeIfAbsent(priority, k -> new Roaring64Bitmap()).addLong(id);
+            }
+        }
+
+        void removeItem(String itemType, long id) {
+            if (TagAssignment.TODO.equals(itemType)) {
+                todos.removeLong(id);
+                completed.removeLong(id);
+                for (Roaring64Bitmap bitmap : priorities.values()) {
+                    bitmap.removeLong(id);
+                }
+            } else {
+                notes.removeLong(id);
+            }
+            for (Roaring64Bitmap bitmap : tagBitmaps(itemType).values()) {
+                bitmap.removeLong(id);
+            }
+        }
+
+        void assign(String itemType, long tagId, long itemId) {
+            tagBitmaps(itemType).computeIfAbsent(tagId, k -> new Roaring64Bitmap()).addLong(itemId);
+        }
+
+        Map<Long, Roaring64Bitmap> tagBitmaps(String itemType) {
+            return TagAssignment.TODO.equals(itemType) ? todoTags : noteTags;
+        }
+
+        Roaring64Bitmap universe(String itemType) {
+            return TagAssignment.TODO.equals(itemType) ? todos : notes;
+        }
+
+        void optimize() {
+            todos.runOptimize();
+            notes.runOptimize();
+            completed.runOptimize();
+            priorities.values().forEach(Roaring64Bitmap::runOptimize);
+            todoTags.values().forEach(Roaring64Bitmap::runOptimize);
+            noteTags.values().forEach(Roaring64Bitmap::runOptimize);
+        }
+    }
+
+    private final TagRepository tagRepository;
+    private final TagAssignmentRepository tagAssignmentRepository;
+    private final TodoRepository todoRepository;
+    private final NoteRepository noteRepository;
+    private final ShardRouter shardRouter;
+    private final CacheInvalidationService cacheInvalidationService;
+    private final TransactionTemplate primaryTransaction;
+    private final Duration indexTtl;
+
+    private final ConcurrentHashMap<Long, UserIndex> indexes = new ConcurrentHashMap<>();
+    // 启动重建期间发生过写入的用户：重建结果可能已过期，不放入索引，改为按需重建
+    private final Set<Long> touchedWhileWarming = ConcurrentHashMap.newKeySet();
+    private volatile boolean warming;
+
+    @Autowired
+    public TagIndexService(TagRepository tagRepository, TagAssignmentRepository tagAssignmentRepository,
+                           TodoRepository todoRepository, NoteRepository noteRepository,
+                           ShardRouter shardRouter, CacheInvalidationService cacheInvalidationService,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${todo.tags.index-ttl:5m}") Duration indexTtl) {
+        this.tagRepository = tagRepository;
+        this.tagAssignmentRepository = tagAssignmentRepository;
+        this.todoRepository = todoRepository;
+        this.noteRepository = noteRepository;
+        this.shardRouter = shardRouter;
+        this.cacheInvalidationService = cacheInvalidationService;
+        // 不能沿用调用方的只读事务：只读事务路由到从库
+        this.primaryTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.primaryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.indexTtl = cacheInvalidationService.userCacheTtl(indexTtl);
+        cacheInvalidationService.registerUserCache(CACHE_NAME, this::dropLocal);
+    }
+
+    /**
+     * 启动时流式读取全部分片的标签、待办、笔记和标签关联，一次性构建所有用户的索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        warming = true;
+        touchedWhileWarming.clear();
+        Map<Long, UserIndex> built = new HashMap<>();
+        try {
+            shardRouter.forEachShard(shardId -> primaryTransaction.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = tagRepository.streamAllNames()) {
+                    rows.forEach(row -> built.computeIfAbsent((Long) row[0], k -> new UserIndex())
+                            .putTag((Long) row[1], (String) row[2]));
+                }
+                try (Stream<Object[]> rows = todoRepository.streamAllFacets()) {
+                    rows.forEach(row -> built.computeIfAbsent((Long) row[0], k -> new UserIndex())
+                            .putTodo((Long) row[1], (Boolean) row[2], (String) row[3]));
+                }
+                try (Stream<Object[]> rows = noteRepository.streamAllIds()) {
+                    rows.forEach(row -> built.computeIfAbsent((Long) row[0], k -> new UserIndex())
+                            .notes.addLong((Long) row[1]));
+                }
+                try (Stream<Object[]> rows = tagAssignmentRepository.streamAllMemberships()) {
+                    rows.forEach(row -> {
+                        UserIndex index = built.computeIfAbsent((Long) row[0], k -> new UserIndex());
+                        index.putTag((Long) row[1], (String) row[2]);
+                        index.assign((String) row[3], (Long) row[1], (Long) row[4]);
+                    });
+                }
+            }));
+            built.forEach((userId, index) -> {
+                index.optimize();
+                // 与写入回调在同一个桶锁下判断，避免写入回调恰好错过刚放入的索引
+                indexes.compute(userId, (k, existing) ->
+                        existing != null || touchedWhileWarming.contains(k) ? existing : index);
+            });
+        } finally {
+            warming = false;
+            touchedWhileWarming.clear();
+        }
+    }
+
+    /**
+     * 在当前用户的待办事项上求值标签表达式，返回匹配的待办事项ID
+     */
+    public Roaring64Bitmap queryTodos(Long userId, TagExpression expression) {
+        return query(userId, TagAssignment.TODO, expression);
+    }
+
+    /**
+     * 在当前用户的笔记上求值标签表达式，返回匹配的笔记ID（笔记不支持 is:/priority: 条件）
+     */
+    public Roaring64Bitmap queryNotes(Long userId, TagExpression expression) {
+        return query(userId, TagAssignment.NOTE, expression);
+    }
+
+    /**
+     * 一批条目各自的标签名（按名称排序），没有标签的条目不在结果中
+     */
+    public Map<Long, List<String>> tagsOf(Long userId, String itemType, Collection<Long> itemIds) {
+        Map<Long, List<String>> result = new HashMap<>();
+        if (itemIds.isEmpty()) {
+            return result;
+        }
+        Roaring64Bitmap wanted = new Roaring64Bitmap();
+        itemIds.forEach(wanted::addLong);
+        UserIndex index = index(userId);
+        synchronized (index) {
+            index.tagBitmaps(itemType).forEach((tagId, bitmap) -> {
+                Roaring64Bitmap hits = copy(bitmap);
+                hits.and(wanted);
+                String name = index.tagNames.get(tagId);
+                hits.forEach(id -> result.computeIfAbsent(id, k -> new ArrayList<>()).add(name));
+            });
+        }
+        result.values().forEach(names -> names.sort(null));
+        return result;
+    }
+
+    /**
+     * 标签当前的名称，标签不存在（已删除）时返回null
+     */
+    public String tagName(Long userId, Long tagId) {
+        UserIndex index = index(userId);
+        synchronized (index) {
+            return index.tagNames.get(tagId);
+        }
+    }
+
+    /**
+     * 每个标签关联的待办和笔记数量：标签ID -> [待办数, 笔记数]
+     */
+    public Map<Long, long[]> tagUsage(Long userId) {
+        Map<Long, long[]> usage = new HashMap<>();
+        UserIndex index = index(userId);
+        synchronized (index) {
+            for (Long tagId : index.tagNames.keySet()) {
+                usage.put(tagId, new long[]{
+                        cardinality(index.todoTags.get(tagId)),
+                        cardinality(index.noteTags.get(tagId))
+                });
+            }
+        }
+        return usage;
+    }
+
+    public void onTodoSaved(Todo todo) {
+        Long userId = todo.getUser().getId();
+        long id = todo.getId();
+        boolean isCompleted = todo.isCompleted();
+        String priority = todo.getPriority();
+        afterCommit(userId, index -> index.putTodo(id, isCompleted, priority));
+    }
+
+    public void onNoteSaved(Long userId, Long noteId) {
+        afterCommit(userId, index -> index.notes.addLong(noteId));
+    }
+
+    public void onItemDeleted(Long userId, String itemType, Long itemId) {
+        afterCommit(userId, index -> index.removeItem(itemType, itemId));
+    }
+
+    public void onTagSaved(Long userId, Long tagId, String name) {
+        afterCommit(userId, index -> index.putTag(tagId, name));
+    }
+
+    public void onTagDeleted(Long userId, Long tagId) {
+        afterCommit(userId, index -> index.removeTag(tagId));
+    }
+
+    /**
+     * 条目的标签被整体替换后调用：tags为新的标签ID -> 标签名
+     */
+    public void onItemTagsReplaced(Long userId, String itemType, Long itemId, Map<Long, String> tags) {
+        afterCommit(userId, index -> {
+            for (Roaring64Bitmap bitmap : index.tagBitmaps(itemType).values()) {
+                bitmap.removeLong(itemId);
+            }
+            tags.forEach((tagId, name) -> {
+                index.putTag(tagId, name);
+                index.assign(itemType, tagId, itemId);
+            });
+        });
+    }
+
+    /**
+     * 丢弃指定用户的索引（绕过服务层的批量写入之后调用），下次查询时从数据库重建，并通知其他节点
+     */
+    public void invalidate(Long userId) {
+        dropLocal(userId);
+        cacheInvalidationService.broadcastUser(CACHE_NAME, userId);
+    }
+
+    /**
+     * 丢弃全部索引（跨用户的批量更新之后调用），并通知其他节点
+     */
+    public void invalidateAll() {
+        dropLocal(null);
+        cacheInvalidationService.broadcastUser(CACHE_NAME, null);
+    }
+
+    /**
+     * 只丢弃本节点的索引（其他节点的广播触发），userId为null表示全部用户
+     */
+    private void dropLocal(Long userId) {
+        if (userId == null) {
+            indexes.clear();
+            return;
+        }
+        if (warming) {
+            touchedWhileWarming.add(userId);
+        }
+        indexes.remove(userId);
+    }
+
+    private Roaring64Bitmap query(Long userId, String itemType, TagExpression expression) {
+        UserIndex index = index(userId);
+        synchronized (index) {
+            Roaring64Bitmap matched = expression.evaluate(new TagExpression.Resolver() {
+                @Override
+                public Roaring64Bitmap tag(String name) {
+                    Long tagId = index.tagIds.get(name);
+                    return tagId != null ? index.tagBitmaps(itemType).getOrDefault(tagId, EMPTY) : EMPTY;
+                }
+
+                @Override
+                public Roaring64Bitmap facet(String key, String value) {
+                    if (!TagAssignment.TODO.equals(itemType)) {
+                        throw new IllegalArgumentException("笔记不支持 " + key + ": 筛选条件");
+                    }
+                    if (key.equals("priority")) {
+                        return index.priorities.getOrDefault(value, EMPTY);
+                    }
+                    switch (value) {
+                        case "COMPLETED":
+                            return index.completed;
+                        case "ACTIVE":
+                            Roaring64Bitmap active = copy(index.todos);
+                            active.andNot(index.completed);
+                            return active;
+                        default:
+                            throw new IllegalArgumentException("不支持的筛选条件: is:" + value.toLowerCase());
+                    }
+                }
+
+                @Override
+                public Roaring64Bitmap universe() {
+                    return index.universe(itemType);
+                }
+            });
+            // 结果可能直接引用索引中的位图，复制一份再交给调用方
+            Roaring64Bitmap result = copy(matched);
+            result.and(index.universe(itemType));
+            return result;
+        }
+    }
+
+    /**
+     * 取得用户的索引，不存在或已过期时在调用方的分片上开新事务从主库重建
+     * 重建在computeIfAbsent内完成，期间该用户的写入回调会等待，重建结束后再应用，不会丢失
+     */
+    private UserIndex index(Long userId) {
+        UserIndex index = indexes.get(userId);
+        if (index != null && (indexTtl.isZero()
+                || System.currentTimeMillis() - index.builtAt < indexTtl.toMillis())) {
+            return index;
+        }
+        if (index != null) {
+            indexes.remove(userId, index);
+        }
+        return indexes.computeIfAbsent(userId, this::load);
+    }
+
+    private UserIndex load(Long userId) {
+        return primaryTransaction.execute(status -> loadInTransaction(userId));
+    }
+
+    private UserIndex loadInTransaction(Long userId) {
+        UserIndex index = new UserIndex();
+        tagRepository.findByUserIdOrderByName(userId).forEach(tag -> index.putTag(tag.getId(), tag.getName()));
+        for (Object[] row : todoRepository.findFacetsByUserId(userId)) {
+            index.putTodo((Long) row[0], (Boolean) row[1], (String) row[2]);
+        }
+        noteRepository.findIdsByUserId(userId).forEach(index.notes::addLong);
+        for (Object[] row : tagAssignmentRepository.findMembershipByUserId(userId)) {
+            index.putTag((Long) row[0], (String) row[1]);
+            index.assign((String) row[2], (Long) row[0], (Long) row[3]);
+        }
+        index.optimize();
+        return index;
+    }
+
+    /**
+     * 当前事务提交后再修改索引（没有事务时立即修改），回滚的写入不会进入索引；修改后通知其他节点丢弃该用户的索引
+     */
+    private void afterCommit(Long userId, Consumer<UserIndex> mutation) {
+        Runnable apply = () -> {
+            if (warming) {
+                touchedWhileWarming.add(userId);
+            }
+            indexes.computeIfPresent(userId, (k, index) -> {
+                synchronized (index) {
+                    mutation.accept(index);
+                }
+                return index;
+            });
+            cacheInvalidationService.broadcastUser(CACHE_NAME, userId);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private static long cardinality(Roaring64Bitmap bitmap) {
+        return bitmap != null ? bitmap.getLongCardinality() : 0;
+    }
+
+    private static Roaring64Bitmap copy(Roaring64Bitmap bitmap) {
+        Roaring64Bitmap copy = new Roaring64Bitmap();
+        copy.or(bitmap);
+        return copy;
+    }
+}
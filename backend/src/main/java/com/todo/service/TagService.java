@@ -0,0 +1,202 @@
+package com.todo.service;
+
+import com.todo.dto.TagResponse;
+import com.todo.exception.NoteNotFoundException;
+import com.todo.exception.TagNotFoundException;
+import com.todo.exception.TodoNotFoundException;
+import com.todo.model.Tag;
+import com.todo.model.TagAssignment;
+import com.todo.model.User;
+import com.todo.repository.NoteRepository;
+import com.todo.repository.TagAssignmentRepository;
+import com.todo.repository.TagRepository;
+import com.todo.repository.TodoRepository;
+import com.todo.repository.UserRepository;
+import com.todo.util.SecurityUtil;
+import com.todo.util.TagExpression;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 标签管理：标签的增删改，以及为待办事项和笔记设置标签
+ * 数据库是标签关联的唯一来源，内存中的位图索引在事务提交后同步更新
+ */
+@Service
+public class TagService {
+    private final TagRepository tagRepository;
+    private final TagAssignmentRepository tagAssignmentRepository;
+    private final TodoRepository todoRepository;
+    private final NoteRepository noteRepository;
+    private final UserRepository userRepository;
+    private final TagIndexService tagIndexService;
+
+    @Autowired
+    public TagService(TagRepository tagRepository, TagAssignmentRepository tagAssignmentRepository,
+                      TodoRepository todoRepository, NoteRepository noteRepository,
+                      UserRepository userRepository, TagIndexService tagIndexService) {
+        this.tagRepository = tagRepository;
+        this.tagAssignmentRepository = tagAssignmentRepository;
+        this.todoRepository = todoRepository;
+        this.noteRepository = noteRepository;
+        this.userRepository = userRepository;
+        this.tagIndexService = tagIndexService;
+    }
+
+    private User getCurrentUser() {
+        String username = SecurityUtil.getCurrentUsername();
+        if (username == null) {
+            throw new RuntimeException("未找到当前用户");
+        }
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("用户不存在"));
+    }
+
+    /**
+     * 当前用户的全部标签及使用数量（数量取自内存索引，不查询关联表）
+     */
+    @Transactional(readOnly = true)
+    public List<TagResponse> getTags() {
+        User currentUser = getCurrentUser();
+        Map<Long, long[]> usage = tagIndexService.tagUsage(currentUser.getId());
+        List<TagResponse> tags = new ArrayList<>();
+        for (Tag tag : tagRepository.findByUserIdOrderByName(currentUser.getId())) {
+            long[] counts = usage.getOrDefault(tag.getId(), new long[2]);
+            tags.add(new TagResponse(tag.getId(), tag.getName(), counts[0], counts[1]));
+        }
+        return tags;
+    }
+
+    @Transactional
+    public Tag createTag(String name) {
+        User currentUser = getCurrentUser();
+        String normalized = TagExpression.normalizeTagName(name);
+        if (tagRepository.existsByUserIdAndName(currentUser.getId(), normalized)) {
+            throw new IllegalArgumentException("标签已存在: " + normalized);
+        }
+        Tag tag = tagRepository.save(new Tag(currentUser.getId(), normalized));
+        tagIndexService.onTagSaved(currentUser.getId(), tag.getId(), tag.getName());
+        return tag;
+    }
+
+    @Transactional
+    public Tag renameTag(Long id, String name) {
+        User currentUser = getCurrentUser();
+        Tag tag = tagRepository.findByIdAndUserId(id, currentUser.getId())
+                .orElseThrow(() -> new TagNotFoundException(id));
+        String normalized = TagExpression.normalizeTagName(name);
+        if (normalized.equals(tag.getName())) {
+            return tag;
+        }
+        if (tagRepository.existsByUserIdAndName(currentUser.getId(), normalized)) {
+            throw new IllegalArgumentException("标签已存在: " + normalized);
+        }
+        tag.setName(normalized);
+        tagRepository.save(tag);
+        tagIndexService.onTagSaved(currentUser.getId(), tag.getId(), normalized);
+        return tag;
+    }
+
+    /**
+     * 删除标签，关联由外键级联删除
+     */
+    @Transactional
+    public void deleteTag(Long id) {
+        User currentUser = getCurrentUser();
+        Tag tag = tagRepository.findByIdAndUserId(id, currentUser.getId())
+                .orElseThrow(() -> new TagNotFoundException(id));
+        tagRepository.delete(tag);
+        tagIndexService.onTagDeleted(currentUser.getId(), id);
+    }
+
+    @Transactional
+    public List<String> setTodoTags(Long todoId, Collection<String> names) {
+        return setTodoTags(getCurrentUser(), todoId, names);
+    }
+
+    /**
+     * 为指定用户的待办事项设置标签（共享列表的协作者以所有者身份写入）
+     */
+    @Transactional
+    public List<String> setTodoTags(User owner, Long todoId, Collection<String> names) {
+        if (!todoRepository.existsByIdAndUser(todoId, owner)) {
+            throw new TodoNotFoundException(todoId);
+        }
+        return replaceItemTags(owner.getId(), TagAssignment.TODO, todoId, names);
+    }
+
+    @Transactional
+    public List<String> setNoteTags(Long noteId, Collection<String> names) {
+        User currentUser = getCurrentUser();
+        if (!noteRepository.existsByIdAndUser(noteId, currentUser)) {
+            throw new NoteNotFoundException(noteId);
+        }
+        return replaceItemTags(currentUser.getId(), TagAssignment.NOTE, noteId, names);
+    }
+
+    /**
+     * 替换条目的标签，调用方已确认条目属于该用户（数据导入，需在调用方的事务中执行）
+     */
+    public List<String> replaceTags(Long userId, String itemType, Long itemId, Collection<String> names) {
+        return replaceItemTags(userId, itemType, itemId, names);
+    }
+
+    /**
+     * 条目删除时清理其标签关联（需在调用方的事务中执行）
+     */
+    public void deleteItemTags(Long userId, String itemType, Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        tagAssignmentRepository.deleteByItems(itemType, itemIds);
+        for (Long itemId : itemIds) {
+            tagIndexService.onItemDeleted(userId, itemType, itemId);
+        }
+    }
+
+    /**
+     * 用给定的标签整体替换条目的标签：只删除移除的关联、只插入新增的关联，不存在的标签自动创建
+     */
+    private List<String> replaceItemTags(Long userId, String itemType, Long itemId, Collection<String> names) {
+        Set<String> wanted = new LinkedHashSet<>();
+        for (String name : names) {
+            wanted.add(TagExpression.normalizeTagName(name));
+        }
+        Map<String, Tag> tagsByName = new LinkedHashMap<>();
+        if (!wanted.isEmpty()) {
+            tagRepository.findByUserIdAndNameIn(userId, wanted).forEach(tag -> tagsByName.put(tag.getName(), tag));
+        }
+        for (String name : wanted) {
+            if (!tagsByName.containsKey(name)) {
+                tagsByName.put(name, tagRepository.save(new Tag(userId, name)));
+            }
+        }
+
+        Set<Long> keep = new LinkedHashSet<>();
+        for (TagAssignment assignment : tagAssignmentRepository.findByItem(itemType, itemId)) {
+            if (wanted.contains(assignment.getTag().getName())) {
+                keep.add(assignment.getTag().getId());
+            } else {
+                tagAssignmentRepository.delete(assignment);
+            }
+        }
+        Map<Long, String> assigned = new TreeMap<>();
+        for (Tag tag : tagsByName.values()) {
+            if (!keep.contains(tag.getId())) {
+                tagAssignmentRepository.save(new TagAssignment(tag, userId, itemType, itemId));
+            }
+            assigned.put(tag.getId(), tag.getName());
+        }
+        tagIndexService.onItemTagsReplaced(userId, itemType, itemId, assigned);
+        return wanted.stream().sorted().toList();
+    }
+}
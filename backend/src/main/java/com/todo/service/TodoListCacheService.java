@@ -0,0 +1,251 @@
+package com.todo.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.todo.model.Todo;
+import com.todo.model.User;
+import com.todo.repository.TodoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * 按用户物化的有序待办事项列表
+ * 首次读取时从数据库加载并排序，之后增删改只在有序集合中删除旧位置、插入新位置（O(log n)），
+ * 列表和状态/标签筛选直接按顺序遍历内存，不查询数据库也不重新排序。
+ * 按估算的内存占用淘汰最久未使用的用户；绕过TodoService的批量写入（导入、归档、每日重置）会失效对应的列表。
+ * 加载总是在新事务中读主库（只读事务会路由到从库，可能读到复制延迟前的旧数据）。
+ * 多节点部署时写入提交后通过缓存失效广播通知其他节点丢弃该用户的列表，另有 todo.list-cache.ttl 兜底定期重新加载
+ * （local模式下没有广播，重新加载间隔不超过二级缓存的过期时间）
+ */
+@Service
+public class TodoListCacheService {
+
+    static final String CACHE_NAME = "todo-list";
+
+    /**
+     * 列表顺序：每日任务沉底；非每日任务按deadline升序（为空视为最远）；再按创建时间、ID
+     */
+    public static final Comparator<Todo> LIST_ORDER = Comparator
+            .comparing(Todo::isDaily)
+            .thenComparing((Todo t) -> t.isDaily() || t.getDeadline() == null ? LocalDateTime.MAX : t.getDeadline())
+            .thenComparing(Todo::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Todo::getId);
+
+    // 估算的单个待办事项占用：对象和各字段约300字节，另加集合节点，文本按每字符2字节另计
+    private static final int TODO_BASE_BYTES = 400;
+
+    private static final class UserList {
+        final TreeSet<Todo> sorted = new TreeSet<>(LIST_ORDER);
+        // ID -> 当前放在sorted中的副本，更新时据此找到旧位置
+        final Map<Long, Todo> byId = new HashMap<>();
+        final long loadedAt = System.currentTimeMillis();
+        long bytes;
+
+        void put(Todo todo) {
+            remove(todo.getId());
+            sorted.add(todo);
+            byId.put(todo.getId(), todo);
+            bytes += estimate(todo);
+        }
+
+        void remove(Long id) {
+            Todo previous = byId.remove(id);
+            if (previous != null) {
+                sorted.remove(previous);
+                bytes -= estimate(previous);
+            }
+        }
+
+        static long estimate(Todo todo) {
+            return TODO_BASE_BYTES + 2L * (length(todo.getText()) + length(todo.getRecurrenceRule()));
+        }
+
+        static int length(String value) {
+            return value != null ? value.length() : 0;
+        }
+    }
+
+    private final TodoRepository todoRepository;
+    private final CacheInvalidationService cacheInvalidationService;
+    private final TransactionTemplate newTransaction;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Cache<Long, UserList> lists;
+
+    @Autowired
+    public TodoListCacheService(TodoRepository todoRepository, CacheInvalidationService cacheInvalidationService,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${todo.list-cache.enabled:true}") boolean enabled,
+                                @Value("${todo.list-cache.max-memory:64MB}") DataSize maxMemory,
+                                @Value("${todo.list-cache.ttl:5m}") Duration ttl) {
+        this.todoRepository = todoRepository;
+        this.cacheInvalidationService = cacheInvalidationService;
+        // 不能沿用调用方的只读事务：只读事务路由到从库
+        this.newTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.ttl = cacheInvalidationService.userCacheTtl(ttl);
+        this.lists = Caffeine.newBuilder()
+                .maximumWeight(maxMemory.toBytes())
+                .weigher((Long userId, UserList list) -> (int) Math.min(Integer.MAX_VALUE, list.bytes))
+                .build();
+        cacheInvalidationService.registerUserCache(CACHE_NAME, this::dropLocal);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 按列表顺序返回用户满足条件的待办事项（副本，调用方可以随意修改，不含子任务和标签）
+     * 列表不在内存中或已过期时在调用方的分片上开新事务从主库加载
+     */
+    public List<Todo> list(User user, Predicate<Todo> filter) {
+        UserList list = get(user);
+        List<Todo> result = new ArrayList<>();
+        synchronized (list) {
+            for (Todo todo : list.sorted) {
+                if (filter.test(todo)) {
+                    Todo copy = todo.copy();
+                    copy.setUser(user);
+                    result.add(copy);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 待办事项创建或更新后调用：当前事务提交后移到新位置
+     */
+    public void onTodoSaved(Todo todo) {
+        Todo copy = todo.copy();
+        Long userId = todo.getUser().getId();
+        afterCommit(() -> apply(userId, list -> list.put(copy)));
+    }
+
+    public void onTodoDeleted(Long userId, Long todoId) {
+        afterCommit(() -> apply(userId, list -> list.remove(todoId)));
+    }
+
+    /**
+     * 待办事项的字段被直接用SQL修改后调用（如子任务汇总进度）：提交后从数据库重新读取这一条
+     * （在新事务中读主库，原事务的持久化上下文中还是修改前的实体；调用前应已登记实体缓存失效）。
+     * 读取在Caffeine的原子计算之外完成，不会在持有桶锁时访问数据库
+     */
+    public void reloadAfterCommit(Long userId, Long todoId) {
+        afterCommit(() -> {
+            if (!enabled || lists.getIfPresent(userId) == null) {
+                return;
+            }
+            Optional<Todo> reloaded = newTransaction.execute(status -> todoRepository.findById(todoId).map(Todo::copy));
+            apply(userId, list -> {
+                if (reloaded != null && reloaded.isPresent()) {
+                    list.put(reloaded.get());
+                } else {
+                    list.remove(todoId);
+                }
+            });
+        });
+    }
+
+    /**
+     * 丢弃指定用户的列表（绕过服务层的批量写入之后调用），下次读取时重新加载，并通知其他节点
+     */
+    public void invalidate(Long userId) {
+        dropLocal(userId);
+        cacheInvalidationService.broadcastUser(CACHE_NAME, userId);
+    }
+
+    /**
+     * 丢弃全部列表（跨用户的批量更新之后调用），并通知其他节点
+     */
+    public void invalidateAll() {
+        dropLocal(null);
+        cacheInvalidationService.broadcastUser(CACHE_NAME, null);
+    }
+
+    /**
+     * 只丢弃本节点的列表（其他节点的广播触发），userId为null表示全部用户
+     */
+    private void dropLocal(Long userId) {
+        if (userId == null) {
+            lists.invalidateAll();
+        } else {
+            lists.invalidate(userId);
+        }
+    }
+
+    /**
+     * 加载在Caffeine的原子计算中完成，期间该用户的写入回调会等待，加载结束后再应用，不会丢失
+     */
+    private UserList get(User user) {
+        UserList list = lists.getIfPresent(user.getId());
+        if (list != null && !ttl.isZero() && System.currentTimeMillis() - list.loadedAt >= ttl.toMillis()) {
+            lists.asMap().remove(user.getId(), list);
+        }
+        return lists.get(user.getId(), userId -> load(user));
+    }
+
+    private UserList load(User user) {
+        return newTransaction.execute(status -> {
+            UserList list = new UserList();
+            for (Todo todo : todoRepository.findByUser(user)) {
+                list.put(todo.copy());
+            }
+            return list;
+        });
+    }
+
+    /**
+     * 修改内存中的列表并通知其他节点丢弃该用户的列表；
+     * 列表不在内存中时不做修改，下次读取时会从数据库加载最新数据
+     */
+    private void apply(Long userId, Consumer<UserList> mutation) {
+        lists.asMap().computeIfPresent(userId, (k, list) -> {
+            synchronized (list) {
+                mutation.accept(list);
+            }
+            // 返回同一个对象，Caffeine按变化后的大小重新计算权重
+            return list;
+        });
+        cacheInvalidationService.broadcastUser(CACHE_NAME, userId);
+    }
+
+    /**
+     * 当前事务提交后再执行（没有事务时立即执行），回滚的写入不会进入列表
+     */
+    private void afterCommit(Runnable apply) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+}
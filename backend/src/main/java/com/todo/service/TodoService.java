@@ -1,31 +1,77 @@
 package com.todo.service;
 
+import com.todo.dto.TodoRequest;
+import com.todo.dto.TodoStats;
 import com.todo.exception.TodoNotFoundException;
+import com.todo.model.ActivityEntry;
+import com.todo.model.TagAssignment;
 import com.todo.model.Todo;
+import com.todo.model.TodoStep;
 import com.todo.model.User;
 import com.todo.repository.TodoRepository;
 import com.todo.repository.UserRepository;
 import com.todo.util.SecurityUtil;
+import com.todo.util.TagExpression;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Comparator;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
 public class TodoService {
     private final TodoRepository todoRepository;
     private final UserRepository userRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final ReminderService reminderService;
+    private final TodoStepService todoStepService;
+    private final TagService tagService;
+    private final TagIndexService tagIndexService;
+    private final WorkloadService workloadService;
+    private final TodoListCacheService todoListCacheService;
+    private final ActivityLogService activityLogService;
+    private final AnalyticsService analyticsService;
+    private final DailyHistoryService dailyHistoryService;
+    private final CacheInvalidationService cacheInvalidationService;
 
     @Autowired
-    public TodoService(TodoRepository todoRepository, UserRepository userRepository) {
+    public TodoService(TodoRepository todoRepository, UserRepository userRepository,
+                       ShardRouter shardRouter, TransactionTemplate transactionTemplate,
+                       ReminderService reminderService, TodoStepService todoStepService,
+                       TagService tagService, TagIndexService tagIndexService,
+                       WorkloadService workloadService, TodoListCacheService todoListCacheService,
+                       ActivityLogService activityLogService, AnalyticsService analyticsService,
+                       DailyHistoryService dailyHistoryService,
+                       CacheInvalidationService cacheInvalidationService) {
         this.todoRepository = todoRepository;
         this.userRepository = userRepository;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = transactionTemplate;
+        this.reminderService = reminderService;
+        this.todoStepService = todoStepService;
+        this.tagService = tagService;
+        this.tagIndexService = tagIndexService;
+        this.workloadService = workloadService;
+        this.todoListCacheService = todoListCacheService;
+        this.activityLogService = activityLogService;
+        this.analyticsService = analyticsService;
+        this.dailyHistoryService = dailyHistoryService;
+        this.cacheInvalidationService = cacheInvalidationService;
     }
 
     private User getCurrentUser() {
@@ -37,11 +83,60 @@ public class TodoService {
                 .orElseThrow(() -> new RuntimeException("用户不存在"));
     }
 
-    public List<Todo> getAllTodos(String filter) {
-        User currentUser = getCurrentUser();
+    /**
+     * 获取待办事项列表，tags（标签表达式）或priority不为空时在内存位图索引上求值，再按ID加载命中的待办事项
+     */
+    @Transactional(readOnly = true)
+    public List<Todo> getAllTodos(String filter, String tags, String priority) {
+        return getAllTodos(getCurrentUser(), filter, tags, priority);
+    }
+
+    /**
+     * 获取指定用户的待办事项列表（共享列表按所有者读取）
+     */
+    @Transactional(readOnly = true)
+    public List<Todo> getAllTodos(User owner, String filter, String tags, String priority) {
+        List<Todo> todos = findTodos(owner, filter, tags, priority);
+        // 一次查询加载本页所有待办事项的子任务
+        todoStepService.attachSteps(todos);
+        attachTags(owner, todos);
+        dailyHistoryService.attachStreaks(todos);
+        return todos;
+    }
+
+    /**
+     * 与getAllTodos相同的筛选和排序，但不加载子任务和标签（GraphQL查询只在选择了这些字段时批量加载）
+     */
+    @Transactional(readOnly = true)
+    public List<Todo> findTodos(String filter, String tags, String priority) {
+        return findTodos(getCurrentUser(), filter, tags, priority);
+    }
+
+    private List<Todo> findTodos(User currentUser, String filter, String tags, String priority) {
         List<Todo> todos;
         
-        if (filter != null) {
+        if (todoListCacheService.isEnabled()) {
+            // 内存中的有序列表已经按列表顺序排列，筛选只需顺序遍历
+            Predicate<Todo> condition;
+            if (isPresent(tags) || isPresent(priority)) {
+                Roaring64Bitmap matched = tagIndexService.queryTodos(currentUser.getId(),
+                        toTagExpression(filter, tags, priority));
+                condition = t -> matched.contains(t.getId());
+            } else if ("COMPLETED".equals(filter)) {
+                condition = Todo::isCompleted;
+            } else if ("ACTIVE".equals(filter)) {
+                condition = t -> !t.isCompleted();
+            } else {
+                condition = t -> true;
+            }
+            todos = todoListCacheService.list(currentUser, condition);
+            applyDefaultDurationUnit(todos);
+            return todos;
+        }
+
+        if (isPresent(tags) || isPresent(priority)) {
+            todos = findByTagExpression(currentUser, toTagExpression(filter, tags, priority));
+        } else if (filter != null) {
             switch (filter) {
                 case "COMPLETED":
                     todos = todoRepository.findByUserAndCompletedTrue(currentUser);
@@ -56,84 +151,301 @@ public class TodoService {
             todos = todoRepository.findByUser(currentUser);
         }
         
-        // 重置每日任务
-        LocalDate today = LocalDate.now();
-        for (Todo todo : todos) {
-            try {
-                // 确保isDaily字段有默认值（兼容旧数据）
-                if (todo.getDurationUnit() == null) {
-                    todo.setDurationUnit("MINUTES");
-                }
-                
-                // 向后兼容：如果deadline为空但dueDate不为空，将dueDate复制到deadline
-                if (todo.getDeadline() == null && todo.getDueDate() != null) {
-                    todo.setDeadline(todo.getDueDate());
-                    todoRepository.save(todo);
-                }
-                
-                if (todo.isDaily()) {
-                    if (todo.getLastResetDate() != null) {
-                        LocalDate lastResetDate = todo.getLastResetDate().toLocalDate();
-                        if (!lastResetDate.equals(today)) {
-                            // 新的一天，重置任务状态
-                            todo.setCompleted(false);
-                            if (todo.getCompletedSteps() != null) {
-                                todo.setCompletedSteps(0);
-                            }
-                            todo.setLastResetDate(LocalDateTime.now());
-                            todoRepository.save(todo);
-                        }
-                    } else {
-                        // 首次设置每日任务
-                        todo.setLastResetDate(LocalDateTime.now());
-                        todoRepository.save(todo);
-                    }
-                }
-            } catch (Exception e) {
-                // 如果处理某个任务时出错，记录日志但继续处理其他任务
-                System.err.println("处理任务 " + todo.getId() + " 时出错: " + e.getMessage());
-                e.printStackTrace();
-            }
-        }
+        // 每日任务的重置和deadline回填由resetDailyTodos定时批量完成，读取路径不再写库
+        applyDefaultDurationUnit(todos);
         
         // 排序逻辑：
         // 1. 非每日任务按deadline升序（越紧急越靠上），deadline为null视为最远
         // 2. 每日任务固定沉底
         // 3. 截止时间相同则按created_at先后
         List<Todo> sortedTodos = todos.stream()
-            .sorted(Comparator
-                .comparing((Todo t) -> t.isDaily()) // 每日任务排在后面
-                .thenComparing((Todo t) -> {
-                    // 非每日任务按deadline排序，null视为最远（使用最大时间）
-                    if (t.isDaily()) {
-                        return LocalDateTime.MAX;
-                    }
-                    return t.getDeadline() != null ? t.getDeadline() : LocalDateTime.MAX;
-                })
-                .thenComparing(Todo::getCreatedAt) // 相同deadline按创建时间排序
-            )
+            .sorted(TodoListCacheService.LIST_ORDER)
             .collect(Collectors.toList());
-        
         return sortedTodos;
     }
 
+    private void applyDefaultDurationUnit(List<Todo> todos) {
+        for (Todo todo : todos) {
+            // 兼容旧数据：durationUnit为空时按分钟返回（只读事务不会写回数据库）
+            if (todo.getDurationUnit() == null) {
+                todo.setDurationUnit("MINUTES");
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Todo> getTodoById(Long id) {
         User currentUser = getCurrentUser();
-        return todoRepository.findByIdAndUser(id, currentUser);
+        Optional<Todo> todo = todoRepository.findByIdAndUser(id, currentUser);
+        todo.ifPresent(t -> {
+            todoStepService.attachSteps(List.of(t));
+            attachTags(currentUser, List.of(t));
+            dailyHistoryService.attachStreaks(List.of(t));
+        });
+        return todo;
     }
 
-    public Todo createTodo(Todo todo) {
+    /**
+     * 按ID查询，不加载子任务和标签
+     */
+    @Transactional(readOnly = true)
+    public Optional<Todo> findTodoById(Long id) {
+        return todoRepository.findByIdAndUser(id, getCurrentUser());
+    }
+
+    /**
+     * 一批待办事项的标签（来自内存位图索引）：待办事项ID -> 标签名列表
+     */
+    public Map<Long, List<String>> getTagsOf(Collection<Long> todoIds) {
+        return tagIndexService.tagsOf(getCurrentUser().getId(), TagAssignment.TODO, todoIds);
+    }
+
+    @Transactional(readOnly = true)
+    public TodoStats getStats() {
         User currentUser = getCurrentUser();
-        todo.setUser(currentUser);
+        long total = todoRepository.countByUser(currentUser);
+        long completed = todoRepository.countByUserAndCompletedTrue(currentUser);
+        return new TodoStats(total, total - completed, completed);
+    }
+
+    private boolean isPresent(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    /**
+     * 把状态筛选、优先级和标签表达式合并为一个表达式（各部分之间为AND）
+     */
+    private TagExpression toTagExpression(String filter, String tags, String priority) {
+        List<String> parts = new ArrayList<>();
+        if (isPresent(tags)) {
+            parts.add("(" + tags + ")");
+        }
+        if (isPresent(priority)) {
+            if (!priority.trim().matches("[A-Za-z]+")) {
+                throw new IllegalArgumentException("优先级格式错误: " + priority);
+            }
+            parts.add("priority:" + priority.trim());
+        }
+        if ("COMPLETED".equals(filter)) {
+            parts.add("is:completed");
+        } else if ("ACTIVE".equals(filter)) {
+            parts.add("is:active");
+        }
+        return TagExpression.parse(String.join(" ", parts));
+    }
+
+    private List<Todo> findByTagExpression(User user, TagExpression expression) {
+        Roaring64Bitmap matched = tagIndexService.queryTodos(user.getId(), expression);
+        List<Long> ids = new ArrayList<>((int) matched.getLongCardinality());
+        matched.forEach(ids::add);
+        // 索引只用于定位ID，内容仍从数据库（二级缓存）读取；按用户再过滤一次，防止索引过期时越权
+        return todoRepository.findAllById(ids).stream()
+                .filter(t -> t.getUser().getId().equals(user.getId()))
+                .collect(Collectors.toList());
+    }
+
+    private void attachTags(User user, List<Todo> todos) {
+        Map<Long, List<String>> tags = tagIndexService.tagsOf(user.getId(), TagAssignment.TODO,
+                todos.stream().map(Todo::getId).toList());
+        for (Todo todo : todos) {
+            todo.setTags(tags.getOrDefault(todo.getId(), List.of()));
+        }
+    }
+
+    public Todo createTodo(Todo todo) {
+        return createTodo(getCurrentUser(), todo);
+    }
+
+    public Todo createTodo(User owner, Todo todo) {
+        todo.setUser(owner);
         todo.setCreatedAt(LocalDateTime.now());
         todo.setUpdatedAt(LocalDateTime.now());
-        return todoRepository.save(todo);
+        Todo savedTodo = todoRepository.save(todo);
+        reminderService.reschedule(savedTodo);
+        tagIndexService.onTodoSaved(savedTodo);
+        todoListCacheService.onTodoSaved(savedTodo);
+        workloadService.invalidate(owner.getId());
+        activityLogService.recordTodo(ActivityEntry.CREATE, savedTodo, null);
+        analyticsService.onTodoCreated(savedTodo);
+        return savedTodo;
+    }
+
+    /**
+     * 按请求DTO创建待办事项（REST接口和MCP工具共用）
+     */
+    public Todo createTodo(TodoRequest request) {
+        return createTodo(getCurrentUser(), request);
+    }
+
+    public Todo createTodo(User owner, TodoRequest request) {
+        Todo todo = new Todo();
+        todo.setText(request.getText());
+        todo.setPriority(request.getPriority() != null ? request.getPriority() : "MEDIUM");
+        todo.setCompleted(false);
+        todo.setTotalSteps(request.getTotalSteps());
+        todo.setCompletedSteps(0);
+        todo.setEstimatedDuration(request.getEstimatedDuration());
+        // 只有在提供了estimatedDuration时才设置durationUnit
+        if (request.getEstimatedDuration() != null) {
+            todo.setDurationUnit(request.getDurationUnit() != null ? request.getDurationUnit() : "MINUTES");
+        } else {
+            todo.setDurationUnit(null);
+        }
+        todo.setDaily(request.getIsDaily() != null ? request.getIsDaily() : false);
+        if (todo.isDaily()) {
+            todo.setLastResetDate(LocalDateTime.now());
+            todo.setDueDate(null);
+            todo.setDeadline(null);
+        } else {
+            // 优先使用deadline，如果没有则使用dueDate（向后兼容）
+            if (request.getDeadline() != null) {
+                todo.setDeadline(request.getDeadline());
+                todo.setDueDate(request.getDeadline()); // 同时设置dueDate以保持兼容
+            } else if (request.getDueDate() != null) {
+                todo.setDueDate(request.getDueDate());
+                todo.setDeadline(request.getDueDate()); // 将dueDate复制到deadline
+            }
+        }
+        
+        todo.setRecurrenceRule(OccurrenceService.normalizeRule(request.getRecurrenceRule()));
+        return createTodo(owner, todo);
+    }
+
+    /**
+     * 只更新updates中出现的字段，其余字段保持不变（REST接口和MCP工具共用）
+     */
+    public Todo patchTodo(Long id, Map<String, Object> updates) {
+        return patchTodo(getCurrentUser(), id, updates);
+    }
+
+    public Todo patchTodo(User owner, Long id, Map<String, Object> updates) {
+        Todo existingTodo = todoRepository.findByIdAndUser(id, owner)
+                .orElseThrow(() -> new TodoNotFoundException(id));
+
+        Todo updatedTodo = new Todo();
+        if (updates.containsKey("text")) {
+            updatedTodo.setText((String) updates.get("text"));
+        } else {
+            updatedTodo.setText(existingTodo.getText());
+        }
+        
+        updatedTodo.setCompleted(
+            updates.containsKey("completed") 
+                ? (Boolean) updates.get("completed") 
+                : existingTodo.isCompleted()
+        );
+        
+        updatedTodo.setPriority(
+            updates.containsKey("priority") 
+                ? (String) updates.get("priority") 
+                : existingTodo.getPriority()
+        );
+        
+        updatedTodo.setTotalSteps(extractInteger(updates, "totalSteps", existingTodo.getTotalSteps()));
+        updatedTodo.setCompletedSteps(extractInteger(updates, "completedSteps", existingTodo.getCompletedSteps()));
+        updatedTodo.setEstimatedDuration(extractInteger(updates, "estimatedDuration", existingTodo.getEstimatedDuration()));
+        
+        if (updates.containsKey("durationUnit")) {
+            updatedTodo.setDurationUnit((String) updates.get("durationUnit"));
+        } else {
+            updatedTodo.setDurationUnit(existingTodo.getDurationUnit());
+        }
+        
+        updatedTodo.setRecurrenceRule(updates.containsKey("recurrenceRule")
+                ? OccurrenceService.normalizeRule((String) updates.get("recurrenceRule"))
+                : existingTodo.getRecurrenceRule());
+        
+        boolean updatedIsDaily = updates.containsKey("isDaily")
+                ? Boolean.TRUE.equals(updates.get("isDaily"))
+                : existingTodo.isDaily();
+        updatedTodo.setDaily(updatedIsDaily);
+        if (updatedIsDaily) {
+            updatedTodo.setDueDate(null);
+            updatedTodo.setDeadline(null);
+        } else {
+            // 优先使用deadline，如果没有则使用dueDate（向后兼容）
+            LocalDateTime deadline = null;
+            LocalDateTime dueDate = null;
+            if (updates.containsKey("deadline")) {
+                deadline = extractLocalDateTime(updates, "deadline", null);
+            } else {
+                deadline = existingTodo.getDeadline();
+            }
+            if (updates.containsKey("dueDate")) {
+                dueDate = extractLocalDateTime(updates, "dueDate", null);
+            } else {
+                dueDate = existingTodo.getDueDate();
+            }
+            
+            if (deadline != null) {
+                updatedTodo.setDeadline(deadline);
+                updatedTodo.setDueDate(deadline); // 同时设置dueDate以保持兼容
+            } else if (dueDate != null) {
+                updatedTodo.setDueDate(dueDate);
+                updatedTodo.setDeadline(dueDate); // 将dueDate复制到deadline
+            } else {
+                updatedTodo.setDueDate(existingTodo.getDueDate());
+                updatedTodo.setDeadline(existingTodo.getDeadline());
+            }
+        }
+
+        return updateTodo(owner, id, updatedTodo);
+    }
+
+    private Integer extractInteger(Map<String, Object> updates, String key, Integer defaultValue) {
+        if (!updates.containsKey(key)) {
+            return defaultValue;
+        }
+        Object value = updates.get(key);
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Integer) {
+            return (Integer) value;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        try {
+            return Integer.valueOf(value.toString());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private LocalDateTime extractLocalDateTime(Map<String, Object> updates, String key, LocalDateTime defaultValue) {
+        if (!updates.containsKey(key)) {
+            return defaultValue;
+        }
+        Object value = updates.get(key);
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof LocalDateTime) {
+            return (LocalDateTime) value;
+        }
+        if (value instanceof String) {
+            String str = ((String) value).trim();
+            if (str.isEmpty()) {
+                return null;
+            }
+            try {
+                return LocalDateTime.parse(str);
+            } catch (DateTimeParseException e) {
+                return defaultValue;
+            }
+        }
+        return defaultValue;
     }
 
     public Todo updateTodo(Long id, Todo updatedTodo) {
-        User currentUser = getCurrentUser();
-        Todo existingTodo = todoRepository.findByIdAndUser(id, currentUser)
+        return updateTodo(getCurrentUser(), id, updatedTodo);
+    }
+
+    public Todo updateTodo(User owner, Long id, Todo updatedTodo) {
+        Todo existingTodo = todoRepository.findByIdAndUser(id, owner)
                 .orElseThrow(() -> new TodoNotFoundException(id));
+        Todo before = existingTodo.copy();
         
         if (updatedTodo.getText() != null) {
             existingTodo.setText(updatedTodo.getText());
@@ -142,11 +454,14 @@ public class TodoService {
         if (updatedTodo.getPriority() != null) {
             existingTodo.setPriority(updatedTodo.getPriority());
         }
-        if (updatedTodo.getTotalSteps() != null) {
-            existingTodo.setTotalSteps(updatedTodo.getTotalSteps());
-        }
-        if (updatedTodo.getCompletedSteps() != null) {
-            existingTodo.setCompletedSteps(updatedTodo.getCompletedSteps());
+        // 有子任务时进度由子任务维护，忽略客户端传入的步骤数
+        if (!existingTodo.hasSteps()) {
+            if (updatedTodo.getTotalSteps() != null) {
+                existingTodo.setTotalSteps(updatedTodo.getTotalSteps());
+            }
+            if (updatedTodo.getCompletedSteps() != null) {
+                existingTodo.setCompletedSteps(updatedTodo.getCompletedSteps());
+            }
         }
         if (updatedTodo.getEstimatedDuration() != null) {
             existingTodo.setEstimatedDuration(updatedTodo.getEstimatedDuration());
@@ -154,6 +469,7 @@ public class TodoService {
         if (updatedTodo.getDurationUnit() != null) {
             existingTodo.setDurationUnit(updatedTodo.getDurationUnit());
         }
+        existingTodo.setRecurrenceRule(updatedTodo.getRecurrenceRule());
         existingTodo.setDaily(updatedTodo.isDaily());
         if (updatedTodo.isDaily()) {
             if (existingTodo.getLastResetDate() == null) {
@@ -167,33 +483,139 @@ public class TodoService {
             existingTodo.setDeadline(updatedTodo.getDeadline());
         }
         existingTodo.setUpdatedAt(LocalDateTime.now());
-        
-        return todoRepository.save(existingTodo);
+        return saveUpdated(owner, existingTodo, before);
+    }
+
+    /**
+     * 撤销修改：把待办事项的各字段恢复为快照中的值（有子任务时进度仍由子任务维护）
+     */
+    public Todo restoreTodo(Long id, Todo snapshot) {
+        User currentUser = getCurrentUser();
+        Todo existingTodo = todoRepository.findByIdAndUser(id, currentUser)
+                .orElseThrow(() -> new TodoNotFoundException(id));
+        Todo before = existingTodo.copy();
+
+        existingTodo.setText(snapshot.getText());
+        existingTodo.setPriority(snapshot.getPriority());
+        if (!existingTodo.hasSteps() && !snapshot.hasSteps()) {
+            existingTodo.setTotalSteps(snapshot.getTotalSteps());
+            existingTodo.setCompletedSteps(snapshot.getCompletedSteps());
+        }
+        existingTodo.setDurationUnit(snapshot.getDurationUnit());
+        existingTodo.setEstimatedDuration(snapshot.getEstimatedDuration());
+        existingTodo.setRecurrenceRule(snapshot.getRecurrenceRule());
+        existingTodo.setDaily(snapshot.isDaily());
+        existingTodo.setLastResetDate(snapshot.getLastResetDate());
+        existingTodo.setDueDate(snapshot.getDueDate());
+        existingTodo.setDeadline(snapshot.getDeadline());
+        existingTodo.setCompleted(snapshot.isCompleted());
+        existingTodo.setCompletedAt(snapshot.getCompletedAt());
+        existingTodo.setUpdatedAt(LocalDateTime.now());
+        return saveUpdated(currentUser, existingTodo, before);
+    }
+
+    private Todo saveUpdated(User currentUser, Todo existingTodo, Todo before) {
+        Todo savedTodo = todoRepository.save(existingTodo);
+        // 每日任务的完成状态会在零点被重置，完成历史按天记在位图中
+        if (savedTodo.isDaily() && before.isCompleted() != savedTodo.isCompleted()) {
+            dailyHistoryService.record(savedTodo, LocalDate.now(), savedTodo.isCompleted());
+            dailyHistoryService.attachStreaks(List.of(savedTodo));
+        }
+        // 截止时间或完成状态变化后重新安排提醒
+        reminderService.reschedule(savedTodo);
+        tagIndexService.onTodoSaved(savedTodo);
+        todoListCacheService.onTodoSaved(savedTodo);
+        workloadService.invalidate(currentUser.getId());
+        activityLogService.recordTodo(ActivityEntry.UPDATE, savedTodo, before);
+        analyticsService.onTodoUpdated(before, savedTodo);
+        return savedTodo;
     }
 
     public void deleteTodo(Long id) {
+        deleteTodo(getCurrentUser(), id);
+    }
+
+    public void deleteTodo(User owner, Long id) {
         if (id == null) {
             throw new IllegalArgumentException("待办事项ID不能为空");
         }
-        User currentUser = getCurrentUser();
-        if (!todoRepository.existsByIdAndUser(id, currentUser)) {
-            throw new TodoNotFoundException(id);
+        Todo existingTodo = todoRepository.findByIdAndUser(id, owner)
+                .orElseThrow(() -> new TodoNotFoundException(id));
+        // 删除前的完整内容（含子任务和标签）写入操作记录，撤销时据此重建
+        Todo before = existingTodo.copy();
+        if (existingTodo.hasSteps()) {
+            before.setSteps(todoStepService.getStepsOf(List.of(existingTodo)).getOrDefault(id, List.of()));
         }
-        todoRepository.deleteById(id);
+        before.setTags(tagIndexService.tagsOf(owner.getId(), TagAssignment.TODO, List.of(id))
+                .getOrDefault(id, List.of()));
+        transactionTemplate.executeWithoutResult(status -> {
+            tagService.deleteItemTags(owner.getId(), TagAssignment.TODO, List.of(id));
+            if (existingTodo.isDaily()) {
+                before.setDailyHistory(dailyHistoryService.historyOf(id));
+            }
+            dailyHistoryService.deleteHistory(id);
+            todoRepository.deleteById(id);
+        });
+        reminderService.cancel(id);
+        todoListCacheService.onTodoDeleted(owner.getId(), id);
+        workloadService.invalidate(owner.getId());
+        activityLogService.recordTodo(ActivityEntry.DELETE, existingTodo, before);
+    }
+
+    /**
+     * 撤销删除：按快照重新创建待办事项（分配新ID），并恢复子任务、标签和每日任务的完成历史
+     */
+    public Todo restoreDeletedTodo(Todo snapshot) {
+        User currentUser = getCurrentUser();
+        Todo todo = snapshot.copy();
+        todo.setId(null);
+        todo.setUser(currentUser);
+        todo.setRemainingMinutes(null);
+        Todo savedTodo = transactionTemplate.execute(status -> {
+            Todo saved = todoRepository.save(todo);
+            List<TodoStep> steps = snapshot.getSteps();
+            if (steps != null && !steps.isEmpty()) {
+                todoStepService.restoreSteps(saved, steps);
+            }
+            List<String> tags = snapshot.getTags();
+            if (tags != null && !tags.isEmpty()) {
+                tagService.setTodoTags(saved.getId(), tags);
+            }
+            Map<Integer, byte[]> history = snapshot.getDailyHistory();
+            if (history != null && !history.isEmpty()) {
+                dailyHistoryService.restoreHistory(saved, history);
+            }
+            return saved;
+        });
+        reminderService.reschedule(savedTodo);
+        tagIndexService.onTodoSaved(savedTodo);
+        todoListCacheService.onTodoSaved(savedTodo);
+        workloadService.invalidate(currentUser.getId());
+        activityLogService.recordTodo(ActivityEntry.CREATE, savedTodo, null);
+        return savedTodo;
     }
     
     /**
-     * 自动清理超过7天的已完成任务
-     * 每天凌晨2点执行
+     * 批量重置每日任务，并将旧数据的dueDate回填到deadline
+     * 每天零点执行；启动时也执行一次，补上停机期间错过的重置
      */
-    @Scheduled(cron = "0 0 2 * * ?")
-    public void cleanupOldCompletedTodos() {
-        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(7);
-        List<Todo> oldCompletedTodos = todoRepository.findCompletedBefore(cutoffDate);
-        
-        if (!oldCompletedTodos.isEmpty()) {
-            todoRepository.deleteAll(oldCompletedTodos);
-            System.out.println("清理了 " + oldCompletedTodos.size() + " 个超过7天的已完成任务");
-        }
+    @Scheduled(cron = "0 0 0 * * ?")
+    @EventListener(ApplicationReadyEvent.class)
+    public void resetDailyTodos() {
+        shardRouter.forEachShard(shardId -> transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            int reset = todoRepository.resetDailyTodos(LocalDate.now().atStartOfDay(), now);
+            todoRepository.initDailyResetDate(now);
+            todoRepository.backfillDeadlineFromDueDate();
+            todoRepository.backfillEstimatedMinutes();
+            if (reset > 0) {
+                System.out.println("分片 " + shardId + " 重置了 " + reset + " 个每日任务");
+            }
+        }));
+        // 批量更新绕过了实体事件：完成状态和截止时间（排序键）都可能变化，
+        // 二级缓存整个region失效并通知其他节点，标签索引中的已完成位图和内存中的列表也需要重建
+        cacheInvalidationService.invalidateAll(Todo.class);
+        tagIndexService.invalidateAll();
+        todoListCacheService.invalidateAll();
     }
 }
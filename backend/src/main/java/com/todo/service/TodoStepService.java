@@ -0,0 +1,230 @@
+package com.todo.service;
+
+import com.todo.exception.StepNotFoundException;
+import com.todo.exception.TodoNotFoundException;
+import com.todo.model.Todo;
+import com.todo.model.TodoStep;
+import com.todo.model.User;
+import com.todo.repository.TodoRepository;
+import com.todo.repository.TodoStepRepository;
+import com.todo.repository.UserRepository;
+import com.todo.util.SecurityUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 子任务管理
+ * 父任务的进度（totalSteps/completedSteps/remainingMinutes）在每次子任务变化时按增量原子更新，
+ * 不需要重新统计全部子任务；父任务只做一条小的UPDATE，随后只失效这一条实体缓存
+ */
+@Service
+public class TodoStepService {
+
+    private static final String ADD_STEP_SQL = "UPDATE todos SET "
+            + "total_steps = CASE WHEN remaining_minutes IS NULL THEN 1 ELSE total_steps + 1 END, "
+            + "completed_steps = CASE WHEN remaining_minutes IS NULL THEN 0 ELSE completed_steps END, "
+            + "remaining_minutes = COALESCE(remaining_minutes, 0) + ?, updated_at = ? WHERE id = ?";
+    private static final String ROLL_UP_SQL = "UPDATE todos SET "
+            + "completed_steps = completed_steps + ?, remaining_minutes = remaining_minutes + ?, updated_at = ? "
+            + "WHERE id = ?";
+    // 删除最后一个子任务时清空汇总字段，待办事项回到没有子任务的状态；
+    // total_steps放在最后赋值：MySQL按顺序赋值，排在后面的表达式会读到新值
+    private static final String DELETE_STEP_SQL = "UPDATE todos SET "
+            + "completed_steps = CASE WHEN total_steps <= 1 THEN 0 ELSE completed_steps + ? END, "
+            + "remaining_minutes = CASE WHEN total_steps <= 1 THEN NULL ELSE remaining_minutes + ? END, "
+            + "updated_at = ?, "
+            + "total_steps = CASE WHEN total_steps <= 1 THEN NULL ELSE total_steps - 1 END "
+            + "WHERE id = ?";
+
+    private final TodoRepository todoRepository;
+    private final TodoStepRepository stepRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheInvalidationService cacheInvalidationService;
+    private final TodoListCacheService todoListCacheService;
+
+    @Autowired
+    public TodoStepService(TodoRepository todoRepository, TodoStepRepository stepRepository,
+                           UserRepository userRepository, JdbcTemplate jdbcTemplate,
+                           CacheInvalidationService cacheInvalidationService,
+                           TodoListCacheService todoListCacheService) {
+        this.todoRepository = todoRepository;
+        this.stepRepository = stepRepository;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheInvalidationService = cacheInvalidationService;
+        this.todoListCacheService = todoListCacheService;
+    }
+
+    private User getCurrentUser() {
+        String username = SecurityUtil.getCurrentUsername();
+        if (username == null) {
+            throw new RuntimeException("未找到当前用户");
+        }
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("用户不存在"));
+    }
+
+    private Todo requireTodo(Long todoId, User user) {
+        return todoRepository.findByIdAndUser(todoId, user)
+                .orElseThrow(() -> new TodoNotFoundException(todoId));
+    }
+
+    private TodoStep requireStep(Long todoId, Long stepId, User user) {
+        return stepRepository.findOwned(stepId, todoId, user.getId())
+                .orElseThrow(() -> new StepNotFoundException(stepId));
+    }
+
+    @Transactional(readOnly = true)
+    public List<TodoStep> getSteps(Long todoId) {
+        requireTodo(todoId, getCurrentUser());
+        return stepRepository.findByTodoId(todoId);
+    }
+
+    /**
+     * 为列表中有子任务的待办事项批量加载子任务（一次查询）
+     */
+    public void attachSteps(Collection<Todo> todos) {
+        Map<Long, List<TodoStep>> byTodo = getStepsOf(todos);
+        for (Todo todo : todos) {
+            todo.setSteps(byTodo.getOrDefault(todo.getId(), List.of()));
+        }
+    }
+
+    /**
+     * 一批待办事项的子任务（一次IN查询）：待办事项ID -> 子任务列表，没有子任务的待办事项不在结果中
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, List<TodoStep>> getStepsOf(Collection<Todo> todos) {
+        List<Long> ids = new ArrayList<>();
+        for (Todo todo : todos) {
+            if (todo.hasSteps()) {
+                ids.add(todo.getId());
+            }
+        }
+        Map<Long, List<TodoStep>> byTodo = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (TodoStep step : stepRepository.findByTodoIds(ids)) {
+                byTodo.computeIfAbsent(step.getTodoId(), id -> new ArrayList<>()).add(step);
+            }
+        }
+        return byTodo;
+    }
+
+    @Transactional
+    public TodoStep addStep(Long todoId, String text, Integer estimatedMinutes) {
+        User currentUser = getCurrentUser();
+        Todo todo = requireTodo(todoId, currentUser);
+        int position = todo.hasSteps() && todo.getTotalSteps() != null ? todo.getTotalSteps() : 0;
+        TodoStep step = stepRepository.save(new TodoStep(todo, currentUser.getId(), text, estimatedMinutes, position));
+        jdbcTemplate.update(ADD_STEP_SQL, minutes(estimatedMinutes), LocalDateTime.now(), todoId);
+        cacheInvalidationService.evictAfterCommit(Todo.class, todoId);
+        todoListCacheService.reloadAfterCommit(currentUser.getId(), todoId);
+        return step;
+    }
+
+    /**
+     * 按快照重建刚重新创建的待办事项的子任务（撤销删除），父任务进度按快照直接计算，不走增量更新
+     */
+    @Transactional
+    public void restoreSteps(Todo todo, List<TodoStep> snapshots) {
+        int completed = 0;
+        int remainingMinutes = 0;
+        for (TodoStep snapshot : snapshots) {
+            TodoStep step = new TodoStep(todo, todo.getUser().getId(), snapshot.getText(),
+                    snapshot.getEstimatedMinutes(), snapshot.getPosition());
+            step.setCompleted(snapshot.isCompleted());
+            step.setCompletedAt(snapshot.getCompletedAt());
+            stepRepository.save(step);
+            if (snapshot.isCompleted()) {
+                completed++;
+            } else {
+                remainingMinutes += minutes(snapshot.getEstimatedMinutes());
+            }
+        }
+        todo.setTotalSteps(snapshots.size());
+        todo.setCompletedSteps(completed);
+        todo.setRemainingMinutes(remainingMinutes);
+        todoRepository.save(todo);
+    }
+
+    /**
+     * 用导入数据整体替换待办事项的子任务（需在调用方的事务中执行）；列表为空时清除子任务
+     */
+    public void replaceSteps(Todo todo, List<TodoStep> snapshots) {
+        stepRepository.deleteByTodoId(todo.getId());
+        if (!snapshots.isEmpty()) {
+            restoreSteps(todo, snapshots);
+        } else if (todo.hasSteps()) {
+            todo.setTotalSteps(null);
+            todo.setCompletedSteps(0);
+            todo.setRemainingMinutes(null);
+            todoRepository.save(todo);
+        }
+    }
+
+    /**
+     * 更新子任务；子任务带版本号，写入时校验，父任务只做一次增量更新
+     */
+    @Transactional
+    public TodoStep updateStep(Long todoId, Long stepId, String text, Integer estimatedMinutes,
+                               Integer position, Boolean completed) {
+        User currentUser = getCurrentUser();
+        TodoStep step = requireStep(todoId, stepId, currentUser);
+        int completedDelta = 0;
+        int minutesDelta = 0;
+
+        if (completed != null && completed != step.isCompleted()) {
+            step.setCompleted(completed);
+            step.setCompletedAt(completed ? LocalDateTime.now() : null);
+            completedDelta = completed ? 1 : -1;
+            minutesDelta = completed ? -minutes(step.getEstimatedMinutes()) : minutes(step.getEstimatedMinutes());
+        }
+        if (text != null) {
+            step.setText(text);
+        }
+        if (position != null) {
+            step.setPosition(position);
+        }
+        if (estimatedMinutes != null && !estimatedMinutes.equals(step.getEstimatedMinutes())) {
+            if (!step.isCompleted()) {
+                minutesDelta += minutes(estimatedMinutes) - minutes(step.getEstimatedMinutes());
+            }
+            step.setEstimatedMinutes(estimatedMinutes);
+        }
+
+        // 先写子任务（版本冲突时在这里失败，不会改动父任务计数）
+        stepRepository.saveAndFlush(step);
+        if (completedDelta != 0 || minutesDelta != 0) {
+            jdbcTemplate.update(ROLL_UP_SQL, completedDelta, minutesDelta, LocalDateTime.now(), todoId);
+            cacheInvalidationService.evictAfterCommit(Todo.class, todoId);
+            todoListCacheService.reloadAfterCommit(currentUser.getId(), todoId);
+        }
+        return step;
+    }
+
+    @Transactional
+    public void deleteStep(Long todoId, Long stepId) {
+        User currentUser = getCurrentUser();
+        TodoStep step = requireStep(todoId, stepId, currentUser);
+        stepRepository.delete(step);
+        int completedDelta = step.isCompleted() ? -1 : 0;
+        int minutesDelta = step.isCompleted() ? 0 : -minutes(step.getEstimatedMinutes());
+        jdbcTemplate.update(DELETE_STEP_SQL, completedDelta, minutesDelta, LocalDateTime.now(), todoId);
+        cacheInvalidationService.evictAfterCommit(Todo.class, todoId);
+        todoListCacheService.reloadAfterCommit(currentUser.getId(), todoId);
+    }
+
+    private static int minutes(Integer estimatedMinutes) {
+        return estimatedMinutes != null ? estimatedMinutes : 0;
+    }
+}
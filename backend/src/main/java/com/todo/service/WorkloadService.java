@@ -0,0 +1,129 @@
+package com.todo.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.todo.dto.WorkloadDay;
+import com.todo.model.User;
+import com.todo.repository.UserRepository;
+import com.todo.util.SecurityUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 工作量预测：按天汇总截止于当天的未完成任务和每日任务的预计时长，与每日容量对比
+ * 一条按 (user_id, deadline) 分组的SQL得到全部数据；结果按用户缓存，该用户的待办事项发生变化时失效
+ */
+@Service
+public class WorkloadService {
+
+    private static final int MAX_RANGE_DAYS = 366;
+    // 每个用户最多缓存的查询范围数量，超出后整体清空
+    private static final int MAX_RANGES_PER_USER = 16;
+
+    // 每日任务归为一组（日期为NULL），每天都计入；其他未完成任务按截止日期分组
+    private static final String DAY_EXPR = "CASE WHEN is_daily = true THEN NULL ELSE CAST(deadline AS DATE) END";
+    private static final String WORKLOAD_SQL = "SELECT " + DAY_EXPR + " AS due_day, "
+            + "SUM(COALESCE(estimated_minutes, 0)), COUNT(*), SUM(CASE WHEN estimated_minutes IS NULL THEN 1 ELSE 0 END) "
+            + "FROM todos WHERE user_id = ? "
+            + "AND (is_daily = true OR (completed = false AND deadline >= ? AND deadline < ?)) "
+            + "GROUP BY " + DAY_EXPR;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final long capacityMinutes;
+    // 用户ID -> 查询范围 -> 结果
+    private final Cache<Long, ConcurrentMap<String, List<WorkloadDay>>> cache;
+
+    @Autowired
+    public WorkloadService(JdbcTemplate jdbcTemplate, UserRepository userRepository,
+                           @Value("${todo.workload.daily-capacity-minutes:480}") long capacityMinutes,
+                           @Value("${todo.workload.cache-ttl:10m}") Duration cacheTtl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userRepository = userRepository;
+        this.capacityMinutes = capacityMinutes;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(cacheTtl)
+                .build();
+    }
+
+    private User getCurrentUser() {
+        String username = SecurityUtil.getCurrentUsername();
+        if (username == null) {
+            throw new RuntimeException("未找到当前用户");
+        }
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("用户不存在"));
+    }
+
+    @Transactional(readOnly = true)
+    public List<WorkloadDay> getWorkload(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("开始日期不能晚于结束日期");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("查询范围不能超过" + MAX_RANGE_DAYS + "天");
+        }
+        Long userId = getCurrentUser().getId();
+        // 先取得用户的缓存表再查询：查询期间如果发生了写入，失效会移除这张表，过期结果不会被后续请求看到
+        ConcurrentMap<String, List<WorkloadDay>> ranges = cache.get(userId, k -> new ConcurrentHashMap<>());
+        if (ranges.size() >= MAX_RANGES_PER_USER) {
+            ranges.clear();
+        }
+        return ranges.computeIfAbsent(from + "/" + to, k -> compute(userId, from, to));
+    }
+
+    /**
+     * 用户的待办事项增删改后调用：当前事务提交后（没有事务时立即）失效该用户的缓存
+     */
+    public void invalidate(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(userId);
+                }
+            });
+        } else {
+            cache.invalidate(userId);
+        }
+    }
+
+    private List<WorkloadDay> compute(Long userId, LocalDate from, LocalDate to) {
+        Map<LocalDate, long[]> byDay = new HashMap<>();
+        long[] daily = new long[3];
+        jdbcTemplate.query(WORKLOAD_SQL, rs -> {
+            Date day = rs.getDate(1);
+            long[] totals = {rs.getLong(2), rs.getLong(3), rs.getLong(4)};
+            if (day == null) {
+                System.arraycopy(totals, 0, daily, 0, 3);
+            } else {
+                byDay.put(day.toLocalDate(), totals);
+            }
+        }, userId, from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+
+        List<WorkloadDay> days = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            long[] totals = byDay.getOrDefault(date, new long[3]);
+            days.add(new WorkloadDay(date, totals[0] + daily[0], daily[0], capacityMinutes,
+                    totals[1] + daily[1], totals[2] + daily[2]));
+        }
+        return days;
+    }
+}
@@ -0,0 +1,149 @@
+package com.todo.util;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 根据DTO/实体字段上的 @Schema 和校验注解生成JSON Schema（MCP工具的inputSchema），
+ * 与OpenAPI文档使用同一份注解，不再手写一份参数说明
+ */
+public class JsonSchemaBuilder {
+
+    private final Map<String, Object> properties = new LinkedHashMap<>();
+    private final List<String> required = new ArrayList<>();
+
+    public static JsonSchemaBuilder object() {
+        return new JsonSchemaBuilder();
+    }
+
+    /**
+     * 手工添加一个属性（用于查询参数、路径ID等不在DTO中的参数）
+     */
+    public JsonSchemaBuilder property(String name, String type, String description, boolean isRequired) {
+        Map<String, Object> property = new LinkedHashMap<>();
+        property.put("type", type);
+        property.put("description", description);
+        properties.put(name, property);
+        if (isRequired) {
+            required.add(name);
+        }
+        return this;
+    }
+
+    public JsonSchemaBuilder property(String name, String description, List<String> allowedValues) {
+        Map<String, Object> property = new LinkedHashMap<>();
+        property.put("type", "string");
+        property.put("description", description);
+        property.put("enum", allowedValues);
+        properties.put(name, property);
+        return this;
+    }
+
+    /**
+     * 添加DTO的全部字段；withRequired为false时忽略必填约束（用于部分更新）
+     */
+    public JsonSchemaBuilder fields(Class<?> type, boolean withRequired) {
+        for (Field field : type.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                addField(field, withRequired);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 只添加指定字段，这些字段都不是必填的
+     */
+    public JsonSchemaBuilder fields(Class<?> type, String... names) {
+        for (String name : names) {
+            try {
+                addField(type.getDeclaredField(name), false);
+            } catch (NoSuchFieldException e) {
+                throw new IllegalStateException(type.getSimpleName() + "没有字段: " + name, e);
+            }
+        }
+        return this;
+    }
+
+    public Map<String, Object> build() {
+        Map<String, Object> schema = new LinkedHashMap<>();
+        schema.put("type", "object");
+        schema.put("properties", properties);
+        if (!required.isEmpty()) {
+            schema.put("required", required);
+        }
+        return schema;
+    }
+
+    private void addField(Field field, boolean withRequired) {
+        Schema schema = field.getAnnotation(Schema.class);
+        if (field.isAnnotationPresent(JsonIgnore.class) || (schema != null && schema.hidden())) {
+            return;
+        }
+        JsonProperty jsonProperty = field.getAnnotation(JsonProperty.class);
+        String name = jsonProperty != null && !jsonProperty.value().isEmpty() ? jsonProperty.value() : field.getName();
+
+        Map<String, Object> property = new LinkedHashMap<>(typeOf(field.getType()));
+        String description = schema != null ? schema.description() : "";
+        if (field.getType() == LocalDateTime.class) {
+            // Jackson按ISO-8601本地时间解析，不带时区
+            description += (description.isEmpty() ? "" : "，") + "格式：yyyy-MM-ddTHH:mm:ss";
+        }
+        if (!description.isEmpty()) {
+            property.put("description", description);
+        }
+        if (schema != null && schema.allowableValues().length > 0) {
+            property.put("enum", List.of(schema.allowableValues()));
+        }
+        Size size = field.getAnnotation(Size.class);
+        if (size != null && size.max() < Integer.MAX_VALUE) {
+            property.put("array".equals(property.get("type")) ? "maxItems" : "maxLength", size.max());
+        }
+        properties.put(name, property);
+
+        boolean isRequired = field.isAnnotationPresent(NotNull.class)
+                || field.isAnnotationPresent(NotBlank.class)
+                || field.isAnnotationPresent(NotEmpty.class)
+                || (schema != null && schema.requiredMode() == Schema.RequiredMode.REQUIRED);
+        if (withRequired && isRequired) {
+            required.add(name);
+        }
+    }
+
+    private static Map<String, Object> typeOf(Class<?> type) {
+        if (type == String.class) {
+            return Map.of("type", "string");
+        }
+        if (type == Integer.class || type == int.class || type == Long.class || type == long.class) {
+            return Map.of("type", "integer");
+        }
+        if (type == Boolean.class || type == boolean.class) {
+            return Map.of("type", "boolean");
+        }
+        if (type == LocalDateTime.class) {
+            return Map.of("type", "string");
+        }
+        if (type == LocalDate.class) {
+            return Map.of("type", "string", "format", "date");
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            return Map.of("type", "array", "items", Map.of("type", "string"));
+        }
+        throw new IllegalStateException("不支持生成JSON Schema的字段类型: " + type.getName());
+    }
+}
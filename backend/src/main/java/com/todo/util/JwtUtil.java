@@ -1,6 +1,7 @@
 package com.todo.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -18,8 +19,14 @@ public class JwtUtil {
     @Value("${jwt.secret:mySecretKey1234567890123456789012345678901234567890}")
     private String secret;
     
-    @Value("${jwt.expiration:86400000}") // 24小时，单位：毫秒
+    @Value("${jwt.expiration:1800000}") // 访问令牌30分钟，单位：毫秒
     private Long expiration;
+    
+    @Value("${jwt.refresh-expiration:2592000000}") // 刷新令牌30天，单位：毫秒
+    private Long refreshExpiration;
+    
+    private static final String TOKEN_TYPE_CLAIM = "type";
+    private static final String REFRESH_TOKEN_TYPE = "refresh";
 
     private SecretKey getSigningKey() {
         return Keys.hmacShaKeyFor(secret.getBytes());
@@ -31,6 +38,25 @@ public class JwtUtil {
         return createToken(claims, username);
     }
 
+    /**
+     * 生成刷新令牌
+     * 刷新时只需校验HMAC签名并按jti查询服务端存储，无需BCrypt和用户查询
+     */
+    public String generateRefreshToken(String username, Long userId, String tokenId) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("userId", userId);
+        claims.put(TOKEN_TYPE_CLAIM, REFRESH_TOKEN_TYPE);
+        Date now = new Date();
+        return Jwts.builder()
+                .claims(claims)
+                .id(tokenId)
+                .subject(username)
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + refreshExpiration))
+                .signWith(getSigningKey())
+                .compact();
+    }
+
     private String createToken(Map<String, Object> claims, String subject) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expiration);
@@ -44,6 +70,26 @@ public class JwtUtil {
                 .compact();
     }
 
+    /**
+     * 解析并校验刷新令牌（签名、过期时间、令牌类型）
+     * 校验失败时抛出异常
+     */
+    public Claims parseRefreshToken(String token) {
+        Claims claims = extractAllClaims(token);
+        if (!REFRESH_TOKEN_TYPE.equals(claims.get(TOKEN_TYPE_CLAIM, String.class))) {
+            throw new JwtException("不是刷新令牌");
+        }
+        return claims;
+    }
+
+    public Long getExpiration() {
+        return expiration;
+    }
+
+    public Long getRefreshExpiration() {
+        return refreshExpiration;
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -70,14 +116,15 @@ public class JwtUtil {
                 .getPayload();
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
     public Boolean validateToken(String token, String username) {
         try {
-            final String tokenUsername = extractUsername(token);
-            return (tokenUsername != null && tokenUsername.equals(username) && !isTokenExpired(token));
+            final Claims claims = extractAllClaims(token);
+            // 刷新令牌不能作为访问令牌使用
+            if (REFRESH_TOKEN_TYPE.equals(claims.get(TOKEN_TYPE_CLAIM, String.class))) {
+                return false;
+            }
+            final String tokenUsername = claims.getSubject();
+            return (tokenUsername != null && tokenUsername.equals(username) && !claims.getExpiration().before(new Date()));
         } catch (Exception e) {
             // Token无效或已过期
             return false;
@@ -0,0 +1,336 @@
+package com.todo.util;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ * RFC 5545 重复规则（RRULE）的子集
+ * 支持 FREQ=DAILY/WEEKLY/MONTHLY/YEARLY、INTERVAL、BYDAY（不带序号，如MO,WE）、
+ * BYMONTHDAY（可为负数，-1表示当月最后一天）、COUNT、UNTIL；不支持BYMONTH、BYSETPOS和带序号的BYDAY（如1MO）。
+ * YEARLY不带BY*字段时每年在dtStart的月、日发生，带BYDAY/BYMONTHDAY时在全年各月展开。
+ * 展开时只遍历请求的时间窗口，发生日期以epochDay回调，不创建中间集合
+ */
+public final class RecurrenceRule {
+
+    public enum Frequency { DAILY, WEEKLY, MONTHLY, YEARLY }
+
+    private static final String[] DAY_CODES = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"};
+
+    private final Frequency frequency;
+    private final int interval;
+    // bit0=周一 ... bit6=周日
+    private final int byDayMask;
+    // bit1..bit31=每月1..31日
+    private final long byMonthDayMask;
+    // bit1..bit31=每月倒数第1..31日
+    private final long byNegativeMonthDayMask;
+    private final int count;
+    private final long untilEpochDay;
+
+    private RecurrenceRule(Frequency frequency, int interval, int byDayMask, long byMonthDayMask,
+                           long byNegativeMonthDayMask, int count, long untilEpochDay) {
+        this.frequency = frequency;
+        this.interval = interval;
+        this.byDayMask = byDayMask;
+        this.byMonthDayMask = byMonthDayMask;
+        this.byNegativeMonthDayMask = byNegativeMonthDayMask;
+        this.count = count;
+        this.untilEpochDay = untilEpochDay;
+    }
+
+    /**
+     * 每天重复（与isDaily等价）
+     */
+    public static RecurrenceRule daily() {
+        return new RecurrenceRule(Frequency.DAILY, 1, 0, 0, 0, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * 解析规则字符串，格式错误时抛出IllegalArgumentException
+     */
+    public static RecurrenceRule parse(String rule) {
+        if (rule == null || rule.isBlank()) {
+            throw new IllegalArgumentException("重复规则不能为空");
+        }
+        String value = rule.trim().toUpperCase();
+        if (value.startsWith("RRULE:")) {
+            value = value.substring(6);
+        }
+        Frequency frequency = null;
+        int interval = 1;
+        int byDayMask = 0;
+        long byMonthDayMask = 0;
+        long byNegativeMonthDayMask = 0;
+        int count = 0;
+        long untilEpochDay = Long.MAX_VALUE;
+        for (String part : value.split(";")) {
+            if (part.isEmpty()) {
+                continue;
+            }
+            int eq = part.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("重复规则格式错误: " + part);
+            }
+            String name = part.substring(0, eq);
+            String arg = part.substring(eq + 1);
+            try {
+                switch (name) {
+                    case "FREQ" -> {
+                        try {
+                            frequency = Frequency.valueOf(arg);
+                        } catch (IllegalArgumentException e) {
+                            throw new IllegalArgumentException("不支持的FREQ取值: " + arg);
+                        }
+                    }
+                    case "INTERVAL" -> interval = Integer.parseInt(arg);
+                    case "COUNT" -> count = Integer.parseInt(arg);
+                    case "UNTIL" -> untilEpochDay = LocalDate.parse(arg.substring(0, 8),
+                            DateTimeFormatter.BASIC_ISO_DATE).toEpochDay();
+                    case "BYDAY" -> {
+                        for (String day : arg.split(",")) {
+                            int index = Arrays.asList(DAY_CODES).indexOf(day);
+                            if (index < 0) {
+                                throw new IllegalArgumentException("不支持的BYDAY取值: " + day);
+                            }
+                            byDayMask |= 1 << index;
+                        }
+                    }
+                    case "BYMONTHDAY" -> {
+                        for (String day : arg.split(",")) {
+                            int monthDay = Integer.parseInt(day);
+                            if (monthDay == 0 || monthDay > 31 || monthDay < -31) {
+                                throw new IllegalArgumentException("BYMONTHDAY取值超出范围: " + day);
+                            }
+                            if (monthDay > 0) {
+                                byMonthDayMask |= 1L << monthDay;
+                            } else {
+                                byNegativeMonthDayMask |= 1L << -monthDay;
+                            }
+                        }
+                    }
+                    case "WKST" -> {
+                        if (!"MO".equals(arg)) {
+                            throw new IllegalArgumentException("仅支持WKST=MO");
+                        }
+                    }
+                    default -> throw new IllegalArgumentException("不支持的重复规则字段: " + name);
+                }
+            } catch (IllegalArgumentException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("重复规则格式错误: " + part);
+            }
+        }
+        if (frequency == null) {
+            throw new IllegalArgumentException("重复规则缺少FREQ");
+        }
+        if (interval < 1 || interval > 1000) {
+            throw new IllegalArgumentException("INTERVAL必须在1到1000之间");
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("COUNT不能为负数");
+        }
+        if ((byMonthDayMask | byNegativeMonthDayMask) != 0
+                && (frequency == Frequency.DAILY || frequency == Frequency.WEEKLY)) {
+            throw new IllegalArgumentException("BYMONTHDAY只能用于MONTHLY或YEARLY");
+        }
+        return new RecurrenceRule(frequency, interval, byDayMask, byMonthDayMask, byNegativeMonthDayMask,
+                count, untilEpochDay);
+    }
+
+    /**
+     * 按规则展开[from, to]（含）内的发生日期，dtStart为第一次发生的日期；
+     * consumer返回false时停止
+     */
+    public void expand(LocalDate dtStart, LocalDate from, LocalDate to, LongPredicate consumer) {
+        long start = dtStart.toEpochDay();
+        long lo = Math.max(from.toEpochDay(), start);
+        long hi = Math.min(to.toEpochDay(), untilEpochDay);
+        if (lo > hi) {
+            return;
+        }
+        switch (frequency) {
+            case DAILY -> expandDaily(start, lo, hi, consumer);
+            case WEEKLY -> expandWeekly(start, lo, hi, consumer);
+            default -> expandMonthly(dtStart, lo, hi, consumer);
+        }
+    }
+
+    private void expandDaily(long start, long lo, long hi, LongPredicate consumer) {
+        if (byDayMask == 0) {
+            // 每个周期恰好一次，可以直接跳到窗口起点
+            long k = Math.floorDiv(lo - start + interval - 1, interval);
+            for (long day = start + k * interval; day <= hi; day += interval, k++) {
+                if ((count > 0 && k >= count) || !consumer.test(day)) {
+                    return;
+                }
+            }
+            return;
+        }
+        long seen = 0;
+        long day = count > 0 ? start : start + Math.floorDiv(lo - start + interval - 1, interval) * interval;
+        for (; day <= hi; day += interval) {
+            if ((byDayMask & (1 << dayOfWeekIndex(day))) == 0) {
+                continue;
+            }
+            if (count > 0 && seen++ >= count) {
+                return;
+            }
+            if (day >= lo && !consumer.test(day)) {
+                return;
+            }
+        }
+    }
+
+    private void expandWeekly(long start, long lo, long hi, LongPredicate consumer) {
+        int mask = byDayMask != 0 ? byDayMask : 1 << dayOfWeekIndex(start);
+        int perWeek = Integer.bitCount(mask);
+        long firstWeek = start - dayOfWeekIndex(start);
+        long period = 7L * interval;
+        long week = firstWeek;
+        long seen = 0;
+        long periodsBefore = Math.max(0, Math.floorDiv(lo - firstWeek, period));
+        if (periodsBefore > 0) {
+            // 窗口之前的完整周期直接跳过：第一周从dtStart当天算起，之后每个周期perWeek次
+            seen = Integer.bitCount(mask >>> dayOfWeekIndex(start)) + (periodsBefore - 1) * perWeek;
+            week = firstWeek + periodsBefore * period;
+        }
+        for (; week <= hi; week += period) {
+            for (int bits = mask; bits != 0; bits &= bits - 1) {
+                long day = week + Integer.numberOfTrailingZeros(bits);
+                if (day < start) {
+                    continue;
+                }
+                if (day > hi || (count > 0 && seen++ >= count)) {
+                    return;
+                }
+                if (day >= lo && !consumer.test(day)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void expandMonthly(LocalDate dtStart, long lo, long hi, LongPredicate consumer) {
+        boolean yearly = frequency == Frequency.YEARLY;
+        int step = yearly ? 12 * interval : interval;
+        long positive = byMonthDayMask;
+        long negative = byNegativeMonthDayMask;
+        // YEARLY带BYDAY/BYMONTHDAY（不支持BYMONTH）时按RFC 5545在全年12个月中展开；都不带时只在dtStart所在的月
+        boolean wholeYear = yearly && (positive != 0 || negative != 0 || byDayMask != 0);
+        if (positive == 0 && negative == 0 && byDayMask == 0) {
+            positive = 1L << dtStart.getDayOfMonth();
+        }
+        int monthsPerPeriod = wholeYear ? 12 : 1;
+        long period = wholeYear ? dtStart.getYear() * 12L : dtStart.getYear() * 12L + dtStart.getMonthValue() - 1;
+        if (count == 0) {
+            // 跳到最后一个月不早于窗口起点的第一个周期
+            LocalDate loDate = LocalDate.ofEpochDay(lo);
+            long loMonth = loDate.getYear() * 12L + loDate.getMonthValue() - 1;
+            period += Math.max(0, Math.floorDiv(loMonth - period - monthsPerPeriod + step, step)) * step;
+        }
+        long seen = 0;
+        long start = dtStart.toEpochDay();
+        for (; ; period += step) {
+            for (long month = period; month < period + monthsPerPeriod; month++) {
+                int year = (int) Math.floorDiv(month, 12);
+                int monthOfYear = (int) Math.floorMod(month, 12) + 1;
+                long first = LocalDate.of(year, monthOfYear, 1).toEpochDay();
+                if (first > hi) {
+                    return;
+                }
+                int length = lengthOfMonth(year, monthOfYear);
+                long days = dayMask(positive, negative, length);
+                if (byDayMask != 0) {
+                    // BYDAY：当月所有匹配的星期几，与BYMONTHDAY同时存在时取交集
+                    long weekdays = 0;
+                    int firstIndex = dayOfWeekIndex(first);
+                    for (int d = 1; d <= length; d++) {
+                        if ((byDayMask & (1 << ((firstIndex + d - 1) % 7))) != 0) {
+                            weekdays |= 1L << d;
+                        }
+                    }
+                    days = (positive == 0 && negative == 0) ? weekdays : days & weekdays;
+                }
+                for (long bits = days; bits != 0; bits &= bits - 1) {
+                    long day = first + Long.numberOfTrailingZeros(bits) - 1;
+                    if (day < start) {
+                        continue;
+                    }
+                    if (day > hi || (count > 0 && seen++ >= count)) {
+                        return;
+                    }
+                    if (day >= lo && !consumer.test(day)) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private static long dayMask(long positive, long negative, int length) {
+        long mask = positive & ((1L << (length + 1)) - 2);
+        for (long bits = negative; bits != 0; bits &= bits - 1) {
+            int fromEnd = Long.numberOfTrailingZeros(bits);
+            if (fromEnd <= length) {
+                mask |= 1L << (length + 1 - fromEnd);
+            }
+        }
+        return mask;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> Year.isLeap(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    // 0=周一 ... 6=周日（1970-01-01为周四）
+    private static int dayOfWeekIndex(long epochDay) {
+        return (int) Math.floorMod(epochDay + 3, 7);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("FREQ=").append(frequency);
+        if (interval != 1) {
+            sb.append(";INTERVAL=").append(interval);
+        }
+        if (byDayMask != 0) {
+            sb.append(";BYDAY=");
+            for (DayOfWeek day : DayOfWeek.values()) {
+                if ((byDayMask & (1 << day.ordinal())) != 0) {
+                    sb.append(DAY_CODES[day.ordinal()]).append(',');
+                }
+            }
+            sb.setLength(sb.length() - 1);
+        }
+        if ((byMonthDayMask | byNegativeMonthDayMask) != 0) {
+            sb.append(";BYMONTHDAY=");
+            for (int d = 1; d <= 31; d++) {
+                if ((byMonthDayMask & (1L << d)) != 0) {
+                    sb.append(d).append(',');
+                }
+            }
+            for (int d = 1; d <= 31; d++) {
+                if ((byNegativeMonthDayMask & (1L << d)) != 0) {
+                    sb.append(-d).append(',');
+                }
+            }
+            sb.setLength(sb.length() - 1);
+        }
+        if (count > 0) {
+            sb.append(";COUNT=").append(count);
+        }
+        if (untilEpochDay != Long.MAX_VALUE) {
+            sb.append(";UNTIL=").append(LocalDate.ofEpochDay(untilEpochDay).format(DateTimeFormatter.BASIC_ISO_DATE));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,205 @@
+package com.todo.util;
+
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 标签筛选表达式
+ * 语法：标签名、is:completed / is:active、priority:HIGH，用 AND / OR / NOT（或 &amp; | !）和括号组合，
+ * 相邻的两项之间省略运算符时按AND处理，例如 "work (urgent | home) !archived"
+ */
+public final class TagExpression {
+
+    /**
+     * 表达式求值时取位图的来源；返回的位图只读，求值过程不会修改它们
+     */
+    public interface Resolver {
+        Roaring64Bitmap tag(String name);
+
+        Roaring64Bitmap facet(String key, String value);
+
+        Roaring64Bitmap universe();
+    }
+
+    private interface Node {
+        Roaring64Bitmap evaluate(Resolver resolver);
+    }
+
+    private final Node root;
+    private final String source;
+
+    private TagExpression(Node root, String source) {
+        this.root = root;
+        this.source = source;
+    }
+
+    /**
+     * 解析表达式，格式错误时抛出IllegalArgumentException
+     */
+    public static TagExpression parse(String expression) {
+        if (expression == null || expression.isBlank()) {
+            throw new IllegalArgumentException("标签表达式不能为空");
+        }
+        Parser parser = new Parser(tokenize(expression));
+        Node root = parser.parseOr();
+        if (parser.position < parser.tokens.size()) {
+            throw new IllegalArgumentException("标签表达式格式错误: " + parser.tokens.get(parser.position));
+        }
+        return new TagExpression(root, expression);
+    }
+
+    public Roaring64Bitmap evaluate(Resolver resolver) {
+        return root.evaluate(resolver);
+    }
+
+    /**
+     * 规范化标签名（小写、去除首尾空格），名称不合法时抛出IllegalArgumentException
+     */
+    public static String normalizeTagName(String name) {
+        String normalized = name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty() || normalized.length() > 50) {
+            throw new IllegalArgumentException("标签名不能为空且不能超过50个字符");
+        }
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.isWhitespace(c) || "()!&|\":,".indexOf(c) >= 0) {
+                throw new IllegalArgumentException("标签名不能包含空格或字符 ()!&|\":,");
+            }
+        }
+        if (normalized.equals("and") || normalized.equals("or") || normalized.equals("not")) {
+            throw new IllegalArgumentException("标签名不能是 and/or/not");
+        }
+        return normalized;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    private static List<String> tokenize(String expression) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < expression.length()) {
+            char c = expression.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if ("()!&|".indexOf(c) >= 0) {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else {
+                int start = i;
+                while (i < expression.length() && !Character.isWhitespace(expression.charAt(i))
+                        && "()!&|".indexOf(expression.charAt(i)) < 0) {
+                    i++;
+                }
+                tokens.add(expression.substring(start, i));
+            }
+        }
+        return tokens;
+    }
+
+    private static final class Parser {
+        private final List<String> tokens;
+        private int position;
+
+        private Parser(List<String> tokens) {
+            this.tokens = tokens;
+        }
+
+        private String peek() {
+            return position < tokens.size() ? tokens.get(position) : null;
+        }
+
+        private boolean accept(String symbol, String keyword) {
+            String token = peek();
+            if (token != null && (token.equals(symbol) || token.equalsIgnoreCase(keyword))) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private Node parseOr() {
+            Node left = parseAnd();
+            while (accept("|", "OR")) {
+                Node l = left;
+                Node r = parseAnd();
+                left = resolver -> {
+                    Roaring64Bitmap result = copy(l.evaluate(resolver));
+                    result.or(r.evaluate(resolver));
+                    return result;
+                };
+            }
+            return left;
+        }
+
+        private Node parseAnd() {
+            Node left = parseNot();
+            while (true) {
+                boolean explicit = accept("&", "AND");
+                String next = peek();
+                if (!explicit && (next == null || next.equals(")") || next.equals("|") || next.equalsIgnoreCase("OR"))) {
+                    return left;
+                }
+                Node l = left;
+                Node r = parseNot();
+                left = resolver -> {
+                    Roaring64Bitmap result = copy(l.evaluate(resolver));
+                    result.and(r.evaluate(resolver));
+                    return result;
+                };
+            }
+        }
+
+        private Node parseNot() {
+            if (accept("!", "NOT")) {
+                Node operand = parseNot();
+                return resolver -> {
+                    Roaring64Bitmap result = copy(resolver.universe());
+                    result.andNot(operand.evaluate(resolver));
+                    return result;
+                };
+            }
+            return parsePrimary();
+        }
+
+        private Node parsePrimary() {
+            String token = peek();
+            if (token == null) {
+                throw new IllegalArgumentException("标签表达式不完整");
+            }
+            position++;
+            if (token.equals("(")) {
+                Node inner = parseOr();
+                if (!accept(")", ")")) {
+                    throw new IllegalArgumentException("标签表达式缺少右括号");
+                }
+                return inner;
+            }
+            if (token.equals(")") || token.equals("&") || token.equals("|")) {
+                throw new IllegalArgumentException("标签表达式格式错误: " + token);
+            }
+            int colon = token.indexOf(':');
+            if (colon > 0) {
+                String key = token.substring(0, colon).toLowerCase(Locale.ROOT);
+                String value = token.substring(colon + 1).toUpperCase(Locale.ROOT);
+                if (!key.equals("is") && !key.equals("priority")) {
+                    throw new IllegalArgumentException("不支持的筛选条件: " + token);
+                }
+                return resolver -> resolver.facet(key, value);
+            }
+            String name = normalizeTagName(token);
+            return resolver -> resolver.tag(name);
+        }
+    }
+
+    private static Roaring64Bitmap copy(Roaring64Bitmap bitmap) {
+        Roaring64Bitmap copy = new Roaring64Bitmap();
+        copy.or(bitmap);
+        return copy;
+    }
+}
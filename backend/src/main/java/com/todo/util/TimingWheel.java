@@ -0,0 +1,194 @@
+package com.todo.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分层时间轮
+ * 第0层每格tickMs，第i层每格为第i-1层一整圈；到期时间超出低层范围的定时器放在高层，
+ * 随时间推进逐层下沉。添加、取消都是O(1)，不需要为每个定时器创建ScheduledFuture。
+ * 所有方法同步执行，由单个驱动线程调用advance推进时间
+ */
+public class TimingWheel<T> {
+
+    /**
+     * 时间轮中的一个定时器
+     */
+    public static final class Timer<T> {
+        private final long key;
+        private final long expirationMs;
+        private final T payload;
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        private Timer(long key, long expirationMs, T payload) {
+            this.key = key;
+            this.expirationMs = expirationMs;
+            this.payload = payload;
+        }
+
+        public long getKey() {
+            return key;
+        }
+
+        public long getExpirationMs() {
+            return expirationMs;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+    }
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long[] intervals;
+    // 每个格子是一个带哨兵的双向链表
+    private final Timer<T>[][] slots;
+    // 超出最高层范围的定时器，最高层每前进一格时重新放置
+    private final Timer<T> overflow;
+    private final Map<Long, Timer<T>> timers = new HashMap<>();
+    private final List<Timer<T>> ready = new ArrayList<>();
+    private long currentMs;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMs, int wheelSize, int levels, long startMs) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.intervals = new long[levels];
+        this.slots = new Timer[levels][wheelSize];
+        long interval = tickMs;
+        for (int level = 0; level < levels; level++) {
+            intervals[level] = interval;
+            for (int i = 0; i < wheelSize; i++) {
+                slots[level][i] = sentinel();
+            }
+            interval *= wheelSize;
+        }
+        this.overflow = sentinel();
+        this.currentMs = startMs - Math.floorMod(startMs, tickMs);
+    }
+
+    /**
+     * 添加或替换定时器；到期时间已过的定时器在下一次advance时立即返回
+     */
+    public synchronized void schedule(long key, long expirationMs, T payload) {
+        cancel(key);
+        Timer<T> timer = new Timer<>(key, expirationMs, payload);
+        timers.put(key, timer);
+        place(timer);
+    }
+
+    /**
+     * 取消定时器，返回是否存在
+     */
+    public synchronized boolean cancel(long key) {
+        Timer<T> timer = timers.remove(key);
+        if (timer == null) {
+            return false;
+        }
+        unlink(timer);
+        return true;
+    }
+
+    public synchronized boolean contains(long key) {
+        return timers.containsKey(key);
+    }
+
+    public synchronized int size() {
+        return timers.size();
+    }
+
+    /**
+     * 推进到指定时间，返回期间到期的定时器（到期时间均不晚于nowMs）
+     */
+    public synchronized List<Timer<T>> advance(long nowMs) {
+        List<Timer<T>> expired = new ArrayList<>();
+        while (currentMs + tickMs <= nowMs) {
+            currentMs += tickMs;
+            // 第0层上一格中的定时器都已到期；先清空这一格，它随后将用于存放一整圈之后到期的定时器
+            Timer<T> head = slots[0][slotIndex(currentMs - tickMs, 0)];
+            for (Timer<T> timer = head.next; timer != head; timer = timer.next) {
+                expired.add(timer);
+                timers.remove(timer.key);
+            }
+            head.next = head;
+            head.prev = head;
+            // 高层格子到点后下沉到低层
+            for (int level = intervals.length - 1; level > 0; level--) {
+                if (currentMs % intervals[level] == 0) {
+                    if (level == intervals.length - 1) {
+                        cascade(overflow);
+                    }
+                    cascade(slots[level][slotIndex(currentMs, level)]);
+                }
+            }
+        }
+        for (Timer<T> timer : ready) {
+            expired.add(timer);
+            timers.remove(timer.key);
+        }
+        ready.clear();
+        return expired;
+    }
+
+    private void cascade(Timer<T> head) {
+        Timer<T> timer = head.next;
+        head.next = head;
+        head.prev = head;
+        while (timer != head) {
+            Timer<T> next = timer.next;
+            timer.prev = null;
+            timer.next = null;
+            place(timer);
+            timer = next;
+        }
+    }
+
+    private void place(Timer<T> timer) {
+        if (timer.expirationMs < currentMs) {
+            ready.add(timer);
+            return;
+        }
+        for (int level = 0; level < intervals.length; level++) {
+            long interval = intervals[level];
+            if (Math.floorDiv(timer.expirationMs, interval) - Math.floorDiv(currentMs, interval) < wheelSize) {
+                link(slots[level][slotIndex(timer.expirationMs, level)], timer);
+                return;
+            }
+        }
+        link(overflow, timer);
+    }
+
+    private int slotIndex(long timeMs, int level) {
+        return (int) Math.floorMod(Math.floorDiv(timeMs, intervals[level]), (long) wheelSize);
+    }
+
+    private Timer<T> sentinel() {
+        Timer<T> head = new Timer<>(Long.MIN_VALUE, Long.MAX_VALUE, null);
+        head.prev = head;
+        head.next = head;
+        return head;
+    }
+
+    private void link(Timer<T> head, Timer<T> timer) {
+        timer.prev = head.prev;
+        timer.next = head;
+        head.prev.next = timer;
+        head.prev = timer;
+    }
+
+    private void unlink(Timer<T> timer) {
+        if (timer.prev == null) {
+            // 在ready列表中
+            ready.remove(timer);
+            return;
+        }
+        timer.prev.next = timer.next;
+        timer.next.prev = timer.prev;
+        timer.prev = null;
+        timer.next = null;
+    }
+}
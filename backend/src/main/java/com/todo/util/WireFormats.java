@@ -0,0 +1,85 @@
+package com.todo.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * 二进制响应格式（CBOR、Smile）使用的ObjectMapper：
+ * LocalDateTime写为epoch毫秒整数（按服务器时区换算，与LocalDateTime.now()一致），读取时也接受ISO字符串；
+ * 列表中重复的字段名和短字符串值（priority、durationUnit等）只写一次，之后写引用
+ */
+public final class WireFormats {
+
+    public static final String CBOR = "application/cbor";
+    public static final String SMILE = "application/x-jackson-smile";
+
+    private WireFormats() {
+    }
+
+    public static ObjectMapper cborMapper() {
+        CBORFactory factory = CBORFactory.builder()
+                .enable(CBORGenerator.Feature.STRINGREF)
+                .build();
+        return Jackson2ObjectMapperBuilder.cbor().factory(factory).modulesToInstall(epochMillisModule()).build();
+    }
+
+    public static ObjectMapper smileMapper() {
+        SmileFactory factory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        return Jackson2ObjectMapperBuilder.smile().factory(factory).modulesToInstall(epochMillisModule()).build();
+    }
+
+    private static SimpleModule epochMillisModule() {
+        SimpleModule module = new SimpleModule("EpochMillisLocalDateTime");
+        module.addSerializer(LocalDateTime.class, new EpochMillisSerializer());
+        module.addDeserializer(LocalDateTime.class, new EpochMillisDeserializer());
+        return module;
+    }
+
+    private static class EpochMillisSerializer extends StdScalarSerializer<LocalDateTime> {
+        EpochMillisSerializer() {
+            super(LocalDateTime.class);
+        }
+
+        @Override
+        public void serialize(LocalDateTime value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+    }
+
+    private static class EpochMillisDeserializer extends StdScalarDeserializer<LocalDateTime> {
+        EpochMillisDeserializer() {
+            super(LocalDateTime.class);
+        }
+
+        @Override
+        public LocalDateTime deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+                return LocalDateTime.ofInstant(Instant.ofEpochMilli(parser.getLongValue()), ZoneId.systemDefault());
+            }
+            String text = parser.getValueAsString();
+            if (text == null || text.isBlank()) {
+                return null;
+            }
+            return LocalDateTime.parse(text.trim());
+        }
+    }
+}
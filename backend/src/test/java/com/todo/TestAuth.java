@@ -0,0 +1,40 @@
+package com.todo;
+
+import com.todo.dto.RegisterRequest;
+import com.todo.service.AuthService;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 测试中模拟已登录用户（服务层通过SecurityUtil读取当前用户名）
+ */
+public final class TestAuth {
+
+    private TestAuth() {
+    }
+
+    /**
+     * 注册一个新用户（用户名唯一）并以该用户登录，返回用户名
+     */
+    public static String newUser(AuthService authService) {
+        String username = "u" + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+        authService.register(new RegisterRequest(username, "secret123", username + "@test.local"));
+        signIn(username);
+        return username;
+    }
+
+    public static void signIn(String username) {
+        UserDetails principal = User.withUsername(username).password("").authorities(List.of()).build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    public static void signOut() {
+        SecurityContextHolder.clearContext();
+    }
+}
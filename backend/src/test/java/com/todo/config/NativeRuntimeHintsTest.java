@@ -0,0 +1,53 @@
+package com.todo.config;
+
+import com.todo.dto.TodoRequest;
+import com.todo.model.Todo;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.util.ClassUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 原生镜像无法在测试中构建，这里校验注册的提示本身：按类名注册的类都存在，资源和反射提示覆盖到需要的类型
+ */
+class NativeRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    NativeRuntimeHintsTest() {
+        new NativeRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void classesRegisteredByNameExistOnTheClasspath() {
+        // 依赖升级后类名变化时提示会静默失效，在这里提前发现
+        for (String className : NativeRuntimeHints.JJWT_IMPL_CLASSES) {
+            assertThat(ClassUtils.isPresent(className, getClass().getClassLoader())).as(className).isTrue();
+            assertThat(RuntimeHintsPredicates.reflection().onType(TypeReference.of(className))
+                    .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+        }
+        assertThat(ClassUtils.isPresent("com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider",
+                getClass().getClassLoader())).isTrue();
+    }
+
+    @Test
+    void resourcesLoadedAtRuntimeAreIncluded() {
+        assertThat(RuntimeHintsPredicates.resource().forResource("application.conf")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("META-INF/resources/doc.html")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource()
+                .forResource("META-INF/services/io.jsonwebtoken.io.Serializer")).accepts(hints);
+    }
+
+    @Test
+    void modelAndDtoTypesGetBindingAndFieldHints() {
+        for (Class<?> type : new Class<?>[]{Todo.class, TodoRequest.class}) {
+            assertThat(RuntimeHintsPredicates.reflection().onType(type)
+                    .withMemberCategory(MemberCategory.DECLARED_FIELDS)).as(type.getName()).accepts(hints);
+        }
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(TodoRequest.class, "getText")).accepts(hints);
+    }
+}
@@ -0,0 +1,84 @@
+package com.todo.config;
+
+import com.todo.TestAuth;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(60_000);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TestAuth.signOut();
+    }
+
+    @Test
+    void readOnlyTransactionGoesToReplica() {
+        TestAuth.signIn("reader");
+        assertThat(route(true)).isEqualTo(ReplicaRoutingDataSource.REPLICA);
+    }
+
+    @Test
+    void writeTransactionGoesToPrimary() {
+        TestAuth.signIn("writer");
+        assertThat(route(false)).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+    }
+
+    @Test
+    void readsStayOnPrimaryAfterOwnCommittedWrite() {
+        TestAuth.signIn("writer");
+        commitWrite();
+
+        assertThat(route(true)).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+
+        // 其他用户不受影响
+        TestAuth.signIn("someone-else");
+        assertThat(route(true)).isEqualTo(ReplicaRoutingDataSource.REPLICA);
+    }
+
+    @Test
+    void rolledBackWriteDoesNotPinReads() {
+        TestAuth.signIn("writer");
+        TransactionSynchronizationManager.initSynchronization();
+        route(false);
+        TransactionSynchronizationManager.clearSynchronization(); // 未提交
+
+        assertThat(route(true)).isEqualTo(ReplicaRoutingDataSource.REPLICA);
+    }
+
+    @Test
+    void windowExpires() throws InterruptedException {
+        ReplicaRoutingDataSource shortWindow = new ReplicaRoutingDataSource(20);
+        TestAuth.signIn("writer");
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        shortWindow.determineCurrentLookupKey();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        Thread.sleep(50);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(shortWindow.determineCurrentLookupKey()).isEqualTo(ReplicaRoutingDataSource.REPLICA);
+    }
+
+    private Object route(boolean readOnly) {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+        return dataSource.determineCurrentLookupKey();
+    }
+
+    private void commitWrite() {
+        TransactionSynchronizationManager.initSynchronization();
+        route(false);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+}
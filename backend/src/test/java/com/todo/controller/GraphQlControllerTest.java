@@ -0,0 +1,155 @@
+package com.todo.controller;
+
+import com.todo.TestAuth;
+import com.todo.dto.TodoRequest;
+import com.todo.model.Todo;
+import com.todo.service.AuthService;
+import com.todo.service.TagService;
+import com.todo.service.TodoService;
+import com.todo.service.TodoStepService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.ExecutionGraphQlResponse;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.ResponseError;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class GraphQlControllerTest {
+
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private TodoStepService todoStepService;
+    @Autowired
+    private TagService tagService;
+    @Autowired
+    private ExecutionGraphQlService graphQlService;
+
+    @AfterEach
+    void signOut() {
+        TestAuth.signOut();
+    }
+
+    @Test
+    void stepsAndTagsAreLoadedForEveryTodoOfTheLevel() {
+        TestAuth.newUser(authService);
+        Todo first = createTodo("first");
+        todoStepService.addStep(first.getId(), "a", null);
+        todoStepService.addStep(first.getId(), "b", null);
+        tagService.setTodoTags(first.getId(), List.of("work"));
+        createTodo("second");
+
+        ExecutionGraphQlResponse response = execute("{ todos { text steps { text } tags } todoStats { total } }");
+
+        assertThat(response.getErrors()).isEmpty();
+        List<Map<String, Object>> todos = response.field("todos").getValue();
+        assertThat(todos).extracting(todo -> todo.get("text")).containsExactlyInAnyOrder("first", "second");
+        Map<String, Object> withSteps = todos.stream().filter(todo -> "first".equals(todo.get("text"))).findFirst().orElseThrow();
+        assertThat(withSteps.get("steps")).isEqualTo(List.of(Map.of("text", "a"), Map.of("text", "b")));
+        assertThat(withSteps.get("tags")).isEqualTo(List.of("work"));
+        Map<String, Object> withoutSteps = todos.stream().filter(todo -> "second".equals(todo.get("text"))).findFirst().orElseThrow();
+        assertThat(withoutSteps.get("steps")).isEqualTo(List.of());
+        assertThat(withoutSteps.get("tags")).isEqualTo(List.of());
+        Integer total = response.field("todoStats.total").getValue();
+        assertThat(total).isEqualTo(2);
+    }
+
+    @Test
+    void streakIsLoadedForDailyTodos() {
+        TestAuth.newUser(authService);
+        TodoRequest request = new TodoRequest();
+        request.setText("stretch");
+        request.setIsDaily(true);
+        Todo daily = todoService.createTodo(request);
+        todoService.patchTodo(daily.getId(), Map.of("completed", true));
+        createTodo("once");
+
+        ExecutionGraphQlResponse response = execute(
+                "{ todos { text streak { currentStreak longestStreak completedDays trackedDays completionRate } } }");
+
+        assertThat(response.getErrors()).isEmpty();
+        List<Map<String, Object>> todos = response.field("todos").getValue();
+        Map<String, Object> stretch = todos.stream().filter(todo -> "stretch".equals(todo.get("text"))).findFirst().orElseThrow();
+        assertThat(stretch.get("streak")).isEqualTo(Map.of("currentStreak", 1, "longestStreak", 1,
+                "completedDays", 1, "trackedDays", 1, "completionRate", 1.0));
+        Map<String, Object> once = todos.stream().filter(todo -> "once".equals(todo.get("text"))).findFirst().orElseThrow();
+        assertThat(once.get("streak")).isNull();
+    }
+
+    @Test
+    void queryDeeperThanTheLimitIsRejectedBeforeExecution() {
+        TestAuth.newUser(authService);
+
+        ExecutionGraphQlResponse response = execute(
+                "{ __schema { types { fields { type { ofType { ofType { name } } } } } } }");
+
+        assertThat(response.isValid()).isFalse();
+        assertThat(response.getErrors()).extracting(ResponseError::getMessage)
+                .anyMatch(message -> message.contains("depth"));
+    }
+
+    @Test
+    void nestedListsOverTheComplexityLimitAreRejectedBeforeExecution() {
+        TestAuth.newUser(authService);
+        // todos和steps都是对象列表：(1 + 20个标量 + (1 + 7) * 10) * 10 = 1010 > 500
+        String query = """
+                { todos { id text completed priority totalSteps completedSteps remainingMinutes
+                  estimatedDuration durationUnit estimatedMinutes dueDate deadline isDaily recurrenceRule
+                  lastResetDate completedAt createdAt updatedAt tags
+                  steps { id text completed position estimatedMinutes completedAt createdAt } } }
+                """;
+
+        ExecutionGraphQlResponse response = execute(query);
+
+        assertThat(response.isValid()).isFalse();
+        assertThat(response.getErrors()).extracting(ResponseError::getMessage)
+                .anyMatch(message -> message.contains("complexity"));
+        // 只选少量字段的同一层级查询不受影响
+        assertThat(execute("{ todos { id steps { id } } }").getErrors()).isEmpty();
+    }
+
+    @Test
+    void mutationsAreRejected() {
+        TestAuth.newUser(authService);
+
+        ExecutionGraphQlResponse response = execute("mutation { noteCount }");
+
+        assertThat(response.isValid()).isFalse();
+        assertThat(response.getErrors()).extracting(ResponseError::getMessage).containsExactly("只支持查询（query）操作");
+    }
+
+    @Test
+    void invalidTagExpressionIsReportedAsBadRequest() {
+        TestAuth.newUser(authService);
+
+        ExecutionGraphQlResponse response = execute("{ notes(tags: \"(work\") { id } }");
+
+        assertThat(response.getErrors()).singleElement()
+                .satisfies(error -> assertThat(error.getErrorType()).isEqualTo(ErrorType.BAD_REQUEST));
+    }
+
+    private Todo createTodo(String text) {
+        TodoRequest request = new TodoRequest();
+        request.setText(text);
+        return todoService.createTodo(request);
+    }
+
+    private ExecutionGraphQlResponse execute(String document) {
+        return graphQlService.execute(new DefaultExecutionGraphQlRequest(document, null, null, null,
+                UUID.randomUUID().toString(), null)).block();
+    }
+}
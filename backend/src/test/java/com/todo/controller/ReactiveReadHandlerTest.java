@@ -0,0 +1,28 @@
+package com.todo.controller;
+
+import com.todo.service.ReactiveReadService;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.reactive.function.server.MockServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class ReactiveReadHandlerTest {
+
+    private final ReactiveReadService readService = mock(ReactiveReadService.class);
+    private final ReactiveReadHandler handler = new ReactiveReadHandler(readService);
+
+    @Test
+    void nonNumericIdIsABadRequest() {
+        MockServerRequest request = MockServerRequest.builder().pathVariable("id", "abc").build();
+
+        ServerResponse todo = handler.getTodoById(request).block();
+        ServerResponse note = handler.getNoteById(request).block();
+
+        assertThat(todo.statusCode().value()).isEqualTo(400);
+        assertThat(note.statusCode().value()).isEqualTo(400);
+        verifyNoInteractions(readService);
+    }
+}
@@ -0,0 +1,110 @@
+package com.todo.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyFilterTest {
+
+    private IdempotencyFilter filter;
+    // 每次真正执行到控制器时收到的响应对象
+    private final List<ServletResponse> executed = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        filter = new IdempotencyFilter();
+        ReflectionTestUtils.setField(filter, "store", new LocalIdempotencyStore(Duration.ofHours(1), 100));
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "lockTimeout", Duration.ofSeconds(1));
+    }
+
+    @Test
+    void retryReplaysTheFirstResponse() throws Exception {
+        MockHttpServletResponse first = send(post("k1", "{\"text\":\"a\"}"), respond(201, "{\"id\":1}"));
+        MockHttpServletResponse retry = send(post("k1", "{\"text\":\"a\"}"), respond(201, "{\"id\":2}"));
+
+        assertThat(executed).hasSize(1);
+        assertThat(first.getContentAsString()).isEqualTo("{\"id\":1}");
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(retry.getContentAsString()).isEqualTo("{\"id\":1}");
+    }
+
+    @Test
+    void sameKeyWithDifferentBodyIsRejected() throws Exception {
+        send(post("k2", "{\"text\":\"a\"}"), respond(201, "{}"));
+        MockHttpServletResponse other = send(post("k2", "{\"text\":\"b\"}"), respond(201, "{}"));
+
+        assertThat(other.getStatus()).isEqualTo(422);
+        assertThat(executed).hasSize(1);
+    }
+
+    @Test
+    void failedResponsesReleaseTheKey() throws Exception {
+        send(post("k3", "{}"), respond(500, "{}"));
+        MockHttpServletResponse retry = send(post("k3", "{}"), respond(201, "{}"));
+
+        assertThat(executed).hasSize(2);
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+    }
+
+    @Test
+    void successResponseReportingFailedOperationsIsReplayed() throws Exception {
+        // 批量中创建成功、更新失败：重试不能再执行一次创建
+        String batch = "[{\"result\":{\"isError\":false}},{\"result\":{\"isError\":true}}]";
+        send(post("k4", "{}"), respond(200, batch));
+        MockHttpServletResponse retry = send(post("k4", "{}"), respond(200, "[]"));
+
+        assertThat(executed).hasSize(1);
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(retry.getContentAsString()).isEqualTo(batch);
+    }
+
+    @Test
+    void eventStreamIsNeitherBufferedNorStored() throws Exception {
+        MockHttpServletRequest request = post("k5", "{}");
+        request.addHeader("Accept", "text/event-stream");
+        MockHttpServletResponse response = send(request, respond(200, "event: message\n\n"));
+        MockHttpServletRequest retry = post("k5", "{}");
+        retry.addHeader("Accept", "text/event-stream");
+        send(retry, respond(200, "event: message\n\n"));
+
+        assertThat(executed).hasSize(2);
+        assertThat(executed.get(0)).isSameAs(response);
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private FilterChain respond(int status, String body) {
+        return (req, res) -> {
+            executed.add(res);
+            ((HttpServletResponse) res).setStatus(status);
+            res.setContentType("application/json");
+            res.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private static MockHttpServletRequest post(String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/todos");
+        request.addHeader(IdempotencyFilter.HEADER, key);
+        request.setAttribute(RateLimitFilter.USER_ID_ATTRIBUTE, 7L);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
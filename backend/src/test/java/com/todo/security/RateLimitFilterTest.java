@@ -0,0 +1,103 @@
+package com.todo.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private LocalRateLimitStore store;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        store = new LocalRateLimitStore();
+        filter = new RateLimitFilter();
+        ReflectionTestUtils.setField(filter, "store", store);
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "readCapacity", 60);
+        ReflectionTestUtils.setField(filter, "readPerSecond", 20.0);
+        ReflectionTestUtils.setField(filter, "writeCapacity", 10);
+        // 速率很低，测试期间基本不会补充令牌
+        ReflectionTestUtils.setField(filter, "writePerSecond", 0.001);
+    }
+
+    @Test
+    void gcraAllowsBurstThenReportsWait() {
+        long interval = SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertThat(store.tryAcquire("k", interval, 3 * interval)).isZero();
+        }
+        long wait = store.tryAcquire("k", interval, 3 * interval);
+        assertThat(wait).isPositive().isLessThanOrEqualTo(interval);
+    }
+
+    @Test
+    void gcraChargesMultipleTokensAtOnce() {
+        long interval = SECOND;
+        assertThat(store.tryAcquire("k", 4 * interval, 5 * interval)).isZero();
+        // 只剩一个令牌，再取两个需要等待
+        assertThat(store.tryAcquire("k", 2 * interval, 5 * interval)).isPositive();
+        assertThat(store.tryAcquire("k", interval, 5 * interval)).isZero();
+    }
+
+    @Test
+    void batchOfToolCallsIsChargedPerCall() throws Exception {
+        MockHttpServletRequest request = post(7L);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertThat(filter.acquireOperations(request, response, 0, 10)).isTrue();
+
+        // 10个写令牌已用完：下一批写入工具调用被拒绝
+        MockHttpServletRequest next = post(7L);
+        filter.doFilter(next, new MockHttpServletResponse(), new MockFilterChain());
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        assertThat(filter.acquireOperations(next, rejected, 0, 1)).isFalse();
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isNotNull();
+    }
+
+    @Test
+    void readOnlyToolCallsAreChargedToTheReadBucket() throws Exception {
+        MockHttpServletRequest request = post(9L);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // 20个只读调用超过写配额，但只计入读配额
+        assertThat(filter.acquireOperations(request, new MockHttpServletResponse(), 20, 0)).isTrue();
+        assertThat(filter.acquireOperations(request, new MockHttpServletResponse(), 0, 10)).isTrue();
+
+        // 读配额（60）也按调用数扣除
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        assertThat(filter.acquireOperations(request, rejected, 50, 0)).isFalse();
+        assertThat(rejected.getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void batchExceedingQuotaIsRejected() throws Exception {
+        MockHttpServletRequest request = post(8L);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertThat(filter.acquireOperations(request, response, 0, 20)).isFalse();
+        assertThat(response.getStatus()).isEqualTo(429);
+        // 被拒绝的批量请求不消耗配额
+        assertThat(filter.acquireOperations(request, new MockHttpServletResponse(), 0, 10)).isTrue();
+    }
+
+    private MockHttpServletRequest post(Long userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/mcp");
+        request.setServletPath("/api/mcp");
+        request.setAttribute(RateLimitFilter.USER_ID_ATTRIBUTE, userId);
+        return request;
+    }
+}
@@ -0,0 +1,152 @@
+package com.todo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todo.config.ShardContext;
+import com.todo.model.ActivityEntry;
+import com.todo.model.Todo;
+import com.todo.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ActivityLogServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private ShardRouter shardRouter;
+    private ActivityLogService service;
+    // 每次批量写入的记录（按todo文本记录）
+    private final List<List<String>> writes = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        doAnswer(this::recordWrite).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+        shardRouter = mock(ShardRouter.class);
+        service = new ActivityLogService(jdbcTemplate, new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                shardRouter, new ObjectMapper());
+        ReflectionTestUtils.setField(service, "maxPending", 100);
+    }
+
+    @Test
+    void flushUserWritesOnlyThatUsersEntries() {
+        record(1L, "a1");
+        record(2L, "b1");
+        record(1L, "a2");
+
+        service.flushUser(1L);
+        assertThat(writes).containsExactly(List.of("a1", "a2"));
+
+        service.flushUser(3L);
+        service.flushAll();
+        assertThat(writes).containsExactly(List.of("a1", "a2"), List.of("b1"));
+    }
+
+    @Test
+    void flushUserWaitsForTheScheduledBatchHoldingEarlierEntries() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            if (writes.isEmpty()) {
+                writing.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return recordWrite(invocation);
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+        record(1L, "first");
+        CompletableFuture<Void> scheduled = CompletableFuture.runAsync(service::flushAll);
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        record(1L, "second");
+
+        CompletableFuture<Void> request = CompletableFuture.runAsync(() -> service.flushUser(1L));
+        Thread.sleep(100);
+        assertThat(request).isNotDone();
+        release.countDown();
+        request.get(5, TimeUnit.SECONDS);
+        scheduled.get(5, TimeUnit.SECONDS);
+
+        // 记录按产生的先后顺序写入
+        assertThat(writes).containsExactly(List.of("first"), List.of("second"));
+    }
+
+    @Test
+    void failedWritesAreRequeued() {
+        doThrow(new IllegalStateException("down")).doAnswer(this::recordWrite)
+                .when(jdbcTemplate).batchUpdate(anyString(), anyList());
+        record(1L, "a1");
+
+        service.flushUser(1L);
+        assertThat(writes).isEmpty();
+
+        service.flushAll();
+        assertThat(writes).containsExactly(List.of("a1"));
+    }
+
+    @Test
+    void migratingUsersEntriesWaitForTheMigration() {
+        when(shardRouter.isMigrating(1L)).thenReturn(true);
+        record(1L, "a1");
+        record(2L, "b1");
+
+        service.flushAll();
+        assertThat(writes).containsExactly(List.of("b1"));
+
+        // 迁移开始时写入原分片
+        service.flushMigrating(1L);
+        assertThat(writes).containsExactly(List.of("b1"), List.of("a1"));
+    }
+
+    @Test
+    void shardIsResolvedWhenTheEntriesAreWritten() {
+        List<Integer> shards = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            shards.add(ShardContext.current());
+            return recordWrite(invocation);
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+        when(shardRouter.isMigrating(1L)).thenReturn(true);
+        record(1L, "a1");
+        service.flushAll();
+
+        // 迁移完成后写入新分片，而不是记录产生时所在的分片
+        when(shardRouter.isMigrating(1L)).thenReturn(false);
+        when(shardRouter.shardOf(1L)).thenReturn(1);
+        service.flushAll();
+
+        assertThat(writes).containsExactly(List.of("a1"));
+        assertThat(shards).containsExactly(1);
+    }
+
+    private int[] recordWrite(InvocationOnMock invocation) {
+        List<Object[]> rows = invocation.getArgument(1);
+        writes.add(rows.stream().map(row -> (String) row[4]).toList());
+        return new int[rows.size()];
+    }
+
+    private void record(Long userId, String text) {
+        User user = new User();
+        user.setId(userId);
+        Todo todo = new Todo();
+        todo.setId(userId * 100 + writes.size());
+        todo.setText(text);
+        todo.setUser(user);
+        service.recordTodo(ActivityEntry.CREATE, todo, null);
+    }
+}
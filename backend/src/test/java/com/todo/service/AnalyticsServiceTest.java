@@ -0,0 +1,136 @@
+package com.todo.service;
+
+import com.todo.TestAuth;
+import com.todo.dto.AnalyticsBucket;
+import com.todo.dto.TodoRequest;
+import com.todo.model.Todo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AnalyticsServiceTest {
+
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private AnalyticsService analyticsService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void signOut() {
+        TestAuth.signOut();
+    }
+
+    @Test
+    void pendingDeltasAreMergedIntoTheResponseWithoutDoubleCountingAfterFlush() {
+        TestAuth.newUser(authService);
+        Todo todo = createTodo("report", 30);
+        complete(todo);
+        LocalDate today = LocalDate.now();
+
+        AnalyticsBucket beforeFlush = analyticsService.getAnalytics(today, today, "day").get(0);
+        analyticsService.flushAll();
+        AnalyticsBucket afterFlush = analyticsService.getAnalytics(today, today, "week").get(0);
+
+        assertThat(beforeFlush.getCreated()).isEqualTo(1);
+        assertThat(beforeFlush.getCompleted()).isEqualTo(1);
+        assertThat(beforeFlush.getEffortMinutes()).isEqualTo(30);
+        assertThat(beforeFlush.getCompletedByPriority()).containsEntry("MEDIUM", 1L);
+        assertThat(afterFlush.getCreated()).isEqualTo(1);
+        assertThat(afterFlush.getCompleted()).isEqualTo(1);
+        assertThat(afterFlush.getEffortMinutes()).isEqualTo(30);
+    }
+
+    @Test
+    void uncompletingWithdrawsTheCompletion() {
+        TestAuth.newUser(authService);
+        Todo todo = createTodo("report", 30);
+        complete(todo);
+        analyticsService.flushAll();
+        Todo update = new Todo();
+        update.setCompleted(false);
+        todoService.updateTodo(todo.getId(), update);
+        LocalDate today = LocalDate.now();
+
+        AnalyticsBucket bucket = analyticsService.getAnalytics(today, today, "month").get(0);
+
+        assertThat(bucket.getCompleted()).isZero();
+        assertThat(bucket.getEffortMinutes()).isZero();
+        assertThat(bucket.getCreated()).isEqualTo(1);
+    }
+
+    /**
+     * 每日任务的完成已计入当天的统计：补算只比较非每日任务，漏记的非每日完成照样补上，重复补算不会再加
+     */
+    @Test
+    void catchUpTopsUpNonDailyCompletionsAlongsideDailyOnes() {
+        TestAuth.newUser(authService);
+        Todo imported = createTodo("imported", 20);
+        analyticsService.flushAll();
+        Long userId = userIdOf(imported);
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        // 昨天通过接口完成了两次每日任务；另有一个非每日任务的完成没有经过实时路径（如导入）
+        jdbcTemplate.update("INSERT INTO todo_stats_rollup (user_id, granularity, period_start, priority_code, "
+                        + "completed, created, overdue, effort_minutes, daily_completed, daily_effort_minutes) "
+                        + "VALUES (?, 'D', ?, 1, 2, 0, 0, 30, 2, 30)", userId, yesterday);
+        jdbcTemplate.update("UPDATE todos SET completed = true, completed_at = ? WHERE id = ?",
+                yesterday.atTime(10, 0), imported.getId());
+
+        analyticsService.catchUp();
+        analyticsService.catchUp();
+
+        AnalyticsBucket bucket = analyticsService.getAnalytics(yesterday, yesterday, "day").get(0);
+        assertThat(bucket.getCompleted()).isEqualTo(3);
+        assertThat(bucket.getEffortMinutes()).isEqualTo(50);
+    }
+
+    @Test
+    void catchUpCanBeDisabledOnAllButOneNode() {
+        TestAuth.newUser(authService);
+        Todo imported = createTodo("imported", 20);
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        jdbcTemplate.update("UPDATE todos SET completed = true, completed_at = ? WHERE id = ?",
+                yesterday.atTime(10, 0), imported.getId());
+
+        ReflectionTestUtils.setField(analyticsService, "catchUpEnabled", false);
+        try {
+            analyticsService.catchUp();
+        } finally {
+            ReflectionTestUtils.setField(analyticsService, "catchUpEnabled", true);
+        }
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM todo_stats_rollup WHERE user_id = ? "
+                + "AND period_start = ?", Long.class, userIdOf(imported), yesterday)).isZero();
+    }
+
+    private Long userIdOf(Todo todo) {
+        return jdbcTemplate.queryForObject("SELECT user_id FROM todos WHERE id = ?", Long.class, todo.getId());
+    }
+
+    private Todo createTodo(String text, int minutes) {
+        TodoRequest request = new TodoRequest();
+        request.setText(text);
+        request.setEstimatedDuration(minutes);
+        request.setDurationUnit("MINUTES");
+        return todoService.createTodo(request);
+    }
+
+    private void complete(Todo todo) {
+        Todo update = new Todo();
+        update.setCompleted(true);
+        todoService.updateTodo(todo.getId(), update);
+    }
+}
@@ -0,0 +1,106 @@
+package com.todo.service;
+
+import com.todo.TestAuth;
+import com.todo.dto.ArchivePageResponse;
+import com.todo.dto.TodoRequest;
+import com.todo.model.ArchivedTodo;
+import com.todo.model.TagAssignment;
+import com.todo.model.Todo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ArchiveServiceTest {
+
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private TagService tagService;
+    @Autowired
+    private ArchiveService archiveService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void signOut() {
+        TestAuth.signOut();
+    }
+
+    @Test
+    void oldCompletedTodosAreMovedInBatchesAndPagedByCursor() {
+        TestAuth.newUser(authService);
+        LocalDateTime base = LocalDateTime.now().minusDays(30).withNano(0);
+        List<Long> archived = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Todo todo = create("old " + i, i == 0 ? "HIGH" : "LOW");
+            todoService.patchTodo(todo.getId(), Map.of("completed", true));
+            // 两条完成时间相同，分页时按ID区分先后
+            jdbcTemplate.update("UPDATE todos SET completed_at = ? WHERE id = ?", base.plusHours(Math.min(i, 3)), todo.getId());
+            archived.add(todo.getId());
+        }
+        tagService.setTodoTags(archived.get(0), List.of("old"));
+        Todo recent = create("recent", "MEDIUM");
+        todoService.patchTodo(recent.getId(), Map.of("completed", true));
+        Todo active = create("active", "MEDIUM");
+
+        Object batchSize = ReflectionTestUtils.getField(archiveService, "batchSize");
+        ReflectionTestUtils.setField(archiveService, "batchSize", 2);
+        try {
+            archiveService.archiveOldCompletedTodos();
+        } finally {
+            ReflectionTestUtils.setField(archiveService, "batchSize", batchSize);
+        }
+
+        assertThat(todoService.getAllTodos(null, null, null)).extracting(Todo::getId)
+                .containsExactlyInAnyOrder(recent.getId(), active.getId());
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tag_assignments WHERE item_type = ? AND item_id = ?",
+                Integer.class, TagAssignment.TODO, archived.get(0))).isZero();
+
+        List<ArchivedTodo> pages = new ArrayList<>();
+        String cursor = null;
+        do {
+            ArchivePageResponse page = archiveService.getArchive(cursor, 2);
+            assertThat(page.getItems()).hasSizeLessThanOrEqualTo(2);
+            pages.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        // 完成时间倒序，相同时间按ID倒序；每条只出现一次
+        assertThat(pages).extracting(ArchivedTodo::getId).containsExactly(
+                archived.get(4), archived.get(3), archived.get(2), archived.get(1), archived.get(0));
+        assertThat(pages.get(4).getPriority()).isEqualTo("HIGH");
+        assertThat(pages.get(0).getPriority()).isEqualTo("LOW");
+        assertThat(pages.get(4).getCompletedAt()).isEqualTo(base);
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        TestAuth.newUser(authService);
+        assertThatThrownBy(() -> archiveService.getArchive("yesterday,1", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> archiveService.getArchive("2024-01-01T00:00:00,x", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Todo create(String text, String priority) {
+        TodoRequest request = new TodoRequest();
+        request.setText(text);
+        request.setPriority(priority);
+        return todoService.createTodo(request);
+    }
+}
@@ -0,0 +1,96 @@
+package com.todo.service;
+
+import com.todo.dto.AuthResponse;
+import com.todo.dto.LoginRequest;
+import com.todo.dto.RegisterRequest;
+import com.todo.exception.RefreshTokenReusedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AuthServiceTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Test
+    void refreshRotatesToken() {
+        AuthResponse registered = authService.register(new RegisterRequest("rotate", "secret123", "rotate@x.com"));
+
+        AuthResponse refreshed = authService.refresh(registered.getRefreshToken());
+
+        assertThat(refreshed.getRefreshToken()).isNotEqualTo(registered.getRefreshToken());
+        assertThat(authService.refresh(refreshed.getRefreshToken()).getToken()).isNotBlank();
+    }
+
+    @Test
+    void reusingRevokedTokenRevokesAllTokensOfUser() {
+        AuthResponse first = authService.register(new RegisterRequest("reuse", "secret123", "reuse@x.com"));
+        AuthResponse otherDevice = authService.login(new LoginRequest("reuse", "secret123"));
+        AuthResponse rotated = authService.refresh(first.getRefreshToken());
+
+        assertThatThrownBy(() -> authService.refresh(first.getRefreshToken()))
+                .isInstanceOf(RefreshTokenReusedException.class);
+
+        // 撤销已提交：同一用户的其他刷新令牌（包括轮换出的新令牌）都不能再使用
+        assertThatThrownBy(() -> authService.refresh(otherDevice.getRefreshToken()))
+                .isInstanceOf(RefreshTokenReusedException.class);
+        assertThatThrownBy(() -> authService.refresh(rotated.getRefreshToken()))
+                .isInstanceOf(RefreshTokenReusedException.class);
+    }
+
+    @Test
+    void concurrentRefreshesWithTheSameTokenRotateOnlyOnce() throws Exception {
+        for (int round = 0; round < 5; round++) {
+            AuthResponse registered = authService.register(
+                    new RegisterRequest("race" + round, "secret123", "race" + round + "@x.com"));
+            CountDownLatch start = new CountDownLatch(1);
+            List<CompletableFuture<AuthResponse>> refreshes = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                refreshes.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return authService.refresh(registered.getRefreshToken());
+                }));
+            }
+            start.countDown();
+
+            int rotated = 0;
+            for (CompletableFuture<AuthResponse> refresh : refreshes) {
+                try {
+                    refresh.get(10, TimeUnit.SECONDS);
+                    rotated++;
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(RefreshTokenReusedException.class);
+                }
+            }
+            assertThat(rotated).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void logoutRevokesToken() {
+        AuthResponse registered = authService.register(new RegisterRequest("logout", "secret123", "logout@x.com"));
+
+        authService.logout(registered.getRefreshToken());
+
+        assertThatThrownBy(() -> authService.refresh(registered.getRefreshToken()))
+                .isInstanceOf(RuntimeException.class);
+    }
+}
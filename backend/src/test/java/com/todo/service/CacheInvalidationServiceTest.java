@@ -0,0 +1,150 @@
+package com.todo.service;
+
+import com.sun.net.httpserver.HttpServer;
+import com.todo.TestAuth;
+import com.todo.dto.TodoRequest;
+import com.todo.model.Todo;
+import com.todo.repository.TodoRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CacheInvalidationServiceTest {
+
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private TodoRepository todoRepository;
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Cache cache;
+    private Long todoId;
+
+    @BeforeEach
+    void setUp() {
+        TestAuth.newUser(authService);
+        cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        TodoRequest request = new TodoRequest();
+        request.setText("cached");
+        todoId = todoService.createTodo(request).getId();
+        todoRepository.findById(todoId);
+    }
+
+    @AfterEach
+    void signOut() {
+        TestAuth.signOut();
+    }
+
+    @Test
+    void loadedTodoIsCachedAndEvictLocalRemovesIt() {
+        assertThat(cache.containsEntity(Todo.class, todoId)).isTrue();
+
+        cacheInvalidationService.evictLocal("Todo", todoId);
+
+        assertThat(cache.containsEntity(Todo.class, todoId)).isFalse();
+    }
+
+    @Test
+    void evictAfterCommitWaitsForCommit() {
+        transactionTemplate.executeWithoutResult(status -> {
+            cacheInvalidationService.evictAfterCommit(Todo.class, todoId);
+            assertThat(cache.containsEntity(Todo.class, todoId)).isTrue();
+        });
+        assertThat(cache.containsEntity(Todo.class, todoId)).isFalse();
+    }
+
+    @Test
+    void evictAfterCommitSkippedOnRollback() {
+        transactionTemplate.executeWithoutResult(status -> {
+            cacheInvalidationService.evictAfterCommit(Todo.class, todoId);
+            status.setRollbackOnly();
+        });
+        assertThat(cache.containsEntity(Todo.class, todoId)).isTrue();
+    }
+
+    @Test
+    void unknownEntityIsRejected() {
+        assertThatThrownBy(() -> cacheInvalidationService.evictLocal("Secret", 1L))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void userCacheEvictionIsDispatchedByName() {
+        List<Long> dropped = new ArrayList<>();
+        cacheInvalidationService.registerUserCache("test-cache", dropped::add);
+
+        cacheInvalidationService.evictUserLocal("test-cache", 7L);
+        cacheInvalidationService.evictUserLocal("test-cache", null);
+
+        assertThat(dropped).containsExactly(7L, null);
+        assertThatThrownBy(() -> cacheInvalidationService.evictUserLocal("missing", 7L))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void localModeCapsUserCacheTtlAtTheSecondLevelCacheTtl() {
+        // 测试使用默认的local模式，二级缓存30s过期
+        assertThat(cacheInvalidationService.userCacheTtl(Duration.ofMinutes(5))).isEqualTo(Duration.ofSeconds(30));
+        assertThat(cacheInvalidationService.userCacheTtl(Duration.ZERO)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(cacheInvalidationService.userCacheTtl(Duration.ofSeconds(10))).isEqualTo(Duration.ofSeconds(10));
+
+        CacheInvalidationService broadcast = new CacheInvalidationService(entityManagerFactory, List.of(), "", "broadcast");
+        assertThat(broadcast.userCacheTtl(Duration.ofMinutes(5))).isEqualTo(Duration.ofMinutes(5));
+        assertThat(broadcast.userCacheTtl(Duration.ZERO)).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    void broadcastPostsEvictionWithTokenToPeers() throws Exception {
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        HttpServer peer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        peer.createContext("/api/internal/cache/evict", exchange -> {
+            received.add(exchange.getRequestHeaders().getFirst(CacheInvalidationService.TOKEN_HEADER) + " "
+                    + new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        peer.start();
+        try {
+            CacheInvalidationService broadcaster = new CacheInvalidationService(entityManagerFactory,
+                    List.of("http://127.0.0.1:" + peer.getAddress().getPort()), "shared-token", "broadcast");
+            broadcaster.broadcast(Todo.class, 42L);
+
+            String message = received.poll(5, TimeUnit.SECONDS);
+            assertThat(message).startsWith("shared-token ").contains("\"entity\":\"Todo\"").contains("\"id\":42");
+            broadcaster.broadcastUser("tag-index", 7L);
+            assertThat(received.poll(5, TimeUnit.SECONDS)).contains("\"cache\":\"tag-index\"").contains("\"userId\":7");
+            assertThat(broadcaster.isValidToken("shared-token")).isTrue();
+            assertThat(broadcaster.isValidToken("other")).isFalse();
+        } finally {
+            peer.stop(0);
+        }
+    }
+}
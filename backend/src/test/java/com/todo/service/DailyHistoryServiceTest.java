@@ -0,0 +1,185 @@
+package com.todo.service;
+
+import com.todo.TestAuth;
+import com.todo.dto.DailyStreak;
+import com.todo.dto.TodoRequest;
+import com.todo.model.ActivityEntry;
+import com.todo.model.Todo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DailyHistoryServiceTest {
+
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private ActivityService activityService;
+    @Autowired
+    private DailyHistoryService dailyHistoryService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void signOut() {
+        TestAuth.signOut();
+    }
+
+    @Test
+    void currentStreakRunsAcrossTheYearBoundary() {
+        LocalDate today = LocalDate.of(2024, 1, 3);
+        Map<Integer, byte[]> years = Map.of(
+                2023, days(LocalDate.of(2023, 12, 29), LocalDate.of(2023, 12, 30), LocalDate.of(2023, 12, 31)),
+                2024, days(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2)));
+
+        DailyStreak streak = DailyHistoryService.streakOf(LocalDate.of(2023, 12, 20), years, today);
+
+        // 今天还没完成，从昨天往前数
+        assertThat(streak.getCurrentStreak()).isEqualTo(5);
+        assertThat(streak.getLongestStreak()).isEqualTo(5);
+        assertThat(streak.getCompletedDays()).isEqualTo(5);
+        assertThat(streak.getTrackedDays()).isEqualTo(15);
+    }
+
+    @Test
+    void leapDayShiftsTheFollowingYear() {
+        LocalDate today = LocalDate.of(2025, 1, 1);
+        Map<Integer, byte[]> years = Map.of(
+                2024, days(LocalDate.of(2024, 2, 29), LocalDate.of(2024, 12, 30), LocalDate.of(2024, 12, 31)),
+                2025, days(today));
+
+        DailyStreak streak = DailyHistoryService.streakOf(LocalDate.of(2024, 2, 1), years, today);
+
+        assertThat(streak.getCurrentStreak()).isEqualTo(3);
+        assertThat(streak.getLongestStreak()).isEqualTo(3);
+        assertThat(streak.getCompletedDays()).isEqualTo(4);
+        assertThat(streak.getTrackedDays()).isEqualTo(336);
+    }
+
+    @Test
+    void gapEndsTheCurrentStreakButNotTheLongest() {
+        LocalDate today = LocalDate.of(2024, 3, 10);
+        Map<Integer, byte[]> years = Map.of(2024, days(
+                LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 2), LocalDate.of(2024, 3, 3), LocalDate.of(2024, 3, 4),
+                LocalDate.of(2024, 3, 8), today,
+                // 时钟回拨等原因留下的未来日期不计入
+                LocalDate.of(2024, 3, 11), LocalDate.of(2024, 3, 12)));
+
+        DailyStreak streak = DailyHistoryService.streakOf(LocalDate.of(2024, 3, 1), years, today);
+
+        // 3月9日未完成，当前连续只有今天
+        assertThat(streak.getCurrentStreak()).isEqualTo(1);
+        assertThat(streak.getLongestStreak()).isEqualTo(4);
+        assertThat(streak.getCompletedDays()).isEqualTo(6);
+        assertThat(streak.getTrackedDays()).isEqualTo(10);
+    }
+
+    @Test
+    void historyBeforeTheCreationDateExtendsTheTrackedDays() {
+        LocalDate today = LocalDate.of(2024, 6, 10);
+        // 撤销删除后重建的任务创建时间是撤销当天，早于它的历史仍然计入
+        Map<Integer, byte[]> years = Map.of(2024, days(LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 9)));
+
+        DailyStreak streak = DailyHistoryService.streakOf(today, years, today);
+
+        assertThat(streak.getCurrentStreak()).isEqualTo(1);
+        assertThat(streak.getCompletedDays()).isEqualTo(2);
+        assertThat(streak.getTrackedDays()).isEqualTo(10);
+    }
+
+    @Test
+    void noHistoryTracksFromTheCreationDay() {
+        LocalDate today = LocalDate.of(2024, 6, 10);
+
+        DailyStreak streak = DailyHistoryService.streakOf(LocalDate.of(2024, 6, 8), Map.of(), today);
+
+        assertThat(streak.getCurrentStreak()).isZero();
+        assertThat(streak.getLongestStreak()).isZero();
+        assertThat(streak.getCompletedDays()).isZero();
+        assertThat(streak.getTrackedDays()).isEqualTo(3);
+    }
+
+    @Test
+    void concurrentCompletionsShareOneRow() throws Exception {
+        TestAuth.newUser(authService);
+        Todo daily = createDaily("stretch");
+        LocalDate today = LocalDate.now();
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<CompletableFuture<Void>> completions = List.of(
+                CompletableFuture.runAsync(() -> recordAfter(start, daily, today)),
+                CompletableFuture.runAsync(() -> recordAfter(start, daily, today)),
+                CompletableFuture.runAsync(() -> recordAfter(start, daily, today.minusDays(1))));
+        start.countDown();
+        for (CompletableFuture<Void> completion : completions) {
+            completion.get(10, TimeUnit.SECONDS);
+        }
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM daily_history WHERE todo_id = ?",
+                Integer.class, daily.getId())).isEqualTo(today.getDayOfYear() > 1 ? 1 : 2);
+        assertThat(dailyHistoryService.historyOf(daily.getId()).values().stream()
+                .mapToInt(bytes -> BitSet.valueOf(bytes).cardinality()).sum()).isEqualTo(2);
+    }
+
+    @Test
+    void undoingADeleteKeepsTheStreak() {
+        TestAuth.newUser(authService);
+        Todo daily = createDaily("stretch");
+        jdbcTemplate.update("INSERT INTO daily_history (todo_id, user_id, history_year, days) "
+                        + "SELECT id, user_id, ?, ? FROM todos WHERE id = ?",
+                LocalDate.now().getYear() - 1, days(LocalDate.of(LocalDate.now().getYear() - 1, 1, 1)), daily.getId());
+        todoService.patchTodo(daily.getId(), Map.of("completed", true));
+        todoService.deleteTodo(daily.getId());
+        ActivityEntry deleted = activityService.getActivity(null, 1).getItems().get(0);
+        assertThat(deleted.getAction()).isEqualTo(ActivityEntry.DELETE);
+
+        Todo restored = (Todo) activityService.undo(deleted.getId());
+
+        assertThat(restored.getId()).isNotEqualTo(daily.getId());
+        DailyStreak streak = todoService.getTodoById(restored.getId()).orElseThrow().getStreak();
+        assertThat(streak.getCurrentStreak()).isEqualTo(1);
+        assertThat(streak.getCompletedDays()).isEqualTo(2);
+        assertThat(dailyHistoryService.historyOf(daily.getId())).isEmpty();
+    }
+
+    private void recordAfter(CountDownLatch start, Todo todo, LocalDate date) {
+        try {
+            start.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dailyHistoryService.record(todo, date, true);
+    }
+
+    private Todo createDaily(String text) {
+        TodoRequest request = new TodoRequest();
+        request.setText(text);
+        request.setIsDaily(true);
+        return todoService.createTodo(request);
+    }
+
+    private static byte[] days(LocalDate... dates) {
+        BitSet days = new BitSet();
+        for (LocalDate date : dates) {
+            days.set(date.getDayOfYear() - 1);
+        }
+        return days.toByteArray();
+    }
+}
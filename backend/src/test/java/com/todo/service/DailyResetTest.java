@@ -0,0 +1,86 @@
+package com.todo.service;
+
+import com.todo.TestAuth;
+import com.todo.dto.TodoRequest;
+import com.todo.model.Todo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DailyResetTest {
+
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+    @Autowired
+    private TodoListCacheService todoListCacheService;
+
+    @BeforeEach
+    void signIn() {
+        TestAuth.newUser(authService);
+    }
+
+    @AfterEach
+    void signOut() {
+        TestAuth.signOut();
+    }
+
+    @Test
+    void completedDailyTodoIsResetInCachedList() {
+        TodoRequest request = new TodoRequest();
+        request.setText("stretch");
+        request.setIsDaily(true);
+        Todo daily = todoService.createTodo(request);
+        todoService.patchTodo(daily.getId(), Map.of("completed", true));
+        assertThat(find(daily.getId()).isCompleted()).isTrue(); // 列表已缓存
+
+        jdbcTemplate.update("UPDATE todos SET last_reset_date = ? WHERE id = ?",
+                LocalDateTime.now().minusDays(1), daily.getId());
+        todoService.resetDailyTodos();
+
+        assertThat(find(daily.getId()).isCompleted()).isFalse();
+        assertThat(todoService.getTodoById(daily.getId()).orElseThrow().isCompleted()).isFalse();
+    }
+
+    @Test
+    void deadlineBackfillIsVisibleWithoutAnyReset() {
+        LocalDateTime due = LocalDateTime.now().plusDays(2).withNano(0);
+        TodoRequest request = new TodoRequest();
+        request.setText("legacy");
+        request.setDueDate(due);
+        Todo todo = todoService.createTodo(request);
+
+        // 模拟旧数据：只有dueDate，没有deadline；清掉缓存后列表按旧数据缓存
+        jdbcTemplate.update("UPDATE todos SET deadline = NULL WHERE id = ?", todo.getId());
+        cacheInvalidationService.evictLocal("Todo", todo.getId());
+        todoListCacheService.invalidateAll();
+        assertThat(find(todo.getId()).getDeadline()).isNull();
+
+        todoService.resetDailyTodos();
+
+        assertThat(find(todo.getId()).getDeadline()).isEqualTo(due);
+    }
+
+    private Todo find(Long id) {
+        return todoService.getAllTodos(null, null, null).stream()
+                .filter(t -> t.getId().equals(id))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,164 @@
+package com.todo.service;
+
+import com.todo.TestAuth;
+import com.todo.dto.TodoRequest;
+import com.todo.model.ActivityEntry;
+import com.todo.model.Note;
+import com.todo.model.TagAssignment;
+import com.todo.model.Todo;
+import com.todo.model.TodoStep;
+import com.todo.repository.TodoRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DataTransferServiceTest {
+
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private TodoStepService todoStepService;
+    @Autowired
+    private TagService tagService;
+    @Autowired
+    private TagIndexService tagIndexService;
+    @Autowired
+    private ActivityService activityService;
+    @Autowired
+    private DataTransferService dataTransferService;
+    @Autowired
+    private NoteService noteService;
+    @Autowired
+    private TodoRepository todoRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void signOut() {
+        TestAuth.signOut();
+    }
+
+    @Test
+    void exportAndImportRoundTripStepsAndTags() throws Exception {
+        TestAuth.newUser(authService);
+        TodoRequest request = new TodoRequest();
+        request.setText("write report");
+        Todo todo = todoService.createTodo(request);
+        todoStepService.addStep(todo.getId(), "outline", 10);
+        TodoStep done = todoStepService.addStep(todo.getId(), "draft", 30);
+        todoStepService.updateStep(todo.getId(), done.getId(), null, null, null, true);
+        tagService.setTodoTags(todo.getId(), List.of("work", "q3"));
+        ByteArrayOutputStream exported = new ByteArrayOutputStream();
+        dataTransferService.exportCurrentUser(exported);
+
+        TestAuth.newUser(authService);
+        Map<String, Integer> result = dataTransferService.importCurrentUser(
+                new ByteArrayInputStream(exported.toByteArray()));
+
+        assertThat(result).containsEntry("todosInserted", 1);
+        Todo imported = todoService.getAllTodos(null, null, null).get(0);
+        assertThat(imported.getTotalSteps()).isEqualTo(2);
+        assertThat(imported.getCompletedSteps()).isEqualTo(1);
+        assertThat(imported.getRemainingMinutes()).isEqualTo(10);
+        assertThat(todoStepService.getSteps(imported.getId()))
+                .extracting(TodoStep::getText, TodoStep::isCompleted)
+                .containsExactly(tuple("outline", false), tuple("draft", true));
+        assertThat(tagIndexService.tagsOf(imported.getUser().getId(), TagAssignment.TODO, List.of(imported.getId())))
+                .containsEntry(imported.getId(), List.of("q3", "work"));
+        // 与新建一样写入操作记录
+        assertThat(activityService.getActivity(null, 10).getItems())
+                .extracting(ActivityEntry::getItemId, ActivityEntry::getAction)
+                .contains(tuple(imported.getId(), ActivityEntry.CREATE));
+    }
+
+    @Test
+    void duplicateImportKeysInOneBatchAreInsertedOnce() throws Exception {
+        TestAuth.newUser(authService);
+        String ndjson = """
+                {"type":"todo","importKey":"k1","text":"first"}
+                {"type":"todo","importKey":"k1","text":"second"}
+                {"type":"note","importKey":"n1","title":"a"}
+                {"type":"note","importKey":"n1","title":"b"}
+                """;
+
+        Map<String, Integer> result = dataTransferService.importCurrentUser(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(result).containsEntry("todosInserted", 1).containsEntry("todosUpdated", 1)
+                .containsEntry("notesInserted", 1).containsEntry("notesUpdated", 1);
+        assertThat(todoService.getAllTodos(null, null, null))
+                .extracting(Todo::getText).containsExactly("second");
+    }
+
+    @Test
+    void reimportReplacesStepsInsteadOfDuplicatingThem() throws Exception {
+        TestAuth.newUser(authService);
+        String ndjson = "{\"type\":\"todo\",\"importKey\":\"k2\",\"text\":\"trip\","
+                + "\"steps\":[{\"text\":\"book\",\"estimatedMinutes\":5},{\"text\":\"pack\"}],\"tags\":[\"travel\"]}\n";
+
+        dataTransferService.importCurrentUser(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+        Map<String, Integer> again = dataTransferService.importCurrentUser(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(again).containsEntry("todosUpdated", 1);
+        Todo todo = todoService.getAllTodos(null, null, null).get(0);
+        assertThat(todoStepService.getSteps(todo.getId())).extracting(TodoStep::getText).containsExactly("book", "pack");
+        assertThat(todo.getTotalSteps()).isEqualTo(2);
+    }
+
+    @Test
+    void importedNotesAreRecordedAndCanBeUndone() throws Exception {
+        TestAuth.newUser(authService);
+        dataTransferService.importCurrentUser(new ByteArrayInputStream(
+                "{\"type\":\"note\",\"importKey\":\"n2\",\"title\":\"draft\",\"content\":\"v1\"}\n"
+                        .getBytes(StandardCharsets.UTF_8)));
+        dataTransferService.importCurrentUser(new ByteArrayInputStream(
+                "{\"type\":\"note\",\"importKey\":\"n2\",\"title\":\"final\",\"content\":\"v2\"}\n"
+                        .getBytes(StandardCharsets.UTF_8)));
+
+        List<ActivityEntry> entries = activityService.getActivity(null, 10).getItems();
+        assertThat(entries).extracting(ActivityEntry::getItemType, ActivityEntry::getAction)
+                .containsExactly(tuple(TagAssignment.NOTE, ActivityEntry.UPDATE), tuple(TagAssignment.NOTE, ActivityEntry.CREATE));
+
+        activityService.undo(entries.get(0).getId());
+        Note note = noteService.getNoteById(entries.get(0).getItemId()).orElseThrow();
+        assertThat(note.getTitle()).isEqualTo("draft");
+        assertThat(note.getContent()).isEqualTo("v1");
+    }
+
+    @Test
+    void importEvictsOnlyTheRowsItWrote() throws Exception {
+        TestAuth.newUser(authService);
+        TodoRequest request = new TodoRequest();
+        request.setText("other user");
+        Long otherId = todoService.createTodo(request).getId();
+        todoRepository.findById(otherId);
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        assertThat(cache.containsEntity(Todo.class, otherId)).isTrue();
+
+        TestAuth.newUser(authService);
+        dataTransferService.importCurrentUser(new ByteArrayInputStream(
+                "{\"type\":\"todo\",\"importKey\":\"k3\",\"text\":\"imported\"}\n".getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(cache.containsEntity(Todo.class, otherId)).isTrue();
+        assertThat(todoService.getAllTodos(null, null, null)).extracting(Todo::getText).containsExactly("imported");
+    }
+}
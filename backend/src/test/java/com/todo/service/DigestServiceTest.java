@@ -0,0 +1,76 @@
+package com.todo.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todo.TestAuth;
+import com.todo.dto.TodoRequest;
+import com.todo.model.Note;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DigestServiceTest {
+
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private NoteService noteService;
+    @Autowired
+    private DigestService digestService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void signOut() {
+        TestAuth.signOut();
+    }
+
+    @Test
+    void digestStaysWithinTheByteBudgetAndCountsWhatWasDropped() throws Exception {
+        TestAuth.newUser(authService);
+        for (int i = 0; i < 25; i++) {
+            TodoRequest request = new TodoRequest();
+            // 多字节字符，按UTF-8字节而不是字符数计算预算
+            request.setText("逾期任务" + i + " " + "很长的描述".repeat(40));
+            request.setPriority(i % 2 == 0 ? "HIGH" : "LOW");
+            request.setDeadline(LocalDateTime.now().minusDays(i + 1));
+            todoService.createTodo(request);
+        }
+        for (int i = 0; i < 2; i++) {
+            Note note = new Note();
+            note.setTitle("笔记" + i);
+            note.setContent("内容\n\n  " + "x".repeat(500));
+            noteService.createNote(note);
+        }
+
+        for (int budget : new int[]{DigestService.MIN_MAX_BYTES, 1024, DigestService.DEFAULT_MAX_BYTES, 100_000}) {
+            byte[] digest = digestService.getDigest(budget);
+            assertThat(digest.length).as("budget " + budget)
+                    .isLessThanOrEqualTo(Math.max(DigestService.MIN_MAX_BYTES, Math.min(budget, DigestService.MAX_MAX_BYTES)));
+            JsonNode json = objectMapper.readTree(digest);
+            assertThat(json.get("activeTodos").asLong()).isEqualTo(25);
+            assertThat(json.get("notes").asLong()).isEqualTo(2);
+            // 每个分区最多取20条候选，放入的和舍弃的合计等于候选数
+            int included = json.get("overdue").size() + json.get("recentNotes").size();
+            assertThat(included + json.get("omitted").asInt()).as("budget " + budget).isEqualTo(20 + 2);
+        }
+
+        JsonNode small = objectMapper.readTree(digestService.getDigest(DigestService.DEFAULT_MAX_BYTES));
+        // 第一轮每个分区先放入少量条目，逾期任务再多也不会挤掉笔记
+        assertThat(small.get("overdue").size()).isLessThan(20);
+        assertThat(small.get("recentNotes").size()).isEqualTo(2);
+        assertThat(small.get("overdue").get(0).get("priority").asText()).isEqualTo("HIGH");
+        assertThat(small.get("recentNotes").get(0).get("snippet").asText()).startsWith("内容 x").endsWith("…");
+        assertThat(small.get("overdue").get(0).get("text").asText()).hasSizeLessThanOrEqualTo(121);
+    }
+}
@@ -0,0 +1,188 @@
+package com.todo.service;
+
+import com.todo.TestAuth;
+import com.todo.dto.TodoRequest;
+import com.todo.exception.DataMigratingException;
+import com.todo.exception.GlobalExceptionHandler;
+import com.todo.exception.ShareNotFoundException;
+import com.todo.exception.TodoNotFoundException;
+import com.todo.model.ListShare;
+import com.todo.model.Todo;
+import com.todo.model.User;
+import com.todo.repository.ListShareRepository;
+import com.todo.repository.TagAssignmentRepository;
+import com.todo.repository.TagRepository;
+import com.todo.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ListShareServiceTest {
+
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private TagService tagService;
+    @Autowired
+    private ListShareService listShareService;
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void signOut() {
+        TestAuth.signOut();
+    }
+
+    @Test
+    void editorCanOnlyChangeTodosThatAreInTheList() {
+        String member = TestAuth.newUser(authService);
+        TestAuth.newUser(authService);
+        Todo shared = createTodo("shared", "groceries");
+        Todo other = createTodo("private", "personal");
+        Long shareId = listShareService.share("groceries", member, ListShare.EDITOR).getId();
+
+        TestAuth.signIn(member);
+        assertThat(listShareService.patchTodo(shareId, shared.getId(), Map.of("text", "milk")).getText())
+                .isEqualTo("milk");
+        assertThatThrownBy(() -> listShareService.patchTodo(shareId, other.getId(), Map.of("text", "x")))
+                .isInstanceOf(TodoNotFoundException.class);
+        assertThatThrownBy(() -> listShareService.deleteTodo(shareId, other.getId()))
+                .isInstanceOf(TodoNotFoundException.class);
+    }
+
+    @Test
+    void untaggingOnAnotherNodeIsSeenBeforeTheLocalIndexCatchesUp() {
+        String member = TestAuth.newUser(authService);
+        TestAuth.newUser(authService);
+        Todo shared = createTodo("shared", "groceries");
+        Long shareId = listShareService.share("groceries", member, ListShare.EDITOR).getId();
+
+        // 其他节点移除了标签：本节点的位图索引还没有收到广播
+        jdbcTemplate.update("DELETE FROM tag_assignments WHERE item_type = 'TODO' AND item_id = ?", shared.getId());
+
+        TestAuth.signIn(member);
+        assertThatThrownBy(() -> listShareService.deleteTodo(shareId, shared.getId()))
+                .isInstanceOf(TodoNotFoundException.class);
+    }
+
+    @Test
+    void viewerCannotEdit() {
+        String member = TestAuth.newUser(authService);
+        TestAuth.newUser(authService);
+        Todo shared = createTodo("shared", "groceries");
+        Long shareId = listShareService.share("groceries", member, ListShare.VIEWER).getId();
+
+        TestAuth.signIn(member);
+        assertThat(listShareService.getTodos(shareId, null, null)).extracting(Todo::getText).containsExactly("shared");
+        assertThatThrownBy(() -> listShareService.patchTodo(shareId, shared.getId(), Map.of("text", "x")))
+                .isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void revokingOnAnotherNodeTakesEffectWhenTheBroadcastArrives() {
+        String member = TestAuth.newUser(authService);
+        TestAuth.newUser(authService);
+        Todo shared = createTodo("shared", "groceries");
+        Long shareId = listShareService.share("groceries", member, ListShare.EDITOR).getId();
+        TestAuth.signIn(member);
+        assertThat(listShareService.getTodos(shareId, null, null)).hasSize(1); // ACL已缓存
+
+        // 其他节点取消了共享：本节点的ACL仍允许访问，直到收到该成员的失效广播
+        Long memberId = jdbcTemplate.queryForObject("SELECT member_id FROM list_shares WHERE id = ?", Long.class, shareId);
+        jdbcTemplate.update("DELETE FROM list_shares WHERE id = ?", shareId);
+        assertThat(listShareService.getTodos(shareId, null, null)).hasSize(1);
+        cacheInvalidationService.evictUserLocal(ListShareService.CACHE_NAME, memberId);
+
+        assertThatThrownBy(() -> listShareService.deleteTodo(shareId, shared.getId()))
+                .isInstanceOf(ShareNotFoundException.class);
+    }
+
+    @Test
+    void shareChangesAreBroadcastToOtherNodes() {
+        ListShareRepository shares = mock(ListShareRepository.class);
+        UserRepository users = mock(UserRepository.class);
+        CacheInvalidationService invalidation = mock(CacheInvalidationService.class);
+        when(invalidation.userCacheTtl(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        User owner = new User();
+        owner.setId(1L);
+        ListShare share = new ListShare(1L, 10L, 2L, ListShare.EDITOR);
+        ReflectionTestUtils.setField(share, "id", 5L);
+        when(users.findByUsername("owner")).thenReturn(Optional.of(owner));
+        when(shares.findById(5L)).thenReturn(Optional.of(share));
+        ListShareService service = new ListShareService(shares, users, mock(TagRepository.class),
+                mock(TagAssignmentRepository.class), mock(TodoService.class), mock(TagService.class),
+                mock(TagIndexService.class), mock(ShardRouter.class), invalidation,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), Duration.ofMinutes(1));
+        TestAuth.signIn("owner");
+
+        service.unshare(5L);
+
+        verify(invalidation).registerUserCache(eq(ListShareService.CACHE_NAME), any());
+        verify(invalidation).broadcastUser(ListShareService.CACHE_NAME, 2L);
+    }
+
+    @Test
+    void writesWhileTheOwnerIsMigratingAreRetriedLater() {
+        ListShareRepository shares = mock(ListShareRepository.class);
+        UserRepository users = mock(UserRepository.class);
+        ShardRouter shardRouter = mock(ShardRouter.class);
+        TagAssignmentRepository assignments = mock(TagAssignmentRepository.class);
+        User member = new User();
+        member.setId(2L);
+        ListShare share = new ListShare(1L, 10L, 2L, ListShare.EDITOR);
+        ReflectionTestUtils.setField(share, "id", 5L);
+        when(users.findByUsername("member")).thenReturn(Optional.of(member));
+        when(shares.findByMemberId(2L)).thenReturn(List.of(share));
+        when(shardRouter.isMigrating(1L)).thenReturn(true);
+        ListShareService service = new ListShareService(shares, users, mock(TagRepository.class), assignments,
+                mock(TodoService.class), mock(TagService.class), mock(TagIndexService.class), shardRouter,
+                mock(CacheInvalidationService.class), new TransactionTemplate(mock(PlatformTransactionManager.class)), Duration.ofMinutes(1));
+        TestAuth.signIn("member");
+
+        assertThatThrownBy(() -> service.deleteTodo(5L, 100L)).isInstanceOf(DataMigratingException.class)
+                .satisfies(e -> {
+                    ResponseEntity<String> response = new GlobalExceptionHandler()
+                            .handleDataMigrating((DataMigratingException) e);
+                    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+                    assertThat(response.getHeaders().getFirst("Retry-After")).isEqualTo("5");
+                });
+        verify(assignments, never()).existsByTagAndItem(any(), any(), any());
+    }
+
+    private Todo createTodo(String text, String tag) {
+        TodoRequest request = new TodoRequest();
+        request.setText(text);
+        Todo todo = todoService.createTodo(request);
+        tagService.setTodoTags(todo.getId(), List.of(tag));
+        return todo;
+    }
+}
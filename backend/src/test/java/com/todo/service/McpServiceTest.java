@@ -0,0 +1,108 @@
+package com.todo.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.todo.TestAuth;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class McpServiceTest {
+
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private McpService mcpService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void signIn() {
+        TestAuth.newUser(authService);
+    }
+
+    @AfterEach
+    void signOut() {
+        TestAuth.signOut();
+    }
+
+    @Test
+    void toolsAreListedWithInputSchemas() throws Exception {
+        JsonNode result = handle("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"tools/list\"}").get("result");
+
+        JsonNode createTodo = null;
+        for (JsonNode tool : result.get("tools")) {
+            assertThat(tool.get("inputSchema").get("type").asText()).isEqualTo("object");
+            if (tool.get("name").asText().equals("create_todo")) {
+                createTodo = tool;
+            }
+        }
+        assertThat(createTodo).isNotNull();
+        assertThat(createTodo.get("inputSchema").get("required")).extracting(JsonNode::asText).contains("text");
+    }
+
+    @Test
+    void onlyQueryToolsAreReadOnly() {
+        assertThat(mcpService.isReadOnlyTool("get_summary")).isTrue();
+        assertThat(mcpService.isReadOnlyTool("list_todos")).isTrue();
+        assertThat(mcpService.isReadOnlyTool("get_note_by_id")).isTrue();
+        assertThat(mcpService.isReadOnlyTool("update_todo")).isFalse();
+        assertThat(mcpService.isReadOnlyTool("no_such_tool")).isFalse();
+    }
+
+    @Test
+    void toolCallReturnsTextContentWithoutTheOwner() throws Exception {
+        JsonNode created = handle(call(1, "create_todo", "{\"text\":\"buy milk\",\"priority\":\"high\"}"));
+
+        assertThat(created.get("id").asInt()).isEqualTo(1);
+        JsonNode result = created.get("result");
+        assertThat(result.get("isError").asBoolean()).isFalse();
+        JsonNode todo = objectMapper.readTree(result.get("content").get(0).get("text").asText());
+        assertThat(todo.get("text").asText()).isEqualTo("buy milk");
+        assertThat(todo.has("user")).isFalse();
+
+        JsonNode fetched = handle(call(2, "get_todo_by_id", "{\"id\":\"" + todo.get("id").asLong() + "\"}"));
+        assertThat(fetched.get("result").get("isError").asBoolean()).isFalse();
+    }
+
+    @Test
+    void businessErrorsAreToolResultsNotRpcErrors() throws Exception {
+        JsonNode missing = handle(call(3, "delete_todo", "{\"id\":999999999}"));
+        assertThat(missing.has("error")).isFalse();
+        assertThat(missing.get("result").get("isError").asBoolean()).isTrue();
+
+        JsonNode invalid = handle(call(4, "create_todo", "{}"));
+        assertThat(invalid.get("result").get("isError").asBoolean()).isTrue();
+    }
+
+    @Test
+    void protocolErrorsUseJsonRpcCodes() throws Exception {
+        assertThat(handle("{\"jsonrpc\":\"1.0\",\"id\":1,\"method\":\"ping\"}").get("error").get("code").asInt())
+                .isEqualTo(McpService.INVALID_REQUEST);
+        assertThat(handle("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"resources/list\"}").get("error").get("code").asInt())
+                .isEqualTo(McpService.METHOD_NOT_FOUND);
+        assertThat(handle(call(1, "drop_database", "{}")).get("error").get("code").asInt())
+                .isEqualTo(McpService.INVALID_PARAMS);
+        // 通知没有响应
+        assertThat(handle("{\"jsonrpc\":\"2.0\",\"method\":\"notifications/initialized\"}")).isNull();
+        assertThat(handle("{\"jsonrpc\":\"2.0\",\"id\":\"a\",\"method\":\"initialize\"}").get("result")
+                .get("protocolVersion").asText()).isEqualTo(McpService.PROTOCOL_VERSION);
+    }
+
+    private ObjectNode handle(String message) throws Exception {
+        return mcpService.handle(objectMapper.readTree(message));
+    }
+
+    private static String call(int id, String tool, String arguments) {
+        return "{\"jsonrpc\":\"2.0\",\"id\":" + id + ",\"method\":\"tools/call\",\"params\":{\"name\":\"" + tool
+                + "\",\"arguments\":" + arguments + "}}";
+    }
+}
@@ -0,0 +1,136 @@
+package com.todo.service;
+
+import com.todo.TestAuth;
+import com.todo.controller.NoteController;
+import com.todo.model.ActivityEntry;
+import com.todo.model.Note;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class NoteAutosaveServiceTest {
+
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private NoteService noteService;
+    @Autowired
+    private NoteAutosaveService noteAutosaveService;
+    @Autowired
+    private NoteController noteController;
+    @Autowired
+    private ActivityService activityService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long noteId;
+
+    @BeforeEach
+    void setUp() {
+        TestAuth.newUser(authService);
+        Note note = new Note();
+        note.setTitle("draft");
+        note.setContent("v0");
+        noteId = noteService.createNote(note).getId();
+    }
+
+    @AfterEach
+    void signOut() {
+        TestAuth.signOut();
+    }
+
+    @Test
+    void draftsAreReadBackAndCoalescedIntoOneWrite() {
+        long first = noteService.autosaveNote(noteId, null, "v1").getVersion();
+        long second = noteService.autosaveNote(noteId, "renamed", "v2").getVersion();
+
+        assertThat(second).isGreaterThan(first);
+        // 写入数据库之前读取已能看到最新草稿
+        assertThat(noteService.getNoteById(noteId).orElseThrow().getContent()).isEqualTo("v2");
+        assertThat(storedContent()).isEqualTo("v0");
+
+        noteAutosaveService.flushAll();
+
+        assertThat(storedContent()).isEqualTo("v2");
+        assertThat(noteService.getNoteById(noteId).orElseThrow().getTitle()).isEqualTo("renamed");
+    }
+
+    @Test
+    void flushedDraftIsRecordedAsOneUndoableUpdate() {
+        noteService.autosaveNote(noteId, null, "v1");
+        noteService.autosaveNote(noteId, "renamed", "v2");
+
+        noteAutosaveService.flushAll();
+
+        List<ActivityEntry> items = activityService.getActivity(null, 10).getItems();
+        assertThat(items).hasSize(2);
+        ActivityEntry update = items.get(0);
+        assertThat(update.getAction()).isEqualTo(ActivityEntry.UPDATE);
+        assertThat(update.getItemId()).isEqualTo(noteId);
+        assertThat(update.getSummary()).isEqualTo("renamed");
+
+        // 修改前状态是刷写前数据库中的内容
+        activityService.undo(update.getId());
+        assertThat(storedContent()).isEqualTo("v0");
+    }
+
+    @Test
+    void explicitSaveCommittedDuringFlushIsNotOverwritten() {
+        noteService.autosaveNote(noteId, null, "autosaved");
+        // 模拟草稿之后提交、但还没来得及丢弃草稿的显式保存
+        jdbcTemplate.update("UPDATE notes SET content = 'explicit', updated_at = ? WHERE id = ?",
+                LocalDateTime.now().plusSeconds(1), noteId);
+
+        noteAutosaveService.flushAll();
+
+        assertThat(storedContent()).isEqualTo("explicit");
+        // 被覆盖的草稿已丢弃，不会在下一轮再次尝试
+        noteAutosaveService.flushAll();
+        assertThat(storedContent()).isEqualTo("explicit");
+    }
+
+    @Test
+    void explicitUpdateDiscardsTheDraft() {
+        noteService.autosaveNote(noteId, null, "autosaved");
+        Note update = new Note();
+        update.setContent("saved");
+        noteService.updateNote(noteId, update);
+
+        noteAutosaveService.flushAll();
+
+        assertThat(storedContent()).isEqualTo("saved");
+    }
+
+    @Test
+    void commitWritesTheDraftImmediately() {
+        noteService.autosaveNote(noteId, null, "committed");
+
+        assertThat(noteService.commitNote(noteId).getContent()).isEqualTo("committed");
+        assertThat(storedContent()).isEqualTo("committed");
+    }
+
+    @Test
+    void nonStringFieldsAreRejected() {
+        assertThatThrownBy(() -> noteController.autosaveNote(noteId, Map.of("title", 42)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> noteController.autosaveNote(noteId, Map.of("content", Map.of("x", 1))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private String storedContent() {
+        return jdbcTemplate.queryForObject("SELECT content FROM notes WHERE id = ?", String.class, noteId);
+    }
+}
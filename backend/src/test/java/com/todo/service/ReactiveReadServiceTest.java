@@ -0,0 +1,118 @@
+package com.todo.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.todo.dto.TodoView;
+import com.todo.repository.ReactiveDailyHistoryRepository;
+import com.todo.repository.ReactiveNoteRepository;
+import com.todo.repository.ReactiveTodoRepository;
+import com.todo.repository.ReactiveTodoStepRepository;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.repository.support.R2dbcRepositoryFactory;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 只读节点的查询直接连内存H2（R2DBC），表结构只包含查询用到的列
+ */
+class ReactiveReadServiceTest {
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE todos (id BIGINT PRIMARY KEY, user_id BIGINT, text VARCHAR(500), completed BOOLEAN, "
+                    + "priority VARCHAR(10), total_steps INT, completed_steps INT, remaining_minutes INT, "
+                    + "estimated_duration INT, duration_unit VARCHAR(10), estimated_minutes INT, due_date TIMESTAMP, "
+                    + "deadline TIMESTAMP, is_daily BOOLEAN, recurrence_rule VARCHAR(255), last_reset_date TIMESTAMP, "
+                    + "completed_at TIMESTAMP, created_at TIMESTAMP, updated_at TIMESTAMP)",
+            "CREATE TABLE todo_steps (id BIGINT PRIMARY KEY, todo_id BIGINT, user_id BIGINT, text VARCHAR(500), "
+                    + "completed BOOLEAN, position INT, estimated_minutes INT, completed_at TIMESTAMP, created_at TIMESTAMP)",
+            "CREATE TABLE tags (id BIGINT PRIMARY KEY, user_id BIGINT, name VARCHAR(50))",
+            "CREATE TABLE tag_assignments (id BIGINT PRIMARY KEY, user_id BIGINT, tag_id BIGINT, item_type VARCHAR(10), item_id BIGINT)",
+            "CREATE TABLE notes (id BIGINT PRIMARY KEY, user_id BIGINT, title VARCHAR(255), content CLOB, "
+                    + "created_at TIMESTAMP, updated_at TIMESTAMP)",
+            "CREATE TABLE daily_history (id BIGINT AUTO_INCREMENT PRIMARY KEY, todo_id BIGINT, user_id BIGINT, "
+                    + "history_year INT, days VARBINARY(46))"
+    };
+
+    private DatabaseClient db;
+    private ReactiveReadService readService;
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @BeforeEach
+    void setUp() {
+        ConnectionFactory connectionFactory = ConnectionFactories.get(
+                "r2dbc:h2:mem:///reactive-" + UUID.randomUUID() + "?options=DB_CLOSE_DELAY=-1;MODE=MySQL");
+        db = DatabaseClient.create(connectionFactory);
+        for (String ddl : SCHEMA) {
+            db.sql(ddl).then().block();
+        }
+        R2dbcRepositoryFactory factory = new R2dbcRepositoryFactory(new R2dbcEntityTemplate(connectionFactory));
+        readService = new ReactiveReadService(factory.getRepository(ReactiveTodoRepository.class),
+                factory.getRepository(ReactiveTodoStepRepository.class),
+                factory.getRepository(ReactiveNoteRepository.class),
+                factory.getRepository(ReactiveDailyHistoryRepository.class));
+    }
+
+    @Test
+    void listOrderBreaksTiesById() {
+        LocalDateTime deadline = LocalDateTime.of(2030, 1, 1, 9, 0);
+        LocalDateTime created = LocalDateTime.of(2024, 1, 1, 9, 0);
+        insertTodo(30, false, deadline, created);
+        insertTodo(10, false, deadline, created);
+        insertTodo(20, false, deadline, created);
+        insertTodo(5, true, null, created);
+        insertTodo(40, false, null, created);
+
+        assertThat(readService.getTodos(7L, null, null).map(view -> view.todo().id()).collectList().block())
+                .containsExactly(10L, 20L, 30L, 40L, 5L);
+    }
+
+    @Test
+    void dailyTodosCarryTheSameStreakAsTheMainNode() throws Exception {
+        LocalDate today = LocalDate.now();
+        insertTodo(1, true, null, today.minusDays(9).atStartOfDay());
+        insertTodo(2, false, null, today.minusDays(9).atStartOfDay());
+        // 昨天和前天完成
+        BitSet days = new BitSet();
+        for (LocalDate day : List.of(today.minusDays(1), today.minusDays(2))) {
+            if (day.getYear() == today.getYear()) {
+                days.set(day.getDayOfYear() - 1);
+            }
+        }
+        db.sql("INSERT INTO daily_history (todo_id, user_id, history_year, days) VALUES (1, 7, :year, :days)")
+                .bind("year", today.getYear()).bind("days", days.toByteArray()).then().block();
+
+        List<TodoView> views = readService.getTodos(7L, "ALL", "").collectList().block();
+        TodoView daily = readService.getTodo(7L, 1L).block();
+
+        // 每日任务排在最后
+        assertThat(views.get(0).streak()).isNull();
+        assertThat(views.get(1).streak().getCompletedDays()).isEqualTo(days.cardinality());
+        assertThat(daily.streak().getCompletedDays()).isEqualTo(days.cardinality());
+        JsonNode json = objectMapper.valueToTree(views);
+        assertThat(json.get(0).has("streak")).isFalse();
+        assertThat(json.get(1).get("streak").has("currentStreak")).isTrue();
+    }
+
+    private void insertTodo(long id, boolean daily, LocalDateTime deadline, LocalDateTime createdAt) {
+        DatabaseClient.GenericExecuteSpec insert = db.sql("INSERT INTO todos (id, user_id, text, completed, priority, "
+                        + "is_daily, deadline, created_at, updated_at) VALUES (:id, 7, 'todo', FALSE, 'MEDIUM', :daily, "
+                        + (deadline != null ? ":deadline" : "NULL") + ", :createdAt, :createdAt)")
+                .bind("id", id).bind("daily", daily).bind("createdAt", createdAt);
+        if (deadline != null) {
+            insert = insert.bind("deadline", deadline);
+        }
+        insert.then().block();
+    }
+}
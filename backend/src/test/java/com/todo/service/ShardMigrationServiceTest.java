@@ -0,0 +1,161 @@
+package com.todo.service;
+
+import com.todo.config.ShardContext;
+import com.todo.config.ShardDataSources;
+import com.todo.config.ShardingProperties;
+import com.todo.model.User;
+import com.todo.model.UserShard;
+import com.todo.repository.UserShardRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 两个内存库模拟两个分片，目录记录用内存Map代替
+ */
+class ShardMigrationServiceTest {
+
+    private final Map<Long, UserShard> directory = new HashMap<>();
+    private ShardDataSources shards;
+    private ShardRouter shardRouter;
+    private ShardMigrationService migrationService;
+    private ActivityLogService activityLogService;
+
+    @BeforeEach
+    void setUp() {
+        Map<Integer, DataSource> dataSources = new HashMap<>();
+        dataSources.put(0, h2());
+        dataSources.put(1, h2());
+        ShardingProperties properties = new ShardingProperties();
+        properties.setDirectoryCacheTtl(Duration.ofMillis(1));
+        properties.setMigrationBatchSize(2);
+        shards = new ShardDataSources(dataSources, properties);
+        for (Integer shardId : shards.shardIds()) {
+            shards.jdbc(shardId).execute("CREATE TABLE users (id BIGINT PRIMARY KEY, username VARCHAR(50))");
+            for (String table : ShardMigrationService.USER_TABLES) {
+                shards.jdbc(shardId).execute("CREATE TABLE " + table + " (id BIGINT PRIMARY KEY, user_id BIGINT)");
+            }
+        }
+        shards.jdbc(0).execute("CREATE TABLE user_shards (user_id BIGINT PRIMARY KEY, shard_id INT, "
+                + "state VARCHAR(16), updated_at TIMESTAMP)");
+
+        UserShardRepository repository = mock(UserShardRepository.class);
+        when(repository.findById(any())).thenAnswer(call -> Optional.ofNullable(directory.get(call.<Long>getArgument(0))));
+        when(repository.save(any())).thenAnswer(call -> {
+            UserShard mapping = call.getArgument(0);
+            directory.put(mapping.getUserId(), mapping);
+            return mapping;
+        });
+        @SuppressWarnings("unchecked")
+        ObjectProvider<ShardDataSources> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(shards);
+        shardRouter = new ShardRouter(repository, provider);
+        activityLogService = mock(ActivityLogService.class);
+        migrationService = new ShardMigrationService(shards, shardRouter, repository, mock(NoteAutosaveService.class),
+                activityLogService, mock(AnalyticsService.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ShardContext.clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void migrateUserCopiesAllRowsAndRemovesSource() {
+        shards.jdbc(0).update("INSERT INTO users VALUES (7, 'alice')");
+        for (long id = 1; id <= 5; id++) {
+            shards.jdbc(0).update("INSERT INTO todos VALUES (?, 7)", id);
+        }
+        shards.jdbc(0).update("INSERT INTO notes VALUES (1, 7)");
+
+        Map<String, Integer> copied = migrationService.migrateUser(7L, 1);
+
+        assertThat(copied).containsEntry("todos", 5).containsEntry("notes", 1);
+        assertThat(count(1, "todos")).isEqualTo(5);
+        assertThat(count(0, "todos")).isZero();
+        assertThat(directory.get(7L).getShardId()).isEqualTo(1);
+        assertThat(directory.get(7L).getState()).isEqualTo(UserShard.ACTIVE);
+    }
+
+    @Test
+    void writeBuffersAreFlushedToTheSourceShardBeforeCopying() {
+        shards.jdbc(0).update("INSERT INTO users VALUES (7, 'alice')");
+        // 模拟本节点队列中的操作记录：迁移标记之后、复制之前写入原分片
+        doAnswer(call -> {
+            assertThat(directory.get(7L).getState()).isEqualTo(UserShard.MIGRATING);
+            shards.jdbc(0).update("INSERT INTO activity_log VALUES (1, 7)");
+            return null;
+        }).when(activityLogService).flushMigrating(7L);
+
+        Map<String, Integer> copied = migrationService.migrateUser(7L, 1);
+
+        verify(activityLogService).flushMigrating(7L);
+        assertThat(copied).containsEntry("activity_log", 1);
+        assertThat(count(1, "activity_log")).isEqualTo(1);
+    }
+
+    @Test
+    void failedUserRowCopyAbortsMigration() {
+        shards.jdbc(0).update("INSERT INTO users VALUES (7, 'alice')");
+        shards.jdbc(0).update("INSERT INTO todos VALUES (1, 7)");
+        shards.jdbc(1).execute("DROP TABLE users");
+
+        assertThatThrownBy(() -> migrationService.migrateUser(7L, 1)).isInstanceOf(RuntimeException.class);
+
+        // 原分片数据保留，映射恢复为原分片的ACTIVE，没有复制任何业务表
+        assertThat(count(0, "todos")).isEqualTo(1);
+        assertThat(count(1, "todos")).isZero();
+        assertThat(directory.get(7L).getShardId()).isEqualTo(0);
+        assertThat(directory.get(7L).getState()).isEqualTo(UserShard.ACTIVE);
+    }
+
+    @Test
+    void failedCopyOnRegistrationFallsBackToDirectoryShard() {
+        shards.jdbc(0).update("INSERT INTO users VALUES (9, 'bob')");
+        shards.jdbc(0).update("INSERT INTO user_shards VALUES (9, 1, 'ACTIVE', CURRENT_TIMESTAMP)");
+        shards.jdbc(1).execute("DROP TABLE users");
+        User user = new User();
+        ReflectionTestUtils.setField(user, "id", 9L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        shardRouter.assignShard(user);
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+
+        assertThat(shards.jdbc(0).queryForObject("SELECT shard_id FROM user_shards WHERE user_id = 9", Integer.class))
+                .isZero();
+    }
+
+    private int count(int shardId, String table) {
+        return shards.jdbc(shardId).queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+
+    private static DataSource h2() {
+        return new DriverManagerDataSource(
+                "jdbc:h2:mem:shard-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
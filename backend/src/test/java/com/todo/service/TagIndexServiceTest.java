@@ -0,0 +1,167 @@
+package com.todo.service;
+
+import com.todo.TestAuth;
+import com.todo.dto.TodoRequest;
+import com.todo.model.TagAssignment;
+import com.todo.model.Todo;
+import com.todo.repository.NoteRepository;
+import com.todo.repository.TagAssignmentRepository;
+import com.todo.repository.TagRepository;
+import com.todo.repository.TodoRepository;
+import com.todo.repository.UserRepository;
+import com.todo.util.TagExpression;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TagIndexServiceTest {
+
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private TagService tagService;
+    @Autowired
+    private TagIndexService tagIndexService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TagRepository tagRepository;
+    @Autowired
+    private TagAssignmentRepository tagAssignmentRepository;
+    @Autowired
+    private TodoRepository todoRepository;
+    @Autowired
+    private NoteRepository noteRepository;
+    @Autowired
+    private ShardRouter shardRouter;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long userId;
+    // a: HIGH，标签work；b: LOW，已完成，标签work、home；c: MEDIUM，无标签
+    private Todo a;
+    private Todo b;
+    private Todo c;
+
+    @BeforeEach
+    void setUp() {
+        String username = TestAuth.newUser(authService);
+        userId = userRepository.findByUsername(username).orElseThrow().getId();
+        a = createTodo("a", "HIGH");
+        b = createTodo("b", "LOW");
+        c = createTodo("c", null);
+        todoService.patchTodo(b.getId(), Map.of("completed", true));
+        tagService.setTodoTags(a.getId(), List.of("work"));
+        tagService.setTodoTags(b.getId(), List.of("work", "home"));
+    }
+
+    @AfterEach
+    void signOut() {
+        TestAuth.signOut();
+    }
+
+    @Test
+    void expressionsCombineTagsWithStatusAndPriority() {
+        assertThat(todos("work")).containsExactlyInAnyOrder(a.getId(), b.getId());
+        assertThat(todos("is:completed")).containsExactly(b.getId());
+        assertThat(todos("is:active")).containsExactlyInAnyOrder(a.getId(), c.getId());
+        assertThat(todos("work is:active")).containsExactly(a.getId());
+        assertThat(todos("priority:high | home")).containsExactlyInAnyOrder(a.getId(), b.getId());
+        assertThat(todos("!work")).containsExactly(c.getId());
+        assertThatThrownBy(() -> todos("is:archived")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> tagIndexService.queryNotes(userId, TagExpression.parse("is:completed")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void writeCallbacksUpdateTheIndexInPlace() {
+        assertThat(todos("work")).hasSize(2);
+        Long work = tagId("work");
+
+        // 以下回调都不修改数据库，结果只能来自索引的增量维护
+        Todo completed = new Todo();
+        completed.setId(c.getId());
+        completed.setUser(a.getUser());
+        completed.setCompleted(true);
+        completed.setPriority("HIGH");
+        tagIndexService.onTodoSaved(completed);
+        assertThat(todos("is:completed")).containsExactlyInAnyOrder(b.getId(), c.getId());
+        assertThat(todos("priority:HIGH")).containsExactlyInAnyOrder(a.getId(), c.getId());
+
+        tagIndexService.onItemTagsReplaced(userId, TagAssignment.TODO, c.getId(), Map.of(work, "work", -1L, "urgent"));
+        assertThat(todos("urgent")).containsExactly(c.getId());
+        assertThat(todos("work")).containsExactlyInAnyOrder(a.getId(), b.getId(), c.getId());
+
+        tagIndexService.onTagDeleted(userId, work);
+        assertThat(todos("work")).isEmpty();
+        assertThat(tagIndexService.tagName(userId, work)).isNull();
+        assertThat(tagIndexService.tagsOf(userId, TagAssignment.TODO, List.of(b.getId())))
+                .containsEntry(b.getId(), List.of("home"));
+
+        tagIndexService.onItemDeleted(userId, TagAssignment.TODO, a.getId());
+        assertThat(todos("priority:HIGH")).containsExactly(c.getId());
+        assertThat(todos("!urgent")).containsExactly(b.getId());
+    }
+
+    @Test
+    void expiredIndexIsRebuiltFromTheDatabase() throws Exception {
+        TagIndexService index = newIndex(Duration.ofSeconds(2));
+        assertThat(query(index, "is:completed")).containsExactly(b.getId());
+
+        // 绕过服务层的写入：过期之前仍是旧索引，过期后重建
+        jdbcTemplate.update("UPDATE todos SET completed = TRUE WHERE id = ?", c.getId());
+        assertThat(query(index, "is:completed")).containsExactly(b.getId());
+
+        Thread.sleep(2100);
+        assertThat(query(index, "is:completed")).containsExactlyInAnyOrder(b.getId(), c.getId());
+    }
+
+    private TagIndexService newIndex(Duration ttl) {
+        CacheInvalidationService invalidation = mock(CacheInvalidationService.class);
+        when(invalidation.userCacheTtl(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        return new TagIndexService(tagRepository, tagAssignmentRepository, todoRepository, noteRepository,
+                shardRouter, invalidation, transactionTemplate, ttl);
+    }
+
+    private List<Long> todos(String expression) {
+        return query(tagIndexService, expression);
+    }
+
+    private List<Long> query(TagIndexService index, String expression) {
+        return Arrays.stream(index.queryTodos(userId, TagExpression.parse(expression)).toArray()).boxed().toList();
+    }
+
+    private Long tagId(String name) {
+        return tagRepository.findByUserIdOrderByName(userId).stream()
+                .filter(tag -> tag.getName().equals(name)).findFirst().orElseThrow().getId();
+    }
+
+    private Todo createTodo(String text, String priority) {
+        TodoRequest request = new TodoRequest();
+        request.setText(text);
+        request.setPriority(priority);
+        return todoService.createTodo(request);
+    }
+}
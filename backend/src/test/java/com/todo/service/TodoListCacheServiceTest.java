@@ -0,0 +1,178 @@
+package com.todo.service;
+
+import com.todo.TestAuth;
+import com.todo.dto.TodoRequest;
+import com.todo.model.Todo;
+import com.todo.model.User;
+import com.todo.repository.TodoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TodoListCacheServiceTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void signOut() {
+        TestAuth.signOut();
+    }
+
+    @Test
+    void writesMoveTodosWithinTheCachedOrder() {
+        TestAuth.newUser(authService);
+        Todo later = createTodo("later", LocalDateTime.now().plusDays(5));
+        Todo sooner = createTodo("sooner", LocalDateTime.now().plusDays(2));
+        assertThat(texts()).containsExactly("sooner", "later");
+
+        Todo update = new Todo();
+        update.setDeadline(LocalDateTime.now().plusDays(1));
+        todoService.updateTodo(later.getId(), update);
+        assertThat(texts()).containsExactly("later", "sooner");
+
+        todoService.deleteTodo(sooner.getId());
+        assertThat(texts()).containsExactly("later");
+    }
+
+    @Test
+    void broadcastFromAnotherNodeDropsTheList() {
+        TestAuth.newUser(authService);
+        Todo todo = createTodo("before", null);
+        assertThat(texts()).containsExactly("before");
+        Long userId = todoService.getAllTodos(null, null, null).get(0).getUser().getId();
+
+        // 模拟其他节点的写入：本节点的列表仍是旧数据，直到收到实体和列表的失效广播
+        jdbcTemplate.update("UPDATE todos SET text = ? WHERE id = ?", "after", todo.getId());
+        cacheInvalidationService.evictLocal("Todo", todo.getId());
+        assertThat(texts()).containsExactly("before");
+        cacheInvalidationService.evictUserLocal(TodoListCacheService.CACHE_NAME, userId);
+
+        assertThat(texts()).containsExactly("after");
+    }
+
+    @Test
+    void listIsLoadedInANewReadWriteTransactionEvenInsideAReadOnlyOne() {
+        TodoRepository repository = mock(TodoRepository.class);
+        List<Boolean> readOnly = new ArrayList<>();
+        when(repository.findByUser(any())).thenAnswer(invocation -> {
+            readOnly.add(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+            return List.of(todo(1L, "a"));
+        });
+        TodoListCacheService cache = newCache(repository, mock(CacheInvalidationService.class), Duration.ofMinutes(5));
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnlyTransaction.setReadOnly(true);
+
+        List<Todo> listed = readOnlyTransaction.execute(status -> cache.list(user(), todo -> true));
+
+        assertThat(listed).extracting(Todo::getText).containsExactly("a");
+        assertThat(readOnly).containsExactly(false);
+    }
+
+    @Test
+    void reloadReadsOnlyForLoadedListsAndNotifiesOtherNodes() {
+        TodoRepository repository = mock(TodoRepository.class);
+        when(repository.findByUser(any())).thenReturn(List.of(todo(1L, "a"), todo(2L, "b")));
+        Todo reloaded = todo(1L, "a2");
+        when(repository.findById(1L)).thenReturn(Optional.of(reloaded));
+        when(repository.findById(2L)).thenReturn(Optional.empty());
+        CacheInvalidationService invalidation = mock(CacheInvalidationService.class);
+        TodoListCacheService cache = newCache(repository, invalidation, Duration.ofMinutes(5));
+
+        cache.reloadAfterCommit(7L, 1L);
+        verify(repository, never()).findById(any());
+
+        cache.list(user(), todo -> true);
+        cache.reloadAfterCommit(7L, 1L);
+        cache.reloadAfterCommit(7L, 2L);
+
+        assertThat(cache.list(user(), todo -> true)).extracting(Todo::getText).containsExactly("a2");
+        verify(invalidation, times(2)).broadcastUser(TodoListCacheService.CACHE_NAME, 7L);
+    }
+
+    @Test
+    void registeredBroadcastHandlerDropsOneUserOrAll() {
+        TodoRepository repository = mock(TodoRepository.class);
+        when(repository.findByUser(any())).thenReturn(List.of(todo(1L, "a")));
+        CacheInvalidationService invalidation = mock(CacheInvalidationService.class);
+        TodoListCacheService cache = newCache(repository, invalidation, Duration.ZERO);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Consumer<Long>> handler = ArgumentCaptor.forClass(Consumer.class);
+        verify(invalidation).registerUserCache(eq(TodoListCacheService.CACHE_NAME), handler.capture());
+
+        cache.list(user(), todo -> true);
+        handler.getValue().accept(8L);
+        cache.list(user(), todo -> true);
+        handler.getValue().accept(7L);
+        cache.list(user(), todo -> true);
+        handler.getValue().accept(null);
+        cache.list(user(), todo -> true);
+
+        verify(repository, times(3)).findByUser(any());
+    }
+
+    private TodoListCacheService newCache(TodoRepository repository, CacheInvalidationService invalidation, Duration ttl) {
+        when(invalidation.userCacheTtl(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        return new TodoListCacheService(repository, invalidation, transactionTemplate, true, DataSize.ofMegabytes(1), ttl);
+    }
+
+    private List<String> texts() {
+        return todoService.getAllTodos(null, null, null).stream().map(Todo::getText).toList();
+    }
+
+    private Todo createTodo(String text, LocalDateTime deadline) {
+        TodoRequest request = new TodoRequest();
+        request.setText(text);
+        request.setDeadline(deadline);
+        return todoService.createTodo(request);
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setId(7L);
+        return user;
+    }
+
+    private static Todo todo(Long id, String text) {
+        Todo todo = new Todo();
+        todo.setId(id);
+        todo.setText(text);
+        todo.setCreatedAt(CREATED.plusMinutes(id));
+        return todo;
+    }
+}
@@ -0,0 +1,87 @@
+package com.todo.service;
+
+import com.todo.TestAuth;
+import com.todo.dto.TodoRequest;
+import com.todo.model.Todo;
+import com.todo.model.TodoStep;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TodoStepServiceTest {
+
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private TodoStepService todoStepService;
+
+    private Long todoId;
+
+    @BeforeEach
+    void createTodo() {
+        TestAuth.newUser(authService);
+        TodoRequest request = new TodoRequest();
+        request.setText("move house");
+        todoId = todoService.createTodo(request).getId();
+    }
+
+    @AfterEach
+    void signOut() {
+        TestAuth.signOut();
+    }
+
+    @Test
+    void stepChangesRollUpIntoParent() {
+        TodoStep pack = todoStepService.addStep(todoId, "pack", 60);
+        TodoStep clean = todoStepService.addStep(todoId, "clean", 30);
+        assertRollup(2, 0, 90);
+
+        todoStepService.updateStep(todoId, pack.getId(), null, null, null, true);
+        assertRollup(2, 1, 30);
+
+        todoStepService.updateStep(todoId, clean.getId(), null, 45, null, null);
+        assertRollup(2, 1, 45);
+
+        todoStepService.updateStep(todoId, pack.getId(), null, 90, null, null); // 已完成的子任务不计入剩余时间
+        assertRollup(2, 1, 45);
+
+        todoStepService.updateStep(todoId, pack.getId(), null, null, null, false);
+        assertRollup(2, 0, 135);
+
+        todoStepService.deleteStep(todoId, clean.getId());
+        assertRollup(1, 0, 90);
+    }
+
+    @Test
+    void deletingLastStepClearsRollup() {
+        TodoStep only = todoStepService.addStep(todoId, "only", 20);
+        todoStepService.updateStep(todoId, only.getId(), null, null, null, true);
+
+        todoStepService.deleteStep(todoId, only.getId());
+
+        Todo todo = todoService.getTodoById(todoId).orElseThrow();
+        assertThat(todo.hasSteps()).isFalse();
+        assertThat(todo.getTotalSteps()).isNull();
+        assertThat(todo.getCompletedSteps()).isZero();
+
+        // 重新添加子任务时从头计数
+        todoStepService.addStep(todoId, "again", 10);
+        assertRollup(1, 0, 10);
+    }
+
+    private void assertRollup(int total, int completed, int remainingMinutes) {
+        Todo todo = todoService.getTodoById(todoId).orElseThrow();
+        assertThat(todo.getTotalSteps()).isEqualTo(total);
+        assertThat(todo.getCompletedSteps()).isEqualTo(completed);
+        assertThat(todo.getRemainingMinutes()).isEqualTo(remainingMinutes);
+    }
+}
@@ -0,0 +1,93 @@
+package com.todo.service;
+
+import com.todo.TestAuth;
+import com.todo.dto.TodoRequest;
+import com.todo.dto.WorkloadDay;
+import com.todo.model.Todo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class WorkloadServiceTest {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(3);
+
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private WorkloadService workloadService;
+
+    @AfterEach
+    void signOut() {
+        TestAuth.signOut();
+    }
+
+    @Test
+    void durationsAreNormalizedAndDailyTodosCountEveryDay() {
+        TestAuth.newUser(authService);
+        create("hours", DAY.atTime(10, 0), 2, "HOURS", false);
+        create("days", DAY.atTime(18, 0), 1, "DAYS", false);
+        create("unestimated", DAY.atTime(9, 0), null, null, false);
+        create("standup", null, 30, "MINUTES", true);
+        create("later", DAY.plusDays(5).atTime(9, 0), 45, "MINUTES", false);
+
+        List<WorkloadDay> days = workloadService.getWorkload(DAY, DAY.plusDays(1));
+
+        assertThat(days).extracting(WorkloadDay::getDate).containsExactly(DAY, DAY.plusDays(1));
+        WorkloadDay busy = days.get(0);
+        // 2小时 + 1个工作日(8小时) + 每日任务30分钟
+        assertThat(busy.getCommittedMinutes()).isEqualTo(120 + 480 + 30);
+        assertThat(busy.getDailyMinutes()).isEqualTo(30);
+        assertThat(busy.getTodoCount()).isEqualTo(4);
+        assertThat(busy.getUnestimatedCount()).isEqualTo(1);
+        assertThat(busy.isOverCapacity()).isTrue();
+        WorkloadDay quiet = days.get(1);
+        assertThat(quiet.getCommittedMinutes()).isEqualTo(30);
+        assertThat(quiet.getTodoCount()).isEqualTo(1);
+        assertThat(quiet.isOverCapacity()).isFalse();
+    }
+
+    @Test
+    void completingATodoInvalidatesTheCachedForecast() {
+        TestAuth.newUser(authService);
+        Todo todo = create("report", DAY.atTime(10, 0), 90, "MINUTES", false);
+        assertThat(workloadService.getWorkload(DAY, DAY).get(0).getCommittedMinutes()).isEqualTo(90);
+
+        todoService.patchTodo(todo.getId(), Map.of("completed", true));
+
+        assertThat(workloadService.getWorkload(DAY, DAY).get(0).getCommittedMinutes()).isZero();
+    }
+
+    @Test
+    void invalidRangesAreRejected() {
+        TestAuth.newUser(authService);
+        assertThatThrownBy(() -> workloadService.getWorkload(DAY, DAY.minusDays(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> workloadService.getWorkload(DAY, DAY.plusDays(366)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Todo create(String text, LocalDateTime deadline, Integer duration, String unit, boolean daily) {
+        TodoRequest request = new TodoRequest();
+        request.setText(text);
+        request.setDeadline(deadline);
+        request.setEstimatedDuration(duration);
+        request.setDurationUnit(unit);
+        request.setIsDaily(daily);
+        return todoService.createTodo(request);
+    }
+}
@@ -0,0 +1,135 @@
+package com.todo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RecurrenceRuleTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2024, 1, 1);
+
+    @Test
+    void weeklyOnSelectedDays() {
+        assertThat(expand("FREQ=WEEKLY;BYDAY=MO,WE", MONDAY, MONDAY, MONDAY.plusDays(13)))
+                .containsExactly(MONDAY, MONDAY.plusDays(2), MONDAY.plusDays(7), MONDAY.plusDays(9));
+    }
+
+    @Test
+    void everyOtherWeekStartsFromDtStartWeek() {
+        assertThat(expand("FREQ=WEEKLY;INTERVAL=2", MONDAY.plusDays(2), MONDAY, MONDAY.plusDays(30)))
+                .containsExactly(MONDAY.plusDays(2), MONDAY.plusDays(16), MONDAY.plusDays(30));
+    }
+
+    @Test
+    void lastDayOfMonthHandlesLeapYear() {
+        assertThat(expand("FREQ=MONTHLY;BYMONTHDAY=-1", MONDAY, MONDAY, LocalDate.of(2024, 3, 31)))
+                .containsExactly(LocalDate.of(2024, 1, 31), LocalDate.of(2024, 2, 29), LocalDate.of(2024, 3, 31));
+    }
+
+    @Test
+    void monthlyOn31stSkipsShortMonths() {
+        assertThat(expand("FREQ=MONTHLY", LocalDate.of(2024, 1, 31), MONDAY, LocalDate.of(2024, 5, 31)))
+                .containsExactly(LocalDate.of(2024, 1, 31), LocalDate.of(2024, 3, 31), LocalDate.of(2024, 5, 31));
+    }
+
+    @Test
+    void yearlyWithoutByRulesRepeatsOnAnniversary() {
+        assertThat(expand("FREQ=YEARLY", LocalDate.of(2024, 3, 15), MONDAY, LocalDate.of(2026, 12, 31)))
+                .containsExactly(LocalDate.of(2024, 3, 15), LocalDate.of(2025, 3, 15), LocalDate.of(2026, 3, 15));
+    }
+
+    @Test
+    void yearlyByDayExpandsOverTheWholeYear() {
+        List<LocalDate> mondays = expand("FREQ=YEARLY;BYDAY=MO", MONDAY, MONDAY, LocalDate.of(2024, 12, 31));
+
+        assertThat(mondays).hasSize(53).allMatch(day -> day.getDayOfWeek() == DayOfWeek.MONDAY);
+        assertThat(mondays.get(52)).isEqualTo(LocalDate.of(2024, 12, 30));
+    }
+
+    @Test
+    void yearlyByMonthDayExpandsOverTheWholeYear() {
+        assertThat(expand("FREQ=YEARLY;INTERVAL=2;BYMONTHDAY=1", LocalDate.of(2024, 11, 20),
+                LocalDate.of(2025, 1, 1), LocalDate.of(2026, 2, 28)))
+                .containsExactly(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 2, 1));
+    }
+
+    @Test
+    void countIsCountedFromDtStartEvenOutsideTheWindow() {
+        assertThat(expand("FREQ=DAILY;INTERVAL=3;COUNT=4", MONDAY, MONDAY.plusDays(5), MONDAY.plusDays(30)))
+                .containsExactly(MONDAY.plusDays(6), MONDAY.plusDays(9));
+        assertThat(expand("FREQ=YEARLY;BYDAY=FR;COUNT=2", MONDAY, MONDAY, LocalDate.of(2025, 12, 31)))
+                .containsExactly(LocalDate.of(2024, 1, 5), LocalDate.of(2024, 1, 12));
+    }
+
+    @Test
+    void untilIsInclusive() {
+        assertThat(expand("FREQ=DAILY;UNTIL=20240103T000000Z", MONDAY, MONDAY, MONDAY.plusDays(10)))
+                .containsExactly(MONDAY, MONDAY.plusDays(1), MONDAY.plusDays(2));
+    }
+
+    /**
+     * 只展开一个窗口（跳过窗口之前的周期）与完整展开后截取该窗口的结果一致
+     */
+    @Test
+    void windowedExpansionMatchesFullExpansion() {
+        String[] rules = {
+                "FREQ=DAILY;INTERVAL=5", "FREQ=DAILY;BYDAY=SA,SU", "FREQ=WEEKLY;INTERVAL=3;BYDAY=TU,FR",
+                "FREQ=MONTHLY;INTERVAL=2;BYMONTHDAY=10,-2", "FREQ=MONTHLY;BYDAY=MO;BYMONTHDAY=1,2,3,4,5,6,7",
+                "FREQ=YEARLY", "FREQ=YEARLY;INTERVAL=3;BYDAY=WE", "FREQ=YEARLY;BYMONTHDAY=29"
+        };
+        LocalDate dtStart = LocalDate.of(2023, 5, 17);
+        LocalDate end = LocalDate.of(2031, 12, 31);
+        Random random = new Random(7);
+        for (String rule : rules) {
+            List<LocalDate> all = expand(rule, dtStart, dtStart, end);
+            for (int i = 0; i < 50; i++) {
+                LocalDate from = dtStart.plusDays(random.nextInt(3000));
+                LocalDate to = from.plusDays(random.nextInt(400));
+                List<LocalDate> expected = all.stream()
+                        .filter(day -> !day.isBefore(from) && !day.isAfter(to) && !day.isAfter(end)).toList();
+                assertThat(expand(rule, dtStart, from, to.isAfter(end) ? end : to)).as(rule + " " + from + ".." + to)
+                        .isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void consumerCanStopExpansion() {
+        List<Long> days = new ArrayList<>();
+        RecurrenceRule.parse("FREQ=DAILY").expand(MONDAY, MONDAY, MONDAY.plusDays(100), day -> {
+            days.add(day);
+            return days.size() < 3;
+        });
+        assertThat(days).hasSize(3);
+    }
+
+    @Test
+    void parseNormalizesAndRejectsUnsupportedRules() {
+        assertThat(RecurrenceRule.parse("rrule:freq=weekly;byday=we,mo;interval=1").toString())
+                .isEqualTo("FREQ=WEEKLY;BYDAY=MO,WE");
+        assertThat(RecurrenceRule.parse("FREQ=MONTHLY;BYMONTHDAY=-1,15;COUNT=3").toString())
+                .isEqualTo("FREQ=MONTHLY;BYMONTHDAY=15,-1;COUNT=3");
+
+        assertThatThrownBy(() -> RecurrenceRule.parse("FREQ=HOURLY")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecurrenceRule.parse("INTERVAL=2")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecurrenceRule.parse("FREQ=WEEKLY;BYMONTHDAY=1"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecurrenceRule.parse("FREQ=MONTHLY;BYDAY=1MO"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecurrenceRule.parse("FREQ=DAILY;INTERVAL=x"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<LocalDate> expand(String rule, LocalDate dtStart, LocalDate from, LocalDate to) {
+        List<LocalDate> days = new ArrayList<>();
+        RecurrenceRule.parse(rule).expand(dtStart, from, to, day -> days.add(LocalDate.ofEpochDay(day)));
+        return days;
+    }
+}
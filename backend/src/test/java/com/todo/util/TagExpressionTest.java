@@ -0,0 +1,92 @@
+package com.todo.util;
+
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TagExpressionTest {
+
+    // 待办1..6：work={1,2,3}，home={3,4}，urgent={2,4,5}；已完成={1,4}；HIGH={5,6}
+    private static final Map<String, Roaring64Bitmap> TAGS = Map.of(
+            "work", Roaring64Bitmap.bitmapOf(1, 2, 3),
+            "home", Roaring64Bitmap.bitmapOf(3, 4),
+            "urgent", Roaring64Bitmap.bitmapOf(2, 4, 5));
+
+    private static final TagExpression.Resolver RESOLVER = new TagExpression.Resolver() {
+        @Override
+        public Roaring64Bitmap tag(String name) {
+            return TAGS.getOrDefault(name, new Roaring64Bitmap());
+        }
+
+        @Override
+        public Roaring64Bitmap facet(String key, String value) {
+            if (key.equals("priority")) {
+                return value.equals("HIGH") ? Roaring64Bitmap.bitmapOf(5, 6) : new Roaring64Bitmap();
+            }
+            return value.equals("COMPLETED") ? Roaring64Bitmap.bitmapOf(1, 4) : Roaring64Bitmap.bitmapOf(2, 3, 5, 6);
+        }
+
+        @Override
+        public Roaring64Bitmap universe() {
+            return Roaring64Bitmap.bitmapOf(1, 2, 3, 4, 5, 6);
+        }
+    };
+
+    @Test
+    void andBindsTighterThanOr() {
+        assertThat(ids("work | home & urgent")).containsExactly(1, 2, 3, 4);
+        assertThat(ids("(work | home) & urgent")).containsExactly(2, 4);
+    }
+
+    @Test
+    void adjacentTermsAreAnded() {
+        assertThat(ids("work urgent")).containsExactly(2);
+        assertThat(ids("work (urgent | home) !is:completed")).containsExactly(2, 3);
+    }
+
+    @Test
+    void keywordsAreCaseInsensitiveAndEquivalentToSymbols() {
+        assertThat(ids("WORK and NOT home")).isEqualTo(ids("work & !home")).containsExactly(1, 2);
+        assertThat(ids("home Or priority:high")).containsExactly(3, 4, 5, 6);
+    }
+
+    @Test
+    void notIsTakenAgainstTheUniverse() {
+        assertThat(ids("!work")).containsExactly(4, 5, 6);
+        assertThat(ids("!!work")).containsExactly(1, 2, 3);
+        assertThat(ids("missing")).isEmpty();
+    }
+
+    @Test
+    void evaluationDoesNotModifyResolverBitmaps() {
+        ids("work & urgent | home");
+        ids("!work");
+        assertThat(TAGS.get("work").toArray()).containsExactly(1, 2, 3);
+        assertThat(TAGS.get("home").toArray()).containsExactly(3, 4);
+    }
+
+    @Test
+    void malformedExpressionsAreRejected() {
+        for (String expression : new String[]{"", "  ", "work &", "(work", "work)", "| work", "due:today", "a & & b"}) {
+            assertThatThrownBy(() -> TagExpression.parse(expression)).as(expression)
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void tagNamesAreNormalized() {
+        assertThat(TagExpression.normalizeTagName("  Work ")).isEqualTo("work");
+        assertThatThrownBy(() -> TagExpression.normalizeTagName("a:b")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TagExpression.normalizeTagName("OR")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TagExpression.normalizeTagName("x".repeat(51)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static long[] ids(String expression) {
+        return TagExpression.parse(expression).evaluate(RESOLVER).toArray();
+    }
+}
@@ -0,0 +1,80 @@
+package com.todo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    @Test
+    void timerFiresOnceItsTickHasPassed() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, 3, 1_000);
+        wheel.schedule(1, 1_250, "a");
+
+        assertThat(wheel.advance(1_200)).isEmpty();
+        assertThat(wheel.advance(1_300)).extracting(TimingWheel.Timer::getPayload).containsExactly("a");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cancelledAndReplacedTimers() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, 3, 0);
+        wheel.schedule(1, 500, "a");
+        wheel.schedule(2, 500, "b");
+        wheel.schedule(2, 900, "b2"); // 同一个键替换原定时器
+
+        assertThat(wheel.cancel(1)).isTrue();
+        assertThat(wheel.cancel(1)).isFalse();
+        assertThat(wheel.advance(600)).isEmpty();
+        assertThat(wheel.advance(1_000)).extracting(TimingWheel.Timer::getPayload).containsExactly("b2");
+    }
+
+    @Test
+    void pastTimerFiresOnNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, 2, 10_000);
+        wheel.schedule(1, 5_000, "late");
+
+        assertThat(wheel.contains(1)).isTrue();
+        assertThat(wheel.advance(10_000)).extracting(TimingWheel.Timer::getKey).containsExactly(1L);
+    }
+
+    /**
+     * 随机定时器分布在各层和溢出列表中：每个定时器都恰好在推进越过其到期时间的那次advance中返回，
+     * 不会提前，也不会晚于一个tick
+     */
+    @Test
+    void randomTimersAcrossLevelsExpireOnTime() {
+        long tick = 10;
+        TimingWheel<Long> wheel = new TimingWheel<>(tick, 4, 3, 0); // 三层共覆盖640ms，更远的进入溢出列表
+        Random random = new Random(42);
+        Map<Long, Long> expected = new HashMap<>();
+        for (long key = 0; key < 2_000; key++) {
+            long expiration = random.nextInt(5_000);
+            wheel.schedule(key, expiration, expiration);
+            expected.put(key, expiration);
+        }
+        for (long key = 0; key < 2_000; key += 7) {
+            wheel.cancel(key);
+            expected.remove(key);
+        }
+
+        long now = 0;
+        while (now < 5_100) {
+            now += 1 + random.nextInt(60);
+            List<TimingWheel.Timer<Long>> fired = wheel.advance(now);
+            for (TimingWheel.Timer<Long> timer : fired) {
+                assertThat(expected.remove(timer.getKey())).isEqualTo(timer.getExpirationMs());
+                assertThat(timer.getExpirationMs()).isLessThanOrEqualTo(now);
+            }
+            long deadline = now - (now % tick);
+            expected.values().forEach(expiration -> assertThat(expiration).isGreaterThanOrEqualTo(deadline));
+        }
+        assertThat(expected).isEmpty();
+        assertThat(wheel.size()).isZero();
+    }
+}
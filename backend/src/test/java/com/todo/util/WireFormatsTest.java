@@ -0,0 +1,117 @@
+package com.todo.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.todo.config.WebConfig;
+import com.todo.model.Todo;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class WireFormatsTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 3, 15, 8, 30, 12);
+
+    @Test
+    void cborRoundTripWritesDatesAsEpochMillis() throws Exception {
+        assertRoundTrip(WireFormats.cborMapper());
+    }
+
+    @Test
+    void smileRoundTripWritesDatesAsEpochMillis() throws Exception {
+        assertRoundTrip(WireFormats.smileMapper());
+    }
+
+    @Test
+    void readerAcceptsIsoStringsAndNull() throws Exception {
+        ObjectMapper mapper = WireFormats.cborMapper();
+        byte[] bytes = mapper.writeValueAsBytes(Map.of("createdAt", "2024-03-15T08:30:12", "updatedAt", ""));
+
+        Todo todo = mapper.readValue(bytes, Todo.class);
+
+        assertThat(todo.getCreatedAt()).isEqualTo(CREATED);
+        assertThat(todo.getUpdatedAt()).isNull();
+    }
+
+    /**
+     * 列表中重复的字段名和短字符串值只写一次，比不带引用的CBOR小得多
+     */
+    @Test
+    void repeatedKeysAndValuesAreWrittenAsReferences() throws Exception {
+        List<Todo> todos = todos(200);
+
+        byte[] withReferences = WireFormats.cborMapper().writeValueAsBytes(todos);
+        byte[] plain = new CBORMapper().findAndRegisterModules().writeValueAsBytes(todos);
+
+        assertThat(withReferences.length).isLessThan(plain.length / 2);
+    }
+
+    @Test
+    void serverNegotiatesTheConfiguredBinaryConverters() throws Exception {
+        List<HttpMessageConverter<?>> converters = new ArrayList<>(List.of(new MappingJackson2HttpMessageConverter(),
+                new MappingJackson2CborHttpMessageConverter(), new MappingJackson2SmileHttpMessageConverter()));
+
+        new WebConfig().extendMessageConverters(converters);
+
+        assertThat(converters).hasSize(3);
+        assertThat(converters.get(0)).isInstanceOf(MappingJackson2HttpMessageConverter.class);
+        MappingJackson2CborHttpMessageConverter cbor = (MappingJackson2CborHttpMessageConverter) converters.stream()
+                .filter(converter -> converter.canWrite(Todo.class, MediaType.parseMediaType(WireFormats.CBOR)))
+                .findFirst().orElseThrow();
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        cbor.write(todos(1).get(0), MediaType.parseMediaType(WireFormats.CBOR), output);
+        JsonNode written = WireFormats.cborMapper().readTree(output.getBodyAsBytes());
+        assertThat(written.get("createdAt").isIntegralNumber()).isTrue();
+        assertThat(converters).anyMatch(converter -> converter instanceof MappingJackson2SmileHttpMessageConverter
+                && converter.canWrite(Todo.class, MediaType.parseMediaType(WireFormats.SMILE)));
+    }
+
+    private static void assertRoundTrip(ObjectMapper mapper) throws Exception {
+        List<Todo> todos = todos(3);
+
+        byte[] bytes = mapper.writeValueAsBytes(todos);
+        JsonNode tree = mapper.readTree(bytes);
+        List<Todo> read = mapper.readValue(bytes, new TypeReference<>() {
+        });
+
+        assertThat(tree.get(0).get("createdAt").isIntegralNumber()).isTrue();
+        assertThat(tree.get(0).get("createdAt").asLong())
+                .isEqualTo(CREATED.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        assertThat(tree.get(0).has("deadline")).isTrue();
+        assertThat(tree.get(0).get("deadline").isNull()).isTrue();
+        assertThat(read).extracting(Todo::getId, Todo::getText, Todo::getPriority, Todo::getCreatedAt)
+                .containsExactlyElementsOf(todos.stream()
+                        .map(todo -> tuple(todo.getId(), todo.getText(),
+                                todo.getPriority(), todo.getCreatedAt()))
+                        .toList());
+    }
+
+    private static List<Todo> todos(int count) {
+        List<Todo> todos = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Todo todo = new Todo();
+            todo.setId((long) i + 1);
+            todo.setText("todo " + i);
+            todo.setPriority("MEDIUM");
+            todo.setDurationUnit("MINUTES");
+            todo.setCreatedAt(CREATED.plusMinutes(i));
+            todos.add(todo);
+        }
+        return todos;
+    }
+}
@@ -1,6 +1,7 @@
 import { useState, useRef, useEffect } from 'react';
 import UserMenu from './UserMenu';
 import Navigation from './Navigation';
+import authService from '../services/authService';
 import '../styles/AgentApp.css';
 
 function AgentApp() {
@@ -57,7 +58,7 @@ function AgentApp() {
 
     try {
       // 获取用户 token
-      const token = sessionStorage.getItem('token');
+      const token = await authService.ensureFreshToken();
       const headers = {
         'Content-Type': 'application/json',
       };
@@ -21,6 +21,10 @@ function NoteApp() {
   const [viewMode, setViewMode] = useState('edit'); // 'edit' or 'preview'
   const [isDirty, setIsDirty] = useState(false);
   const fileInputRef = useRef(null);
+  const latestDraftRef = useRef({ title: '', content: '' });
+  latestDraftRef.current = { title, content };
+  // 已自动保存但尚未提交到数据库的笔记ID
+  const pendingDraftRef = useRef(null);
   const navigate = useNavigate();
   const location = useLocation();
 
@@ -47,6 +51,16 @@ function NoteApp() {
     }
   }, [navigate]);
 
+  // 离开笔记（切换、新建、离开页面）时提交草稿，不等后端定时写入
+  const commitDraft = useCallback(() => {
+    const id = pendingDraftRef.current;
+    if (!id) return;
+    pendingDraftRef.current = null;
+    noteService.commitNote(id).catch((err) => {
+      console.error('提交草稿失败:', err);
+    });
+  }, []);
+
   const saveCurrentNote = useCallback(async () => {
     if (!title.trim()) return;
 
@@ -59,6 +73,8 @@ function NoteApp() {
     try {
       if (currentNote && currentNote.id) {
         const updatedNote = await noteService.partialUpdateNote(currentNote.id, { title, content: content || '' });
+        // 显式保存后后端丢弃草稿，不需要再提交
+        pendingDraftRef.current = null;
         setCurrentNote(updatedNote);
       } else {
         const newNote = await noteService.createNote({ title, content: content || '' });
@@ -95,6 +111,7 @@ function NoteApp() {
 
   const handleNewNote = () => {
     setError(null);
+    commitDraft();
     const timestamp = new Date().toLocaleString('zh-CN', {
       year: 'numeric',
       month: '2-digit',
@@ -114,6 +131,7 @@ function NoteApp() {
   const handleSelectNote = async (note) => {
     try {
       setError(null);
+      commitDraft();
       const fullNote = await noteService.getNoteById(note.id);
       setCurrentNote(fullNote);
       setTitle(fullNote.title);
@@ -137,6 +155,39 @@ function NoteApp() {
     });
   }, [fetchNotes]);
 
+  // 已有笔记停止输入1秒后自动保存草稿，确认时内容没有再变化才清除未保存标记
+  useEffect(() => {
+    if (!isDirty || !currentNote || !currentNote.id || !title.trim()) return;
+    const timer = setTimeout(async () => {
+      const draft = { title, content: content || '' };
+      try {
+        await noteService.autosaveNote(currentNote.id, draft);
+        pendingDraftRef.current = currentNote.id;
+        const latest = latestDraftRef.current;
+        if (latest.title === draft.title && (latest.content || '') === draft.content) {
+          setIsDirty(false);
+        }
+      } catch (err) {
+        console.error('自动保存失败:', err);
+      }
+    }, 1000);
+    return () => clearTimeout(timer);
+  }, [title, content, isDirty, currentNote]);
+
+  // 页面隐藏（切换标签页、关闭）或离开笔记页面时提交草稿
+  useEffect(() => {
+    const handleVisibilityChange = () => {
+      if (document.visibilityState === 'hidden') {
+        commitDraft();
+      }
+    };
+    document.addEventListener('visibilitychange', handleVisibilityChange);
+    return () => {
+      document.removeEventListener('visibilitychange', handleVisibilityChange);
+      commitDraft();
+    };
+  }, [commitDraft]);
+
   // Ctrl+S 手动保存
   useEffect(() => {
     const handleKeyDown = (e) => {
@@ -158,6 +209,7 @@ function NoteApp() {
     try {
       setError(null);
       await noteService.deleteNote(currentNote.id);
+      pendingDraftRef.current = null;
       setCurrentNote(null);
       setTitle('');
       setContent('');
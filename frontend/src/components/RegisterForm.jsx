@@ -20,7 +20,7 @@ function RegisterForm() {
       authService.setAuth(response.token, {
         username: response.username,
         userId: response.userId,
-      });
+      }, response.refreshToken);
       // 使用 window.location 强制刷新页面，确保认证状态更新
       window.location.href = '/app';
     } catch (err) {
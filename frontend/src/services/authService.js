@@ -31,8 +31,60 @@ class AuthService {
     return response.json();
   }
 
+  // 使用刷新令牌换取新的访问令牌（刷新令牌同时轮换）
+  async refresh() {
+    const refreshToken = sessionStorage.getItem('refreshToken');
+    if (!refreshToken) {
+      return null;
+    }
+    const response = await fetch(`${API_BASE_URL}/refresh`, {
+      method: 'POST',
+      headers: { 'Content-Type': 'application/json' },
+      body: JSON.stringify({ refreshToken }),
+    });
+    if (!response.ok) {
+      this.logout();
+      return null;
+    }
+    const data = await response.json();
+    this.setAuth(data.token, this.getUser(), data.refreshToken);
+    return data.token;
+  }
+
+  // 访问令牌即将过期（剩余不足60秒）时先刷新，多个并发请求共享同一次刷新
+  async ensureFreshToken() {
+    const token = this.getToken();
+    if (!token) {
+      return null;
+    }
+    let exp = 0;
+    try {
+      exp = JSON.parse(atob(token.split('.')[1].replace(/-/g, '+').replace(/_/g, '/'))).exp || 0;
+    } catch (e) {
+      return token;
+    }
+    if (exp * 1000 - Date.now() > 60000) {
+      return token;
+    }
+    if (!this.refreshing) {
+      this.refreshing = this.refresh().finally(() => {
+        this.refreshing = null;
+      });
+    }
+    return this.refreshing;
+  }
+
   logout() {
+    const refreshToken = sessionStorage.getItem('refreshToken');
+    if (refreshToken) {
+      fetch(`${API_BASE_URL}/logout`, {
+        method: 'POST',
+        headers: { 'Content-Type': 'application/json' },
+        body: JSON.stringify({ refreshToken }),
+      }).catch(() => {});
+    }
     sessionStorage.removeItem('token');
+    sessionStorage.removeItem('refreshToken');
     sessionStorage.removeItem('user');
   }
 
@@ -45,9 +97,12 @@ class AuthService {
     return userStr ? JSON.parse(userStr) : null;
   }
 
-  setAuth(token, user) {
+  setAuth(token, user, refreshToken) {
     sessionStorage.setItem('token', token);
     sessionStorage.setItem('user', JSON.stringify(user));
+    if (refreshToken) {
+      sessionStorage.setItem('refreshToken', refreshToken);
+    }
   }
 
   isAuthenticated() {
@@ -3,9 +3,9 @@ import authService from './authService';
 const API_BASE_URL = '/api/notes';
 
 // 获取请求头，自动添加Authorization
-function getHeaders() {
+async function getHeaders() {
   const headers = { 'Content-Type': 'application/json' };
-  const token = authService.getToken();
+  const token = await authService.ensureFreshToken();
   if (token) {
     headers['Authorization'] = `Bearer ${token}`;
   }
@@ -40,7 +40,7 @@ async function handleResponse(response) {
 class NoteService {
   async getAllNotes() {
     const response = await fetch(API_BASE_URL, {
-      headers: getHeaders(),
+      headers: await getHeaders(),
     });
     await handleResponse(response);
     return response.json();
@@ -48,7 +48,7 @@ class NoteService {
 
   async getNoteById(id) {
     const response = await fetch(`${API_BASE_URL}/${id}`, {
-      headers: getHeaders(),
+      headers: await getHeaders(),
     });
     await handleResponse(response);
     return response.json();
@@ -57,7 +57,7 @@ class NoteService {
   async createNote(note) {
     const response = await fetch(API_BASE_URL, {
       method: 'POST',
-      headers: getHeaders(),
+      headers: await getHeaders(),
       body: JSON.stringify(note),
     });
     await handleResponse(response);
@@ -67,7 +67,7 @@ class NoteService {
   async updateNote(id, updates) {
     const response = await fetch(`${API_BASE_URL}/${id}`, {
       method: 'PUT',
-      headers: getHeaders(),
+      headers: await getHeaders(),
       body: JSON.stringify(updates),
     });
     await handleResponse(response);
@@ -77,17 +77,39 @@ class NoteService {
   async partialUpdateNote(id, updates) {
     const response = await fetch(`${API_BASE_URL}/${id}`, {
       method: 'PATCH',
-      headers: getHeaders(),
+      headers: await getHeaders(),
       body: JSON.stringify(updates),
     });
     await handleResponse(response);
     return response.json();
   }
 
+  // 自动保存草稿：后端只在内存中合并，定时批量写入数据库
+  async autosaveNote(id, draft) {
+    const response = await fetch(`${API_BASE_URL}/${id}/draft`, {
+      method: 'PUT',
+      headers: await getHeaders(),
+      body: JSON.stringify(draft),
+    });
+    await handleResponse(response);
+    return response.json();
+  }
+
+  // 立即把自动保存的草稿写入数据库（离开笔记时调用）；keepalive 使页面关闭时请求仍能发出
+  async commitNote(id) {
+    const response = await fetch(`${API_BASE_URL}/${id}/commit`, {
+      method: 'POST',
+      headers: await getHeaders(),
+      keepalive: true,
+    });
+    await handleResponse(response);
+    return response.json();
+  }
+
   async deleteNote(id) {
     const response = await fetch(`${API_BASE_URL}/${id}`, {
       method: 'DELETE',
-      headers: getHeaders(),
+      headers: await getHeaders(),
     });
     await handleResponse(response);
   }
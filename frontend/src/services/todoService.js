@@ -3,9 +3,9 @@ import authService from './authService';
 const API_BASE_URL = '/api/todos';
 
 // 获取请求头，自动添加Authorization
-function getHeaders() {
+async function getHeaders() {
   const headers = { 'Content-Type': 'application/json' };
-  const token = authService.getToken();
+  const token = await authService.ensureFreshToken();
   if (token) {
     headers['Authorization'] = `Bearer ${token}`;
   }
@@ -45,7 +45,7 @@ class TodoService {
       : API_BASE_URL;
     
     const response = await fetch(url, {
-      headers: getHeaders(),
+      headers: await getHeaders(),
     });
     await handleResponse(response);
     const data = await response.json();
@@ -54,7 +54,7 @@ class TodoService {
 
   async getTodoById(id) {
     const response = await fetch(`${API_BASE_URL}/${id}`, {
-      headers: getHeaders(),
+      headers: await getHeaders(),
     });
     handleResponse(response);
     return response.json();
@@ -63,7 +63,7 @@ class TodoService {
   async createTodo(todo) {
     const response = await fetch(API_BASE_URL, {
       method: 'POST',
-      headers: getHeaders(),
+      headers: await getHeaders(),
       body: JSON.stringify(todo),
     });
     handleResponse(response);
@@ -73,7 +73,7 @@ class TodoService {
   async updateTodo(id, updates) {
     const response = await fetch(`${API_BASE_URL}/${id}`, {
       method: 'PUT',
-      headers: getHeaders(),
+      headers: await getHeaders(),
       body: JSON.stringify(updates),
     });
     handleResponse(response);
@@ -83,7 +83,7 @@ class TodoService {
   async partialUpdateTodo(id, updates) {
     const response = await fetch(`${API_BASE_URL}/${id}`, {
       method: 'PATCH',
-      headers: getHeaders(),
+      headers: await getHeaders(),
       body: JSON.stringify(updates),
     });
     handleResponse(response);
@@ -93,7 +93,7 @@ class TodoService {
   async deleteTodo(id) {
     const response = await fetch(`${API_BASE_URL}/${id}`, {
       method: 'DELETE',
-      headers: getHeaders(),
+      headers: await getHeaders(),
     });
     handleResponse(response);
   }
@@ -0,0 +1,100 @@
+/*
+ * 重复规则展开的性能对比：RecurrenceRule.expand（按周期跳到窗口起点、按位图取当月日期、以epochDay回调）
+ * 与逐日用LocalDate判断是否命中的朴素实现，比较每次展开的耗时和分配的字节数；不需要启动服务
+ *
+ * 运行（在项目根目录，JDK 17 单文件源码方式）：
+ *   cd backend && mvn -q compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt && cd ..
+ *   java -cp "backend/target/classes:$(cat backend/target/cp.txt)" scripts/RecurrenceBenchmark.java [窗口天数，默认3650]
+ */
+
+import com.todo.util.RecurrenceRule;
+
+import java.lang.management.ManagementFactory;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+public class RecurrenceBenchmark {
+
+    private static final int WARMUP_ROUNDS = 2000;
+    private static final int MEASURED_ROUNDS = 30;
+    private static final int BATCH = 100;
+
+    public static void main(String[] args) {
+        int windowDays = args.length > 0 ? Integer.parseInt(args[0]) : 3650;
+        LocalDate dtStart = LocalDate.of(2015, 3, 9);
+        // 日历视图的典型请求：规则很早就开始，只看最近的一段窗口
+        LocalDate from = LocalDate.of(2025, 1, 1);
+        LocalDate to = from.plusDays(windowDays - 1);
+
+        Map<String, Predicate<LocalDate>> rules = new LinkedHashMap<>();
+        rules.put("FREQ=DAILY;INTERVAL=3", day -> ChronoUnit.DAYS.between(dtStart, day) % 3 == 0);
+        rules.put("FREQ=WEEKLY;BYDAY=MO,WE,FR", day -> day.getDayOfWeek() == DayOfWeek.MONDAY
+                || day.getDayOfWeek() == DayOfWeek.WEDNESDAY || day.getDayOfWeek() == DayOfWeek.FRIDAY);
+        rules.put("FREQ=MONTHLY;BYMONTHDAY=1,-1", day -> day.getDayOfMonth() == 1
+                || day.getDayOfMonth() == day.lengthOfMonth());
+        rules.put("FREQ=YEARLY;BYDAY=SU", day -> day.getDayOfWeek() == DayOfWeek.SUNDAY);
+
+        System.out.printf("窗口 %d 天（%s ~ %s），每项取 %d 轮的中位数%n%n", windowDays, from, to, MEASURED_ROUNDS);
+        System.out.printf("%-30s %-6s %8s %12s %14s%n", "规则", "实现", "次数", "每次展开us", "每次展开分配B");
+        for (Map.Entry<String, Predicate<LocalDate>> entry : rules.entrySet()) {
+            RecurrenceRule rule = RecurrenceRule.parse(entry.getKey());
+            long[] hits = new long[1];
+            Runnable expand = () -> rule.expand(dtStart, from, to, day -> {
+                hits[0] += day;
+                return true;
+            });
+            Predicate<LocalDate> matches = entry.getValue();
+            Runnable naive = () -> {
+                for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                    if (matches.test(day)) {
+                        hits[0] += day.toEpochDay();
+                    }
+                }
+            };
+            long expected = count(rule, dtStart, from, to);
+            run(entry.getKey(), "expand", expected, expand);
+            run(entry.getKey(), "逐日", expected, naive);
+        }
+    }
+
+    private static long count(RecurrenceRule rule, LocalDate dtStart, LocalDate from, LocalDate to) {
+        long[] count = new long[1];
+        rule.expand(dtStart, from, to, day -> {
+            count[0]++;
+            return true;
+        });
+        return count[0];
+    }
+
+    private static void run(String rule, String impl, long occurrences, Runnable task) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            task.run();
+        }
+        double[] micros = new double[MEASURED_ROUNDS];
+        double[] bytes = new double[MEASURED_ROUNDS];
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long allocated = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            for (int i = 0; i < BATCH; i++) {
+                task.run();
+            }
+            long end = System.nanoTime();
+            micros[round] = (end - start) / 1e3 / BATCH;
+            bytes[round] = (double) (threads.getThreadAllocatedBytes(thread) - allocated) / BATCH;
+        }
+        System.out.printf("%-30s %-6s %8d %12.2f %14.0f%n", rule, impl, occurrences, median(micros), median(bytes));
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
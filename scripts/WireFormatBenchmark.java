@@ -0,0 +1,133 @@
+/*
+ * 列表接口响应格式对比：JSON / CBOR / Smile 编码同一批待办事项和笔记，比较字节数（含gzip后）和编码/解码耗时
+ * 使用与后端相同的ObjectMapper配置（com.todo.util.WireFormats），不需要启动服务
+ *
+ * 运行（在项目根目录，JDK 17 单文件源码方式）：
+ *   cd backend && mvn -q compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt && cd ..
+ *   java -cp "backend/target/classes:$(cat backend/target/cp.txt)" scripts/WireFormatBenchmark.java [条数，默认10000]
+ */
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.todo.model.Note;
+import com.todo.model.Todo;
+import com.todo.model.User;
+import com.todo.util.WireFormats;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+public class WireFormatBenchmark {
+
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 30;
+    private static final String[] PRIORITIES = {"LOW", "MEDIUM", "HIGH"};
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        User user = new User("alice", "$2a$10$abcdefghijklmnopqrstuvABCDEFGHIJKLMNOPQRSTUVWXYZ01234", "alice@example.com");
+        user.setId(1L);
+        user.setCreatedAt(LocalDateTime.of(2024, 1, 1, 8, 0));
+        List<Todo> todos = todos(user, count);
+        List<Note> notes = notes(user, count);
+
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        // 与application.properties中spring.jackson.serialization.write-dates-as-timestamps=false一致
+        mappers.put("json", Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build());
+        mappers.put("cbor", WireFormats.cborMapper());
+        mappers.put("smile", WireFormats.smileMapper());
+
+        System.out.printf("%d 条，每项取 %d 轮的中位数%n%n", count, MEASURED_ROUNDS);
+        System.out.printf("%-6s %-6s %12s %12s %10s %10s%n", "列表", "格式", "字节", "gzip字节", "编码ms", "解码ms");
+        for (Map.Entry<String, ObjectMapper> entry : mappers.entrySet()) {
+            run("todos", entry.getKey(), entry.getValue(), todos, new TypeReference<List<Todo>>() { });
+        }
+        for (Map.Entry<String, ObjectMapper> entry : mappers.entrySet()) {
+            run("notes", entry.getKey(), entry.getValue(), notes, new TypeReference<List<Note>>() { });
+        }
+    }
+
+    private static <T> void run(String list, String format, ObjectMapper mapper, List<T> items,
+                                TypeReference<List<T>> type) throws IOException {
+        byte[] encoded = mapper.writeValueAsBytes(items);
+        double[] encodeMillis = new double[MEASURED_ROUNDS];
+        double[] decodeMillis = new double[MEASURED_ROUNDS];
+        // 和响应一样写入一个可复用的输出流，而不是每轮生成新的byte[]
+        ByteArrayOutputStream out = new ByteArrayOutputStream(encoded.length);
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            out.reset();
+            long start = System.nanoTime();
+            mapper.writeValue(out, items);
+            long encodedAt = System.nanoTime();
+            List<T> decoded = mapper.readValue(encoded, type);
+            long end = System.nanoTime();
+            if (decoded.size() != items.size()) {
+                throw new IllegalStateException(format + " 解码后条数不一致");
+            }
+            if (round >= WARMUP_ROUNDS) {
+                encodeMillis[round - WARMUP_ROUNDS] = (encodedAt - start) / 1e6;
+                decodeMillis[round - WARMUP_ROUNDS] = (end - encodedAt) / 1e6;
+            }
+        }
+        System.out.printf("%-6s %-6s %12d %12d %10.2f %10.2f%n", list, format, encoded.length, gzipSize(encoded),
+                median(encodeMillis), median(decodeMillis));
+    }
+
+    private static List<Todo> todos(User user, int count) {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 9, 0);
+        List<Todo> todos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Todo todo = new Todo((long) i + 1, "待办事项 " + i + "：整理本周的会议记录并发送给团队", i % 3 == 0, PRIORITIES[i % 3]);
+            todo.setUser(user);
+            todo.setCreatedAt(base.plusMinutes(i));
+            todo.setDeadline(i % 2 == 0 ? base.plusDays(i % 30).withHour(18) : null);
+            todo.setEstimatedDuration(30 + i % 90);
+            todo.setDurationUnit("MINUTES");
+            todo.setCompletedSteps(0);
+            todo.setDaily(i % 10 == 0);
+            todo.setCompletedAt(i % 3 == 0 ? base.plusDays(1) : null);
+            todo.setUpdatedAt(base.plusMinutes(i).plusSeconds(30));
+            todos.add(todo);
+        }
+        return todos;
+    }
+
+    private static List<Note> notes(User user, int count) {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 9, 0);
+        List<Note> notes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Note note = new Note();
+            note.setId((long) i + 1);
+            note.setUser(user);
+            note.setTitle("笔记 " + i);
+            note.setContent("今天完成了第 " + i + " 项工作，下一步需要确认需求细节并安排评审。");
+            note.setUpdatedAt(base.plusMinutes(i));
+            notes.add(note);
+        }
+        return notes;
+    }
+
+    private static int gzipSize(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.size();
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,75 @@
+#!/usr/bin/env python3
+"""
+读接口压测：同一负载分别打到主服务（Servlet + JPA）和响应式只读节点（WebFlux + R2DBC），对比延迟和吞吐
+每个客户端按块慢速读取响应（--read-delay），模拟大量慢客户端占住连接的情况；只依赖Python标准库
+
+示例：
+  python3 scripts/read-load-test.py --url http://localhost:3001 --token $TOKEN --clients 500 --read-delay 0.05
+  python3 scripts/read-load-test.py --url http://localhost:3002 --token $TOKEN --clients 500 --read-delay 0.05
+"""
+import argparse
+import asyncio
+import statistics
+import time
+from collections import Counter
+from urllib.parse import urlparse
+
+
+async def fetch(host, port, path, token, accept, chunk_size, read_delay):
+    start = time.perf_counter()
+    reader, writer = await asyncio.open_connection(host, port)
+    request = (f"GET {path} HTTP/1.1\r\nHost: {host}:{port}\r\nAuthorization: Bearer {token}\r\n"
+               f"Accept: {accept}\r\nConnection: close\r\n\r\n")
+    writer.write(request.encode())
+    await writer.drain()
+    status_line = await reader.readline()
+    status = status_line.split()[1].decode() if len(status_line.split()) > 1 else "ERR"
+    size = 0
+    while True:
+        chunk = await reader.read(chunk_size)
+        if not chunk:
+            break
+        size += len(chunk)
+        if read_delay > 0:
+            await asyncio.sleep(read_delay)
+    writer.close()
+    return status, time.perf_counter() - start, size
+
+
+async def client(args, host, port, results):
+    for _ in range(args.requests):
+        try:
+            results.append(await fetch(host, port, args.path, args.token, args.accept, args.chunk_size, args.read_delay))
+        except Exception as e:
+            results.append((type(e).__name__, 0.0, 0))
+
+
+async def main():
+    parser = argparse.ArgumentParser(description="读接口慢客户端压测")
+    parser.add_argument("--url", required=True, help="服务地址，如 http://localhost:3001")
+    parser.add_argument("--token", required=True, help="JWT访问令牌")
+    parser.add_argument("--path", default="/api/todos")
+    parser.add_argument("--accept", default="application/json", help="可设为application/x-ndjson（仅只读节点支持流式输出）")
+    parser.add_argument("--clients", type=int, default=200, help="并发客户端数")
+    parser.add_argument("--requests", type=int, default=5, help="每个客户端的请求数")
+    parser.add_argument("--chunk-size", type=int, default=4096, help="每次读取的字节数")
+    parser.add_argument("--read-delay", type=float, default=0.0, help="每次读取之间的等待秒数（模拟慢客户端）")
+    args = parser.parse_args()
+
+    target = urlparse(args.url)
+    results = []
+    start = time.perf_counter()
+    await asyncio.gather(*(client(args, target.hostname, target.port or 80, results) for _ in range(args.clients)))
+    elapsed = time.perf_counter() - start
+
+    latencies = sorted(r[1] for r in results if r[0] == "200")
+    print(f"目标: {args.url}{args.path}  客户端: {args.clients}  请求: {len(results)}  耗时: {elapsed:.2f}s")
+    print(f"状态: {dict(Counter(r[0] for r in results))}")
+    if latencies:
+        p95 = latencies[int(len(latencies) * 0.95) - 1] if len(latencies) >= 20 else latencies[-1]
+        print(f"吞吐: {len(latencies) / elapsed:.1f} 请求/秒  响应大小: {results[0][2]} 字节")
+        print(f"延迟: p50={statistics.median(latencies) * 1000:.0f}ms  p95={p95 * 1000:.0f}ms  max={latencies[-1] * 1000:.0f}ms")
+
+
+if __name__ == "__main__":
+    asyncio.run(main())